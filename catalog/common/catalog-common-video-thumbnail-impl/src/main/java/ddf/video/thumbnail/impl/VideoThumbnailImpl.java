@@ -15,6 +15,10 @@
 
 import static org.apache.commons.io.output.NullOutputStream.NULL_OUTPUT_STREAM;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
 import com.google.common.net.MediaType;
 import ddf.video.thumbnail.VideoThumbnail;
 import java.io.ByteArrayOutputStream;
@@ -29,7 +33,11 @@
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.Semaphore;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import javax.activation.MimeType;
@@ -43,6 +51,7 @@
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.SystemUtils;
+import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
 import org.osgi.framework.BundleContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -53,16 +62,21 @@ public class VideoThumbnailImpl implements VideoThumbnail {
 
   private static final long MEGABYTE = 1024L * 1024L;
 
-  private static final int MAX_FFMPEG_PROCESSES = 4;
-
   public static final int DEFAULT_MAX_FILE_SIZE_MB = 120;
 
+  public static final int DEFAULT_MAX_FFMPEG_PROCESSES =
+      Math.max(1, Runtime.getRuntime().availableProcessors());
+
+  public static final int DEFAULT_CACHE_SIZE_MB = 32;
+
   private static final int THUMBNAIL_COUNT = 3;
 
   private static final int FFMPEG_FILE_NUMBERING_START = 1;
 
   private static final int ROUGH_MINIMUM_SECONDS_FOR_MULTIPLE_THUMBNAILS = 10;
 
+  private static final int KEYFRAMES_PER_THUMBNAIL = 10;
+
   private static final String SUPPRESS_PRINTING_BANNER_FLAG = "-hide_banner";
 
   private static final String INPUT_FILE_FLAG = "-i";
@@ -79,7 +93,10 @@ public class VideoThumbnailImpl implements VideoThumbnail {
 
   private int maxFileSizeMB = DEFAULT_MAX_FILE_SIZE_MB;
 
-  private final Semaphore limitFFmpegProcessesSemaphore;
+  private final ThreadPoolExecutor ffmpegExecutor;
+
+  private volatile Cache<String, byte[]> thumbnailCache =
+      createThumbnailCache(DEFAULT_CACHE_SIZE_MB);
 
   public VideoThumbnailImpl(final BundleContext bundleContext) throws IOException {
     final String bundledFFmpegBinaryPath = getBundledFFmpegBinaryPath();
@@ -93,13 +110,46 @@ public VideoThumbnailImpl(final BundleContext bundleContext) throws IOException
       copyFFmpegBinary(inputStream);
     }
 
-    limitFFmpegProcessesSemaphore = new Semaphore(MAX_FFMPEG_PROCESSES, true);
+    ffmpegExecutor =
+        new ThreadPoolExecutor(
+            DEFAULT_MAX_FFMPEG_PROCESSES,
+            DEFAULT_MAX_FFMPEG_PROCESSES,
+            60L,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            StandardThreadFactoryBuilder.newThreadFactory("videoThumbnailThread"));
+    ffmpegExecutor.allowCoreThreadTimeOut(true);
   }
 
   public void setMaxFileSizeMB(int maxFileSizeMB) {
     this.maxFileSizeMB = maxFileSizeMB;
   }
 
+  /**
+   * Sets the number of FFmpeg processes that may run at once. Thumbnail requests beyond this number
+   * wait in a queue until a process finishes.
+   */
+  public void setMaxFFmpegProcesses(int maxFFmpegProcesses) {
+    final int processes = maxFFmpegProcesses > 0 ? maxFFmpegProcesses : 1;
+    // The core pool size may never exceed the maximum, so the order of the updates matters.
+    if (processes > ffmpegExecutor.getMaximumPoolSize()) {
+      ffmpegExecutor.setMaximumPoolSize(processes);
+      ffmpegExecutor.setCorePoolSize(processes);
+    } else {
+      ffmpegExecutor.setCorePoolSize(processes);
+      ffmpegExecutor.setMaximumPoolSize(processes);
+    }
+  }
+
+  /**
+   * Sets the amount of memory used to keep recently created thumbnails, keyed by a checksum of the
+   * video content, so that the same video is not rendered again when it is re-ingested or updated.
+   * A size of 0 disables the cache.
+   */
+  public void setCacheSizeMB(int cacheSizeMB) {
+    thumbnailCache = createThumbnailCache(cacheSizeMB);
+  }
+
   @SuppressWarnings("UnstableApiUsage" /* we already using these APIs in the video plugin */)
   @Override
   public boolean isVideo(MimeType mimeType) {
@@ -125,24 +175,62 @@ public Optional<byte[]> videoThumbnail(File file, MimeType mimeType)
       return Optional.empty();
     }
 
+    final String checksum = Files.asByteSource(file).hash(Hashing.sha256()).toString();
+
+    try {
+      // Concurrent requests for the same content wait for a single thumbnail to be created.
+      final byte[] thumbnailBytes =
+          thumbnailCache.get(checksum, () -> createThumbnailInQueue(file, mimeType));
+      return Optional.of(thumbnailBytes);
+    } catch (ExecutionException e) {
+      throw rethrowCause(e);
+    }
+  }
+
+  private byte[] createThumbnailInQueue(final File file, final MimeType mimeType)
+      throws IOException, InterruptedException {
     LOGGER.trace("About to create video thumbnail");
 
+    final Future<byte[]> thumbnailFuture =
+        ffmpegExecutor.submit(
+            () -> {
+              try {
+                return createThumbnail(file.toString());
+              } finally {
+                deleteImageFiles();
+              }
+            });
+
     try {
-      limitFFmpegProcessesSemaphore.acquire();
-
-      try {
-        final byte[] thumbnailBytes = createThumbnail(file.toString());
-        LOGGER.debug(
-            "Successfully created video thumbnail for {} with mime-type {}", file, mimeType);
-        return Optional.of(thumbnailBytes);
-      } finally {
-        limitFFmpegProcessesSemaphore.release();
-      }
-    } finally {
-      deleteImageFiles();
+      final byte[] thumbnailBytes = thumbnailFuture.get();
+      LOGGER.debug("Successfully created video thumbnail for {} with mime-type {}", file, mimeType);
+      return thumbnailBytes;
+    } catch (InterruptedException e) {
+      thumbnailFuture.cancel(true);
+      throw e;
+    } catch (ExecutionException e) {
+      throw rethrowCause(e);
     }
   }
 
+  private static IOException rethrowCause(final ExecutionException e)
+      throws IOException, InterruptedException {
+    final Throwable cause = e.getCause();
+    if (cause instanceof IOException) {
+      throw (IOException) cause;
+    } else if (cause instanceof InterruptedException) {
+      throw (InterruptedException) cause;
+    }
+    return new IOException("Unable to create video thumbnail.", cause);
+  }
+
+  private static Cache<String, byte[]> createThumbnailCache(final int cacheSizeMB) {
+    return CacheBuilder.newBuilder()
+        .maximumWeight(Math.max(0, cacheSizeMB) * MEGABYTE)
+        .<String, byte[]>weigher((checksum, thumbnail) -> thumbnail.length)
+        .build();
+  }
+
   public boolean isTooLarge(long size) {
     final long maxFileSizeBytes = maxFileSizeMB * MEGABYTE;
     return size > maxFileSizeBytes;
@@ -333,7 +421,6 @@ private CommandLine getFFmpegCreateThumbnailCommand(
       final String seek,
       final int numFrames) {
     final String filterChainFlag = "-vf";
-    final String filterChain = "thumbnail,scale=200:-1";
     final String videoFramesToOutputFlag = "-frames:v";
     final String videoFramesToOutput = String.valueOf(numFrames);
     final String videoSyncFlag = "-vsync";
@@ -342,9 +429,22 @@ private CommandLine getFFmpegCreateThumbnailCommand(
     final CommandLine command =
         new CommandLine(ffmpegPath).addArgument(SUPPRESS_PRINTING_BANNER_FLAG);
 
+    final String filterChain;
     if (seek != null) {
       final String seekFlag = "-ss";
-      command.addArgument(seekFlag).addArgument(seek);
+      final String skipFrameFlag = "-skip_frame";
+      final String skipNonKeyFrames = "nokey";
+      // Seeking before the input jumps to the nearest keyframe instead of decoding up to the seek
+      // position, and decoding only keyframes after it keeps FFmpeg from scanning the whole
+      // segment.
+      command
+          .addArgument(seekFlag)
+          .addArgument(seek)
+          .addArgument(skipFrameFlag)
+          .addArgument(skipNonKeyFrames);
+      filterChain = String.format("thumbnail=%d,scale=200:-1", KEYFRAMES_PER_THUMBNAIL);
+    } else {
+      filterChain = "thumbnail,scale=200:-1";
     }
 
     command
@@ -430,11 +530,13 @@ private CommandLine getFFmpegInfoCommand(final String videoFilePath) {
   }
 
   /**
-   * Deletes the directory that holds the FFmpeg binary.
+   * Stops the FFmpeg work queue and deletes the directory that holds the FFmpeg binary.
    *
    * <p>Called by Blueprint.
    */
   public void destroy() {
+    ffmpegExecutor.shutdownNow();
+    thumbnailCache.invalidateAll();
     if (ffmpegPath != null) {
       String fullPathNoEndSeparator = FilenameUtils.getFullPathNoEndSeparator(ffmpegPath);
       if (fullPathNoEndSeparator == null) {
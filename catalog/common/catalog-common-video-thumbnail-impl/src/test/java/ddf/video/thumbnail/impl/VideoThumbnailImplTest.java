@@ -214,6 +214,55 @@ public void testProcessVideoSmallerThanConfiguredMaxFileSize() throws Exception
     verifyThumbnailIsGif(optionalBytes.get());
   }
 
+  @Test
+  public void testSameContentUsesCachedThumbnail() throws Exception {
+    // given
+    final File file = getResource("/short.mp4");
+    final File copy = File.createTempFile("reingested", ".mp4");
+    FileUtils.copyFile(file, copy);
+    final Optional<byte[]> firstBytes = videoThumbnailImpl.videoThumbnail(file, VIDEO_MP4);
+    FileUtils.deleteQuietly(new File(binaryPath));
+
+    try {
+      // when
+      Optional<byte[]> optionalBytes = videoThumbnailImpl.videoThumbnail(copy, VIDEO_MP4);
+
+      // then
+      assertThat(optionalBytes.isPresent(), is(true));
+      assertThat(optionalBytes.get(), is(firstBytes.get()));
+    } finally {
+      FileUtils.deleteQuietly(copy);
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void testCacheDisabled() throws Exception {
+    // given
+    final File file = getResource("/short.mp4");
+    videoThumbnailImpl.setCacheSizeMB(0);
+    videoThumbnailImpl.videoThumbnail(file, VIDEO_MP4);
+    FileUtils.deleteQuietly(new File(binaryPath));
+
+    // when
+    videoThumbnailImpl.videoThumbnail(file, VIDEO_MP4);
+  }
+
+  @Test
+  public void testProcessVideosWithSingleFFmpegProcess() throws Exception {
+    // given
+    videoThumbnailImpl.setMaxFFmpegProcesses(1);
+
+    // when
+    Optional<byte[]> shortBytes =
+        videoThumbnailImpl.videoThumbnail(getResource("/short.mp4"), VIDEO_MP4);
+    Optional<byte[]> longBytes =
+        videoThumbnailImpl.videoThumbnail(getResource("/long.mp4"), VIDEO_MP4);
+
+    // then
+    verifyThumbnailIsPng(shortBytes.get());
+    verifyThumbnailIsGif(longBytes.get());
+  }
+
   /** create mock methods */
   private BundleContext createMockBundleContext() {
     final BundleContext mockBundleContext = mock(BundleContext.class);
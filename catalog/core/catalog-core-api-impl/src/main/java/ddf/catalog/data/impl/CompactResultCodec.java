@@ -0,0 +1,218 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.data.impl;
+
+import ddf.catalog.data.Attribute;
+import ddf.catalog.data.MetacardType;
+import ddf.catalog.data.Result;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Writes {@link ResultImpl}s holding a {@link MetacardImpl} in a compact binary form and reads them
+ * back.
+ *
+ * <p>Only the attribute names and values are written. The {@link MetacardType}, which is normally
+ * shared by many results, is not written and must be kept by the caller and passed back to {@link
+ * #decode(DataInput, MetacardType)}. Results whose classes or attribute values the codec does not
+ * know how to write faithfully are refused, so callers can keep those results as they are.
+ */
+public final class CompactResultCodec {
+
+  private static final byte NULL = 0;
+
+  private static final byte STRING = 1;
+
+  private static final byte DATE = 2;
+
+  private static final byte INTEGER = 3;
+
+  private static final byte LONG = 4;
+
+  private static final byte DOUBLE = 5;
+
+  private static final byte FLOAT = 6;
+
+  private static final byte SHORT = 7;
+
+  private static final byte BOOLEAN = 8;
+
+  private static final byte BINARY = 9;
+
+  private CompactResultCodec() {}
+
+  /**
+   * Writes {@code result} to {@code out}.
+   *
+   * @return false if the result cannot be written faithfully, in which case {@code out} may hold a
+   *     partial record that must be discarded
+   * @throws IOException if writing to {@code out} fails
+   */
+  public static boolean encode(Result result, DataOutput out) throws IOException {
+    if (result.getClass() != ResultImpl.class
+        || result.getMetacard() == null
+        || result.getMetacard().getClass() != MetacardImpl.class) {
+      return false;
+    }
+
+    MetacardImpl metacard = (MetacardImpl) result.getMetacard();
+    Collection<Attribute> attributes = metacard.getHeldAttributes();
+    if (attributes == null) {
+      return false;
+    }
+
+    if (!writeValue(result.getRelevanceScore(), out)
+        || !writeValue(result.getDistanceInMeters(), out)
+        || !writeValue(metacard.getSourceId(), out)) {
+      return false;
+    }
+
+    out.writeInt(attributes.size());
+    for (Attribute attribute : attributes) {
+      List<Serializable> values = attribute.getValues();
+      if (attribute.getName() == null || values == null || !writeValue(attribute.getName(), out)) {
+        return false;
+      }
+      out.writeInt(values.size());
+      for (Serializable value : values) {
+        if (!writeValue(value, out)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Reads a result written by {@link #encode(Result, DataOutput)}.
+   *
+   * @param in the encoded result
+   * @param metacardType the type of the result's metacard when it was encoded
+   * @throws IOException if {@code in} does not hold an encoded result
+   */
+  public static Result decode(DataInput in, MetacardType metacardType) throws IOException {
+    ResultImpl result = new ResultImpl();
+    result.setRelevanceScore((Double) readValue(in));
+    result.setDistanceInMeters((Double) readValue(in));
+
+    MetacardImpl metacard = new MetacardImpl(metacardType);
+    metacard.setSourceId((String) readValue(in));
+
+    int attributeCount = in.readInt();
+    for (int i = 0; i < attributeCount; i++) {
+      String name = (String) readValue(in);
+      int valueCount = in.readInt();
+      List<Serializable> values = new ArrayList<>(valueCount);
+      for (int j = 0; j < valueCount; j++) {
+        values.add(readValue(in));
+      }
+      metacard.setAttribute(new AttributeImpl(name, values));
+    }
+
+    result.setMetacard(metacard);
+    return result;
+  }
+
+  private static boolean writeValue(Serializable value, DataOutput out) throws IOException {
+    if (value == null) {
+      out.writeByte(NULL);
+      return true;
+    }
+
+    // Subclasses are refused so that the value read back is always of the class written.
+    Class<?> valueClass = value.getClass();
+    if (valueClass == String.class) {
+      ByteBuffer bytes;
+      try {
+        bytes = StandardCharsets.UTF_8.newEncoder().encode(CharBuffer.wrap((String) value));
+      } catch (CharacterCodingException e) {
+        return false;
+      }
+      out.writeByte(STRING);
+      out.writeInt(bytes.remaining());
+      out.write(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining());
+    } else if (valueClass == Date.class) {
+      out.writeByte(DATE);
+      out.writeLong(((Date) value).getTime());
+    } else if (valueClass == Integer.class) {
+      out.writeByte(INTEGER);
+      out.writeInt((Integer) value);
+    } else if (valueClass == Long.class) {
+      out.writeByte(LONG);
+      out.writeLong((Long) value);
+    } else if (valueClass == Double.class) {
+      out.writeByte(DOUBLE);
+      out.writeDouble((Double) value);
+    } else if (valueClass == Float.class) {
+      out.writeByte(FLOAT);
+      out.writeFloat((Float) value);
+    } else if (valueClass == Short.class) {
+      out.writeByte(SHORT);
+      out.writeShort((Short) value);
+    } else if (valueClass == Boolean.class) {
+      out.writeByte(BOOLEAN);
+      out.writeBoolean((Boolean) value);
+    } else if (valueClass == byte[].class) {
+      byte[] bytes = (byte[]) value;
+      out.writeByte(BINARY);
+      out.writeInt(bytes.length);
+      out.write(bytes);
+    } else {
+      return false;
+    }
+    return true;
+  }
+
+  private static Serializable readValue(DataInput in) throws IOException {
+    byte tag = in.readByte();
+    switch (tag) {
+      case NULL:
+        return null;
+      case STRING:
+        byte[] utf8 = new byte[in.readInt()];
+        in.readFully(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+      case DATE:
+        return new Date(in.readLong());
+      case INTEGER:
+        return in.readInt();
+      case LONG:
+        return in.readLong();
+      case DOUBLE:
+        return in.readDouble();
+      case FLOAT:
+        return in.readFloat();
+      case SHORT:
+        return in.readShort();
+      case BOOLEAN:
+        return in.readBoolean();
+      case BINARY:
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return bytes;
+      default:
+        throw new IOException("Unknown value tag " + tag + " in encoded result.");
+    }
+  }
+}
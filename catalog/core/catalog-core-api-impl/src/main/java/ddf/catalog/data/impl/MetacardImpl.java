@@ -30,6 +30,7 @@
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
@@ -736,6 +737,14 @@ public Attribute getAttribute(String name) {
     return (wrappedMetacard != null) ? wrappedMetacard.getAttribute(name) : map.get(name);
   }
 
+  /**
+   * @return the attributes held directly by this metacard, or null if it wraps another {@link
+   *     Metacard} whose attributes are not known to it
+   */
+  Collection<Attribute> getHeldAttributes() {
+    return (wrappedMetacard != null) ? null : Collections.unmodifiableCollection(map.values());
+  }
+
   /**
    * Set an attribute via a name/value pair.
    *
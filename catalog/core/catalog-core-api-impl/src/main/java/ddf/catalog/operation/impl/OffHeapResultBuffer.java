@@ -0,0 +1,211 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.operation.impl;
+
+import ddf.catalog.data.Attribute;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.MetacardType;
+import ddf.catalog.data.Result;
+import ddf.catalog.data.impl.CompactResultCodec;
+import ddf.catalog.data.impl.MetacardImpl;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps {@link Result}s outside of the Java heap, encoded with {@link CompactResultCodec} into
+ * direct {@link ByteBuffer} chunks.
+ *
+ * <p>{@link #spill(Result, Collection)} returns a small placeholder that stands in for the result
+ * until {@link #rehydrate(Result)} reads it back. A placeholder keeps the relevance score, the
+ * distance and the given sort attributes of its result on the heap, so a list of placeholders can
+ * be sorted without reading anything back. Its metacard holds only those attributes, so a
+ * placeholder must be read back before it is handed to anything other than a sort. {@link
+ * QueryResponseImpl} does this for every result it hands out. A chunk is released once every
+ * placeholder pointing into it has been dropped.
+ */
+public final class OffHeapResultBuffer {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(OffHeapResultBuffer.class);
+
+  private static final int CHUNK_SIZE = 4 * 1024 * 1024;
+
+  private final ScratchOutputStream scratch = new ScratchOutputStream();
+
+  private final DataOutputStream scratchOutput = new DataOutputStream(scratch);
+
+  private ByteBuffer chunk = ByteBuffer.allocate(0);
+
+  /**
+   * @param result the result to hold off-heap
+   * @param sortAttributes the names of the attributes the placeholder keeps on the heap
+   * @return a placeholder for {@code result}, or null if the result cannot be encoded or there is
+   *     no direct memory left for it, in which case the caller should keep the result itself
+   */
+  public synchronized Result spill(Result result, Collection<String> sortAttributes) {
+    scratch.reset();
+    try {
+      if (!CompactResultCodec.encode(result, scratchOutput)) {
+        return null;
+      }
+      scratchOutput.flush();
+    } catch (IOException e) {
+      LOGGER.debug("Unable to encode result for off-heap storage.", e);
+      return null;
+    }
+
+    int length = scratch.size();
+    ByteBuffer record;
+    try {
+      record = allocate(length);
+    } catch (OutOfMemoryError e) {
+      LOGGER.debug("No direct memory left to hold query results off-heap.", e);
+      return null;
+    }
+    scratch.copyTo(record);
+    record.flip();
+
+    Metacard metacard = result.getMetacard();
+    MetacardImpl sortKeys = new MetacardImpl(metacard.getMetacardType());
+    for (String name : sortAttributes) {
+      Attribute attribute = metacard.getAttribute(name);
+      if (attribute != null) {
+        sortKeys.setAttribute(attribute);
+      }
+    }
+    return new SpilledResult(
+        record,
+        metacard.getMetacardType(),
+        result.getRelevanceScore(),
+        result.getDistanceInMeters(),
+        sortKeys);
+  }
+
+  /**
+   * @return the result that {@code result} stands in for if it is a placeholder returned by {@link
+   *     #spill(Result, Collection)}, otherwise {@code result} itself
+   */
+  public static Result rehydrate(Result result) {
+    if (!(result instanceof SpilledResult)) {
+      return result;
+    }
+
+    SpilledResult spilled = (SpilledResult) result;
+    try {
+      return CompactResultCodec.decode(
+          new DataInputStream(new ByteBufferInputStream(spilled.record.duplicate())),
+          spilled.metacardType);
+    } catch (IOException e) {
+      // the record was written by this class, so it can only be unreadable if memory is corrupt
+      throw new IllegalStateException("Unable to read a result held off-heap.", e);
+    }
+  }
+
+  public static boolean isSpilled(Result result) {
+    return result instanceof SpilledResult;
+  }
+
+  private ByteBuffer allocate(int length) {
+    if (length > CHUNK_SIZE) {
+      return ByteBuffer.allocateDirect(length);
+    }
+    if (chunk.remaining() < length) {
+      chunk = ByteBuffer.allocateDirect(CHUNK_SIZE);
+    }
+    ByteBuffer record = chunk.slice();
+    record.limit(length);
+    chunk.position(chunk.position() + length);
+    return record;
+  }
+
+  private static final class SpilledResult implements Result {
+
+    private final ByteBuffer record;
+
+    private final MetacardType metacardType;
+
+    private final Double relevanceScore;
+
+    private final Double distanceInMeters;
+
+    private final Metacard sortKeys;
+
+    private SpilledResult(
+        ByteBuffer record,
+        MetacardType metacardType,
+        Double relevanceScore,
+        Double distanceInMeters,
+        Metacard sortKeys) {
+      this.record = record;
+      this.metacardType = metacardType;
+      this.relevanceScore = relevanceScore;
+      this.distanceInMeters = distanceInMeters;
+      this.sortKeys = sortKeys;
+    }
+
+    @Override
+    public Double getRelevanceScore() {
+      return relevanceScore;
+    }
+
+    @Override
+    public Double getDistanceInMeters() {
+      return distanceInMeters;
+    }
+
+    /** @return a metacard holding only the sort attributes of the result */
+    @Override
+    public Metacard getMetacard() {
+      return sortKeys;
+    }
+  }
+
+  /** A {@link ByteArrayOutputStream} that can copy its bytes without making a heap copy first. */
+  private static final class ScratchOutputStream extends ByteArrayOutputStream {
+
+    private void copyTo(ByteBuffer target) {
+      target.put(buf, 0, count);
+    }
+  }
+
+  private static final class ByteBufferInputStream extends InputStream {
+
+    private final ByteBuffer buffer;
+
+    private ByteBufferInputStream(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public int read() {
+      return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) {
+      if (!buffer.hasRemaining()) {
+        return -1;
+      }
+      int count = Math.min(length, buffer.remaining());
+      buffer.get(bytes, offset, count);
+      return count;
+    }
+  }
+}
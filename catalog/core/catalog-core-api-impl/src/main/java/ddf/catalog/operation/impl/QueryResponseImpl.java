@@ -48,7 +48,7 @@ public class QueryResponseImpl extends ResponseImpl<QueryRequest> implements Que
 
   protected AtomicBoolean isQueueClosed = new AtomicBoolean(false);
 
-  LinkedBlockingQueue<Result> queue = null;
+  private LinkedBlockingQueue<Result> queue = null;
 
   List<Result> resultList = null;
 
@@ -276,7 +276,7 @@ public synchronized void closeResultQueue() {
 
   @Override
   public Result poll() {
-    return hasMoreResults() ? queue.poll() : null;
+    return hasMoreResults() ? OffHeapResultBuffer.rehydrate(queue.poll()) : null;
   }
 
   @Override
@@ -284,7 +284,7 @@ public Result poll(long timeout) {
     Result result = null;
     if (hasMoreResults()) {
       try {
-        result = queue.poll(timeout, TimeUnit.MILLISECONDS);
+        result = OffHeapResultBuffer.rehydrate(queue.poll(timeout, TimeUnit.MILLISECONDS));
       } catch (InterruptedException e) {
         LOGGER.debug(
             "QueryResponseImpl queue thread was interrputed.  Returning null for last result");
@@ -322,6 +322,8 @@ private Result handleTake() {
       result = queue.poll(timeoutMillis, TimeUnit.MILLISECONDS);
       if (POISON_PILL_RESULT.equals(result)) {
         result = null;
+      } else {
+        result = OffHeapResultBuffer.rehydrate(result);
       }
     } catch (InterruptedException e) {
       LOGGER.debug(
@@ -0,0 +1,67 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.util.impl;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.function.IntConsumer;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+
+/**
+ * Reads JPEG 2000 images at reduced resolution.
+ *
+ * <p>JPEG 2000 stores each halving of the resolution separately, so an image that is only needed at
+ * a small size can be decoded at a low resolution level instead of decoding every pixel and then
+ * discarding most of them. The read parameters are passed along with a way to set their resolution
+ * level, such as {@code J2KImageReadParam::setResolution}, so that this class does not depend on a
+ * particular JPEG 2000 decoder.
+ */
+public final class Jpeg2000Resolutions {
+
+  private Jpeg2000Resolutions() {}
+
+  /**
+   * Reads the first image of {@code reader} at the lowest resolution level whose longer side is at
+   * least {@code minSize} pixels, or at full resolution if no lower level is that large.
+   *
+   * @param reader a reader of a JPEG 2000 image, with its input set
+   * @param param the read parameters of {@code reader}
+   * @param setResolution sets the resolution level to read in {@code param}, 0 being the lowest
+   * @param minSize the smallest size the longer side of the image can be read at
+   * @throws IOException if the image cannot be read
+   */
+  public static BufferedImage readAtLeast(
+      ImageReader reader, ImageReadParam param, IntConsumer setResolution, int minSize)
+      throws IOException {
+    int size = Math.max(reader.getWidth(0), reader.getHeight(0));
+
+    // The lowest resolution level is small and cheap to decode, and reveals how many levels the
+    // codestream has.
+    setResolution.accept(0);
+    BufferedImage lowest = reader.read(0, param);
+    int lowestSize = Math.max(1, Math.max(lowest.getWidth(), lowest.getHeight()));
+    int levels = (int) Math.round(Math.log((double) size / lowestSize) / Math.log(2));
+
+    int resolution = 0;
+    while (resolution < levels && ((long) lowestSize << resolution) < minSize) {
+      resolution++;
+    }
+    if (resolution == 0) {
+      return lowest;
+    }
+    setResolution.accept(resolution);
+    return reader.read(0, param);
+  }
+}
@@ -0,0 +1,94 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.data.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.Result;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Date;
+import org.junit.Test;
+
+public class CompactResultCodecTest {
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    MetacardImpl metacard = new MetacardImpl();
+    metacard.setId("id");
+    metacard.setTitle("t\u00EFtle \uD83D\uDE00");
+    metacard.setCreatedDate(new Date(1000L));
+    metacard.setThumbnail(new byte[] {1, 2, 3});
+    metacard.setSourceId("source");
+    metacard.setAttribute(new AttributeImpl("multi", Arrays.asList(1, 2L, 3.0, 4.0f, true)));
+    metacard.setAttribute("short", (short) 5);
+    ResultImpl result = new ResultImpl(metacard);
+    result.setDistanceInMeters(12.5);
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    assertThat(CompactResultCodec.encode(result, new DataOutputStream(bytes)), is(true));
+    Result decoded =
+        CompactResultCodec.decode(
+            new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())),
+            metacard.getMetacardType());
+
+    Metacard decodedMetacard = decoded.getMetacard();
+    assertThat(decoded.getRelevanceScore(), is(nullValue()));
+    assertThat(decoded.getDistanceInMeters(), is(12.5));
+    assertThat(decodedMetacard.getMetacardType(), is(sameInstance(metacard.getMetacardType())));
+    assertThat(decodedMetacard.getSourceId(), is("source"));
+    assertThat(decodedMetacard.getId(), is("id"));
+    assertThat(decodedMetacard.getTitle(), is(metacard.getTitle()));
+    assertThat(decodedMetacard.getCreatedDate(), is(new Date(1000L)));
+    assertThat(decodedMetacard.getThumbnail(), is(new byte[] {1, 2, 3}));
+    assertThat(
+        decodedMetacard.getAttribute("multi").getValues(),
+        is(Arrays.asList(1, 2L, 3.0, 4.0f, true)));
+    assertThat(decodedMetacard.getAttribute("short").getValue(), is((short) 5));
+  }
+
+  @Test
+  public void testValueSubclassIsRefused() throws IOException {
+    MetacardImpl metacard = new MetacardImpl();
+    metacard.setCreatedDate(new Timestamp(1000L));
+
+    assertThat(encode(new ResultImpl(metacard)), is(false));
+  }
+
+  @Test
+  public void testWrappedMetacardIsRefused() throws IOException {
+    assertThat(encode(new ResultImpl(new MetacardImpl(new MetacardImpl()))), is(false));
+  }
+
+  @Test
+  public void testUnpairedSurrogateIsRefused() throws IOException {
+    MetacardImpl metacard = new MetacardImpl();
+    metacard.setTitle("\uD83D");
+
+    assertThat(encode(new ResultImpl(metacard)), is(false));
+  }
+
+  private static boolean encode(Result result) throws IOException {
+    return CompactResultCodec.encode(result, new DataOutputStream(new ByteArrayOutputStream()));
+  }
+}
@@ -14,10 +14,23 @@
 package ddf.catalog.operation;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.Result;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.impl.ResultImpl;
+import ddf.catalog.data.types.Core;
+import ddf.catalog.operation.impl.OffHeapResultBuffer;
 import ddf.catalog.operation.impl.QueryResponseImpl;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
 import org.junit.Test;
 
 /**
@@ -38,4 +51,45 @@ public void testSetterCannotMakeProcessingDetailsNull() {
     response.setProcessingDetails(null);
     assertThat(response.getProcessingDetails(), is(notNullValue()));
   }
+
+  @Test
+  public void testResultsHeldOffHeapAreReadBackWhenTaken() {
+    QueryResponseImpl response = new QueryResponseImpl(null);
+    OffHeapResultBuffer offHeapResults = new OffHeapResultBuffer();
+
+    Date created = new Date();
+    List<Result> results = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      MetacardImpl metacard = new MetacardImpl();
+      metacard.setId("id" + i);
+      metacard.setTitle("title" + i);
+      metacard.setCreatedDate(created);
+      metacard.setSourceId("source");
+      metacard.setAttribute("count", (long) i);
+      ResultImpl result = new ResultImpl(metacard);
+      result.setRelevanceScore((double) i);
+      results.add(result);
+    }
+    response.addResult(results.get(0), false);
+    response.addResults(
+        Arrays.asList(
+            offHeapResults.spill(results.get(1), Collections.singleton(Core.TITLE)),
+            offHeapResults.spill(results.get(2), Collections.emptySet())),
+        true);
+
+    List<String> ids = new ArrayList<>();
+    Result result;
+    while ((result = response.take()) != null) {
+      Metacard metacard = result.getMetacard();
+      int i = ids.size();
+      assertThat(result, is(instanceOf(ResultImpl.class)));
+      assertThat(result.getRelevanceScore(), is((double) i));
+      assertThat(metacard.getTitle(), is("title" + i));
+      assertThat(metacard.getCreatedDate(), is(created));
+      assertThat(metacard.getSourceId(), is("source"));
+      assertThat(metacard.getAttribute("count").getValue(), is((long) i));
+      ids.add(metacard.getId());
+    }
+    assertThat(ids, contains("id0", "id1", "id2"));
+  }
 }
@@ -161,5 +161,12 @@ public final class Constants {
 
   public static final String ADDITIONAL_SORT_BYS = "additional-sort-bys";
 
+  /**
+   * Query request property holding the names of the attributes the results are needed for, as a
+   * {@code String[]}. Sources that support it may read only those attributes and load the others
+   * when they are first accessed. Other sources return complete results.
+   */
+  public static final String RESULT_ATTRIBUTES = "result-attributes";
+
   private Constants() {}
 }
@@ -0,0 +1,40 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.validation;
+
+import ddf.catalog.data.Metacard;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@link MetacardValidator} that can validate a batch of {@link Metacard}s more efficiently than
+ * validating each in turn, and that takes the other {@link Metacard}s of the batch into account.
+ *
+ * <p><b> This code is experimental. While this interface is functional and tested, it may change or
+ * be removed in a future version of the library. </b>
+ */
+public interface BatchMetacardValidator extends MetacardValidator {
+
+  /**
+   * Validates each of the given {@link Metacard}s.
+   *
+   * @param metacards the {@link Metacard}s to validate, in the order they are being ingested,
+   *     cannot be null
+   * @return the {@link ValidationException} describing the problems with each {@link Metacard} that
+   *     failed validation, keyed by {@link Metacard} identity. {@link Metacard}s that passed
+   *     validation are not in the map.
+   * @throws IllegalArgumentException if {@code metacards} is null
+   */
+  Map<Metacard, ValidationException> validateAll(List<Metacard> metacards);
+}
@@ -25,7 +25,9 @@
 import ddf.catalog.data.BinaryContent;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.Result;
+import ddf.catalog.data.types.Core;
 import ddf.catalog.filter.FilterBuilder;
+import ddf.catalog.filter.impl.SortByImpl;
 import ddf.catalog.operation.QueryRequest;
 import ddf.catalog.operation.ResourceResponse;
 import ddf.catalog.operation.impl.DeleteRequestImpl;
@@ -40,12 +42,12 @@
 import ddf.security.audit.SecurityLogger;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
@@ -62,34 +64,40 @@
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.karaf.shell.api.action.Command;
 import org.apache.karaf.shell.api.action.Option;
 import org.apache.karaf.shell.api.action.lifecycle.Reference;
 import org.apache.karaf.shell.api.action.lifecycle.Service;
 import org.codice.ddf.commands.catalog.export.ExportItem;
+import org.codice.ddf.commands.catalog.export.ExportPosition;
 import org.codice.ddf.commands.catalog.export.IdAndUriMetacard;
+import org.codice.ddf.commands.catalog.export.ParallelZipWriter;
 import org.codice.ddf.commands.util.CatalogCommandRuntimeException;
 import org.codice.ddf.commands.util.DigitalSignature;
 import org.codice.ddf.configuration.SystemBaseUrl;
+import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
 import org.fusesource.jansi.Ansi;
 import org.geotools.api.filter.Filter;
+import org.geotools.api.filter.sort.SortOrder;
 import org.geotools.filter.text.cql2.CQLException;
 import org.osgi.framework.BundleContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Exports Metacards, History, and their content into a zip file. <b> This code is experimental.
+ * Exports Metacards, History, and their content into a zip file, or a numbered series of zip files
+ * when the export is split into parts. Metacards are exported in the order they were modified, so
+ * that an interrupted export can be resumed after the last completed part and an incremental export
+ * can pick up after the last metacard the previous one exported. <b> This code is experimental.
  * While this interface is functional and tested, it may change or be removed in a future version of
  * the library. </b>
  */
@@ -114,6 +122,10 @@ public class ExportCommand extends CqlCommands {
 
   private static final int PAGE_SIZE = 64;
 
+  private static final int PENDING_ENTRIES_PER_THREAD = 4;
+
+  private static final String CHECKPOINT_EXTENSION = ".checkpoint";
+
   private static final String DELETED_METACARD = "deleted";
 
   private static final String REVISION_METACARD = "revision";
@@ -122,6 +134,8 @@ public class ExportCommand extends CqlCommands {
 
   private Filter revisionFilter;
 
+  private Path checkpointFile;
+
   private static final String SECURITY_AUDIT_DELIMITER = ", ";
 
   //  Number of bytes that can be sent is 65,507 (due to udp constraints). This gives a
@@ -175,6 +189,39 @@ public class ExportCommand extends CqlCommands {
           "Produces the export zip but does NOT sign the resulting zip file. This file will not be able to be verified on import for integrity and security.")
   boolean unsafe = false;
 
+  @Option(
+      name = "--threads",
+      required = false,
+      aliases = {"-t"},
+      multiValued = false,
+      description =
+          "Number of threads used to transform and compress the exported metacards and content. Defaults to the number of processors.")
+  int threads = Runtime.getRuntime().availableProcessors();
+
+  @Option(
+      name = "--part-size",
+      required = false,
+      multiValued = false,
+      description =
+          "Maximum number of metacards in each zip file. When greater than 0, the export is split into zip files numbered after the output file, e.g. export-part-00001.zip, and an interrupted export can be resumed with --resume. Defaults to 0, which exports into a single zip file.")
+  int partSize = 0;
+
+  @Option(
+      name = "--incremental",
+      required = false,
+      multiValued = false,
+      description =
+          "Only export metacards modified since the last incremental export completed. The first incremental export includes every metacard.")
+  boolean incremental = false;
+
+  @Option(
+      name = "--resume",
+      required = false,
+      multiValued = false,
+      description =
+          "Resume an interrupted export that was split with --part-size. The --output, --part-size and filtering options of the interrupted export must be given again.")
+  boolean resume = false;
+
   public ExportCommand() {}
 
   public ExportCommand(
@@ -205,6 +252,7 @@ protected Object executeWithSubject() throws Exception {
 
     final File outputFile = initOutputFile(output);
     checkFile(outputFile);
+    checkOptions(outputFile);
 
     if (delete && !force) {
       final String input =
@@ -219,15 +267,13 @@ protected Object executeWithSubject() throws Exception {
 
     securityLogger.audit("Called catalog:export command with path : {}", output);
 
-    try (FileOutputStream fileOutputStream = new FileOutputStream(outputFile);
-        ZipOutputStream zipOutputStream = new ZipOutputStream(fileOutputStream)) {
-
-      return doExport(outputFile, zipOutputStream, filter);
-
-    } catch (FileNotFoundException e) {
-      throw new FileNotFoundException(
-          String.format(
-              "ZipOutputStream could not be created for the path %s", outputFile.getPath()));
+    ExecutorService executorService =
+        Executors.newFixedThreadPool(
+            threads, StandardThreadFactoryBuilder.newThreadFactory("exportCompressionThread"));
+    try {
+      return doExport(outputFile, filter, executorService);
+    } finally {
+      executorService.shutdownNow();
     }
   }
 
@@ -264,51 +310,185 @@ private void checkFile(File outputFile) {
     }
   }
 
-  private Object doExport(File outputFile, ZipOutputStream zipOutputStream, Filter filter)
+  private void checkOptions(File outputFile) {
+    if (threads < 1) {
+      console.println("The number of threads must be at least 1");
+      throw new IllegalArgumentException("Threads must be at least 1");
+    }
+
+    if (partSize < 0) {
+      console.println("The part size must not be negative");
+      throw new IllegalArgumentException("Part size must not be negative");
+    }
+
+    File checkpointFile = getCheckpointFile(outputFile);
+    if (resume) {
+      if (partSize == 0) {
+        console.println("Only exports split with --part-size can be resumed");
+        throw new IllegalArgumentException("Resume requires a part size");
+      }
+      if (!checkpointFile.exists()) {
+        printErrorMessage(
+            String.format("No interrupted export of [%s] was found.", outputFile.getPath()));
+        throw new IllegalStateException("No interrupted export found");
+      }
+    } else if (partSize > 0 && (checkpointFile.exists() || getPartFile(outputFile, 1).exists())) {
+      printErrorMessage(
+          String.format(
+              "An export of [%s] already exists. Use --resume to complete it.",
+              outputFile.getPath()));
+      throw new IllegalStateException("Export already exists");
+    }
+  }
+
+  private Object doExport(File outputFile, Filter filter, ExecutorService executorService)
       throws IOException {
-    console.println("Starting metacard export...");
-    Instant start = Instant.now();
-    List<ExportItem> exportedItems = doMetacardExport(zipOutputStream, filter);
-    if (exportedItems.isEmpty()) {
-      console.println("No metacards found to export, exiting.");
-      try {
-        zipOutputStream.close();
-      } finally {
-        FileUtils.deleteQuietly(outputFile);
+    checkpointFile = getCheckpointFile(outputFile).toPath();
+    ExportPosition position;
+    if (resume) {
+      position = ExportPosition.load(checkpointFile);
+      console.println("Resuming export after part " + position.getCompletedParts());
+    } else if (incremental) {
+      position = ExportPosition.load(getIncrementalStateFile());
+    } else {
+      position = new ExportPosition();
+    }
+
+    Set<String> seenIds = new HashSet<>(1024);
+    if (partSize == 0) {
+      exportPart(outputFile, FILE_NAMER.apply("sig"), filter, position, seenIds, executorService);
+      if (!outputFile.exists()) {
+        console.println("No metacards found to export, exiting.");
+        return null;
+      }
+    } else {
+      int resultCount;
+      do {
+        File partFile = getPartFile(outputFile, position.getCompletedParts() + 1);
+        // a part left behind by an interrupted export is incomplete, so it is exported again
+        Files.deleteIfExists(partFile.toPath());
+        resultCount =
+            exportPart(
+                partFile,
+                FilenameUtils.getBaseName(partFile.getName()) + ".sig",
+                filter,
+                position,
+                seenIds,
+                executorService);
+      } while (resultCount == partSize);
+
+      Files.deleteIfExists(checkpointFile);
+      if (position.getCompletedParts() == 0) {
+        console.println("No metacards found to export, exiting.");
+        return null;
       }
-      return null;
     }
 
-    console.println("Metacards exported in: " + getFormattedDuration(start));
-    console.println("Number of metacards exported: " + exportedItems.size());
-    console.println();
+    if (incremental) {
+      Path incrementalStateFile = getIncrementalStateFile();
+      Files.createDirectories(incrementalStateFile.getParent());
+      position.resetParts();
+      position.save(incrementalStateFile);
+    }
 
-    auditRecords(exportedItems);
+    console.println("Export complete.");
+    if (partSize == 0) {
+      console.println("Exported to: " + outputFile.getCanonicalPath());
+    } else {
+      console.println(
+          "Exported to: "
+              + getPartFile(outputFile, 1).getCanonicalPath()
+              + " through "
+              + getPartFile(outputFile, position.getCompletedParts()).getName());
+    }
+    return null;
+  }
 
-    console.println("Starting content export...");
-    start = Instant.now();
-    List<ExportItem> exportedContentItems = doContentExport(zipOutputStream, exportedItems);
-    console.println("Content exported in: " + getFormattedDuration(start));
-    console.println("Number of content exported: " + exportedContentItems.size());
-    console.println();
+  /**
+   * Exports the metacards after {@code position} into {@code file}, advancing {@code position} past
+   * them. When the export is split into parts, the completed part is recorded in the checkpoint
+   * file before anything is deleted, so that a resumed export never skips metacards that are not in
+   * a completed part.
+   *
+   * @return the number of metacards matching the export filter that the part covers. If none of
+   *     them needed to be exported, {@code file} is not created.
+   */
+  private int exportPart(
+      File file,
+      String signatureName,
+      Filter filter,
+      ExportPosition position,
+      Set<String> seenIds,
+      ExecutorService executorService)
+      throws IOException {
+    List<ExportItem> exportedItems = new ArrayList<>();
+    List<ExportItem> exportedContentItems;
+    int resultCount;
 
-    if (delete) {
-      doDelete(exportedItems, exportedContentItems);
+    try (ParallelZipWriter zipWriter =
+        new ParallelZipWriter(file, executorService, threads * PENDING_ENTRIES_PER_THREAD)) {
+      if (partSize > 0) {
+        console.println("Starting export of " + file.getName() + "...");
+      }
+
+      console.println("Starting metacard export...");
+      Instant start = Instant.now();
+      resultCount = doMetacardExport(zipWriter, filter, position, seenIds, exportedItems);
+      if (exportedItems.isEmpty()) {
+        return resultCount;
+      }
+
+      console.println("Metacards exported in: " + getFormattedDuration(start));
+      console.println("Number of metacards exported: " + exportedItems.size());
+      console.println();
+
+      auditRecords(exportedItems);
+
+      console.println("Starting content export...");
+      start = Instant.now();
+      exportedContentItems = doContentExport(zipWriter, exportedItems);
+      zipWriter.finish();
+      console.println("Content exported in: " + getFormattedDuration(start));
+      console.println("Number of content exported: " + exportedContentItems.size());
+      console.println();
+    } finally {
+      if (exportedItems.isEmpty()) {
+        FileUtils.deleteQuietly(file);
+      }
     }
 
     if (!unsafe) {
-      //  close the stream here to allow the jar writer to certify the full zip.
-      //  Try with resources will close the stream if this is not the case.
-      zipOutputStream.close();
-      signJar(outputFile);
+      signJar(file, signatureName);
     }
 
-    console.println("Export complete.");
-    console.println("Exported to: " + outputFile.getCanonicalPath());
-    return null;
+    if (partSize > 0) {
+      position.completePart();
+      position.save(checkpointFile);
+    }
+
+    if (delete) {
+      doDelete(exportedItems, exportedContentItems);
+    }
+
+    return resultCount;
+  }
+
+  private File getCheckpointFile(File outputFile) {
+    return new File(outputFile.getPath() + CHECKPOINT_EXTENSION);
+  }
+
+  private File getPartFile(File outputFile, int part) {
+    String name =
+        String.format("%s-part-%05d.zip", FilenameUtils.getBaseName(outputFile.getName()), part);
+    return new File(outputFile.getParentFile(), name);
+  }
+
+  private Path getIncrementalStateFile() {
+    return Paths.get(
+        System.getProperty("ddf.home"), "data", "export", "incremental-export.properties");
   }
 
-  private void signJar(File outputFile) {
+  private void signJar(File outputFile, String signatureName) {
     securityLogger.audit("Signing exported data. file: [{}]", outputFile.getName());
     console.println("Signing zip file...");
     Instant start = Instant.now();
@@ -326,7 +506,7 @@ private void signJar(File outputFile) {
 
       if (signature != null) {
         String signatureFilepath =
-            Paths.get(System.getProperty("ddf.home"), FILE_NAMER.apply("sig")).toString();
+            Paths.get(System.getProperty("ddf.home"), signatureName).toString();
         FileUtils.writeByteArrayToFile(new File(signatureFilepath), signature);
 
         console.println("zip file signed in: " + getFormattedDuration(start));
@@ -360,19 +540,42 @@ private void writePartitionToLog(List<String> idList) {
         idList.stream().collect(Collectors.joining(SECURITY_AUDIT_DELIMITER, "[", "]")));
   }
 
-  private List<ExportItem> doMetacardExport(
-      /*Mutable,IO*/ ZipOutputStream zipOutputStream, Filter filter) {
-    Set<String> seenIds = new HashSet<>(1024);
-    List<ExportItem> exportedItems = new ArrayList<>();
-
-    QueryImpl query = new QueryImpl(filter);
+  private int doMetacardExport(
+      /*Mutable,IO*/ ParallelZipWriter zipWriter,
+      Filter filter,
+      /*Mutable*/ ExportPosition position,
+      /*Mutable*/ Set<String> seenIds,
+      /*Mutable*/ List<ExportItem> exportedItems)
+      throws IOException {
+    Filter positionFilter = position.getFilter(filterBuilder);
+    QueryImpl query =
+        new QueryImpl(
+            positionFilter == null ? filter : filterBuilder.allOf(filter, positionFilter));
+    query.setSortBy(new SortByImpl(Core.METACARD_MODIFIED, SortOrder.ASCENDING));
     QueryRequest queryRequest = new QueryRequestImpl(query);
 
     query.setPageSize(PAGE_SIZE);
 
-    for (Result result : resultIterable(catalogFramework, queryRequest)) {
+    // The query for each part starts from the position reached by the previous part, rather than
+    // paging past it, so that metacards deleted by the previous part cannot shift the results.
+    Iterable<Result> results =
+        partSize > 0
+            ? resultIterable(catalogFramework, queryRequest, partSize + position.getSkipCount())
+            : resultIterable(catalogFramework, queryRequest);
+
+    int resultCount = 0;
+    for (Result result : results) {
+      if (position.isCovered(result.getMetacard())) {
+        continue;
+      }
+      if (partSize > 0 && resultCount == partSize) {
+        break;
+      }
+      resultCount++;
+      position.advance(result.getMetacard());
+
       if (!seenIds.contains(result.getMetacard().getId())) {
-        writeResultToZip(zipOutputStream, result);
+        writeResultToZip(zipWriter, result);
         exportedItems.add(
             new ExportItem(
                 result.getMetacard().getId(),
@@ -392,7 +595,7 @@ private List<ExportItem> doMetacardExport(
         if (seenIds.contains(revision.getMetacard().getId())) {
           continue;
         }
-        writeResultToZip(zipOutputStream, revision);
+        writeResultToZip(zipWriter, revision);
         exportedItems.add(
             new ExportItem(
                 revision.getMetacard().getId(),
@@ -402,7 +605,7 @@ private List<ExportItem> doMetacardExport(
         seenIds.add(revision.getMetacard().getId());
       }
     }
-    return exportedItems;
+    return resultCount;
   }
 
   private List<String> getDerivedResources(Result result) {
@@ -418,7 +621,7 @@ private List<String> getDerivedResources(Result result) {
 
   @SuppressWarnings("squid:S3776")
   private List<ExportItem> doContentExport(
-      ZipOutputStream zipOutputStream, List<ExportItem> exportedItems) {
+      ParallelZipWriter zipWriter, List<ExportItem> exportedItems) throws IOException {
     List<ExportItem> contentItemsToExport =
         exportedItems.stream()
             // Only things with a resource URI
@@ -449,7 +652,7 @@ private List<ExportItem> doContentExport(
       } catch (ResourceNotFoundException e) {
         continue;
       }
-      writeResourceToZip(zipOutputStream, contentItem, resource);
+      writeResourceToZip(zipWriter, contentItem, resource);
       exportedContentItems.add(contentItem);
       if (!contentItem.getMetacardTag().equals(REVISION_METACARD)) {
         for (String derivedUri : contentItem.getDerivedUris()) {
@@ -477,7 +680,7 @@ private List<ExportItem> doContentExport(
                 Ansi.ansi().fg(Ansi.Color.RED).toString(), uri, Ansi.ansi().reset().toString());
             continue;
           }
-          writeResourceToZip(zipOutputStream, contentItem, derivedResource);
+          writeResourceToZip(zipWriter, contentItem, derivedResource);
         }
       }
     }
@@ -518,26 +721,28 @@ private void doDelete(List<ExportItem> exportedItems, List<ExportItem> exportedC
   }
 
   private void writeResourceToZip(
-      /*Mutable,IO*/ ZipOutputStream zipOutputStream,
-      ExportItem exportItem,
-      ResourceResponse resource) {
+      /*Mutable,IO*/ ParallelZipWriter zipWriter, ExportItem exportItem, ResourceResponse resource)
+      throws IOException {
     String id = exportItem.getId();
     String path = getContentPath(id, resource);
-    ZipEntry zipEntry = new ZipEntry(path);
-
-    try (InputStream resourceStream = resource.getResource().getInputStream()) {
-      zipOutputStream.putNextEntry(zipEntry);
-      IOUtils.copy(resourceStream, zipOutputStream);
-    } catch (IOException e) {
-      LOGGER.warn(
-          "Could not get content. Content will not be included in export [{}]", exportItem.getId());
-      console.printf(
-          "%sCould not get Content. Content will not be included in export. %s (%s)%s%n",
-          Ansi.ansi().fg(Ansi.Color.RED).toString(),
-          exportItem.getId(),
-          exportItem.getResourceUri(),
-          Ansi.ansi().reset().toString());
-    }
+
+    // The resource has already been retrieved with the user's subject, so only its stream is read
+    // on the compression threads.
+    zipWriter.addEntry(
+        path,
+        resource.getResource().getSize(),
+        () -> resource.getResource().getInputStream(),
+        e -> {
+          LOGGER.warn(
+              "Could not get content. Content will not be included in export [{}]",
+              exportItem.getId());
+          console.printf(
+              "%sCould not get Content. Content will not be included in export. %s (%s)%s%n",
+              Ansi.ansi().fg(Ansi.Color.RED).toString(),
+              exportItem.getId(),
+              exportItem.getResourceUri(),
+              Ansi.ansi().reset().toString());
+        });
   }
 
   private String getContentPath(String id, ResourceResponse resource) {
@@ -552,29 +757,32 @@ private String getContentPath(String id, ResourceResponse resource) {
     return path;
   }
 
-  private void writeResultToZip(/*Mutable,IO*/ ZipOutputStream zipOutputStream, Result result) {
-    String id = result.getMetacard().getId();
-    ZipEntry zipEntry =
-        new ZipEntry(
-            Paths.get("metacards", id.substring(0, 3), id, "metacard", id + ".xml").toString());
+  private void writeResultToZip(
+      /*Mutable,IO*/ ParallelZipWriter zipWriter, Result result) throws IOException {
+    Metacard metacard = result.getMetacard();
+    String id = metacard.getId();
+
+    zipWriter.addEntry(
+        Paths.get("metacards", id.substring(0, 3), id, "metacard", id + ".xml").toString(),
+        -1,
+        () -> transform(metacard),
+        e -> {
+          LOGGER.warn("Could not transform metacard. Metacard will not be added to zip [{}]", id);
+          console.printf(
+              "%sCould not transform metacard. Metacard will not be included in export. %s - %s%s%n",
+              Ansi.ansi().fg(Ansi.Color.RED).toString(),
+              id,
+              metacard.getTitle(),
+              Ansi.ansi().reset().toString());
+        });
+  }
 
+  private InputStream transform(Metacard metacard) throws IOException {
     try {
-      BinaryContent binaryMetacard =
-          transformer.transform(result.getMetacard(), Collections.emptyMap());
-      try (InputStream metacardStream = binaryMetacard.getInputStream()) {
-        zipOutputStream.putNextEntry(zipEntry);
-        IOUtils.copy(metacardStream, zipOutputStream);
-      }
-    } catch (CatalogTransformerException | IOException e) {
-      LOGGER.warn(
-          "Could not transform metacard. Metacard will not be added to zip [{}]",
-          result.getMetacard().getId());
-      console.printf(
-          "%sCould not transform metacard. Metacard will not be included in export. %s - %s%s%n",
-          Ansi.ansi().fg(Ansi.Color.RED).toString(),
-          result.getMetacard().getId(),
-          result.getMetacard().getTitle(),
-          Ansi.ansi().reset().toString());
+      BinaryContent binaryMetacard = transformer.transform(metacard, Collections.emptyMap());
+      return binaryMetacard.getInputStream();
+    } catch (CatalogTransformerException e) {
+      throw new IOException(e);
     }
   }
 
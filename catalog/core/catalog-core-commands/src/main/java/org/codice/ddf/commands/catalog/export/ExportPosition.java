@@ -0,0 +1,198 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.commands.catalog.export;
+
+import ddf.catalog.data.Attribute;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.types.Core;
+import ddf.catalog.filter.FilterBuilder;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Properties;
+import java.util.Set;
+import org.apache.commons.lang.StringUtils;
+import org.geotools.api.filter.Filter;
+
+/**
+ * How far an export sorted by {@link Core#METACARD_MODIFIED} has progressed.
+ *
+ * <p>The position is the latest modified date that has been exported, along with the ids of the
+ * metacards exported with exactly that date, since more metacards with the same date may still be
+ * left to export. Metacards without a modified date have no place in that order, so the ids of
+ * those that have been exported are kept as well. It also counts the parts of the export that have
+ * been completed. Positions are saved as properties files so that an export can pick up where an
+ * earlier one stopped.
+ */
+public class ExportPosition {
+
+  private static final String MODIFIED = "modified";
+
+  private static final String IDS = "ids";
+
+  private static final String UNMODIFIED_IDS = "unmodifiedIds";
+
+  private static final String PARTS = "parts";
+
+  private Date modified;
+
+  private final Set<String> idsAtModified = new HashSet<>();
+
+  private final Set<String> unmodifiedIds = new HashSet<>();
+
+  private int completedParts;
+
+  /**
+   * Loads a saved position.
+   *
+   * @param file the file the position was saved to
+   * @return the saved position, or the start of the export if {@code file} does not exist
+   * @throws IOException if the file cannot be read
+   */
+  public static ExportPosition load(Path file) throws IOException {
+    ExportPosition position = new ExportPosition();
+    if (!Files.exists(file)) {
+      return position;
+    }
+
+    Properties properties = new Properties();
+    try (InputStream inputStream = Files.newInputStream(file)) {
+      properties.load(inputStream);
+    }
+
+    String modified = properties.getProperty(MODIFIED);
+    if (StringUtils.isNotBlank(modified)) {
+      position.modified = new Date(Long.parseLong(modified));
+      loadIds(properties.getProperty(IDS), position.idsAtModified);
+    }
+    loadIds(properties.getProperty(UNMODIFIED_IDS), position.unmodifiedIds);
+    position.completedParts = Integer.parseInt(properties.getProperty(PARTS, "0"));
+    return position;
+  }
+
+  /**
+   * Saves this position, replacing the file in one step so that an interrupted save leaves the
+   * earlier position in place.
+   *
+   * @param file the file to save the position to
+   * @throws IOException if the file cannot be written
+   */
+  public void save(Path file) throws IOException {
+    Properties properties = new Properties();
+    if (modified != null) {
+      properties.setProperty(MODIFIED, Long.toString(modified.getTime()));
+      properties.setProperty(IDS, String.join(",", idsAtModified));
+    }
+    if (!unmodifiedIds.isEmpty()) {
+      properties.setProperty(UNMODIFIED_IDS, String.join(",", unmodifiedIds));
+    }
+    properties.setProperty(PARTS, Integer.toString(completedParts));
+
+    Path temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+    try (OutputStream outputStream = Files.newOutputStream(temporaryFile)) {
+      properties.store(outputStream, null);
+    }
+    Files.move(
+        temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * @return a filter matching the metacards modified at or after this position and those without a
+   *     modified date, or null if no metacard with a modified date has been exported
+   */
+  public Filter getFilter(FilterBuilder filterBuilder) {
+    if (modified == null) {
+      return null;
+    }
+    return filterBuilder.anyOf(
+        filterBuilder.attribute(Core.METACARD_MODIFIED).after().date(modified),
+        filterBuilder.attribute(Core.METACARD_MODIFIED).is().equalTo().date(modified),
+        filterBuilder.attribute(Core.METACARD_MODIFIED).empty());
+  }
+
+  /**
+   * @return the number of metacards matched by {@link #getFilter(FilterBuilder)} that have already
+   *     been exported
+   */
+  public int getSkipCount() {
+    return idsAtModified.size() + unmodifiedIds.size();
+  }
+
+  /** @return true if {@code metacard} was exported before this position was reached */
+  public boolean isCovered(Metacard metacard) {
+    Date metacardModified = getModified(metacard);
+    if (metacardModified == null) {
+      return unmodifiedIds.contains(metacard.getId());
+    }
+    if (modified == null) {
+      return false;
+    }
+    return metacardModified.before(modified)
+        || (metacardModified.equals(modified) && idsAtModified.contains(metacard.getId()));
+  }
+
+  /**
+   * Moves this position past {@code metacard}. Metacards with a modified date must be passed in
+   * ascending order of that date.
+   */
+  public void advance(Metacard metacard) {
+    Date metacardModified = getModified(metacard);
+    if (metacardModified == null) {
+      unmodifiedIds.add(metacard.getId());
+      return;
+    }
+    if (modified != null && metacardModified.before(modified)) {
+      return;
+    }
+
+    if (!metacardModified.equals(modified)) {
+      modified = metacardModified;
+      idsAtModified.clear();
+    }
+    idsAtModified.add(metacard.getId());
+  }
+
+  public int getCompletedParts() {
+    return completedParts;
+  }
+
+  public void completePart() {
+    completedParts++;
+  }
+
+  /** Clears the count of completed parts, keeping the position in the catalog. */
+  public void resetParts() {
+    completedParts = 0;
+  }
+
+  private static void loadIds(String ids, Set<String> loaded) {
+    if (StringUtils.isNotEmpty(ids)) {
+      loaded.addAll(Arrays.asList(ids.split(",")));
+    }
+  }
+
+  private static Date getModified(Metacard metacard) {
+    Attribute attribute = metacard.getAttribute(Core.METACARD_MODIFIED);
+    if (attribute == null || !(attribute.getValue() instanceof Date)) {
+      return null;
+    }
+    return (Date) attribute.getValue();
+  }
+}
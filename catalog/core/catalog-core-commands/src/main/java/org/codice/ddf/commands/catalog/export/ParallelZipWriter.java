@@ -0,0 +1,443 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.commands.catalog.export;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import org.apache.commons.compress.archivers.zip.StreamCompressor;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.parallel.ScatterGatherBackingStore;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Writes a zip file whose entries are compressed in parallel.
+ *
+ * <p>Each entry is deflated on its own by an {@link ExecutorService} thread into a buffer that
+ * spills to a temporary file once it grows past {@value #MEMORY_BUFFER_BYTES} bytes, and the
+ * compressed entries are then copied into the zip file in the order they were added. At most a
+ * fixed number of entries are waiting to be copied at any time, which bounds the memory and
+ * temporary disk space used.
+ *
+ * <p>Entries known to be larger than {@value #LARGE_ENTRY_THRESHOLD_BYTES} bytes are read on the
+ * calling thread instead, in blocks of {@value #BLOCK_BYTES} bytes that are deflated in parallel.
+ * Each block is deflated with the end of the block before it as its dictionary, and flushed to a
+ * byte boundary, so the blocks join into a single deflate stream that compresses almost as well as
+ * deflating the entry in one go. At most a fixed number of blocks are held at any time.
+ *
+ * <p>The zip file uses Zip64 extensions where needed, so it can hold any number of entries of any
+ * size.
+ */
+public class ParallelZipWriter implements Closeable {
+
+  private static final int MEMORY_BUFFER_BYTES = 1024 * 1024;
+
+  private static final long LARGE_ENTRY_THRESHOLD_BYTES = 64L * 1024 * 1024;
+
+  private static final int BLOCK_BYTES = 1024 * 1024;
+
+  /** The most a deflate stream can refer back to. */
+  private static final int DICTIONARY_BYTES = 32 * 1024;
+
+  private final ZipArchiveOutputStream zipOutputStream;
+
+  private final ExecutorService executor;
+
+  private final int maxPendingEntries;
+
+  private final Deque<PendingEntry> pendingEntries = new ArrayDeque<>();
+
+  /**
+   * @param file the zip file to write
+   * @param executor the threads that compress the entries
+   * @param maxPendingEntries the most compressed entries, or blocks of a large entry, to hold
+   *     before waiting for them to be copied into the zip file
+   * @throws IOException if the zip file cannot be created
+   */
+  public ParallelZipWriter(File file, ExecutorService executor, int maxPendingEntries)
+      throws IOException {
+    this.zipOutputStream = new ZipArchiveOutputStream(file);
+    this.executor = executor;
+    this.maxPendingEntries = Math.max(1, maxPendingEntries);
+  }
+
+  /**
+   * Adds an entry to the zip file.
+   *
+   * @param name the name of the entry
+   * @param size the number of bytes {@code source} will supply, or -1 if not known
+   * @param source supplies the contents of the entry. It is opened and read on a compression
+   *     thread, unless the entry is large enough to be compressed in blocks, in which case it is
+   *     read on the calling thread.
+   * @param onFailure called on the thread that adds or finishes entries, with the exception thrown
+   *     by {@code source}, if the entry could not be read. The entry is left out of the zip file.
+   * @throws IOException if the zip file cannot be written
+   */
+  public void addEntry(String name, long size, EntrySource source, Consumer<IOException> onFailure)
+      throws IOException {
+    if (size > LARGE_ENTRY_THRESHOLD_BYTES) {
+      addLargeEntry(name, source, onFailure);
+      return;
+    }
+
+    pendingEntries.add(new PendingEntry(executor.submit(() -> compress(name, source)), onFailure));
+    writePendingEntries(maxPendingEntries);
+  }
+
+  /**
+   * Writes the entries that have been added and completes the zip file.
+   *
+   * @throws IOException if the zip file cannot be written
+   */
+  public void finish() throws IOException {
+    writePendingEntries(0);
+    zipOutputStream.finish();
+  }
+
+  /** Closes the zip file. Entries that have not been written by {@link #finish()} are discarded. */
+  @Override
+  public void close() throws IOException {
+    try {
+      while (!pendingEntries.isEmpty()) {
+        discard(pendingEntries.remove());
+      }
+    } finally {
+      zipOutputStream.close();
+    }
+  }
+
+  private void writePendingEntries(int remaining) throws IOException {
+    while (pendingEntries.size() > remaining) {
+      PendingEntry pendingEntry = pendingEntries.remove();
+
+      CompressedEntry compressedEntry;
+      try {
+        compressedEntry = pendingEntry.future.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        pendingEntry.future.cancel(true);
+        throw new InterruptedIOException("Interrupted while compressing zip entries.");
+      } catch (ExecutionException e) {
+        if (e.getCause() instanceof IOException) {
+          pendingEntry.onFailure.accept((IOException) e.getCause());
+          continue;
+        }
+        throw new IOException("Unable to compress zip entry.", e.getCause());
+      }
+
+      write(compressedEntry);
+    }
+  }
+
+  private void write(CompressedEntry compressedEntry) throws IOException {
+    try (ScatterGatherBackingStore store = compressedEntry.store;
+        InputStream compressed = store.getInputStream()) {
+      zipOutputStream.addRawArchiveEntry(compressedEntry.entry, compressed);
+    }
+  }
+
+  /**
+   * Compresses a large entry in blocks, while the entries added before it are still being
+   * compressed, then writes it after them.
+   */
+  private void addLargeEntry(String name, EntrySource source, Consumer<IOException> onFailure)
+      throws IOException {
+    InputStream input;
+    try {
+      input = source.open();
+    } catch (IOException e) {
+      onFailure.accept(e);
+      return;
+    }
+
+    CompressedEntry compressedEntry;
+    try (InputStream entryInput = input) {
+      compressedEntry = compressInBlocks(name, entryInput);
+    } catch (EntryReadException e) {
+      onFailure.accept(e.getCause());
+      return;
+    }
+
+    try {
+      writePendingEntries(0);
+    } catch (IOException | RuntimeException e) {
+      compressedEntry.store.close();
+      throw e;
+    }
+    write(compressedEntry);
+  }
+
+  private CompressedEntry compressInBlocks(String name, InputStream input) throws IOException {
+    SpillingBackingStore store = new SpillingBackingStore();
+    Deque<Future<byte[]>> blocks = new ArrayDeque<>();
+    try {
+      CRC32 crc = new CRC32();
+      long size = 0;
+      long compressedSize = 0;
+
+      byte[] previous = null;
+      byte[] block = new byte[BLOCK_BYTES];
+      int length = read(input, block);
+      while (true) {
+        byte[] next = null;
+        int nextLength = 0;
+        if (length == BLOCK_BYTES) {
+          next = new byte[BLOCK_BYTES];
+          nextLength = read(input, next);
+        }
+        boolean last = nextLength == 0;
+
+        crc.update(block, 0, length);
+        size += length;
+        byte[] dictionary = previous;
+        byte[] data = block;
+        int dataLength = length;
+        blocks.add(executor.submit(() -> deflate(dictionary, data, dataLength, last)));
+        while (blocks.size() > maxPendingEntries) {
+          compressedSize += writeBlock(blocks.remove(), store);
+        }
+
+        if (last) {
+          break;
+        }
+        previous = block;
+        block = next;
+        length = nextLength;
+      }
+      while (!blocks.isEmpty()) {
+        compressedSize += writeBlock(blocks.remove(), store);
+      }
+      store.closeForWriting();
+
+      ZipArchiveEntry entry = new ZipArchiveEntry(name);
+      entry.setMethod(ZipEntry.DEFLATED);
+      entry.setTime(System.currentTimeMillis());
+      entry.setCrc(crc.getValue());
+      entry.setSize(size);
+      entry.setCompressedSize(compressedSize);
+      return new CompressedEntry(entry, store);
+    } catch (IOException | RuntimeException e) {
+      blocks.forEach(pending -> pending.cancel(true));
+      store.close();
+      throw e;
+    }
+  }
+
+  /** Fills {@code block} from {@code input}, unless {@code input} ends first. */
+  private static int read(InputStream input, byte[] block) throws EntryReadException {
+    try {
+      return IOUtils.read(input, block);
+    } catch (IOException e) {
+      throw new EntryReadException(e);
+    }
+  }
+
+  private static long writeBlock(Future<byte[]> block, SpillingBackingStore store)
+      throws IOException {
+    byte[] compressed;
+    try {
+      compressed = block.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while compressing a zip entry.");
+    } catch (ExecutionException e) {
+      throw new IOException("Unable to compress zip entry.", e.getCause());
+    }
+    store.writeOut(compressed, 0, compressed.length);
+    return compressed.length;
+  }
+
+  /**
+   * Deflates a block of a large entry. Every block but the last is flushed to a byte boundary
+   * without ending the deflate stream, so that the next block can follow it.
+   */
+  private static byte[] deflate(byte[] dictionary, byte[] block, int length, boolean last) {
+    Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    try {
+      if (dictionary != null) {
+        deflater.setDictionary(dictionary, dictionary.length - DICTIONARY_BYTES, DICTIONARY_BYTES);
+      }
+      deflater.setInput(block, 0, length);
+
+      ByteArrayOutputStream output = new ByteArrayOutputStream(length / 2 + 64);
+      byte[] buffer = new byte[64 * 1024];
+      if (last) {
+        deflater.finish();
+        while (!deflater.finished()) {
+          output.write(buffer, 0, deflater.deflate(buffer));
+        }
+      } else {
+        int count;
+        do {
+          count = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+          output.write(buffer, 0, count);
+        } while (count == buffer.length);
+      }
+      return output.toByteArray();
+    } finally {
+      deflater.end();
+    }
+  }
+
+  private static CompressedEntry compress(String name, EntrySource source) throws IOException {
+    SpillingBackingStore store = new SpillingBackingStore();
+    try (StreamCompressor compressor =
+            StreamCompressor.create(Deflater.DEFAULT_COMPRESSION, store);
+        InputStream input = source.open()) {
+      compressor.deflate(input, ZipEntry.DEFLATED);
+      store.closeForWriting();
+
+      ZipArchiveEntry entry = new ZipArchiveEntry(name);
+      entry.setMethod(ZipEntry.DEFLATED);
+      entry.setTime(System.currentTimeMillis());
+      entry.setCrc(compressor.getCrc32());
+      entry.setSize(compressor.getBytesRead());
+      entry.setCompressedSize(compressor.getBytesWrittenForLastEntry());
+      return new CompressedEntry(entry, store);
+    } catch (IOException | RuntimeException e) {
+      store.close();
+      throw e;
+    }
+  }
+
+  private static void discard(PendingEntry pendingEntry) throws IOException {
+    pendingEntry.future.cancel(true);
+    if (!pendingEntry.future.isCancelled()) {
+      try {
+        pendingEntry.future.get().store.close();
+      } catch (ExecutionException e) {
+        // the entry failed to compress, so there is nothing to clean up
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /** Thrown when the contents of a large entry cannot be read, as opposed to written. */
+  private static class EntryReadException extends IOException {
+
+    private EntryReadException(IOException cause) {
+      super(cause);
+    }
+
+    @Override
+    public synchronized IOException getCause() {
+      return (IOException) super.getCause();
+    }
+  }
+
+  /** Supplies the contents of a zip entry. */
+  @FunctionalInterface
+  public interface EntrySource {
+    InputStream open() throws IOException;
+  }
+
+  private static class PendingEntry {
+
+    private final Future<CompressedEntry> future;
+
+    private final Consumer<IOException> onFailure;
+
+    private PendingEntry(Future<CompressedEntry> future, Consumer<IOException> onFailure) {
+      this.future = future;
+      this.onFailure = onFailure;
+    }
+  }
+
+  private static class CompressedEntry {
+
+    private final ZipArchiveEntry entry;
+
+    private final ScatterGatherBackingStore store;
+
+    private CompressedEntry(ZipArchiveEntry entry, ScatterGatherBackingStore store) {
+      this.entry = entry;
+      this.store = store;
+    }
+  }
+
+  /** Holds compressed data in memory, moving it to a temporary file once it grows too large. */
+  private static class SpillingBackingStore implements ScatterGatherBackingStore {
+
+    private byte[] buffer = new byte[8192];
+
+    private int count;
+
+    private Path file;
+
+    private OutputStream fileOutput;
+
+    @Override
+    public void writeOut(byte[] data, int offset, int length) throws IOException {
+      if (fileOutput == null && count + length > MEMORY_BUFFER_BYTES) {
+        file = Files.createTempFile("export", ".deflated");
+        fileOutput = Files.newOutputStream(file);
+        fileOutput.write(buffer, 0, count);
+        buffer = null;
+      }
+
+      if (fileOutput != null) {
+        fileOutput.write(data, offset, length);
+        return;
+      }
+
+      if (count + length > buffer.length) {
+        buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, count + length));
+      }
+      System.arraycopy(data, offset, buffer, count, length);
+      count += length;
+    }
+
+    @Override
+    public void closeForWriting() throws IOException {
+      if (fileOutput != null) {
+        fileOutput.close();
+      }
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+      return file == null ? new ByteArrayInputStream(buffer, 0, count) : Files.newInputStream(file);
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        closeForWriting();
+      } finally {
+        if (file != null) {
+          Files.deleteIfExists(file);
+        }
+      }
+    }
+  }
+}
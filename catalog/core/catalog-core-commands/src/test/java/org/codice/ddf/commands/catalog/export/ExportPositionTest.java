@@ -0,0 +1,107 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.commands.catalog.export;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.AttributeImpl;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.types.Core;
+import java.nio.file.Path;
+import java.util.Date;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ExportPositionTest {
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void testNothingIsCoveredAtStart() {
+    ExportPosition position = new ExportPosition();
+
+    assertThat(position.isCovered(metacard("1", 1000)), is(false));
+    assertThat(position.getSkipCount(), is(0));
+  }
+
+  @Test
+  public void testMetacardsWithTheSameModifiedDateAreTracked() {
+    ExportPosition position = new ExportPosition();
+    position.advance(metacard("1", 1000));
+    position.advance(metacard("2", 2000));
+    position.advance(metacard("3", 2000));
+
+    assertThat(position.isCovered(metacard("1", 1000)), is(true));
+    assertThat(position.isCovered(metacard("2", 2000)), is(true));
+    assertThat(position.isCovered(metacard("4", 2000)), is(false));
+    assertThat(position.isCovered(metacard("5", 3000)), is(false));
+    assertThat(position.getSkipCount(), is(2));
+  }
+
+  @Test
+  public void testMetacardsWithoutModifiedDateAreTracked() {
+    ExportPosition position = new ExportPosition();
+    position.advance(unmodifiedMetacard("1"));
+    position.advance(metacard("2", 1000));
+
+    assertThat(position.isCovered(unmodifiedMetacard("1")), is(true));
+    assertThat(position.isCovered(unmodifiedMetacard("3")), is(false));
+    // the filter of a later part matches the metacards without a modified date again
+    assertThat(position.getSkipCount(), is(2));
+  }
+
+  @Test
+  public void testPositionIsSavedAndLoaded() throws Exception {
+    Path file = temporaryFolder.getRoot().toPath().resolve("position.properties");
+    ExportPosition position = new ExportPosition();
+    position.advance(metacard("1", 2000));
+    position.advance(metacard("2", 2000));
+    position.advance(unmodifiedMetacard("3"));
+    position.completePart();
+    position.save(file);
+
+    ExportPosition loaded = ExportPosition.load(file);
+
+    assertThat(loaded.getCompletedParts(), is(1));
+    assertThat(loaded.getSkipCount(), is(3));
+    assertThat(loaded.isCovered(metacard("2", 2000)), is(true));
+    assertThat(loaded.isCovered(metacard("3", 2000)), is(false));
+    assertThat(loaded.isCovered(unmodifiedMetacard("3")), is(true));
+  }
+
+  @Test
+  public void testMissingFileLoadsStartOfExport() throws Exception {
+    ExportPosition position =
+        ExportPosition.load(temporaryFolder.getRoot().toPath().resolve("missing.properties"));
+
+    assertThat(position.getCompletedParts(), is(0));
+    assertThat(position.isCovered(metacard("1", 1000)), is(false));
+  }
+
+  private static Metacard unmodifiedMetacard(String id) {
+    MetacardImpl metacard = new MetacardImpl();
+    metacard.setId(id);
+    return metacard;
+  }
+
+  private static Metacard metacard(String id, long modified) {
+    MetacardImpl metacard = new MetacardImpl();
+    metacard.setId(id);
+    metacard.setAttribute(new AttributeImpl(Core.METACARD_MODIFIED, new Date(modified)));
+    return metacard;
+  }
+}
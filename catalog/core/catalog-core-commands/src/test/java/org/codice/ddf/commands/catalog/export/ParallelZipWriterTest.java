@@ -0,0 +1,167 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.commands.catalog.export;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ParallelZipWriterTest {
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private final ExecutorService executorService = Executors.newFixedThreadPool(4);
+
+  @After
+  public void tearDown() {
+    executorService.shutdownNow();
+  }
+
+  @Test
+  public void testEntriesAreWrittenInOrder() throws Exception {
+    Map<String, byte[]> entries = new LinkedHashMap<>();
+    Random random = new Random(1);
+    for (int i = 0; i < 50; i++) {
+      // a mix of small, compressible entries and entries too large to hold in memory
+      byte[] data =
+          i % 10 == 0
+              ? new byte[2 * 1024 * 1024]
+              : ("entry " + i).repeat(i + 1).getBytes(StandardCharsets.UTF_8);
+      if (i % 10 == 0) {
+        random.nextBytes(data);
+      }
+      entries.put("entries/" + i + ".txt", data);
+    }
+
+    File file = temporaryFolder.newFile("test.zip");
+    try (ParallelZipWriter writer = new ParallelZipWriter(file, executorService, 8)) {
+      for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+        writer.addEntry(
+            entry.getKey(),
+            -1,
+            () -> new ByteArrayInputStream(entry.getValue()),
+            e -> {
+              throw new AssertionError(e);
+            });
+      }
+      writer.finish();
+    }
+
+    Map<String, byte[]> written = read(file);
+    assertThat(new ArrayList<>(written.keySet()), is(new ArrayList<>(entries.keySet())));
+    for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+      assertThat(written.get(entry.getKey()), is(entry.getValue()));
+    }
+  }
+
+  @Test
+  public void testEntryThatCannotBeReadIsLeftOut() throws Exception {
+    List<String> failures = new ArrayList<>();
+
+    File file = temporaryFolder.newFile("test.zip");
+    try (ParallelZipWriter writer = new ParallelZipWriter(file, executorService, 8)) {
+      writer.addEntry("first", -1, () -> stream("first"), e -> failures.add("first"));
+      writer.addEntry(
+          "broken",
+          -1,
+          () -> {
+            throw new IOException("unreadable");
+          },
+          e -> failures.add(e.getMessage()));
+      writer.addEntry("last", -1, () -> stream("last"), e -> failures.add("last"));
+      writer.finish();
+    }
+
+    assertThat(failures, contains("unreadable"));
+    assertThat(new ArrayList<>(read(file).keySet()), contains("first", "last"));
+  }
+
+  @Test
+  public void testLargeEntriesAreCompressedInBlocks() throws Exception {
+    Map<String, byte[]> large = new LinkedHashMap<>();
+    large.put("several blocks", compressible(3 * 1024 * 1024 + 17));
+    large.put("whole blocks", compressible(2 * 1024 * 1024));
+    large.put("empty", new byte[0]);
+
+    File file = temporaryFolder.newFile("test.zip");
+    try (ParallelZipWriter writer = new ParallelZipWriter(file, executorService, 2)) {
+      writer.addEntry("small", -1, () -> stream("small"), e -> {});
+      for (Map.Entry<String, byte[]> entry : large.entrySet()) {
+        writer.addEntry(
+            entry.getKey(),
+            Long.MAX_VALUE,
+            () -> new ByteArrayInputStream(entry.getValue()),
+            e -> {
+              throw new AssertionError(e);
+            });
+      }
+      writer.addEntry("after", -1, () -> stream("after"), e -> {});
+      writer.finish();
+    }
+
+    Map<String, byte[]> written = read(file);
+    assertThat(
+        new ArrayList<>(written.keySet()),
+        contains("small", "several blocks", "whole blocks", "empty", "after"));
+    for (Map.Entry<String, byte[]> entry : large.entrySet()) {
+      assertThat(written.get(entry.getKey()), is(entry.getValue()));
+    }
+    assertThat(file.length() < 5 * 1024 * 1024 / 2, is(true));
+  }
+
+  private static byte[] compressible(int length) {
+    byte[] data = new byte[length];
+    Random random = new Random(length);
+    for (int i = 0; i < length; i++) {
+      data[i] = (byte) ('a' + random.nextInt(4));
+    }
+    return data;
+  }
+
+  private static InputStream stream(String contents) {
+    return new ByteArrayInputStream(contents.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static Map<String, byte[]> read(File file) throws IOException {
+    Map<String, byte[]> entries = new LinkedHashMap<>();
+    try (ZipInputStream zipInputStream = new ZipInputStream(new FileInputStream(file))) {
+      ZipEntry entry;
+      while ((entry = zipInputStream.getNextEntry()) != null) {
+        entries.put(entry.getName(), IOUtils.toByteArray(zipInputStream));
+      }
+    }
+    return entries;
+  }
+}
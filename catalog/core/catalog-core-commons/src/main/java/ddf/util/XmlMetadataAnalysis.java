@@ -0,0 +1,223 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.util;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.io.StringReader;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.apache.commons.lang.StringUtils;
+import org.codehaus.stax2.XMLInputFactory2;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The result of reading an XML metadata document once, shared by every component that needs
+ * something from the same document.
+ *
+ * <p>Analyses are cached against the identity of the metadata {@link String}, so the policy
+ * plugins, the catalog provider and the event processor all read the same result for a metacard
+ * instead of parsing its metadata again. An analysis only holds its metadata string weakly, so it
+ * is dropped once the string is no longer referenced, and an analysis must only be used while its
+ * metadata string is.
+ *
+ * <p>The document is read with StAX the first time its text or element attributes are asked for.
+ * Other values derived from the document, such as the text selected by a set of XPath expressions,
+ * can be cached alongside with {@link #extract(Object, Function)}.
+ */
+public final class XmlMetadataAnalysis {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(XmlMetadataAnalysis.class);
+
+  private static final long MAX_CACHED_ANALYSES = 1000;
+
+  private static final XMLInputFactory XML_INPUT_FACTORY;
+
+  static {
+    ClassLoader tccl = Thread.currentThread().getContextClassLoader();
+    try {
+      Thread.currentThread().setContextClassLoader(XmlMetadataAnalysis.class.getClassLoader());
+
+      XML_INPUT_FACTORY = XMLInputFactory2.newInstance();
+      XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_REPLACING_ENTITY_REFERENCES, Boolean.FALSE);
+      XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+      XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_COALESCING, Boolean.FALSE);
+      XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_VALIDATING, Boolean.FALSE);
+      XML_INPUT_FACTORY.setProperty(
+          XMLInputFactory.SUPPORT_DTD,
+          Boolean.FALSE); // This disables DTDs entirely for that factory
+    } finally {
+      Thread.currentThread().setContextClassLoader(tccl);
+    }
+  }
+
+  // Weak keys are compared by identity, which is what lets a lookup skip hashing the document.
+  private static final Cache<String, XmlMetadataAnalysis> ANALYSES =
+      CacheBuilder.newBuilder().weakKeys().maximumSize(MAX_CACHED_ANALYSES).build();
+
+  private final WeakReference<String> xml;
+
+  private final Map<Object, Object> extracted = new ConcurrentHashMap<>();
+
+  private volatile boolean parsed = false;
+
+  private boolean wellFormed;
+
+  private String text;
+
+  private Map<String, List<Map<String, String>>> elementAttributes;
+
+  private XmlMetadataAnalysis(String xml) {
+    this.xml = new WeakReference<>(xml);
+  }
+
+  /**
+   * Returns the analysis of {@code xml}, reusing the analysis of an earlier call with the same
+   * {@link String} instance.
+   *
+   * @param xml XML metadata, may not be null
+   */
+  public static XmlMetadataAnalysis of(String xml) {
+    try {
+      return ANALYSES.get(xml, () -> new XmlMetadataAnalysis(xml));
+    } catch (ExecutionException e) {
+      // the loader cannot throw a checked exception
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * @return false if the document could not be read to the end. The text and attributes then only
+   *     hold what was read before the error.
+   */
+  public boolean isWellFormed() {
+    parse();
+    return wellFormed;
+  }
+
+  /**
+   * @return the element text, CDATA and attribute values of the document in document order, each
+   *     trimmed and preceded by one space character
+   */
+  public String getText() {
+    parse();
+    return text;
+  }
+
+  /**
+   * @param localName local name of the elements, compared case-sensitively
+   * @return the attributes, keyed by local name, of each element with the given local name that has
+   *     attributes, in document order
+   */
+  public List<Map<String, String>> getElementAttributes(String localName) {
+    parse();
+    return elementAttributes.getOrDefault(localName, Collections.emptyList());
+  }
+
+  /**
+   * Returns the value {@code extractor} derives from the document for {@code key}, computing it
+   * only the first time it is asked for.
+   *
+   * @param key identifies what is extracted, e.g. the XPath expressions that select it
+   * @param extractor derives the value from the document's XML
+   */
+  @SuppressWarnings("unchecked")
+  public <T> T extract(Object key, Function<String, T> extractor) {
+    return (T) extracted.computeIfAbsent(key, k -> extractor.apply(xml()));
+  }
+
+  private String xml() {
+    String document = xml.get();
+    if (document == null) {
+      throw new IllegalStateException("The metadata of this analysis is no longer referenced.");
+    }
+    return document;
+  }
+
+  private void parse() {
+    if (parsed) {
+      return;
+    }
+    synchronized (this) {
+      if (!parsed) {
+        read();
+        parsed = true;
+      }
+    }
+  }
+
+  private void read() {
+    long start = System.currentTimeMillis();
+    StringBuilder builder = new StringBuilder();
+    Map<String, List<Map<String, String>>> attributesByElement = new HashMap<>();
+    XMLStreamReader xmlStreamReader = null;
+    wellFormed = true;
+
+    try (StringReader reader = new StringReader(xml())) {
+      xmlStreamReader = XML_INPUT_FACTORY.createXMLStreamReader(reader);
+      while (xmlStreamReader.hasNext()) {
+        int event = xmlStreamReader.next();
+
+        if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA) {
+          appendText(builder, xmlStreamReader.getText());
+        } else if (event == XMLStreamConstants.START_ELEMENT
+            && xmlStreamReader.getAttributeCount() > 0) {
+          Map<String, String> attributes = new LinkedHashMap<>();
+          for (int i = 0; i < xmlStreamReader.getAttributeCount(); i++) {
+            String value = xmlStreamReader.getAttributeValue(i);
+            attributes.put(xmlStreamReader.getAttributeLocalName(i), value);
+            appendText(builder, value);
+          }
+          attributesByElement
+              .computeIfAbsent(xmlStreamReader.getLocalName(), name -> new ArrayList<>())
+              .add(attributes);
+        }
+      }
+    } catch (XMLStreamException e) {
+      wellFormed = false;
+      LOGGER.debug("Unable to read XML metadata.", e);
+    } finally {
+      if (xmlStreamReader != null) {
+        try {
+          xmlStreamReader.close();
+        } catch (XMLStreamException e) {
+          LOGGER.debug("Exception closing XMLStreamReader", e);
+        }
+      }
+    }
+
+    text = builder.toString();
+    elementAttributes = attributesByElement;
+    LOGGER.debug("Reading XML metadata took {} ms", System.currentTimeMillis() - start);
+  }
+
+  private static void appendText(StringBuilder builder, String text) {
+    if (StringUtils.isNotBlank(text)) {
+      builder.append(" ").append(text.trim());
+    }
+  }
+}
@@ -0,0 +1,100 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.util;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+public class XmlMetadataAnalysisTest {
+
+  private static final String METADATA =
+      "<metadata>\n"
+          + "  <title controls=\"high med\" countries=\"USA AUS\">  Title1! </title>\n"
+          + "  <creator><name><![CDATA[Somebody]]></name></creator>\n"
+          + "  <security controls=\"low\"/>\n"
+          + "  <security controls=\"up\"/>\n"
+          + "</metadata>";
+
+  @Test
+  public void testText() {
+    XmlMetadataAnalysis analysis = XmlMetadataAnalysis.of(METADATA);
+
+    assertThat(analysis.isWellFormed(), is(true));
+    assertThat(analysis.getText(), is(" high med USA AUS Title1! Somebody low up"));
+  }
+
+  @Test
+  public void testElementAttributes() {
+    XmlMetadataAnalysis analysis = XmlMetadataAnalysis.of(METADATA);
+
+    List<Map<String, String>> title = analysis.getElementAttributes("title");
+    assertThat(title.size(), is(1));
+    assertThat(title.get(0), hasEntry("controls", "high med"));
+    assertThat(title.get(0), hasEntry("countries", "USA AUS"));
+
+    List<Map<String, String>> security = analysis.getElementAttributes("security");
+    assertThat(security.size(), is(2));
+    assertThat(security.get(1), hasEntry("controls", "up"));
+
+    assertThat(analysis.getElementAttributes("creator"), is(empty()));
+    assertThat(analysis.getElementAttributes("Title"), is(empty()));
+  }
+
+  @Test
+  public void testSameMetadataSharesAnalysis() {
+    assertThat(
+        XmlMetadataAnalysis.of(METADATA), is(sameInstance(XmlMetadataAnalysis.of(METADATA))));
+    assertThat(
+        XmlMetadataAnalysis.of(new String(METADATA)),
+        is(not(sameInstance(XmlMetadataAnalysis.of(METADATA)))));
+  }
+
+  @Test
+  public void testExtractComputesOnce() {
+    XmlMetadataAnalysis analysis = XmlMetadataAnalysis.of(METADATA);
+    AtomicInteger extractions = new AtomicInteger();
+
+    for (int i = 0; i < 3; i++) {
+      assertThat(
+          analysis.extract(
+              "length",
+              xml -> {
+                extractions.incrementAndGet();
+                return xml.length();
+              }),
+          is(METADATA.length()));
+    }
+    assertThat(extractions.get(), is(1));
+  }
+
+  @Test
+  public void testMalformedMetadata() {
+    XmlMetadataAnalysis analysis =
+        XmlMetadataAnalysis.of("<metadata><title marker=\"A\">Title</title><creator>");
+
+    assertThat(analysis.isWellFormed(), is(false));
+    assertThat(analysis.getText(), is(" A Title"));
+    assertThat(analysis.getElementAttributes("title"), contains(hasEntry("marker", "A")));
+  }
+}
@@ -14,9 +14,11 @@
 package ddf.catalog.pubsub.criteria.contextual;
 
 import ddf.util.XPathHelper;
+import ddf.util.XmlMetadataAnalysis;
 import java.io.IOException;
 import java.io.StringReader;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.xpath.XPathConstants;
@@ -256,13 +258,19 @@ private static void logTokens(
 
   /**
    * Extract the text from the specified XML Document that is to be indexed using the specified
-   * XPath selectors.
+   * XPath selectors. The text is kept with the document's {@link XmlMetadataAnalysis}, so every
+   * subscription that selects the same paths from the same metadata shares one parse of it.
    *
    * @param document
    * @param xpathSelectors
    * @return
    */
   private static String getIndexableText(String document, String[] xpathSelectors) {
+    return XmlMetadataAnalysis.of(document)
+        .extract(Arrays.asList(xpathSelectors), xml -> extractIndexableText(xml, xpathSelectors));
+  }
+
+  private static String extractIndexableText(String document, String[] xpathSelectors) {
     List<String> indexedText = new ArrayList<>();
 
     LOGGER.debug("xpathSelectors.size = {}", xpathSelectors.length);
@@ -31,6 +31,7 @@
 import ddf.catalog.plugin.StopProcessingException;
 import ddf.catalog.source.Source;
 import ddf.catalog.util.impl.RelevanceResultComparator;
+import io.opentelemetry.context.Context;
 import java.io.Serializable;
 import java.util.Collections;
 import java.util.Comparator;
@@ -99,6 +100,8 @@ public class SortedFederationStrategy implements FederationStrategy {
 
   private int maxStartIndex;
 
+  private int maxHeapResults;
+
   /**
    * Instantiates an {@code AbstractFederationStrategy} with the provided {@link ExecutorService}.
    *
@@ -197,10 +200,11 @@ public QueryResponse federate(List<Source> sources, QueryRequest queryRequest) {
 
         QueryRequest finalSourceQueryRequest = sourceQueryRequest;
         Map<Object, Object> originalThreadResources = ThreadContext.getResources();
+        Context originalContext = Context.current();
         futures.put(
             queryCompletion.submit(
                 () ->
-                    new TimedSource(source, originalThreadResources)
+                    new TimedSource(source, originalThreadResources, originalContext)
                         .query(finalSourceQueryRequest)),
             sourceQueryRequest);
       }
@@ -222,7 +226,12 @@ public QueryResponse federate(List<Source> sources, QueryRequest queryRequest) {
     queryExecutorService.submit(
         new QueryResponseRunnableMonitor(
             sortedQueryMonitorFactory.createMonitor(
-                queryCompletion, futures, queryResponseQueue, modifiedQueryRequest, postQuery),
+                queryCompletion,
+                futures,
+                queryResponseQueue,
+                modifiedQueryRequest,
+                postQuery,
+                maxHeapResults),
             queryResponseQueue));
 
     QueryResponse queryResponse;
@@ -301,6 +310,17 @@ public void setMaxStartIndex(int maxStartIndex) {
     }
   }
 
+  /**
+   * To be set via Spring/Blueprint
+   *
+   * @param maxHeapResults the number of merged results kept on the heap while a query is federated;
+   *     further results are held off-heap until they are returned. A value of 0 or less keeps every
+   *     result on the heap.
+   */
+  public void setMaxHeapResults(int maxHeapResults) {
+    this.maxHeapResults = maxHeapResults;
+  }
+
   static class OffsetResultHandler implements Runnable {
 
     private QueryResponseImpl originalResults = null;
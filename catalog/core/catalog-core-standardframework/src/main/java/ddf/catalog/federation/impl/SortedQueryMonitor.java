@@ -25,6 +25,7 @@
 import ddf.catalog.operation.QueryResponse;
 import ddf.catalog.operation.SourceProcessingDetails;
 import ddf.catalog.operation.SourceResponse;
+import ddf.catalog.operation.impl.OffHeapResultBuffer;
 import ddf.catalog.operation.impl.ProcessingDetailsImpl;
 import ddf.catalog.operation.impl.QueryResponseImpl;
 import ddf.catalog.operation.impl.SourceResponseImpl;
@@ -81,6 +82,10 @@ class SortedQueryMonitor implements Runnable {
 
   private final long deadline;
 
+  private final int maxHeapResults;
+
+  private OffHeapResultBuffer offHeapResults;
+
   private Map<Object, Object> originalThreadResources;
 
   public SortedQueryMonitor(
@@ -90,6 +95,23 @@ public SortedQueryMonitor(
       QueryResponseImpl returnResults,
       QueryRequest request,
       List<PostFederatedQueryPlugin> postQuery) {
+    this(originalThreadResources, completionService, futures, returnResults, request, postQuery, 0);
+  }
+
+  /**
+   * @param maxHeapResults the number of merged results kept on the heap; further results are held
+   *     off-heap until they are taken from {@code returnResults}. A value of 0 or less keeps every
+   *     result on the heap.
+   */
+  public SortedQueryMonitor(
+      Map<Object, Object> originalThreadResources,
+      CompletionService<SourceResponse> completionService,
+      Map<Future<SourceResponse>, QueryRequest> futures,
+      QueryResponseImpl returnResults,
+      QueryRequest request,
+      List<PostFederatedQueryPlugin> postQuery,
+      int maxHeapResults) {
+    this.maxHeapResults = maxHeapResults;
     this.originalThreadResources = originalThreadResources;
     this.completionService = completionService;
     this.returnResults = returnResults;
@@ -125,12 +147,16 @@ public void run() {
 
       // Prepare the Comparators that we will use
       CollectionResultComparator resultComparator = new CollectionResultComparator();
+      // Results held off-heap keep these attributes so that they can be sorted in place
+      Set<String> sortAttributes = new HashSet<>();
+      sortAttributes.add(Metacard.EFFECTIVE);
       if (!sortBys.isEmpty()) {
         for (SortBy sort : sortBys) {
           Comparator<Result> comparator = null;
 
           PropertyName sortingProp = sort.getPropertyName();
           String sortType = sortingProp.getPropertyName();
+          sortAttributes.add(sortType);
           SortOrder sortOrder =
               (sort.getSortOrder() == null) ? SortOrder.DESCENDING : sort.getSortOrder();
           LOGGER.debug("Sorting type: {}", sortType);
@@ -160,6 +186,7 @@ public void run() {
       }
 
       List<Result> resultList = new ArrayList<>();
+      int heapResults = 0;
       long totalHits = 0;
       Set<ProcessingDetails> detailsOfReturnResults = returnResults.getProcessingDetails();
 
@@ -219,7 +246,14 @@ public void run() {
           sourceResponse =
               executePostFederationQueryPluginsWithSourceError(queryRequest, sourceId, e);
         }
-        resultList.addAll(sourceResponse.getResults());
+        heapResults =
+            addResults(resultList, sourceResponse.getResults(), heapResults, sortAttributes);
+        if (query.getPageSize() > 0 && resultList.size() > 2 * query.getPageSize()) {
+          // Only the first page is returned, so the merged results never need to hold more
+          resultList = new ArrayList<>(sortedResults(resultList, resultComparator));
+          heapResults =
+              (int) resultList.stream().filter(r -> !OffHeapResultBuffer.isSpilled(r)).count();
+        }
         long hits = sourceResponse.getHits();
         totalHits += hits;
         hitsPerSource.merge(sourceId, hits, (l1, l2) -> l1 + l2);
@@ -269,6 +303,40 @@ List<Result> sortedResults(List<Result> results, Comparator<? super Result> comp
     return results.size() > maxResults ? results.subList(0, maxResults) : results;
   }
 
+  /**
+   * Adds {@code sourceResults} to {@code resultList}, holding each result off-heap once {@code
+   * resultList} already holds {@link #maxHeapResults} results on the heap.
+   *
+   * @return the number of results in {@code resultList} held on the heap
+   */
+  private int addResults(
+      List<Result> resultList,
+      List<Result> sourceResults,
+      int heapResults,
+      Collection<String> sortAttributes) {
+    if (maxHeapResults <= 0) {
+      resultList.addAll(sourceResults);
+      return heapResults + sourceResults.size();
+    }
+
+    for (Result result : sourceResults) {
+      Result spilled = null;
+      if (heapResults >= maxHeapResults) {
+        if (offHeapResults == null) {
+          offHeapResults = new OffHeapResultBuffer();
+        }
+        spilled = offHeapResults.spill(result, sortAttributes);
+      }
+      if (spilled != null) {
+        resultList.add(spilled);
+      } else {
+        resultList.add(result);
+        heapResults++;
+      }
+    }
+    return heapResults;
+  }
+
   private static Comparable getAttributeValue(Result r, String attributeName) {
     if (r == null) {
       return null;
@@ -30,7 +30,8 @@ public Runnable createMonitor(
       final Map<Future<SourceResponse>, QueryRequest> futures,
       final QueryResponseImpl returnResults,
       final QueryRequest request,
-      List<PostFederatedQueryPlugin> postQuery) {
+      List<PostFederatedQueryPlugin> postQuery,
+      int maxHeapResults) {
 
     return new SortedQueryMonitor(
         ThreadContext.getResources(),
@@ -38,6 +39,7 @@ public Runnable createMonitor(
         futures,
         returnResults,
         request,
-        postQuery);
+        postQuery,
+        maxHeapResults);
   }
 }
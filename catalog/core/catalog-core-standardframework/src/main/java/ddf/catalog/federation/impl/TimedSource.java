@@ -14,11 +14,15 @@
 package ddf.catalog.federation.impl;
 
 import ddf.catalog.data.ContentType;
+import ddf.catalog.impl.CatalogTracing;
 import ddf.catalog.operation.QueryRequest;
 import ddf.catalog.operation.SourceResponse;
 import ddf.catalog.source.Source;
 import ddf.catalog.source.SourceMonitor;
 import ddf.catalog.source.UnsupportedQueryException;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
 import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
@@ -43,13 +47,27 @@ public class TimedSource implements Source {
 
   private Map<Object, Object> originalThreadResources;
 
+  private final Context originalContext;
+
   public TimedSource(Source originalSource) {
     this(originalSource, null);
   }
 
   public TimedSource(Source originalSource, Map<Object, Object> originalThreadResources) {
+    this(originalSource, originalThreadResources, Context.current());
+  }
+
+  /**
+   * @param originalSource the source to query
+   * @param originalThreadResources the security resources of the thread the query came from
+   * @param originalContext the tracing context of the thread the query came from, which the span of
+   *     the source query is a child of
+   */
+  public TimedSource(
+      Source originalSource, Map<Object, Object> originalThreadResources, Context originalContext) {
     source = originalSource;
     this.originalThreadResources = originalThreadResources;
+    this.originalContext = originalContext;
   }
 
   @Override
@@ -66,7 +84,8 @@ public boolean isAvailable(SourceMonitor callback) {
   public SourceResponse query(QueryRequest request) throws UnsupportedQueryException {
     long startTime = System.nanoTime();
     Map<Object, Object> threadResources = ThreadContext.getResources();
-    try {
+    Span span = CatalogTracing.startSourceSpan(source.getId(), originalContext);
+    try (Scope ignored = span.makeCurrent()) {
       if (originalThreadResources != null && !originalThreadResources.isEmpty()) {
         ThreadContext.remove();
         ThreadContext.setResources(originalThreadResources);
@@ -74,6 +93,7 @@ public SourceResponse query(QueryRequest request) throws UnsupportedQueryExcepti
         LOGGER.warn("TimedSource executing without a security thread context");
       }
       SourceResponse result = source.query(request);
+      span.setAttribute(CatalogTracing.HITS, result.getHits());
       long endTime = System.nanoTime();
 
       // get the elapsed time in ms (rounded by adding 1/2 a ms -> 500000)
@@ -98,7 +118,11 @@ public SourceResponse query(QueryRequest request) throws UnsupportedQueryExcepti
       }
 
       return result;
+    } catch (UnsupportedQueryException | RuntimeException e) {
+      CatalogTracing.recordFailure(span, e);
+      throw e;
     } finally {
+      span.end();
       ThreadContext.remove();
       ThreadContext.setResources(threadResources);
     }
@@ -23,6 +23,7 @@
 import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.federation.FederationException;
 import ddf.catalog.federation.FederationStrategy;
+import ddf.catalog.impl.CatalogTracing.TracedCall;
 import ddf.catalog.impl.operations.CreateOperations;
 import ddf.catalog.impl.operations.DeleteOperations;
 import ddf.catalog.impl.operations.QueryOperations;
@@ -87,6 +88,8 @@ public class CatalogFrameworkImpl extends DescribableImpl implements CatalogFram
 
   private List<String> fanoutTagBlacklist = new ArrayList<>();
 
+  private long slowOperationThresholdMillis;
+
   private Masker masker;
 
   private CreateOperations createOperations;
@@ -173,6 +176,17 @@ public void setFanoutTagBlacklist(List<String> fanoutTagBlacklist) {
     this.fanoutTagBlacklist = fanoutTagBlacklist;
   }
 
+  /**
+   * Sets how long an operation can take before the time spent in each of its plugin chains is
+   * logged.
+   *
+   * @param slowOperationThresholdMillis the threshold in milliseconds, or 0 to not log slow
+   *     operations
+   */
+  public void setSlowOperationThresholdMillis(long slowOperationThresholdMillis) {
+    this.slowOperationThresholdMillis = slowOperationThresholdMillis;
+  }
+
   /**
    * Sets the {@link Masker}
    *
@@ -228,13 +242,9 @@ public SourceInfoResponse getSourceInfo(SourceInfoRequest sourceInfoRequest)
   @Override
   public CreateResponse create(CreateStorageRequest createRequest)
       throws IngestException, SourceUnavailableException {
-    List<String> blacklist = Collections.emptyList();
-
-    if (fanoutEnabled) {
-      blacklist = new ArrayList<>(fanoutTagBlacklist);
-    }
-
-    return createOperations.create(createRequest, blacklist);
+    List<String> blacklist =
+        fanoutEnabled ? new ArrayList<>(fanoutTagBlacklist) : Collections.emptyList();
+    return ingestOperation("create", () -> createOperations.create(createRequest, blacklist));
   }
 
   @Override
@@ -244,7 +254,7 @@ public CreateResponse create(CreateRequest createRequest)
       throw new IngestException(FANOUT_MESSAGE);
     }
 
-    return createOperations.create(createRequest);
+    return ingestOperation("create", () -> createOperations.create(createRequest));
   }
 
   @Override
@@ -254,7 +264,7 @@ public UpdateResponse update(UpdateStorageRequest updateRequest)
       throw new IngestException(FANOUT_MESSAGE);
     }
 
-    return updateOperations.update(updateRequest);
+    return ingestOperation("update", () -> updateOperations.update(updateRequest));
   }
 
   @Override
@@ -264,31 +274,29 @@ public UpdateResponse update(UpdateRequest updateRequest)
       throw new IngestException(FANOUT_MESSAGE);
     }
 
-    return updateOperations.update(updateRequest);
+    return ingestOperation("update", () -> updateOperations.update(updateRequest));
   }
 
   @Override
   public DeleteResponse delete(DeleteRequest deleteRequest)
       throws IngestException, SourceUnavailableException {
 
-    List<String> blacklist = Collections.emptyList();
-
-    if (fanoutEnabled) {
-      blacklist = new ArrayList<>(fanoutTagBlacklist);
-    }
-    return deleteOperations.delete(deleteRequest, blacklist);
+    List<String> blacklist =
+        fanoutEnabled ? new ArrayList<>(fanoutTagBlacklist) : Collections.emptyList();
+    return ingestOperation("delete", () -> deleteOperations.delete(deleteRequest, blacklist));
   }
 
   @Override
   public QueryResponse query(QueryRequest fedQueryRequest)
       throws UnsupportedQueryException, SourceUnavailableException, FederationException {
-    return queryOperations.query(fedQueryRequest, fanoutEnabled);
+    return queryOperation("query", () -> queryOperations.query(fedQueryRequest, fanoutEnabled));
   }
 
   @Override
   public QueryResponse query(QueryRequest queryRequest, FederationStrategy strategy)
       throws SourceUnavailableException, UnsupportedQueryException, FederationException {
-    return queryOperations.query(queryRequest, strategy, fanoutEnabled);
+    return queryOperation(
+        "query", () -> queryOperations.query(queryRequest, strategy, fanoutEnabled));
   }
 
   @Override
@@ -308,19 +316,23 @@ public BinaryContent transform(
   @Override
   public ResourceResponse getLocalResource(ResourceRequest resourceRequest)
       throws IOException, ResourceNotFoundException, ResourceNotSupportedException {
-    return resourceOperations.getLocalResource(resourceRequest, fanoutEnabled);
+    return resourceOperation(
+        "resource", () -> resourceOperations.getLocalResource(resourceRequest, fanoutEnabled));
   }
 
   @Override
   public ResourceResponse getResource(ResourceRequest resourceRequest, String resourceSiteName)
       throws IOException, ResourceNotFoundException, ResourceNotSupportedException {
-    return resourceOperations.getResource(resourceRequest, resourceSiteName, fanoutEnabled);
+    return resourceOperation(
+        "resource",
+        () -> resourceOperations.getResource(resourceRequest, resourceSiteName, fanoutEnabled));
   }
 
   @Override
   public ResourceResponse getEnterpriseResource(ResourceRequest resourceRequest)
       throws IOException, ResourceNotFoundException, ResourceNotSupportedException {
-    return resourceOperations.getEnterpriseResource(resourceRequest, fanoutEnabled);
+    return resourceOperation(
+        "resource", () -> resourceOperations.getEnterpriseResource(resourceRequest, fanoutEnabled));
   }
 
   @Deprecated
@@ -350,6 +362,39 @@ public String toString() {
     return ToStringBuilder.reflectionToString(this);
   }
 
+  /**
+   * Traces an ingest operation and times its plugins. There is one of these methods for each set of
+   * exceptions the operations throw, so that the exceptions of an operation passed as a lambda are
+   * kept rather than widened to {@code Exception}.
+   */
+  private <T> T ingestOperation(
+      String operation,
+      TracedCall<T, IngestException, SourceUnavailableException, RuntimeException> call)
+      throws IngestException, SourceUnavailableException {
+    try (OperationTimer timer = OperationTimer.start(operation, slowOperationThresholdMillis)) {
+      return CatalogTracing.traceOperation(operation, call);
+    }
+  }
+
+  private <T> T queryOperation(
+      String operation,
+      TracedCall<T, UnsupportedQueryException, SourceUnavailableException, FederationException>
+          call)
+      throws UnsupportedQueryException, SourceUnavailableException, FederationException {
+    try (OperationTimer timer = OperationTimer.start(operation, slowOperationThresholdMillis)) {
+      return CatalogTracing.traceOperation(operation, call);
+    }
+  }
+
+  private <T> T resourceOperation(
+      String operation,
+      TracedCall<T, IOException, ResourceNotFoundException, ResourceNotSupportedException> call)
+      throws IOException, ResourceNotFoundException, ResourceNotSupportedException {
+    try (OperationTimer timer = OperationTimer.start(operation, slowOperationThresholdMillis)) {
+      return CatalogTracing.traceOperation(operation, call);
+    }
+  }
+
   private boolean blockFanoutStorageRequest(UpdateStorageRequest updateStorageRequest) {
     return blockFanoutContentItems(updateStorageRequest.getContentItems());
   }
@@ -0,0 +1,128 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.impl;
+
+import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+
+/**
+ * Creates the OpenTelemetry spans of the catalog framework: one for each framework operation, with
+ * a child span for each plugin it runs and for each source it queries.
+ *
+ * <p>Spans are created through {@link GlobalOpenTelemetry}, so they are only recorded and exported
+ * when an OpenTelemetry SDK or agent has been installed. Otherwise they are no-ops.
+ */
+public final class CatalogTracing {
+
+  public static final String INSTRUMENTATION_NAME = "ddf.catalog";
+
+  public static final AttributeKey<String> PLUGIN = AttributeKey.stringKey("ddf.catalog.plugin");
+
+  public static final AttributeKey<String> SOURCE = AttributeKey.stringKey("ddf.catalog.source");
+
+  public static final AttributeKey<Long> HITS = AttributeKey.longKey("ddf.catalog.hits");
+
+  private CatalogTracing() {}
+
+  /**
+   * A call that is traced, which can throw up to three kinds of checked exception. Calls that throw
+   * fewer use {@link RuntimeException} for the rest.
+   */
+  @FunctionalInterface
+  public interface TracedCall<T, E1 extends Exception, E2 extends Exception, E3 extends Exception> {
+    T call() throws E1, E2, E3;
+  }
+
+  /**
+   * Runs a framework operation in its own span, which is marked as failed if the operation throws.
+   *
+   * @param operation the name of the operation, such as {@code query}
+   * @param call runs the operation
+   * @return what the operation returned
+   */
+  public static <T, E1 extends Exception, E2 extends Exception, E3 extends Exception>
+      T traceOperation(String operation, TracedCall<T, E1, E2, E3> call) throws E1, E2, E3 {
+    Span span = startOperationSpan(operation);
+    try (Scope ignored = span.makeCurrent()) {
+      return call.call();
+    } catch (Exception e) {
+      recordFailure(span, e);
+      throw e;
+    } finally {
+      span.end();
+    }
+  }
+
+  /**
+   * Starts the span of a framework operation, as a child of the current span if there is one.
+   *
+   * @param operation the name of the operation, such as {@code query}
+   */
+  public static Span startOperationSpan(String operation) {
+    return tracer().spanBuilder("catalog " + operation).startSpan();
+  }
+
+  /**
+   * Starts a span for a whole plugin chain, as a child of the current span. It is used for chains
+   * whose plugins run too many times, such as once per result, for each run to have a span.
+   *
+   * @param chain the name of the plugin chain, such as {@code postquery policy}
+   */
+  public static Span startChainSpan(String chain) {
+    return tracer().spanBuilder(chain).startSpan();
+  }
+
+  /**
+   * Starts the span of one plugin of a plugin chain, as a child of the current span.
+   *
+   * @param chain the name of the plugin chain, such as {@code prequery}
+   * @param plugin the plugin the span times
+   */
+  public static Span startPluginSpan(String chain, Object plugin) {
+    return tracer()
+        .spanBuilder(chain + " " + plugin.getClass().getSimpleName())
+        .setAttribute(PLUGIN, plugin.getClass().getName())
+        .startSpan();
+  }
+
+  /**
+   * Starts the span of a query of a single source. Sources are queried on other threads, so the
+   * parent is given explicitly.
+   *
+   * @param sourceId the id of the source being queried
+   * @param parent the context of the query the source is part of
+   */
+  public static Span startSourceSpan(String sourceId, Context parent) {
+    return tracer()
+        .spanBuilder("source query " + sourceId)
+        .setParent(parent)
+        .setAttribute(SOURCE, sourceId)
+        .startSpan();
+  }
+
+  /** Marks a span as failed by the given exception. The span still has to be ended. */
+  public static void recordFailure(Span span, Throwable throwable) {
+    span.recordException(throwable);
+    span.setStatus(StatusCode.ERROR, throwable.getClass().getSimpleName());
+  }
+
+  private static Tracer tracer() {
+    return GlobalOpenTelemetry.getTracer(INSTRUMENTATION_NAME);
+  }
+}
@@ -0,0 +1,191 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.impl;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Times the plugins a catalog framework operation runs.
+ *
+ * <p>Each plugin run is recorded in a {@code ddf.catalog.plugin.latency} timer tagged with the
+ * operation, the plugin chain (its phase) and the plugin class. While an operation is being timed
+ * on a thread, the plugin runs on that thread are also added up by phase, and if the operation
+ * takes longer than its slow operation threshold, the breakdown is logged along with the slowest
+ * plugin of each phase.
+ */
+public final class OperationTimer implements AutoCloseable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(OperationTimer.class);
+
+  private static final String METRIC_NAME = "ddf.catalog.plugin.latency";
+
+  private static final String NO_OPERATION = "none";
+
+  private static final ThreadLocal<OperationTimer> CURRENT = new ThreadLocal<>();
+
+  /**
+   * The plugin timers by plugin class, phase and operation. They are looked up level by level so
+   * that a plugin run does not build a key, and are held by class so that they do not keep the
+   * classes of uninstalled plugins loaded.
+   */
+  private static final ClassValue<Map<String, Map<String, Timer>>> TIMERS =
+      new ClassValue<>() {
+        @Override
+        protected Map<String, Map<String, Timer>> computeValue(Class<?> pluginClass) {
+          return new ConcurrentHashMap<>();
+        }
+      };
+
+  private final String operation;
+
+  private final long slowThresholdNanos;
+
+  private final long startNanos;
+
+  private final OperationTimer parent;
+
+  private final Map<String, PhaseTime> phases = new LinkedHashMap<>();
+
+  private OperationTimer(String operation, long slowThresholdMillis, OperationTimer parent) {
+    this.operation = operation;
+    this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMillis);
+    this.parent = parent;
+    this.startNanos = System.nanoTime();
+  }
+
+  /**
+   * Starts timing an operation on the current thread. The timer has to be closed on the same
+   * thread.
+   *
+   * @param operation the name of the operation, such as {@code query}
+   * @param slowThresholdMillis how long the operation can take before its breakdown is logged. A
+   *     threshold of 0 or less disables the log.
+   */
+  public static OperationTimer start(String operation, long slowThresholdMillis) {
+    OperationTimer timer = new OperationTimer(operation, slowThresholdMillis, CURRENT.get());
+    CURRENT.set(timer);
+    return timer;
+  }
+
+  /**
+   * Records a plugin run, as part of the operation being timed on the current thread if there is
+   * one.
+   *
+   * @param phase the name of the plugin chain, such as {@code prequery}
+   * @param plugin the plugin that ran
+   * @param startNanos the {@link System#nanoTime()} at which the plugin started
+   */
+  public static void recordPlugin(String phase, Object plugin, long startNanos) {
+    long elapsedNanos = System.nanoTime() - startNanos;
+    OperationTimer current = CURRENT.get();
+    String operation = current == null ? NO_OPERATION : current.operation;
+    Class<?> pluginClass = plugin.getClass();
+
+    pluginTimer(operation, phase, pluginClass).record(elapsedNanos, TimeUnit.NANOSECONDS);
+
+    if (current != null && current.slowThresholdNanos > 0) {
+      current
+          .phases
+          .computeIfAbsent(phase, p -> new PhaseTime())
+          .add(pluginClass.getName(), elapsedNanos);
+    }
+  }
+
+  private static Timer pluginTimer(String operation, String phase, Class<?> pluginClass) {
+    Map<String, Map<String, Timer>> phaseTimers = TIMERS.get(pluginClass);
+    Map<String, Timer> operationTimers = phaseTimers.get(phase);
+    if (operationTimers == null) {
+      operationTimers = phaseTimers.computeIfAbsent(phase, p -> new ConcurrentHashMap<>());
+    }
+    Timer timer = operationTimers.get(operation);
+    if (timer == null) {
+      timer =
+          operationTimers.computeIfAbsent(
+              operation,
+              o ->
+                  Timer.builder(METRIC_NAME)
+                      .description("Latency of catalog framework plugins.")
+                      .tags("operation", o, "phase", phase, "plugin", pluginClass.getName())
+                      .publishPercentiles(0.5, 0.95)
+                      .register(Metrics.globalRegistry));
+    }
+    return timer;
+  }
+
+  @Override
+  public void close() {
+    if (parent == null) {
+      CURRENT.remove();
+    } else {
+      CURRENT.set(parent);
+    }
+
+    long elapsedNanos = System.nanoTime() - startNanos;
+    if (slowThresholdNanos > 0 && elapsedNanos > slowThresholdNanos) {
+      LOGGER.info(
+          "Catalog {} operation took {} ms, over the slow operation threshold of {} ms: {}",
+          operation,
+          TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+          TimeUnit.NANOSECONDS.toMillis(slowThresholdNanos),
+          breakdown(elapsedNanos));
+    }
+  }
+
+  private String breakdown(long elapsedNanos) {
+    StringBuilder breakdown = new StringBuilder();
+    long pluginNanos = 0;
+    for (Map.Entry<String, PhaseTime> phase : phases.entrySet()) {
+      PhaseTime time = phase.getValue();
+      pluginNanos += time.totalNanos;
+      breakdown
+          .append(phase.getKey())
+          .append('=')
+          .append(TimeUnit.NANOSECONDS.toMillis(time.totalNanos))
+          .append(" ms (slowest ")
+          .append(time.slowestPlugin)
+          .append(' ')
+          .append(TimeUnit.NANOSECONDS.toMillis(time.slowestNanos))
+          .append(" ms), ");
+    }
+    return breakdown
+        .append("other=")
+        .append(TimeUnit.NANOSECONDS.toMillis(Math.max(elapsedNanos - pluginNanos, 0)))
+        .append(" ms")
+        .toString();
+  }
+
+  private static class PhaseTime {
+
+    private long totalNanos;
+
+    private String slowestPlugin;
+
+    private long slowestNanos = -1;
+
+    private void add(String plugin, long nanos) {
+      totalNanos += nanos;
+      if (nanos > slowestNanos) {
+        slowestPlugin = plugin;
+        slowestNanos = nanos;
+      }
+    }
+  }
+}
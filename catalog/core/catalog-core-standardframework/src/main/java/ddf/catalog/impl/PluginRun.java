@@ -0,0 +1,89 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.impl;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.context.Scope;
+
+/**
+ * One run of a catalog framework plugin, which is timed by {@link OperationTimer} and, unless the
+ * plugin runs once per item of a request, traced in a span of its own.
+ *
+ * <p>A run has to be closed on the thread that started it, once the plugin has returned or thrown.
+ */
+public final class PluginRun implements AutoCloseable {
+
+  private final String phase;
+
+  private final Object plugin;
+
+  private final Span span;
+
+  private final Scope scope;
+
+  private final long startNanos;
+
+  private PluginRun(String phase, Object plugin, Span span) {
+    this.phase = phase;
+    this.plugin = plugin;
+    this.span = span;
+    this.scope = span == null ? null : span.makeCurrent();
+    this.startNanos = System.nanoTime();
+  }
+
+  /**
+   * Starts a plugin run that is traced in its own span, as a child of the current span.
+   *
+   * @param phase the name of the plugin chain, such as {@code prequery}
+   * @param plugin the plugin that runs
+   */
+  public static PluginRun start(String phase, Object plugin) {
+    return new PluginRun(phase, plugin, CatalogTracing.startPluginSpan(phase, plugin));
+  }
+
+  /**
+   * Starts a plugin run that is only timed. It is used for plugins that run once per item of a
+   * request, whose runs are traced together in a span for the chain.
+   *
+   * @param phase the name of the plugin chain, such as {@code precreate policy}
+   * @param plugin the plugin that runs
+   */
+  public static PluginRun startUntraced(String phase, Object plugin) {
+    return new PluginRun(phase, plugin, null);
+  }
+
+  /** Returns how long the plugin has been running, in nanoseconds. */
+  public long elapsedNanos() {
+    return System.nanoTime() - startNanos;
+  }
+
+  /** Marks the span of the run as failed with the exception the plugin threw. */
+  public void fail(Throwable throwable) {
+    if (span != null) {
+      CatalogTracing.recordFailure(span, throwable);
+    }
+  }
+
+  /** Ends the run, recording how long the plugin took and ending its span. */
+  @Override
+  public void close() {
+    if (scope != null) {
+      scope.close();
+    }
+    OperationTimer.recordPlugin(phase, plugin, startNanos);
+    if (span != null) {
+      span.end();
+    }
+  }
+}
@@ -27,6 +27,7 @@
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.impl.AttributeImpl;
 import ddf.catalog.impl.FrameworkProperties;
+import ddf.catalog.impl.PluginRun;
 import ddf.catalog.operation.CreateRequest;
 import ddf.catalog.operation.CreateResponse;
 import ddf.catalog.operation.OperationTransaction;
@@ -488,10 +489,14 @@ private CreateResponse validateFixCreateResponse(
 
   private CreateResponse processPostIngestPlugins(CreateResponse createResponse) {
     for (final PostIngestPlugin plugin : frameworkProperties.getPostIngest()) {
+      PluginRun run = PluginRun.start("postingest", plugin);
       try {
         createResponse = plugin.process(createResponse);
       } catch (PluginExecutionException e) {
+        run.fail(e);
         LOGGER.info(PROCESSING_ERROR, e);
+      } finally {
+        run.close();
       }
     }
     return createResponse;
@@ -526,10 +531,14 @@ private CreateResponse getCreateResponse(CreateRequest createRequest) throws Ing
   private CreateRequest processPreIngestPlugins(CreateRequest createRequest)
       throws StopProcessingException {
     for (PreIngestPlugin plugin : frameworkProperties.getPreIngest()) {
+      PluginRun run = PluginRun.start("preingest", plugin);
       try {
         createRequest = plugin.process(createRequest);
       } catch (PluginExecutionException e) {
+        run.fail(e);
         LOGGER.info(PROCESSING_ERROR, e);
+      } finally {
+        run.close();
       }
     }
     return createRequest;
@@ -538,7 +547,9 @@ private CreateRequest processPreIngestPlugins(CreateRequest createRequest)
   private CreateRequest processPrecreateAccessPlugins(CreateRequest createRequest)
       throws StopProcessingException {
     for (AccessPlugin plugin : frameworkProperties.getAccessPlugins()) {
-      createRequest = plugin.processPreCreate(createRequest);
+      try (PluginRun ignored = PluginRun.start("precreate access", plugin)) {
+        createRequest = plugin.processPreCreate(createRequest);
+      }
     }
     return createRequest;
   }
@@ -546,7 +557,9 @@ private CreateRequest processPrecreateAccessPlugins(CreateRequest createRequest)
   private CreateRequest processPreAuthorizationPlugins(CreateRequest createRequest)
       throws StopProcessingException {
     for (PreAuthorizationPlugin plugin : frameworkProperties.getPreAuthorizationPlugins()) {
-      createRequest = plugin.processPreCreate(createRequest);
+      try (PluginRun ignored = PluginRun.start("precreate preauthorization", plugin)) {
+        createRequest = plugin.processPreCreate(createRequest);
+      }
     }
     return createRequest;
   }
@@ -559,11 +572,13 @@ private CreateRequest updateCreateRequestPolicyMap(CreateRequest createRequest)
     for (Metacard metacard : createRequest.getMetacards()) {
       HashMap<String, Set<String>> itemPolicyMap = new HashMap<>();
       for (PolicyPlugin plugin : frameworkProperties.getPolicyPlugins()) {
-        PolicyResponse policyResponse =
-            plugin.processPreCreate(metacard, unmodifiablePropertiesMap);
-        opsSecuritySupport.buildPolicyMap(itemPolicyMap, policyResponse.itemPolicy().entrySet());
-        opsSecuritySupport.buildPolicyMap(
-            requestPolicyMap, policyResponse.operationPolicy().entrySet());
+        try (PluginRun ignored = PluginRun.startUntraced("precreate policy", plugin)) {
+          PolicyResponse policyResponse =
+              plugin.processPreCreate(metacard, unmodifiablePropertiesMap);
+          opsSecuritySupport.buildPolicyMap(itemPolicyMap, policyResponse.itemPolicy().entrySet());
+          opsSecuritySupport.buildPolicyMap(
+              requestPolicyMap, policyResponse.operationPolicy().entrySet());
+        }
       }
 
       metacard.setAttribute(new AttributeImpl(Metacard.SECURITY, itemPolicyMap));
@@ -618,10 +633,14 @@ private void populateMetacardMap(
   private CreateStorageResponse processPostCreateStoragePlugins(
       CreateStorageResponse createStorageResponse) {
     for (final PostCreateStoragePlugin plugin : frameworkProperties.getPostCreateStoragePlugins()) {
+      PluginRun run = PluginRun.start("postcreatestorage", plugin);
       try {
         createStorageResponse = plugin.process(createStorageResponse);
       } catch (PluginExecutionException e) {
+        run.fail(e);
         LOGGER.debug(PROCESSING_ERROR, e);
+      } finally {
+        run.close();
       }
     }
     return createStorageResponse;
@@ -630,10 +649,14 @@ private CreateStorageResponse processPostCreateStoragePlugins(
   private CreateStorageRequest processPreCreateStoragePlugins(
       CreateStorageRequest createStorageRequest) {
     for (final PreCreateStoragePlugin plugin : frameworkProperties.getPreCreateStoragePlugins()) {
+      PluginRun run = PluginRun.start("precreatestorage", plugin);
       try {
         createStorageRequest = plugin.process(createStorageRequest);
       } catch (PluginExecutionException e) {
+        run.fail(e);
         LOGGER.debug(PROCESSING_ERROR, e);
+      } finally {
+        run.close();
       }
     }
     return createStorageRequest;
@@ -25,6 +25,7 @@
 import ddf.catalog.federation.FederationException;
 import ddf.catalog.history.Historian;
 import ddf.catalog.impl.FrameworkProperties;
+import ddf.catalog.impl.PluginRun;
 import ddf.catalog.operation.DeleteRequest;
 import ddf.catalog.operation.DeleteResponse;
 import ddf.catalog.operation.Operation;
@@ -249,10 +250,14 @@ private String buildDeleteLog(DeleteResponse deleteResponse) {
 
   private DeleteResponse processPostIngestPlugins(DeleteResponse deleteResponse) {
     for (final PostIngestPlugin plugin : frameworkProperties.getPostIngest()) {
+      PluginRun run = PluginRun.start("postingest", plugin);
       try {
         deleteResponse = plugin.process(deleteResponse);
       } catch (PluginExecutionException e) {
+        run.fail(e);
         LOGGER.info("Plugin exception", e);
+      } finally {
+        run.close();
       }
     }
     return deleteResponse;
@@ -261,7 +266,9 @@ private DeleteResponse processPostIngestPlugins(DeleteResponse deleteResponse) {
   private DeleteResponse processPostDeleteAccessPlugins(DeleteResponse deleteResponse)
       throws StopProcessingException {
     for (AccessPlugin plugin : frameworkProperties.getAccessPlugins()) {
-      deleteResponse = plugin.processPostDelete(deleteResponse);
+      try (PluginRun ignored = PluginRun.start("postdelete access", plugin)) {
+        deleteResponse = plugin.processPostDelete(deleteResponse);
+      }
     }
     return deleteResponse;
   }
@@ -275,11 +282,14 @@ private DeleteRequest populateDeleteRequestPolicyMap(
       for (Metacard metacard : deleteResponse.getDeletedMetacards()) {
         HashMap<String, Set<String>> itemPolicyMap = new HashMap<>();
         for (PolicyPlugin plugin : frameworkProperties.getPolicyPlugins()) {
-          PolicyResponse policyResponse =
-              plugin.processPostDelete(metacard, unmodifiableProperties);
-          opsSecuritySupport.buildPolicyMap(itemPolicyMap, policyResponse.itemPolicy().entrySet());
-          opsSecuritySupport.buildPolicyMap(
-              responsePolicyMap, policyResponse.operationPolicy().entrySet());
+          try (PluginRun ignored = PluginRun.startUntraced("postdelete policy", plugin)) {
+            PolicyResponse policyResponse =
+                plugin.processPostDelete(metacard, unmodifiableProperties);
+            opsSecuritySupport.buildPolicyMap(
+                itemPolicyMap, policyResponse.itemPolicy().entrySet());
+            opsSecuritySupport.buildPolicyMap(
+                responsePolicyMap, policyResponse.operationPolicy().entrySet());
+          }
         }
         metacard.setAttribute(new AttributeImpl(Metacard.SECURITY, itemPolicyMap));
       }
@@ -356,10 +366,14 @@ private boolean foundAllDeleteRequestMetacards(
   private DeleteRequest processPreIngestPlugins(DeleteRequest deleteRequest)
       throws StopProcessingException {
     for (PreIngestPlugin plugin : frameworkProperties.getPreIngest()) {
+      PluginRun run = PluginRun.start("preingest", plugin);
       try {
         deleteRequest = plugin.process(deleteRequest);
       } catch (PluginExecutionException e) {
+        run.fail(e);
         LOGGER.info("Plugin processing failed. This is allowable. Skipping to next plugin.", e);
+      } finally {
+        run.close();
       }
     }
     return deleteRequest;
@@ -368,7 +382,9 @@ private DeleteRequest processPreIngestPlugins(DeleteRequest deleteRequest)
   private DeleteRequest processPreDeleteAccessPlugins(DeleteRequest deleteRequest)
       throws StopProcessingException {
     for (AccessPlugin plugin : frameworkProperties.getAccessPlugins()) {
-      deleteRequest = plugin.processPreDelete(deleteRequest);
+      try (PluginRun ignored = PluginRun.start("predelete access", plugin)) {
+        deleteRequest = plugin.processPreDelete(deleteRequest);
+      }
     }
     return deleteRequest;
   }
@@ -381,9 +397,11 @@ private DeleteRequest processPreDeletePolicyPlugins(DeleteRequest deleteRequest)
 
     HashMap<String, Set<String>> requestPolicyMap = new HashMap<>();
     for (PolicyPlugin plugin : frameworkProperties.getPolicyPlugins()) {
-      PolicyResponse policyResponse = plugin.processPreDelete(metacards, unmodifiableProperties);
-      opsSecuritySupport.buildPolicyMap(
-          requestPolicyMap, policyResponse.operationPolicy().entrySet());
+      try (PluginRun ignored = PluginRun.start("predelete policy", plugin)) {
+        PolicyResponse policyResponse = plugin.processPreDelete(metacards, unmodifiableProperties);
+        opsSecuritySupport.buildPolicyMap(
+            requestPolicyMap, policyResponse.operationPolicy().entrySet());
+      }
     }
     deleteRequest.getProperties().put(PolicyPlugin.OPERATION_SECURITY, requestPolicyMap);
 
@@ -429,7 +447,9 @@ private DeleteRequest populateMetacards(
   private DeleteRequest preProcessPreAuthorizationPlugins(DeleteRequest deleteRequest)
       throws StopProcessingException {
     for (PreAuthorizationPlugin plugin : frameworkProperties.getPreAuthorizationPlugins()) {
-      deleteRequest = plugin.processPreDelete(deleteRequest);
+      try (PluginRun ignored = PluginRun.start("predelete preauthorization", plugin)) {
+        deleteRequest = plugin.processPreDelete(deleteRequest);
+      }
     }
     return deleteRequest;
   }
@@ -437,7 +457,9 @@ private DeleteRequest preProcessPreAuthorizationPlugins(DeleteRequest deleteRequ
   private DeleteResponse postProcessPreAuthorizationPlugins(DeleteResponse deleteResponse)
       throws StopProcessingException {
     for (PreAuthorizationPlugin plugin : frameworkProperties.getPreAuthorizationPlugins()) {
-      deleteResponse = plugin.processPostDelete(deleteResponse);
+      try (PluginRun ignored = PluginRun.start("postdelete preauthorization", plugin)) {
+        deleteResponse = plugin.processPostDelete(deleteResponse);
+      }
     }
     return deleteResponse;
   }
@@ -30,7 +30,9 @@
 import ddf.catalog.filter.FilterBuilder;
 import ddf.catalog.filter.FilterDelegate;
 import ddf.catalog.filter.delegate.TagsFilterDelegate;
+import ddf.catalog.impl.CatalogTracing;
 import ddf.catalog.impl.FrameworkProperties;
+import ddf.catalog.impl.PluginRun;
 import ddf.catalog.operation.Operation;
 import ddf.catalog.operation.ProcessingDetails;
 import ddf.catalog.operation.Query;
@@ -64,6 +66,8 @@
 import ddf.security.permission.CollectionPermission;
 import ddf.security.permission.KeyValueCollectionPermission;
 import ddf.security.permission.Permissions;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.context.Scope;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -515,16 +519,19 @@ boolean includesLocalSources(Set<String> sourceIds) {
   private QueryResponse processPostQueryPlugins(QueryResponse queryResponse)
       throws FederationException {
     for (PostQueryPlugin service : frameworkProperties.getPostQuery()) {
+      PluginRun run = PluginRun.start("postquery", service);
       try {
-        long start = System.nanoTime();
         queryResponse = service.process(queryResponse);
-        long elapsedTime = System.nanoTime() - start;
         putMetricsDuration(
-            queryResponse, getMetric(QM_POSTQUERY, service, QM_ELAPSED), elapsedTime);
+            queryResponse, getMetric(QM_POSTQUERY, service, QM_ELAPSED), run.elapsedNanos());
       } catch (PluginExecutionException see) {
+        run.fail(see);
         LOGGER.debug("Error executing PostQueryPlugin: {}", see.getMessage(), see);
       } catch (StopProcessingException e) {
+        run.fail(e);
         throw new FederationException(QUERY_FAILURE_MSG, e);
+      } finally {
+        run.close();
       }
     }
     return queryResponse;
@@ -533,14 +540,16 @@ private QueryResponse processPostQueryPlugins(QueryResponse queryResponse)
   private QueryResponse processPostQueryAccessPlugins(QueryResponse queryResponse)
       throws FederationException {
     for (AccessPlugin plugin : frameworkProperties.getAccessPlugins()) {
+      PluginRun run = PluginRun.start("postquery access", plugin);
       try {
-        long start = System.nanoTime();
         queryResponse = plugin.processPostQuery(queryResponse);
-        long elapsedTime = System.nanoTime() - start;
         putMetricsDuration(
-            queryResponse, getMetric(QM_POSTQUERYACCESS, plugin, QM_ELAPSED), elapsedTime);
+            queryResponse, getMetric(QM_POSTQUERYACCESS, plugin, QM_ELAPSED), run.elapsedNanos());
       } catch (StopProcessingException e) {
+        run.fail(e);
         throw new FederationException(QUERY_FAILURE_MSG, e);
+      } finally {
+        run.close();
       }
     }
     return queryResponse;
@@ -551,23 +560,31 @@ private QueryResponse populateQueryResponsePolicyMap(QueryResponse queryResponse
     HashMap<String, Set<String>> responsePolicyMap = new HashMap<>();
     Map<String, Serializable> unmodifiableProperties =
         Collections.unmodifiableMap(queryResponse.getProperties());
-    for (Result result : queryResponse.getResults()) {
-      HashMap<String, Set<String>> itemPolicyMap = new HashMap<>();
-      for (PolicyPlugin plugin : frameworkProperties.getPolicyPlugins()) {
-        try {
-          long start = System.nanoTime();
-          PolicyResponse policyResponse = plugin.processPostQuery(result, unmodifiableProperties);
-          opsSecuritySupport.buildPolicyMap(itemPolicyMap, policyResponse.itemPolicy().entrySet());
-          opsSecuritySupport.buildPolicyMap(
-              responsePolicyMap, policyResponse.operationPolicy().entrySet());
-          long elapsedTime = System.nanoTime() - start;
-          putMetricsDuration(
-              queryResponse, getMetric(QM_RESPONSE_POLICYMAP, plugin, QM_ELAPSED), elapsedTime);
-        } catch (StopProcessingException e) {
-          throw new FederationException(QUERY_FAILURE_MSG, e);
+    // the policy plugins run once per result, so they share a single span rather than one each
+    Span span = CatalogTracing.startChainSpan("postquery policy");
+    try (Scope ignored = span.makeCurrent()) {
+      for (Result result : queryResponse.getResults()) {
+        HashMap<String, Set<String>> itemPolicyMap = new HashMap<>();
+        for (PolicyPlugin plugin : frameworkProperties.getPolicyPlugins()) {
+          try (PluginRun run = PluginRun.startUntraced("postquery policy", plugin)) {
+            PolicyResponse policyResponse = plugin.processPostQuery(result, unmodifiableProperties);
+            opsSecuritySupport.buildPolicyMap(
+                itemPolicyMap, policyResponse.itemPolicy().entrySet());
+            opsSecuritySupport.buildPolicyMap(
+                responsePolicyMap, policyResponse.operationPolicy().entrySet());
+            putMetricsDuration(
+                queryResponse,
+                getMetric(QM_RESPONSE_POLICYMAP, plugin, QM_ELAPSED),
+                run.elapsedNanos());
+          } catch (StopProcessingException e) {
+            CatalogTracing.recordFailure(span, e);
+            throw new FederationException(QUERY_FAILURE_MSG, e);
+          }
         }
+        result.getMetacard().setAttribute(new AttributeImpl(Metacard.SECURITY, itemPolicyMap));
       }
-      result.getMetacard().setAttribute(new AttributeImpl(Metacard.SECURITY, itemPolicyMap));
+    } finally {
+      span.end();
     }
     queryResponse.getProperties().put(PolicyPlugin.OPERATION_SECURITY, responsePolicyMap);
 
@@ -576,15 +593,19 @@ private QueryResponse populateQueryResponsePolicyMap(QueryResponse queryResponse
 
   private QueryRequest processPreQueryPlugins(QueryRequest queryReq) throws FederationException {
     for (PreQueryPlugin service : frameworkProperties.getPreQuery()) {
+      PluginRun run = PluginRun.start("prequery", service);
       try {
-        long start = System.nanoTime();
         queryReq = service.process(queryReq);
-        long elapsedTime = System.nanoTime() - start;
-        putMetricsDuration(queryReq, getMetric(QM_PREQUERY, service, QM_ELAPSED), elapsedTime);
+        putMetricsDuration(
+            queryReq, getMetric(QM_PREQUERY, service, QM_ELAPSED), run.elapsedNanos());
       } catch (PluginExecutionException see) {
+        run.fail(see);
         LOGGER.debug("Error executing PreQueryPlugin: {}", see.getMessage(), see);
       } catch (StopProcessingException e) {
+        run.fail(e);
         throw new FederationException(QUERY_FAILURE_MSG, e);
+      } finally {
+        run.close();
       }
     }
     return queryReq;
@@ -593,13 +614,16 @@ private QueryRequest processPreQueryPlugins(QueryRequest queryReq) throws Federa
   private QueryRequest processPreQueryAccessPlugins(QueryRequest queryReq)
       throws FederationException {
     for (AccessPlugin plugin : frameworkProperties.getAccessPlugins()) {
+      PluginRun run = PluginRun.start("prequery access", plugin);
       try {
-        long start = System.nanoTime();
         queryReq = plugin.processPreQuery(queryReq);
-        long elapsedTime = System.nanoTime() - start;
-        putMetricsDuration(queryReq, getMetric(QM_POSTQUERY, plugin, QM_ELAPSED), elapsedTime);
+        putMetricsDuration(
+            queryReq, getMetric(QM_POSTQUERY, plugin, QM_ELAPSED), run.elapsedNanos());
       } catch (StopProcessingException e) {
+        run.fail(e);
         throw new FederationException(QUERY_FAILURE_MSG, e);
+      } finally {
+        run.close();
       }
     }
     return queryReq;
@@ -608,13 +632,16 @@ private QueryRequest processPreQueryAccessPlugins(QueryRequest queryReq)
   private QueryRequest preProcessPreAuthorizationPlugins(QueryRequest queryRequest)
       throws FederationException {
     for (PreAuthorizationPlugin plugin : frameworkProperties.getPreAuthorizationPlugins()) {
+      PluginRun run = PluginRun.start("prequery preauthorization", plugin);
       try {
-        long start = System.nanoTime();
         queryRequest = plugin.processPreQuery(queryRequest);
-        long elapsedTime = System.nanoTime() - start;
-        putMetricsDuration(queryRequest, getMetric(QM_PREAUTH, plugin, QM_ELAPSED), elapsedTime);
+        putMetricsDuration(
+            queryRequest, getMetric(QM_PREAUTH, plugin, QM_ELAPSED), run.elapsedNanos());
       } catch (StopProcessingException e) {
+        run.fail(e);
         throw new FederationException(QUERY_FAILURE_MSG, e);
+      } finally {
+        run.close();
       }
     }
     return queryRequest;
@@ -623,13 +650,16 @@ private QueryRequest preProcessPreAuthorizationPlugins(QueryRequest queryRequest
   private QueryResponse postProcessPreAuthorizationPlugins(QueryResponse queryResponse)
       throws FederationException {
     for (PreAuthorizationPlugin plugin : frameworkProperties.getPreAuthorizationPlugins()) {
+      PluginRun run = PluginRun.start("postquery preauthorization", plugin);
       try {
-        long start = System.nanoTime();
         queryResponse = plugin.processPostQuery(queryResponse);
-        long elapsedTime = System.nanoTime() - start;
-        putMetricsDuration(queryResponse, getMetric(QM_PREAUTH, plugin, QM_ELAPSED), elapsedTime);
+        putMetricsDuration(
+            queryResponse, getMetric(QM_PREAUTH, plugin, QM_ELAPSED), run.elapsedNanos());
       } catch (StopProcessingException e) {
+        run.fail(e);
         throw new FederationException(QUERY_FAILURE_MSG, e);
+      } finally {
+        run.close();
       }
     }
     return queryResponse;
@@ -641,17 +671,19 @@ private QueryRequest populateQueryRequestPolicyMap(QueryRequest queryReq)
     Map<String, Serializable> unmodifiableProperties =
         Collections.unmodifiableMap(queryReq.getProperties());
     for (PolicyPlugin plugin : frameworkProperties.getPolicyPlugins()) {
+      PluginRun run = PluginRun.start("prequery policy", plugin);
       try {
-        long start = System.nanoTime();
         PolicyResponse policyResponse =
             plugin.processPreQuery(queryReq.getQuery(), unmodifiableProperties);
         opsSecuritySupport.buildPolicyMap(
             requestPolicyMap, policyResponse.operationPolicy().entrySet());
-        long elapsedTime = System.nanoTime() - start;
         putMetricsDuration(
-            queryReq, getMetric(QM_REQUEST_POLICYMAP, plugin, QM_ELAPSED), elapsedTime);
+            queryReq, getMetric(QM_REQUEST_POLICYMAP, plugin, QM_ELAPSED), run.elapsedNanos());
       } catch (StopProcessingException e) {
+        run.fail(e);
         throw new FederationException(QUERY_FAILURE_MSG, e);
+      } finally {
+        run.close();
       }
     }
     queryReq.getProperties().put(PolicyPlugin.OPERATION_SECURITY, requestPolicyMap);
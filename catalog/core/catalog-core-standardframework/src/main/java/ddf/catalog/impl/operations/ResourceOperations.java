@@ -23,6 +23,7 @@
 import ddf.catalog.filter.impl.PropertyIsEqualToLiteral;
 import ddf.catalog.filter.impl.PropertyNameImpl;
 import ddf.catalog.impl.FrameworkProperties;
+import ddf.catalog.impl.PluginRun;
 import ddf.catalog.operation.Query;
 import ddf.catalog.operation.QueryRequest;
 import ddf.catalog.operation.QueryResponse;
@@ -457,10 +458,14 @@ private ResourceResponse putPropertiesInResponse(
   private ResourceResponse processPostResourcePlugins(ResourceResponse resourceResponse)
       throws StopProcessingException {
     for (PostResourcePlugin plugin : frameworkProperties.getPostResource()) {
+      PluginRun run = PluginRun.start("postresource", plugin);
       try {
         resourceResponse = plugin.process(resourceResponse);
       } catch (PluginExecutionException e) {
+        run.fail(e);
         LOGGER.debug("Plugin processing failed. This is allowable. Skipping to next plugin.", e);
+      } finally {
+        run.close();
       }
     }
     return resourceResponse;
@@ -469,7 +474,9 @@ private ResourceResponse processPostResourcePlugins(ResourceResponse resourceRes
   private ResourceResponse processPostResourceAccessPlugins(
       ResourceResponse resourceResponse, Metacard metacard) throws StopProcessingException {
     for (AccessPlugin plugin : frameworkProperties.getAccessPlugins()) {
-      resourceResponse = plugin.processPostResource(resourceResponse, metacard);
+      try (PluginRun ignored = PluginRun.start("postresource access", plugin)) {
+        resourceResponse = plugin.processPostResource(resourceResponse, metacard);
+      }
     }
     return resourceResponse;
   }
@@ -478,9 +485,11 @@ private ResourceResponse processPostResourcePolicyPlugins(
       ResourceResponse resourceResponse, Metacard metacard) throws StopProcessingException {
     HashMap<String, Set<String>> responsePolicyMap = new HashMap<>();
     for (PolicyPlugin plugin : frameworkProperties.getPolicyPlugins()) {
-      PolicyResponse policyResponse = plugin.processPostResource(resourceResponse, metacard);
-      opsSecuritySupport.buildPolicyMap(
-          responsePolicyMap, policyResponse.operationPolicy().entrySet());
+      try (PluginRun ignored = PluginRun.start("postresource policy", plugin)) {
+        PolicyResponse policyResponse = plugin.processPostResource(resourceResponse, metacard);
+        opsSecuritySupport.buildPolicyMap(
+            responsePolicyMap, policyResponse.operationPolicy().entrySet());
+      }
     }
     resourceResponse.getProperties().put(PolicyPlugin.OPERATION_SECURITY, responsePolicyMap);
     return resourceResponse;
@@ -489,13 +498,17 @@ private ResourceResponse processPostResourcePolicyPlugins(
   private ResourceRequest processPreResourcePlugins(ResourceRequest resourceReq)
       throws StopProcessingException {
     for (PreResourcePlugin plugin : frameworkProperties.getPreResource()) {
+      PluginRun run = PluginRun.start("preresource", plugin);
       try {
         ResourceRequest processed = plugin.process(resourceReq);
         if (processed != null) {
           resourceReq = processed;
         }
       } catch (PluginExecutionException e) {
+        run.fail(e);
         LOGGER.debug("Plugin processing failed. This is allowable. Skipping to next plugin.", e);
+      } finally {
+        run.close();
       }
     }
     return resourceReq;
@@ -504,7 +517,9 @@ private ResourceRequest processPreResourcePlugins(ResourceRequest resourceReq)
   private ResourceRequest processPreResourceAccessPlugins(ResourceRequest resourceReq)
       throws StopProcessingException {
     for (AccessPlugin plugin : frameworkProperties.getAccessPlugins()) {
-      resourceReq = plugin.processPreResource(resourceReq);
+      try (PluginRun ignored = PluginRun.start("preresource access", plugin)) {
+        resourceReq = plugin.processPreResource(resourceReq);
+      }
     }
     return resourceReq;
   }
@@ -513,9 +528,11 @@ private ResourceRequest processPreResourcePolicyPlugins(ResourceRequest resource
       throws StopProcessingException {
     HashMap<String, Set<String>> requestPolicyMap = new HashMap<>();
     for (PolicyPlugin plugin : frameworkProperties.getPolicyPlugins()) {
-      PolicyResponse policyResponse = plugin.processPreResource(resourceReq);
-      opsSecuritySupport.buildPolicyMap(
-          requestPolicyMap, policyResponse.operationPolicy().entrySet());
+      try (PluginRun ignored = PluginRun.start("preresource policy", plugin)) {
+        PolicyResponse policyResponse = plugin.processPreResource(resourceReq);
+        opsSecuritySupport.buildPolicyMap(
+            requestPolicyMap, policyResponse.operationPolicy().entrySet());
+      }
     }
     resourceReq.getProperties().put(PolicyPlugin.OPERATION_SECURITY, requestPolicyMap);
     return resourceReq;
@@ -524,7 +541,9 @@ private ResourceRequest processPreResourcePolicyPlugins(ResourceRequest resource
   private ResourceRequest preProcessPreAuthorizationPlugins(ResourceRequest resourceRequest)
       throws StopProcessingException {
     for (PreAuthorizationPlugin plugin : frameworkProperties.getPreAuthorizationPlugins()) {
-      resourceRequest = plugin.processPreResource(resourceRequest);
+      try (PluginRun ignored = PluginRun.start("preresource preauthorization", plugin)) {
+        resourceRequest = plugin.processPreResource(resourceRequest);
+      }
     }
     return resourceRequest;
   }
@@ -532,7 +551,9 @@ private ResourceRequest preProcessPreAuthorizationPlugins(ResourceRequest resour
   private ResourceResponse postProcessPreAuthorizationPlugins(
       ResourceResponse resourceResponse, Metacard metacard) throws StopProcessingException {
     for (PreAuthorizationPlugin plugin : frameworkProperties.getPreAuthorizationPlugins()) {
-      resourceResponse = plugin.processPostResource(resourceResponse, metacard);
+      try (PluginRun ignored = PluginRun.start("postresource preauthorization", plugin)) {
+        resourceResponse = plugin.processPostResource(resourceResponse, metacard);
+      }
     }
     return resourceResponse;
   }
@@ -32,6 +32,7 @@
 import ddf.catalog.federation.FederationException;
 import ddf.catalog.history.Historian;
 import ddf.catalog.impl.FrameworkProperties;
+import ddf.catalog.impl.PluginRun;
 import ddf.catalog.operation.Operation;
 import ddf.catalog.operation.OperationTransaction;
 import ddf.catalog.operation.ProcessingDetails;
@@ -474,10 +475,14 @@ private UpdateResponse validateFixUpdateResponse(
 
   private UpdateResponse processPostIngestPlugins(UpdateResponse updateResponse) {
     for (final PostIngestPlugin plugin : frameworkProperties.getPostIngest()) {
+      PluginRun run = PluginRun.start("postingest", plugin);
       try {
         updateResponse = plugin.process(updateResponse);
       } catch (PluginExecutionException e) {
+        run.fail(e);
         LOGGER.info("Plugin exception", e);
+      } finally {
+        run.close();
       }
     }
     return updateResponse;
@@ -512,10 +517,14 @@ private UpdateResponse performLocalUpdate(UpdateRequest updateRequest)
   private UpdateRequest processPreIngestPlugins(UpdateRequest updateRequest)
       throws StopProcessingException {
     for (PreIngestPlugin plugin : frameworkProperties.getPreIngest()) {
+      PluginRun run = PluginRun.start("preingest", plugin);
       try {
         updateRequest = plugin.process(updateRequest);
       } catch (PluginExecutionException e) {
+        run.fail(e);
         LOGGER.debug("error processing update in PreIngestPlugin", e);
+      } finally {
+        run.close();
       }
     }
     return updateRequest;
@@ -525,7 +534,9 @@ private UpdateRequest processPreUpdateAccessPlugins(UpdateRequest updateRequest)
       throws StopProcessingException {
     Map<String, Metacard> metacardMap = getUpdateMap(updateRequest);
     for (AccessPlugin plugin : frameworkProperties.getAccessPlugins()) {
-      updateRequest = plugin.processPreUpdate(updateRequest, metacardMap);
+      try (PluginRun ignored = PluginRun.start("preupdate access", plugin)) {
+        updateRequest = plugin.processPreUpdate(updateRequest, metacardMap);
+      }
     }
     return updateRequest;
   }
@@ -540,19 +551,21 @@ private UpdateRequest populateUpdateRequestPolicyMap(UpdateRequest updateRequest
       Metacard oldMetacard = metacardMap.get(update.getKey().toString());
 
       for (PolicyPlugin plugin : frameworkProperties.getPolicyPlugins()) {
-        PolicyResponse updatePolicyResponse =
-            plugin.processPreUpdate(
-                update.getValue(), Collections.unmodifiableMap(updateRequest.getProperties()));
-        PolicyResponse oldPolicyResponse =
-            plugin.processPreUpdate(
-                oldMetacard, Collections.unmodifiableMap(updateRequest.getProperties()));
-
-        opsSecuritySupport.buildPolicyMap(
-            itemPolicyMap, updatePolicyResponse.itemPolicy().entrySet());
-        opsSecuritySupport.buildPolicyMap(
-            oldItemPolicyMap, oldPolicyResponse.itemPolicy().entrySet());
-        opsSecuritySupport.buildPolicyMap(
-            requestPolicyMap, updatePolicyResponse.operationPolicy().entrySet());
+        try (PluginRun ignored = PluginRun.startUntraced("preupdate policy", plugin)) {
+          PolicyResponse updatePolicyResponse =
+              plugin.processPreUpdate(
+                  update.getValue(), Collections.unmodifiableMap(updateRequest.getProperties()));
+          PolicyResponse oldPolicyResponse =
+              plugin.processPreUpdate(
+                  oldMetacard, Collections.unmodifiableMap(updateRequest.getProperties()));
+
+          opsSecuritySupport.buildPolicyMap(
+              itemPolicyMap, updatePolicyResponse.itemPolicy().entrySet());
+          opsSecuritySupport.buildPolicyMap(
+              oldItemPolicyMap, oldPolicyResponse.itemPolicy().entrySet());
+          opsSecuritySupport.buildPolicyMap(
+              requestPolicyMap, updatePolicyResponse.operationPolicy().entrySet());
+        }
       }
       update.getValue().setAttribute(new AttributeImpl(Metacard.SECURITY, itemPolicyMap));
       if (oldMetacard != null) {
@@ -605,7 +618,9 @@ private UpdateRequest processPreAuthorizationPlugins(UpdateRequest updateRequest
       throws StopProcessingException {
     Map<String, Metacard> metacardMap = getUpdateMap(updateRequest);
     for (PreAuthorizationPlugin plugin : frameworkProperties.getPreAuthorizationPlugins()) {
-      updateRequest = plugin.processPreUpdate(updateRequest, metacardMap);
+      try (PluginRun ignored = PluginRun.start("preupdate preauthorization", plugin)) {
+        updateRequest = plugin.processPreUpdate(updateRequest, metacardMap);
+      }
     }
     return updateRequest;
   }
@@ -651,10 +666,14 @@ private UpdateRequest validateLocalSource(UpdateRequest updateRequest)
   private UpdateStorageResponse processPostUpdateStoragePlugins(
       UpdateStorageResponse updateStorageResponse) {
     for (final PostUpdateStoragePlugin plugin : frameworkProperties.getPostUpdateStoragePlugins()) {
+      PluginRun run = PluginRun.start("postupdatestorage", plugin);
       try {
         updateStorageResponse = plugin.process(updateStorageResponse);
       } catch (PluginExecutionException e) {
+        run.fail(e);
         LOGGER.debug("Plugin processing failed. This is allowable. Skipping to next plugin.", e);
+      } finally {
+        run.close();
       }
     }
     return updateStorageResponse;
@@ -663,10 +682,14 @@ private UpdateStorageResponse processPostUpdateStoragePlugins(
   private UpdateStorageRequest processPreUpdateStoragePlugins(
       UpdateStorageRequest updateStorageRequest) {
     for (final PreUpdateStoragePlugin plugin : frameworkProperties.getPreUpdateStoragePlugins()) {
+      PluginRun run = PluginRun.start("preupdatestorage", plugin);
       try {
         updateStorageRequest = plugin.process(updateStorageRequest);
       } catch (PluginExecutionException e) {
+        run.fail(e);
         LOGGER.debug("Plugin processing failed. This is allowable. Skipping to next plugin.", e);
+      } finally {
+        run.close();
       }
     }
     return updateStorageRequest;
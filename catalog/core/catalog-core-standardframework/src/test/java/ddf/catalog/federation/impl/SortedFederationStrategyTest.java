@@ -18,6 +18,7 @@
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
@@ -239,7 +240,8 @@ public void testStartIndexGreaterThanMaxStartIndex() throws Exception {
             any(Map.class),
             responseArgumentCaptor.capture(),
             requestArgumentCaptor.capture(),
-            any(List.class)))
+            any(List.class),
+            anyInt()))
         .thenReturn(mockSortedQueryMonitor);
 
     SortedFederationStrategy federateStrategy =
@@ -282,7 +284,8 @@ public void testStartIndexGreaterThanMaxStartIndex() throws Exception {
             any(Map.class),
             responseArgumentCaptor.capture(),
             requestArgumentCaptor.capture(),
-            any(List.class));
+            any(List.class),
+            anyInt());
     assertThat(requestArgumentCaptor.getValue().getQuery().getStartIndex(), is(1));
   }
 
@@ -296,7 +299,8 @@ public void testSortedQueryMonitorException() throws Exception {
             any(Map.class),
             responseArgumentCaptor.capture(),
             requestArgumentCaptor.capture(),
-            any(List.class)))
+            any(List.class),
+            anyInt()))
         .thenReturn(
             () -> {
               throw new RuntimeException("Unhandled sorted query monitor exception");
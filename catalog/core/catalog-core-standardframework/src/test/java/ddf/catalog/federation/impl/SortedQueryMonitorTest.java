@@ -405,8 +405,26 @@ public void testNonComparableDescending() throws Exception {
         SortOrder.DESCENDING);
   }
 
+  @Test
+  public void testSortResultsHeldOffHeap() throws Exception {
+    testSorting(
+        new String[] {"C", null, "b", "a"},
+        new String[] {"a", "b", "C", null},
+        SortOrder.ASCENDING,
+        1);
+  }
+
   private void testSorting(
       Serializable[] inputArray, Serializable[] outputArray, SortOrder sortOrder) throws Exception {
+    testSorting(inputArray, outputArray, sortOrder, 0);
+  }
+
+  private void testSorting(
+      Serializable[] inputArray,
+      Serializable[] outputArray,
+      SortOrder sortOrder,
+      int maxHeapResults)
+      throws Exception {
     PropertyName propertyName = mock(PropertyName.class);
     when(propertyName.getPropertyName()).thenReturn(TEST_PROPERTY);
 
@@ -431,7 +449,13 @@ private void testSorting(
 
     SortedQueryMonitor queryMonitor =
         new SortedQueryMonitor(
-            null, completionService, futures, queryResponse, queryRequest, new ArrayList<>());
+            null,
+            completionService,
+            futures,
+            queryResponse,
+            queryRequest,
+            new ArrayList<>(),
+            maxHeapResults);
 
     Future<SourceResponse> currFuture = futures.keySet().iterator().next();
     when(completionService.poll(anyLong(), any())).thenAnswer((invocationOnMock -> currFuture));
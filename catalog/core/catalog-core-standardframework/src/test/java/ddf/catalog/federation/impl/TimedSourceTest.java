@@ -0,0 +1,92 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.federation.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import ddf.catalog.impl.CatalogTracing;
+import ddf.catalog.operation.QueryRequest;
+import ddf.catalog.operation.impl.SourceResponseImpl;
+import ddf.catalog.source.Source;
+import ddf.catalog.source.UnsupportedQueryException;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.testing.junit4.OpenTelemetryRule;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+public class TimedSourceTest {
+
+  private static final String SOURCE_ID = "source1";
+
+  @Rule public OpenTelemetryRule openTelemetry = OpenTelemetryRule.create();
+
+  private final Source source = mock(Source.class);
+
+  private final QueryRequest request = mock(QueryRequest.class);
+
+  @Before
+  public void setUp() {
+    when(source.getId()).thenReturn(SOURCE_ID);
+  }
+
+  @Test
+  public void testSourceQueryIsTracedAsChildOfCaller() throws Exception {
+    when(source.query(any(QueryRequest.class)))
+        .thenReturn(new SourceResponseImpl(request, Collections.emptyList(), 12L));
+    Span parent =
+        openTelemetry.getOpenTelemetry().getTracer("test").spanBuilder("parent").startSpan();
+
+    new TimedSource(source, Collections.emptyMap(), Context.root().with(parent)).query(request);
+    parent.end();
+
+    SpanData sourceSpan = getSpan("source query " + SOURCE_ID);
+    assertThat(sourceSpan.getParentSpanId(), is(parent.getSpanContext().getSpanId()));
+    assertThat(sourceSpan.getAttributes().get(CatalogTracing.SOURCE), is(SOURCE_ID));
+    assertThat(sourceSpan.getAttributes().get(CatalogTracing.HITS), is(12L));
+  }
+
+  @Test(expected = UnsupportedQueryException.class)
+  public void testFailedSourceQueryIsRecorded() throws Exception {
+    when(source.query(any(QueryRequest.class))).thenThrow(new UnsupportedQueryException("bad"));
+
+    try {
+      new TimedSource(source, Collections.emptyMap(), Context.root()).query(request);
+    } finally {
+      SpanData sourceSpan = getSpan("source query " + SOURCE_ID);
+      assertThat(sourceSpan.getStatus().getStatusCode(), is(StatusCode.ERROR));
+      assertThat(sourceSpan.getEvents(), hasSize(1));
+    }
+  }
+
+  private SpanData getSpan(String name) {
+    List<SpanData> spans =
+        openTelemetry.getSpans().stream()
+            .filter(span -> span.getName().equals(name))
+            .collect(Collectors.toList());
+    assertThat(spans, hasSize(1));
+    return spans.get(0);
+  }
+}
@@ -0,0 +1,137 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class OperationTimerTest {
+
+  private static final String METRIC_NAME = "ddf.catalog.plugin.latency";
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  private final Object plugin = new Object();
+
+  @Before
+  public void setUp() {
+    Metrics.addRegistry(meterRegistry);
+  }
+
+  @After
+  public void tearDown() {
+    Metrics.removeRegistry(meterRegistry);
+  }
+
+  @Test
+  public void testPluginIsTimedAsPartOfCurrentOperation() throws Exception {
+    try (OperationTimer timer = OperationTimer.start("query", 1)) {
+      long start = System.nanoTime();
+      Thread.sleep(5);
+      OperationTimer.recordPlugin("prequery", plugin, start);
+    }
+
+    Timer timer = pluginTimer("query", "prequery");
+    assertThat(timer.count(), is(1L));
+    assertThat(timer.totalTime(TimeUnit.MILLISECONDS), greaterThanOrEqualTo(5.0));
+  }
+
+  @Test
+  public void testPluginOutsideOperationIsTimed() {
+    OperationTimer.recordPlugin("postquery", plugin, System.nanoTime());
+
+    assertThat(pluginTimer("none", "postquery").count(), is(1L));
+  }
+
+  @Test
+  public void testNestedOperationRestoresOuterOperation() {
+    try (OperationTimer outer = OperationTimer.start("update", 0)) {
+      try (OperationTimer inner = OperationTimer.start("query", 0)) {
+        OperationTimer.recordPlugin("prequery", plugin, System.nanoTime());
+      }
+      OperationTimer.recordPlugin("preingest", plugin, System.nanoTime());
+    }
+    OperationTimer.recordPlugin("postingest", plugin, System.nanoTime());
+
+    assertThat(pluginTimer("query", "prequery").count(), is(1L));
+    assertThat(pluginTimer("update", "preingest").count(), is(1L));
+    assertThat(pluginTimer("none", "postingest").count(), is(1L));
+  }
+
+  @Test
+  public void testPluginRunIsTimed() throws Exception {
+    try (OperationTimer timer = OperationTimer.start("create", 0)) {
+      try (PluginRun run = PluginRun.start("preingest", plugin)) {
+        Thread.sleep(5);
+        assertThat(run.elapsedNanos(), greaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(5)));
+      }
+      try (PluginRun run = PluginRun.startUntraced("precreate policy", plugin)) {
+        run.fail(new IllegalStateException());
+      }
+    }
+
+    assertThat(pluginTimer("create", "preingest").count(), is(1L));
+    assertThat(
+        pluginTimer("create", "preingest").totalTime(TimeUnit.MILLISECONDS),
+        greaterThanOrEqualTo(5.0));
+    assertThat(pluginTimer("create", "precreate policy").count(), is(1L));
+  }
+
+  @Test
+  public void testPluginsAreTimedSeparatelyByOperationPhaseAndClass() {
+    Object otherPlugin = new StringBuilder();
+    try (OperationTimer timer = OperationTimer.start("delete", 0)) {
+      OperationTimer.recordPlugin("predelete access", plugin, System.nanoTime());
+      OperationTimer.recordPlugin("predelete access", plugin, System.nanoTime());
+      OperationTimer.recordPlugin("predelete policy", plugin, System.nanoTime());
+      OperationTimer.recordPlugin("predelete access", otherPlugin, System.nanoTime());
+    }
+    try (OperationTimer timer = OperationTimer.start("resource", 0)) {
+      OperationTimer.recordPlugin("predelete access", plugin, System.nanoTime());
+    }
+
+    assertThat(pluginTimer("delete", "predelete access").count(), is(2L));
+    assertThat(pluginTimer("delete", "predelete policy").count(), is(1L));
+    assertThat(pluginTimer("resource", "predelete access").count(), is(1L));
+    assertThat(
+        meterRegistry
+            .get(METRIC_NAME)
+            .tags(
+                "operation",
+                "delete",
+                "phase",
+                "predelete access",
+                "plugin",
+                StringBuilder.class.getName())
+            .timer()
+            .count(),
+        is(1L));
+  }
+
+  private Timer pluginTimer(String operation, String phase) {
+    return meterRegistry
+        .get(METRIC_NAME)
+        .tags("operation", operation, "phase", phase, "plugin", Object.class.getName())
+        .timer();
+  }
+}
@@ -0,0 +1,228 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.federation.layered.replication;
+
+/** A change to a metacard that is waiting in the {@link ReplicationOutbox} to be replicated. */
+final class ReplicationChange {
+
+  enum Operation {
+    CREATE,
+    UPDATE,
+    DELETE,
+    /** Updates the metacard, or creates it if the parent does not have it. */
+    UPSERT
+  }
+
+  private final long sequence;
+
+  private final Operation operation;
+
+  private final String id;
+
+  private final String mimeType;
+
+  private final byte[] payload;
+
+  private final long createdMillis;
+
+  private final int attempts;
+
+  private final long notBeforeMillis;
+
+  private final long logPosition;
+
+  ReplicationChange(
+      long sequence,
+      Operation operation,
+      String id,
+      String mimeType,
+      byte[] payload,
+      long createdMillis) {
+    this(sequence, operation, id, mimeType, payload, createdMillis, 0, 0, -1);
+  }
+
+  private ReplicationChange(
+      long sequence,
+      Operation operation,
+      String id,
+      String mimeType,
+      byte[] payload,
+      long createdMillis,
+      int attempts,
+      long notBeforeMillis,
+      long logPosition) {
+    this.sequence = sequence;
+    this.operation = operation;
+    this.id = id;
+    this.mimeType = mimeType;
+    this.payload = payload;
+    this.createdMillis = createdMillis;
+    this.attempts = attempts;
+    this.notBeforeMillis = notBeforeMillis;
+    this.logPosition = logPosition;
+  }
+
+  /**
+   * Combines two changes to the same metacard into the single change that brings the parent to the
+   * same state, or returns null if nothing needs to be sent at all.
+   *
+   * <p>A create that was never attempted followed by an update is still a create, of the updated
+   * metacard, and followed by a delete cancels out. A create that was attempted may have reached
+   * the parent, so followed by an update it becomes an upsert. Otherwise the later change replaces
+   * the earlier one. The result keeps the time of the earlier change so that the replication lag is
+   * not understated, and is not due before either change, so that a change to a metacard that is
+   * waiting to be retried does not skip the retry delay.
+   */
+  static ReplicationChange coalesce(ReplicationChange earlier, ReplicationChange later) {
+    if (earlier.operation == Operation.CREATE
+        && earlier.attempts == 0
+        && later.operation == Operation.DELETE) {
+      return null;
+    }
+
+    Operation operation = later.operation;
+    if (later.operation == Operation.UPDATE) {
+      if (earlier.operation == Operation.CREATE && earlier.attempts == 0) {
+        operation = Operation.CREATE;
+      } else if (earlier.operation == Operation.CREATE || earlier.operation == Operation.UPSERT) {
+        operation = Operation.UPSERT;
+      }
+    }
+    return new ReplicationChange(
+        later.sequence,
+        operation,
+        later.id,
+        later.mimeType,
+        later.payload,
+        Math.min(earlier.createdMillis, later.createdMillis),
+        Math.max(earlier.attempts, later.attempts),
+        Math.max(earlier.notBeforeMillis, later.notBeforeMillis),
+        later.logPosition);
+  }
+
+  /** @return this change, numbered {@code sequence} in the outbox */
+  ReplicationChange withSequence(long sequence) {
+    return new ReplicationChange(
+        sequence,
+        operation,
+        id,
+        mimeType,
+        payload,
+        createdMillis,
+        attempts,
+        notBeforeMillis,
+        logPosition);
+  }
+
+  /** @return this change, to be tried again no earlier than {@code notBeforeMillis} */
+  ReplicationChange retryAfter(long notBeforeMillis) {
+    return new ReplicationChange(
+        sequence,
+        operation,
+        id,
+        mimeType,
+        payload,
+        createdMillis,
+        attempts + 1,
+        notBeforeMillis,
+        logPosition);
+  }
+
+  /**
+   * @return this change without its payload, which is read back from the record at {@code
+   *     logPosition} in the outbox log when it is needed
+   */
+  ReplicationChange atLogPosition(long logPosition) {
+    return new ReplicationChange(
+        sequence,
+        operation,
+        id,
+        mimeType,
+        null,
+        createdMillis,
+        attempts,
+        notBeforeMillis,
+        logPosition);
+  }
+
+  /** @return this change, sent as {@code operation} */
+  ReplicationChange withOperation(Operation operation) {
+    return new ReplicationChange(
+        sequence,
+        operation,
+        id,
+        mimeType,
+        payload,
+        createdMillis,
+        attempts,
+        notBeforeMillis,
+        logPosition);
+  }
+
+  /** @return this change with {@code payload}, read back from the outbox log */
+  ReplicationChange withPayload(byte[] payload) {
+    return new ReplicationChange(
+        sequence,
+        operation,
+        id,
+        mimeType,
+        payload,
+        createdMillis,
+        attempts,
+        notBeforeMillis,
+        logPosition);
+  }
+
+  long getSequence() {
+    return sequence;
+  }
+
+  Operation getOperation() {
+    return operation;
+  }
+
+  String getId() {
+    return id;
+  }
+
+  String getMimeType() {
+    return mimeType;
+  }
+
+  byte[] getPayload() {
+    return payload;
+  }
+
+  long getCreatedMillis() {
+    return createdMillis;
+  }
+
+  int getAttempts() {
+    return attempts;
+  }
+
+  long getNotBeforeMillis() {
+    return notBeforeMillis;
+  }
+
+  /** @return the position of this change's record in the outbox log, or -1 if it is not logged */
+  long getLogPosition() {
+    return logPosition;
+  }
+
+  @Override
+  public String toString() {
+    return operation + " " + id;
+  }
+}
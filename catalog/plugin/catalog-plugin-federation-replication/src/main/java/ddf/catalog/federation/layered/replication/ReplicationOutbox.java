@@ -0,0 +1,602 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.federation.layered.replication;
+
+import ddf.catalog.federation.layered.replication.ReplicationChange.Operation;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Holds the changes that still have to be replicated, one per metacard, backed by an append-only
+ * log file so that they survive a restart.
+ *
+ * <p>Every change is written to the log before it is accepted, and an acknowledgement is written
+ * once it has been sent. When the outbox is opened, the changes in the log that were never
+ * acknowledged are loaded again. The log is emptied whenever the outbox is, and rewritten to hold
+ * only the outstanding changes once it grows past {@value #COMPACTION_THRESHOLD_BYTES} bytes.
+ *
+ * <p>The outbox only keeps the position of each change's record in the log in memory, and reads the
+ * payload back from the log when the change is handed out. Changes that could not be written to the
+ * log keep their payload in memory.
+ *
+ * <p>A change for a metacard that is already in the outbox is coalesced with the earlier change
+ * (see {@link ReplicationChange#coalesce(ReplicationChange, ReplicationChange)}), and the changes
+ * it replaces are acknowledged. At most one change per metacard is handed out at a time, so changes
+ * to a metacard are sent in order.
+ */
+final class ReplicationOutbox implements Closeable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ReplicationOutbox.class);
+
+  static final String LOG_FILE_NAME = "outbox.log";
+
+  private static final String COMPACTED_LOG_FILE_NAME = "outbox.log.compacted";
+
+  private static final long COMPACTION_THRESHOLD_BYTES = 64L * 1024 * 1024;
+
+  private static final byte CHANGE_RECORD = 1;
+
+  private static final byte ACKNOWLEDGEMENT_RECORD = 2;
+
+  /** Each record is preceded by its length and its CRC-32. */
+  private static final int RECORD_HEADER_BYTES = 8;
+
+  private final Path directory;
+
+  private final Path logFile;
+
+  private final Map<String, ReplicationChange> pending = new LinkedHashMap<>();
+
+  private final Map<String, ReplicationChange> inFlight = new HashMap<>();
+
+  /** The sequences of changes replaced by coalescing that have not been acknowledged yet. */
+  private final List<Long> superseded = new ArrayList<>();
+
+  private FileChannel log;
+
+  /** Reads payloads back from the log, which is opened for appending only. */
+  private FileChannel reader;
+
+  private long nextSequence = 1;
+
+  /**
+   * Opens the outbox kept in {@code directory}, creating it if needed. If the log cannot be opened
+   * the outbox still works, but only holds changes in memory.
+   */
+  ReplicationOutbox(Path directory) {
+    this.directory = directory;
+    this.logFile = directory.resolve(LOG_FILE_NAME);
+
+    try {
+      Files.createDirectories(directory);
+      if (Files.exists(logFile)) {
+        load();
+      }
+      openLog();
+    } catch (IOException e) {
+      LOGGER.warn(
+          "Unable to open the replication outbox at [{}]. Changes waiting to be replicated will be lost if the system is stopped.",
+          logFile,
+          e);
+    }
+    acknowledgeSuperseded();
+
+    if (!pending.isEmpty()) {
+      LOGGER.info("Loaded {} changes waiting to be replicated from [{}].", pending.size(), logFile);
+    }
+  }
+
+  /**
+   * Adds {@code changes} to the outbox. When this returns, the changes have been written to the log
+   * and will be replicated even if the system is stopped before they are sent.
+   */
+  synchronized void addAll(List<ReplicationChange> changes) {
+    List<ReplicationChange> sequenced = new ArrayList<>(changes.size());
+    for (ReplicationChange change : changes) {
+      sequenced.add(change.withSequence(nextSequence++));
+    }
+
+    long[] positions = append(log, sequenced.stream().map(ReplicationOutbox::encodeChange), true);
+    for (int i = 0; i < sequenced.size(); i++) {
+      ReplicationChange change = sequenced.get(i);
+      put(positions == null ? change : change.atLogPosition(positions[i]));
+    }
+    acknowledgeSuperseded();
+  }
+
+  /**
+   * Hands out up to {@code max} changes that are due to be sent, with their payloads. The changes
+   * must be passed back to {@link #completed(List)} or {@link #retry(ReplicationChange, long)}. A
+   * change whose payload can no longer be read from the log is dropped.
+   */
+  synchronized List<ReplicationChange> take(int max, long nowMillis) {
+    List<ReplicationChange> due = new ArrayList<>();
+    Iterator<ReplicationChange> changes = pending.values().iterator();
+    while (changes.hasNext() && due.size() < max) {
+      ReplicationChange change = changes.next();
+      if (change.getNotBeforeMillis() <= nowMillis && !inFlight.containsKey(change.getId())) {
+        changes.remove();
+        try {
+          due.add(readPayload(change));
+          inFlight.put(change.getId(), change);
+        } catch (IOException e) {
+          LOGGER.warn(
+              "Unable to read [{}] back from the replication outbox at [{}]. The change will not be replicated.",
+              change,
+              logFile,
+              e);
+          superseded.add(change.getSequence());
+        }
+      }
+    }
+    acknowledgeSuperseded();
+    return due;
+  }
+
+  /** Removes changes handed out by {@link #take(int, long)} that need not be sent again. */
+  synchronized void completed(List<ReplicationChange> changes) {
+    if (changes.isEmpty()) {
+      return;
+    }
+
+    changes.forEach(change -> inFlight.remove(change.getId()));
+    if (pending.isEmpty() && inFlight.isEmpty()) {
+      superseded.clear();
+      truncate();
+    } else {
+      append(
+          log,
+          changes.stream()
+              .map(ReplicationChange::getSequence)
+              .map(ReplicationOutbox::encodeAcknowledgement),
+          false);
+      compactIfNeeded();
+    }
+  }
+
+  /**
+   * Puts back a change handed out by {@link #take(int, long)} that could not be sent, to be handed
+   * out again no earlier than {@code notBeforeMillis}.
+   */
+  synchronized void retry(ReplicationChange change, long notBeforeMillis) {
+    // the change kept in the outbox does not hold the payload, and is moved if the log is compacted
+    ReplicationChange stored = inFlight.remove(change.getId());
+    ReplicationChange retry = (stored == null ? change : stored).retryAfter(notBeforeMillis);
+    ReplicationChange later = pending.remove(change.getId());
+    if (later == null) {
+      pending.put(retry.getId(), retry);
+      return;
+    }
+
+    ReplicationChange merged = ReplicationChange.coalesce(retry, later);
+    superseded.add(retry.getSequence());
+    if (merged == null) {
+      superseded.add(later.getSequence());
+    } else {
+      pending.put(merged.getId(), merged);
+    }
+    acknowledgeSuperseded();
+  }
+
+  /**
+   * @return the earliest time at which a change that is not being sent is due, or -1 if there are
+   *     no such changes
+   */
+  synchronized long nextDueMillis() {
+    return pending.values().stream()
+        .filter(change -> !inFlight.containsKey(change.getId()))
+        .mapToLong(ReplicationChange::getNotBeforeMillis)
+        .min()
+        .orElse(-1);
+  }
+
+  /** @return the number of changes that have not been replicated yet */
+  synchronized int size() {
+    return pending.size() + inFlight.size();
+  }
+
+  /**
+   * @return how long the oldest change that has not been replicated yet has been waiting, in
+   *     milliseconds, or 0 if there is no such change
+   */
+  synchronized long getLagMillis(long nowMillis) {
+    OptionalLong oldest =
+        Stream.concat(pending.values().stream(), inFlight.values().stream())
+            .mapToLong(ReplicationChange::getCreatedMillis)
+            .min();
+    return oldest.isPresent() ? Math.max(0, nowMillis - oldest.getAsLong()) : 0;
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    if (log != null) {
+      log.close();
+      log = null;
+    }
+    if (reader != null) {
+      reader.close();
+      reader = null;
+    }
+  }
+
+  private void openLog() throws IOException {
+    log =
+        FileChannel.open(
+            logFile,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.APPEND);
+    reader = FileChannel.open(logFile, StandardOpenOption.READ);
+  }
+
+  /** @return {@code change} with the payload read back from its record in the log */
+  private ReplicationChange readPayload(ReplicationChange change) throws IOException {
+    if (change.getLogPosition() < 0) {
+      return change;
+    }
+
+    ReplicationChange logged = decodeChange(readRecord(change.getLogPosition()), true);
+    if (logged.getSequence() != change.getSequence()) {
+      throw new IOException(
+          "Found change " + logged.getSequence() + " instead of " + change.getSequence());
+    }
+    return change.withPayload(logged.getPayload());
+  }
+
+  /** @return the change record at {@code position} in the log, after its type */
+  private DataInputStream readRecord(long position) throws IOException {
+    if (reader == null) {
+      throw new IOException("The log is not open");
+    }
+
+    ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_BYTES);
+    readFully(header, position);
+    int length = header.getInt(0);
+    long checksum = header.getInt(4) & 0xFFFFFFFFL;
+    if (length < 1 || length > reader.size() - position - RECORD_HEADER_BYTES) {
+      throw new IOException("Invalid record length " + length + " at " + position);
+    }
+
+    byte[] record = new byte[length];
+    readFully(ByteBuffer.wrap(record), position + RECORD_HEADER_BYTES);
+    CRC32 crc = new CRC32();
+    crc.update(record);
+    if (crc.getValue() != checksum || record[0] != CHANGE_RECORD) {
+      throw new IOException("Invalid change record at " + position);
+    }
+    return new DataInputStream(new ByteArrayInputStream(record, 1, length - 1));
+  }
+
+  private void readFully(ByteBuffer buffer, long position) throws IOException {
+    while (buffer.hasRemaining()) {
+      if (reader.read(buffer, position + buffer.position()) < 0) {
+        throw new EOFException("Reached the end of the log at " + position);
+      }
+    }
+  }
+
+  private void put(ReplicationChange change) {
+    // replacing an entry keeps its place in the map, so the oldest changes are still sent first
+    ReplicationChange earlier = pending.get(change.getId());
+    if (earlier == null) {
+      pending.put(change.getId(), change);
+      return;
+    }
+
+    // the merged change takes the sequence of the later one, so the earlier one is never sent
+    ReplicationChange merged = ReplicationChange.coalesce(earlier, change);
+    superseded.add(earlier.getSequence());
+    if (merged == null) {
+      superseded.add(change.getSequence());
+      pending.remove(change.getId());
+    } else {
+      pending.put(merged.getId(), merged);
+    }
+  }
+
+  /**
+   * Acknowledges the changes replaced by coalescing, so that they are not loaded again when the
+   * outbox is reopened.
+   */
+  private void acknowledgeSuperseded() {
+    if (superseded.isEmpty()) {
+      return;
+    }
+    append(log, superseded.stream().map(ReplicationOutbox::encodeAcknowledgement), false);
+    superseded.clear();
+  }
+
+  /**
+   * Loads the changes in the log that were never acknowledged, and cuts off a record left partly
+   * written when the system was last stopped.
+   */
+  private void load() throws IOException {
+    Set<Long> acknowledged = new HashSet<>();
+    long validBytes =
+        readLog(
+            (type, record, position) -> {
+              if (type == ACKNOWLEDGEMENT_RECORD) {
+                acknowledged.add(record.readLong());
+              }
+            });
+
+    readLog(
+        (type, record, position) -> {
+          if (type == CHANGE_RECORD) {
+            ReplicationChange change = loaded(decodeChange(record, false).atLogPosition(position));
+            nextSequence = Math.max(nextSequence, change.getSequence() + 1);
+            if (!acknowledged.contains(change.getSequence())) {
+              put(change);
+            }
+          } else {
+            nextSequence = Math.max(nextSequence, record.readLong() + 1);
+          }
+        });
+
+    if (validBytes < Files.size(logFile)) {
+      LOGGER.debug("Discarding a partly written record at the end of [{}].", logFile);
+      try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.WRITE)) {
+        channel.truncate(validBytes);
+      }
+    }
+  }
+
+  /**
+   * A create loaded from the log may have reached the parent before the system was stopped, and the
+   * create an update was coalesced with is not reloaded once it has been acknowledged, so both are
+   * sent as upserts.
+   */
+  private static ReplicationChange loaded(ReplicationChange change) {
+    return change.getOperation() == Operation.CREATE || change.getOperation() == Operation.UPDATE
+        ? change.withOperation(Operation.UPSERT)
+        : change;
+  }
+
+  /** @return the number of bytes taken up by the complete records in the log */
+  private long readLog(RecordReader reader) throws IOException {
+    long size = Files.size(logFile);
+    long position = 0;
+
+    try (InputStream stream = new BufferedInputStream(Files.newInputStream(logFile));
+        DataInputStream input = new DataInputStream(stream)) {
+      while (size - position >= RECORD_HEADER_BYTES) {
+        int length = input.readInt();
+        long checksum = input.readInt() & 0xFFFFFFFFL;
+        if (length < 1 || length > size - position - RECORD_HEADER_BYTES) {
+          break;
+        }
+
+        byte[] record = new byte[length];
+        input.readFully(record);
+        CRC32 crc = new CRC32();
+        crc.update(record);
+        if (crc.getValue() != checksum) {
+          break;
+        }
+
+        DataInputStream recordInput =
+            new DataInputStream(new ByteArrayInputStream(record, 1, length - 1));
+        reader.read(record[0], recordInput, position);
+        position += RECORD_HEADER_BYTES + length;
+      }
+    } catch (EOFException e) {
+      LOGGER.debug("Reached the end of [{}] in the middle of a record.", logFile, e);
+    }
+    return position;
+  }
+
+  /**
+   * @return the positions in {@code channel} at which {@code records} were written, or null if they
+   *     could not be written
+   */
+  private long[] append(FileChannel channel, Stream<byte[]> records, boolean force) {
+    if (channel == null) {
+      return null;
+    }
+
+    try {
+      long position = channel.size();
+      List<byte[]> recordList = records.collect(Collectors.toList());
+      long[] positions = new long[recordList.size()];
+      ByteArrayOutputStream frames = new ByteArrayOutputStream();
+      DataOutputStream output = new DataOutputStream(frames);
+      for (int i = 0; i < recordList.size(); i++) {
+        byte[] record = recordList.get(i);
+        positions[i] = position + output.size();
+        CRC32 crc = new CRC32();
+        crc.update(record);
+        output.writeInt(record.length);
+        output.writeInt((int) crc.getValue());
+        output.write(record);
+      }
+      output.flush();
+
+      ByteBuffer buffer = ByteBuffer.wrap(frames.toByteArray());
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      if (force) {
+        channel.force(false);
+      }
+      return positions;
+    } catch (IOException e) {
+      LOGGER.warn(
+          "Unable to write to the replication outbox at [{}]. Changes waiting to be replicated will be lost if the system is stopped.",
+          logFile,
+          e);
+      return null;
+    }
+  }
+
+  private void truncate() {
+    if (log == null) {
+      return;
+    }
+
+    try {
+      log.truncate(0);
+    } catch (IOException e) {
+      LOGGER.debug("Unable to empty the replication outbox at [{}].", logFile, e);
+    }
+  }
+
+  private void compactIfNeeded() {
+    try {
+      if (log == null || log.size() < COMPACTION_THRESHOLD_BYTES) {
+        return;
+      }
+
+      Path compacted = directory.resolve(COMPACTED_LOG_FILE_NAME);
+      List<ReplicationChange> moved = new ArrayList<>();
+      try (FileChannel channel =
+          FileChannel.open(
+              compacted,
+              StandardOpenOption.CREATE,
+              StandardOpenOption.WRITE,
+              StandardOpenOption.TRUNCATE_EXISTING)) {
+        List<ReplicationChange> outstanding =
+            Stream.concat(inFlight.values().stream(), pending.values().stream())
+                .sorted(Comparator.comparingLong(ReplicationChange::getSequence))
+                .collect(Collectors.toList());
+        // one payload at a time is read back, and written with the change it was coalesced into
+        for (ReplicationChange change : outstanding) {
+          long[] positions = append(channel, Stream.of(encodeChange(readPayload(change))), false);
+          if (positions == null) {
+            throw new IOException("Unable to write to " + compacted);
+          }
+          moved.add(change.atLogPosition(positions[0]));
+        }
+        channel.force(false);
+      }
+
+      log.close();
+      reader.close();
+      Files.move(
+          compacted, logFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      openLog();
+      for (ReplicationChange change : moved) {
+        ReplicationChange sending = inFlight.get(change.getId());
+        if (sending != null && sending.getSequence() == change.getSequence()) {
+          inFlight.put(change.getId(), change);
+        } else {
+          pending.put(change.getId(), change);
+        }
+      }
+    } catch (IOException e) {
+      LOGGER.warn("Unable to compact the replication outbox at [{}].", logFile, e);
+      try {
+        if (log == null || !log.isOpen() || reader == null || !reader.isOpen()) {
+          close();
+          openLog();
+        }
+      } catch (IOException reopenException) {
+        LOGGER.warn("Unable to reopen the replication outbox at [{}].", logFile, reopenException);
+        log = null;
+        reader = null;
+      }
+    }
+  }
+
+  private static byte[] encodeChange(ReplicationChange change) {
+    return encode(
+        output -> {
+          output.writeByte(CHANGE_RECORD);
+          output.writeLong(change.getSequence());
+          output.writeByte(change.getOperation().ordinal());
+          output.writeUTF(change.getId());
+          output.writeBoolean(change.getMimeType() != null);
+          if (change.getMimeType() != null) {
+            output.writeUTF(change.getMimeType());
+          }
+          output.writeLong(change.getCreatedMillis());
+          byte[] payload = change.getPayload() == null ? new byte[0] : change.getPayload();
+          output.writeInt(payload.length);
+          output.write(payload);
+        });
+  }
+
+  private static byte[] encodeAcknowledgement(long sequence) {
+    return encode(
+        output -> {
+          output.writeByte(ACKNOWLEDGEMENT_RECORD);
+          output.writeLong(sequence);
+        });
+  }
+
+  private static ReplicationChange decodeChange(DataInputStream input, boolean readPayload)
+      throws IOException {
+    long sequence = input.readLong();
+    Operation operation = Operation.values()[input.readByte()];
+    String id = input.readUTF();
+    String mimeType = input.readBoolean() ? input.readUTF() : null;
+    long createdMillis = input.readLong();
+    byte[] payload = null;
+    if (readPayload) {
+      payload = new byte[input.readInt()];
+      input.readFully(payload);
+    }
+    return new ReplicationChange(sequence, operation, id, mimeType, payload, createdMillis);
+  }
+
+  private static byte[] encode(RecordWriter writer) {
+    try {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      DataOutputStream output = new DataOutputStream(bytes);
+      writer.write(output);
+      output.flush();
+      return bytes.toByteArray();
+    } catch (IOException e) {
+      // only thrown by the in-memory stream if it runs out of memory
+      throw new IllegalStateException(e);
+    }
+  }
+
+  @FunctionalInterface
+  private interface RecordWriter {
+    void write(DataOutputStream output) throws IOException;
+  }
+
+  @FunctionalInterface
+  private interface RecordReader {
+    void read(byte type, DataInputStream record, long position) throws IOException;
+  }
+}
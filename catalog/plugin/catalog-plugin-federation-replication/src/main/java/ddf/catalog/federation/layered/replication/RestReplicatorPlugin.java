@@ -15,6 +15,7 @@
 
 import ddf.catalog.data.BinaryContent;
 import ddf.catalog.data.Metacard;
+import ddf.catalog.federation.layered.replication.ReplicationChange.Operation;
 import ddf.catalog.operation.CreateResponse;
 import ddf.catalog.operation.DeleteResponse;
 import ddf.catalog.operation.Update;
@@ -25,50 +26,167 @@
 import ddf.catalog.transform.CatalogTransformerException;
 import ddf.catalog.transform.MetacardTransformer;
 import ddf.catalog.util.impl.Requests;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Metrics;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
-import org.apache.commons.lang.builder.ToStringBuilder;
 import org.apache.cxf.jaxrs.client.WebClient;
 import org.codice.ddf.configuration.PropertyResolver;
+import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Replicates the metacards created, updated and deleted locally to a parent node.
+ *
+ * <p>Changes are not sent on the ingest thread. They are written to a {@link ReplicationOutbox} and
+ * sent in the background, so a slow or unavailable parent does not slow down ingest. Changes that
+ * cannot be sent are retried with an exponential backoff, and changes that have not been sent when
+ * the system is stopped are sent once it is started again.
+ */
 public class RestReplicatorPlugin implements PostIngestPlugin {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(RestReplicatorPlugin.class);
 
-  private static final String RESPONSE = "RESPONSE: [{}]";
+  private static final String METRIC_PREFIX = "ddf.catalog.replication";
+
+  private static final long INITIAL_RETRY_DELAY_MILLIS = 1000;
+
+  private static final int DEFAULT_BATCH_SIZE = 100;
+
+  private static final int DEFAULT_CONCURRENCY = 4;
+
+  private static final int DEFAULT_MAX_RETRY_DELAY_SECONDS = 300;
+
+  private static final int STOP_TIMEOUT_SECONDS = 10;
 
   /** A configurable property of parent's location. */
   private PropertyResolver parentAddress = null;
 
   private MetacardTransformer transformer = null;
 
-  private WebClient client;
+  private volatile WebClient client;
+
+  private volatile int batchSize = DEFAULT_BATCH_SIZE;
+
+  private volatile long maxRetryDelayMillis =
+      TimeUnit.SECONDS.toMillis(DEFAULT_MAX_RETRY_DELAY_SECONDS);
+
+  private final ReplicationOutbox outbox;
+
+  private final ScheduledExecutorService dispatcher;
+
+  private final ThreadPoolExecutor senders;
+
+  /** Only used by the dispatcher thread. */
+  private ScheduledFuture<?> retryDispatch;
+
+  private final Counter sentChanges;
+
+  private final Counter failedAttempts;
+
+  private final Counter rejectedChanges;
+
+  private final List<Meter> meters;
 
   public RestReplicatorPlugin(String endpointAddress) {
+    this(endpointAddress, Paths.get(System.getProperty("ddf.home", ""), "data", "replication"));
+  }
+
+  public RestReplicatorPlugin(String endpointAddress, Path outboxDirectory) {
+    outbox = new ReplicationOutbox(outboxDirectory);
+    dispatcher =
+        new ScheduledThreadPoolExecutor(
+            1, StandardThreadFactoryBuilder.newThreadFactory("replicationDispatcherThread"));
+    senders =
+        new ThreadPoolExecutor(
+            DEFAULT_CONCURRENCY,
+            DEFAULT_CONCURRENCY,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(),
+            StandardThreadFactoryBuilder.newThreadFactory("replicationSenderThread"));
+
+    sentChanges = Metrics.counter(METRIC_PREFIX + ".sent");
+    failedAttempts = Metrics.counter(METRIC_PREFIX + ".failed");
+    rejectedChanges = Metrics.counter(METRIC_PREFIX + ".rejected");
+    meters =
+        Arrays.asList(
+            sentChanges,
+            failedAttempts,
+            rejectedChanges,
+            Gauge.builder(METRIC_PREFIX + ".pending", outbox, ReplicationOutbox::size)
+                .description("Changes that have not been replicated yet")
+                .register(Metrics.globalRegistry),
+            Gauge.builder(
+                    METRIC_PREFIX + ".lag",
+                    outbox,
+                    o -> o.getLagMillis(System.currentTimeMillis()) / 1000.0)
+                .description("Seconds the oldest change that has not been replicated has waited")
+                .baseUnit("seconds")
+                .register(Metrics.globalRegistry));
+
     setParentAddress(endpointAddress);
   }
 
+  /**
+   * Stops replicating. Changes that have not been sent stay in the outbox and are sent when the
+   * plugin is started again.
+   */
+  public void destroy() {
+    dispatcher.shutdownNow();
+    senders.shutdown();
+    try {
+      if (!dispatcher.awaitTermination(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+          || !senders.awaitTermination(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+        LOGGER.debug("Replication did not stop within {} seconds.", STOP_TIMEOUT_SECONDS);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    meters.forEach(Metrics.globalRegistry::remove);
+    try {
+      outbox.close();
+    } catch (IOException e) {
+      LOGGER.debug("Unable to close the replication outbox.", e);
+    }
+  }
+
   @Override
   public CreateResponse process(CreateResponse input) throws PluginExecutionException {
 
     if (Requests.isLocal(input.getRequest()) && client != null && transformer != null) {
 
+      List<ReplicationChange> changes = new ArrayList<>();
       for (Metacard m : input.getCreatedMetacards()) {
-
-        String data = transform(m, client);
-
-        Response r = client.post(data);
-        if (LOGGER.isDebugEnabled()) {
-          LOGGER.debug("Posted the following GeoJSON: {}\n", data);
-          LOGGER.debug(RESPONSE, ToStringBuilder.reflectionToString(r));
+        if (m.getId() == null) {
+          LOGGER.debug("Not replicating a created metacard that has no id.");
+        } else {
+          changes.add(transform(Operation.CREATE, m.getId(), m));
         }
       }
+      enqueue(changes);
     }
 
     return input;
@@ -79,10 +197,6 @@ public UpdateResponse process(UpdateResponse input) throws PluginExecutionExcept
 
     if (Requests.isLocal(input.getRequest()) && client != null && transformer != null) {
 
-      WebClient updateClient = WebClient.fromClient(client);
-
-      updateClient.type(MediaType.APPLICATION_JSON);
-
       List<Update> updates = input.getUpdatedMetacards();
 
       if (updates == null) {
@@ -96,6 +210,7 @@ public UpdateResponse process(UpdateResponse input) throws PluginExecutionExcept
                 "Cannot replicate records that are not updated by " + Metacard.ID));
       }
 
+      List<ReplicationChange> changes = new ArrayList<>();
       for (int i = 0; i < updates.size(); i++) {
 
         Update update = updates.get(i);
@@ -105,18 +220,14 @@ public UpdateResponse process(UpdateResponse input) throws PluginExecutionExcept
             && request.getUpdates().get(i) != null
             && request.getUpdates().get(i).getKey() != null) {
 
-          updateClient.path(request.getUpdates().get(i).getKey());
-
-          Metacard newMetacard = update.getNewMetacard();
-
-          String newData = transform(newMetacard, updateClient);
-
-          Response r = updateClient.put(newData);
-          if (LOGGER.isDebugEnabled()) {
-            LOGGER.debug(RESPONSE, ToStringBuilder.reflectionToString(r));
-          }
+          changes.add(
+              transform(
+                  Operation.UPDATE,
+                  request.getUpdates().get(i).getKey().toString(),
+                  update.getNewMetacard()));
         }
       }
+      enqueue(changes);
     }
 
     return input;
@@ -127,28 +238,23 @@ public DeleteResponse process(DeleteResponse input) throws PluginExecutionExcept
 
     if (input != null && Requests.isLocal(input.getRequest()) && client != null) {
 
-      WebClient updateClient = WebClient.fromClient(client);
-
-      updateClient.type(MediaType.APPLICATION_JSON);
-
       if (input.getDeletedMetacards() == null || input.getDeletedMetacards().isEmpty()) {
         return input;
       }
 
-      for (int i = 0; i < input.getDeletedMetacards().size(); i++) {
-
-        Metacard metacard = input.getDeletedMetacards().get(i);
-
-        if (metacard != null && metacard.getId() != null) {
-
-          updateClient.path(metacard.getId());
-
-          Response r = updateClient.delete();
-          if (LOGGER.isDebugEnabled()) {
-            LOGGER.debug(RESPONSE, ToStringBuilder.reflectionToString(r));
-          }
-        }
-      }
+      enqueue(
+          input.getDeletedMetacards().stream()
+              .filter(metacard -> metacard != null && metacard.getId() != null)
+              .map(
+                  metacard ->
+                      new ReplicationChange(
+                          0,
+                          Operation.DELETE,
+                          metacard.getId(),
+                          MediaType.APPLICATION_JSON,
+                          null,
+                          System.currentTimeMillis()))
+              .collect(Collectors.toList()));
     }
 
     return input;
@@ -177,6 +283,8 @@ public void setParentAddress(String endpointAddress) {
 
       LOGGER.debug(
           "Changed the parent address property from [{}] to [{}]", previous, this.parentAddress);
+
+      requestDispatch();
     }
   }
 
@@ -189,13 +297,205 @@ public void setTransformer(MetacardTransformer transformer) {
     LOGGER.debug("Changed transformer to [{}]", this.transformer);
   }
 
-  private String transform(Metacard m, WebClient client) throws PluginExecutionException {
+  /** @param batchSize the most changes to send at once */
+  public void setBatchSize(int batchSize) {
+    this.batchSize = Math.max(1, batchSize);
+  }
+
+  /** @param concurrency the most changes to send to the parent at the same time */
+  public void setConcurrency(int concurrency) {
+    int threads = Math.max(1, concurrency);
+    if (threads > senders.getMaximumPoolSize()) {
+      senders.setMaximumPoolSize(threads);
+      senders.setCorePoolSize(threads);
+    } else {
+      senders.setCorePoolSize(threads);
+      senders.setMaximumPoolSize(threads);
+    }
+  }
+
+  /** @param maxRetryDelaySeconds the longest time to wait before sending a failed change again */
+  public void setMaxRetryDelaySeconds(int maxRetryDelaySeconds) {
+    this.maxRetryDelayMillis =
+        Math.max(INITIAL_RETRY_DELAY_MILLIS, TimeUnit.SECONDS.toMillis(maxRetryDelaySeconds));
+  }
+
+  private void enqueue(List<ReplicationChange> changes) {
+    if (!changes.isEmpty()) {
+      outbox.addAll(changes);
+      requestDispatch();
+    }
+  }
+
+  private void requestDispatch() {
+    try {
+      dispatcher.execute(this::dispatch);
+    } catch (RejectedExecutionException e) {
+      LOGGER.debug("Replication has been stopped. Changes will be sent once it is started.", e);
+    }
+  }
+
+  /** Sends every change that is due, one batch at a time, then waits for the next retry. */
+  private void dispatch() {
+    try {
+      List<ReplicationChange> batch;
+      while (client != null
+          && !Thread.currentThread().isInterrupted()
+          && !(batch = outbox.take(batchSize, System.currentTimeMillis())).isEmpty()) {
+        send(batch);
+      }
+    } catch (RuntimeException e) {
+      LOGGER.warn("Unexpected error while replicating changes to the parent.", e);
+    }
+
+    if (retryDispatch != null) {
+      retryDispatch.cancel(false);
+      retryDispatch = null;
+    }
+
+    long nextDueMillis = outbox.nextDueMillis();
+    if (nextDueMillis >= 0 && client != null && !dispatcher.isShutdown()) {
+      retryDispatch =
+          dispatcher.schedule(
+              this::dispatch,
+              Math.max(0, nextDueMillis - System.currentTimeMillis()),
+              TimeUnit.MILLISECONDS);
+    }
+  }
+
+  private void send(List<ReplicationChange> batch) {
+    WebClient parent = client;
+    List<Future<Outcome>> outcomes = new ArrayList<>(batch.size());
+    try {
+      for (ReplicationChange change : batch) {
+        outcomes.add(senders.submit(() -> send(parent, change)));
+      }
+    } catch (RejectedExecutionException e) {
+      LOGGER.debug("Replication has been stopped. Changes will be sent once it is started.", e);
+    }
+
+    List<ReplicationChange> completed = new ArrayList<>();
+    for (int i = 0; i < batch.size(); i++) {
+      ReplicationChange change = batch.get(i);
+      Outcome outcome = Outcome.FAILED;
+      if (i < outcomes.size()) {
+        try {
+          outcome = outcomes.get(i).get();
+        } catch (ExecutionException e) {
+          LOGGER.debug("Unable to replicate [{}] to the parent.", change, e);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+
+      switch (outcome) {
+        case SENT:
+          sentChanges.increment();
+          completed.add(change);
+          break;
+        case REJECTED:
+          rejectedChanges.increment();
+          completed.add(change);
+          break;
+        default:
+          failedAttempts.increment();
+          outbox.retry(change, System.currentTimeMillis() + retryDelayMillis(change));
+      }
+    }
+    outbox.completed(completed);
+  }
+
+  private Outcome send(WebClient parent, ReplicationChange change) {
+    if (parent == null) {
+      return Outcome.FAILED;
+    }
+
+    try {
+      Response response;
+      switch (change.getOperation()) {
+        case CREATE:
+          response = post(parent, change);
+          break;
+        case UPDATE:
+          response = put(parent, change);
+          break;
+        case UPSERT:
+          response = put(parent, change);
+          if (isRefused(response)) {
+            LOGGER.debug(
+                "The parent refused to update [{}] with status {}. Creating it instead.",
+                change,
+                response.getStatus());
+            response = post(parent, change);
+          }
+          break;
+        default:
+          response = send(parent, change, client -> client.path(change.getId()).delete());
+      }
+
+      int status = response.getStatus();
+      LOGGER.debug("Replicated [{}] to the parent. Response status: {}", change, status);
+      if (response.getStatusInfo().getFamily() == Response.Status.Family.SUCCESSFUL) {
+        return Outcome.SENT;
+      }
+      if (isRefused(response)) {
+        LOGGER.warn(
+            "The parent refused to replicate [{}] with status {}. The change will not be sent again.",
+            change,
+            status);
+        return Outcome.REJECTED;
+      }
+      return Outcome.FAILED;
+    } catch (RuntimeException e) {
+      LOGGER.debug("Unable to replicate [{}] to the parent.", change, e);
+      return Outcome.FAILED;
+    }
+  }
+
+  private Response post(WebClient parent, ReplicationChange change) {
+    return send(parent, change, client -> client.post(change.getPayload()));
+  }
+
+  private Response put(WebClient parent, ReplicationChange change) {
+    return send(parent, change, client -> client.path(change.getId()).put(change.getPayload()));
+  }
+
+  private Response send(
+      WebClient parent, ReplicationChange change, Function<WebClient, Response> request) {
+    WebClient changeClient = WebClient.fromClient(parent);
+    try {
+      return request.apply(changeClient.type(change.getMimeType()));
+    } finally {
+      changeClient.close();
+    }
+  }
+
+  /** @return whether the parent refused the change, so that sending it again will not help */
+  private static boolean isRefused(Response response) {
+    int status = response.getStatus();
+    return response.getStatusInfo().getFamily() == Response.Status.Family.CLIENT_ERROR
+        && status != Response.Status.REQUEST_TIMEOUT.getStatusCode()
+        && status != Response.Status.TOO_MANY_REQUESTS.getStatusCode();
+  }
+
+  private long retryDelayMillis(ReplicationChange change) {
+    int doublings = Math.min(change.getAttempts(), 30);
+    return Math.min(maxRetryDelayMillis, INITIAL_RETRY_DELAY_MILLIS << doublings);
+  }
+
+  private ReplicationChange transform(Operation operation, String id, Metacard m)
+      throws PluginExecutionException {
 
     BinaryContent binaryContent;
     try {
       binaryContent = transformer.transform(m, new HashMap<>());
-      client.type(getValidMimeType(binaryContent.getMimeTypeValue()));
-      return new String(binaryContent.getByteArray(), StandardCharsets.UTF_8);
+      return new ReplicationChange(
+          0,
+          operation,
+          id,
+          getValidMimeType(binaryContent.getMimeTypeValue()),
+          binaryContent.getByteArray(),
+          System.currentTimeMillis());
     } catch (IOException e) {
       LOGGER.debug("Could not understand metacard.", e);
       throw new PluginExecutionException("Could not send metacard.");
@@ -211,4 +511,10 @@ private String getValidMimeType(String mimeTypeValue) {
     }
     return mimeTypeValue;
   }
+
+  private enum Outcome {
+    SENT,
+    REJECTED,
+    FAILED
+  }
 }
@@ -46,10 +46,13 @@
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.UriInfo;
 import org.apache.cxf.endpoint.Server;
+import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Ignore;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 public class PluginTest {
 
@@ -66,10 +69,12 @@ public class PluginTest {
 
   private static Metacard metacard;
 
+  @Rule public TemporaryFolder outboxFolder = new TemporaryFolder();
+
   @Before
   public void setup() {
     // given
-    plugin = new RestReplicatorPlugin(ENDPOINT_ADDRESS);
+    plugin = new RestReplicatorPlugin(ENDPOINT_ADDRESS, outboxFolder.getRoot().toPath());
     transformer = mock(MetacardTransformer.class);
     BinaryContent bc = mock(BinaryContent.class);
     byte[] bytes = {86};
@@ -84,6 +89,11 @@ public void setup() {
     metacard = getMockMetacard();
   }
 
+  @After
+  public void tearDown() {
+    plugin.destroy();
+  }
+
   private Metacard getMockMetacard() {
     Metacard metacard = mock(Metacard.class);
     when(metacard.getMetadata()).thenReturn(getSample());
@@ -155,7 +165,8 @@ public void testCreateNullParent()
   public void testCreateNullTransformer()
       throws PluginExecutionException, IngestException, SourceUnavailableException {
     // given
-    plugin = new RestReplicatorPlugin(null);
+    plugin.destroy();
+    plugin = new RestReplicatorPlugin(null, outboxFolder.getRoot().toPath());
     CreateResponse createResponse =
         new CreateResponseImpl(new CreateRequestImpl(metacard), null, Arrays.asList(metacard));
 
@@ -181,6 +192,23 @@ public void testCreateBadTransform()
     plugin.process(createResponse);
   }
 
+  @Test
+  public void testCreateIsWrittenToOutbox() throws PluginExecutionException {
+    // given
+    when(metacard.getId()).thenReturn("23");
+    plugin.setParentAddress("http://localhost:1/services/catalog");
+    CreateResponse createResponse =
+        new CreateResponseImpl(new CreateRequestImpl(metacard), null, Arrays.asList(metacard));
+
+    // when
+    CreateResponse response = plugin.process(createResponse);
+
+    // then
+    assertThat(response, sameInstance(createResponse));
+    assertThat(
+        outboxFolder.getRoot().toPath().resolve("outbox.log").toFile().length() > 0, is(true));
+  }
+
   @Test
   @Ignore
   public void testCreate()
@@ -0,0 +1,238 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.federation.layered.replication;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+
+import ddf.catalog.federation.layered.replication.ReplicationChange.Operation;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ReplicationOutboxTest {
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private Path directory;
+
+  private ReplicationOutbox outbox;
+
+  @Before
+  public void setUp() {
+    directory = temporaryFolder.getRoot().toPath();
+    outbox = new ReplicationOutbox(directory);
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    outbox.close();
+  }
+
+  @Test
+  public void testCreateAndUpdateAreCoalesced() {
+    outbox.addAll(
+        Arrays.asList(change(Operation.CREATE, "1", "a"), change(Operation.CREATE, "2", "b")));
+    outbox.addAll(Collections.singletonList(change(Operation.UPDATE, "1", "c")));
+
+    List<ReplicationChange> changes = outbox.take(10, System.currentTimeMillis());
+
+    assertThat(changes, hasSize(2));
+    assertThat(changes.get(0).getId(), is("1"));
+    assertThat(changes.get(0).getOperation(), is(Operation.CREATE));
+    assertThat(payload(changes.get(0)), is("c"));
+  }
+
+  @Test
+  public void testAttemptedCreateAndUpdateBecomeUpsert() {
+    long now = System.currentTimeMillis();
+    outbox.addAll(Collections.singletonList(change(Operation.CREATE, "1", "a")));
+    ReplicationChange create = outbox.take(10, now).get(0);
+    outbox.addAll(Collections.singletonList(change(Operation.UPDATE, "1", "b")));
+
+    outbox.retry(create, now);
+
+    List<ReplicationChange> changes = outbox.take(10, now);
+    assertThat(changes, hasSize(1));
+    assertThat(changes.get(0).getOperation(), is(Operation.UPSERT));
+    assertThat(payload(changes.get(0)), is("b"));
+  }
+
+  @Test
+  public void testReloadedCreateAndUpdateBecomeUpsert() throws IOException {
+    outbox.addAll(
+        Arrays.asList(change(Operation.CREATE, "1", "a"), change(Operation.UPDATE, "1", "b")));
+    outbox.close();
+
+    outbox = new ReplicationOutbox(directory);
+
+    List<ReplicationChange> changes = outbox.take(10, System.currentTimeMillis());
+    assertThat(changes, hasSize(1));
+    assertThat(changes.get(0).getOperation(), is(Operation.UPSERT));
+    assertThat(payload(changes.get(0)), is("b"));
+  }
+
+  @Test
+  public void testCreateAndDeleteCancelOut() {
+    outbox.addAll(
+        Arrays.asList(change(Operation.CREATE, "1", "a"), change(Operation.DELETE, "1", null)));
+
+    assertThat(outbox.size(), is(0));
+  }
+
+  @Test
+  public void testChangesAreHandedOutOncePerMetacard() {
+    outbox.addAll(Collections.singletonList(change(Operation.UPDATE, "1", "a")));
+    List<ReplicationChange> first = outbox.take(10, System.currentTimeMillis());
+    outbox.addAll(Collections.singletonList(change(Operation.UPDATE, "1", "b")));
+
+    assertThat(outbox.take(10, System.currentTimeMillis()), is(empty()));
+
+    outbox.completed(first);
+    List<ReplicationChange> second = outbox.take(10, System.currentTimeMillis());
+    assertThat(second, hasSize(1));
+    assertThat(payload(second.get(0)), is("b"));
+  }
+
+  @Test
+  public void testRetryWaitsUntilDue() {
+    long now = System.currentTimeMillis();
+    outbox.addAll(Collections.singletonList(change(Operation.UPDATE, "1", "a")));
+    ReplicationChange change = outbox.take(10, now).get(0);
+
+    outbox.retry(change, now + 1000);
+
+    assertThat(outbox.take(10, now), is(empty()));
+    assertThat(outbox.nextDueMillis(), is(now + 1000));
+    ReplicationChange retried = outbox.take(10, now + 1000).get(0);
+    assertThat(retried.getAttempts(), is(1));
+  }
+
+  @Test
+  public void testChangeToRetriedMetacardWaitsUntilDue() {
+    long now = System.currentTimeMillis();
+    outbox.addAll(Collections.singletonList(change(Operation.UPDATE, "1", "a")));
+    ReplicationChange change = outbox.take(10, now).get(0);
+
+    outbox.retry(change, now + 1000);
+    outbox.addAll(Collections.singletonList(change(Operation.UPDATE, "1", "b")));
+
+    assertThat(outbox.take(10, now), is(empty()));
+    assertThat(outbox.nextDueMillis(), is(now + 1000));
+    assertThat(payload(outbox.take(10, now + 1000).get(0)), is("b"));
+  }
+
+  @Test
+  public void testUnsentChangesSurviveReopening() throws IOException {
+    outbox.addAll(
+        Arrays.asList(change(Operation.CREATE, "1", "a"), change(Operation.UPDATE, "2", "b")));
+    outbox.completed(outbox.take(1, System.currentTimeMillis()));
+    outbox.close();
+
+    outbox = new ReplicationOutbox(directory);
+
+    List<ReplicationChange> changes = outbox.take(10, System.currentTimeMillis());
+    assertThat(changes, hasSize(1));
+    assertThat(changes.get(0).getId(), is("2"));
+    assertThat(payload(changes.get(0)), is("b"));
+  }
+
+  @Test
+  public void testCoalescedChangesAreNotReloaded() throws IOException {
+    outbox.addAll(
+        Arrays.asList(change(Operation.CREATE, "1", "a"), change(Operation.CREATE, "2", "b")));
+    outbox.addAll(Collections.singletonList(change(Operation.UPDATE, "1", "c")));
+    outbox.completed(outbox.take(1, System.currentTimeMillis()));
+    outbox.close();
+
+    outbox = new ReplicationOutbox(directory);
+
+    List<ReplicationChange> changes = outbox.take(10, System.currentTimeMillis());
+    assertThat(changes, hasSize(1));
+    assertThat(changes.get(0).getId(), is("2"));
+  }
+
+  @Test
+  public void testChangesCoalescedOnRetryAreNotReloaded() throws IOException {
+    long now = System.currentTimeMillis();
+    outbox.addAll(
+        Arrays.asList(change(Operation.UPDATE, "1", "a"), change(Operation.UPDATE, "2", "b")));
+    ReplicationChange change = outbox.take(1, now).get(0);
+    outbox.addAll(Collections.singletonList(change(Operation.UPDATE, "1", "c")));
+    outbox.retry(change, now);
+    List<ReplicationChange> retried = outbox.take(10, now);
+    assertThat(retried, hasSize(2));
+    outbox.completed(
+        retried.stream().filter(c -> c.getId().equals("1")).collect(Collectors.toList()));
+    outbox.close();
+
+    outbox = new ReplicationOutbox(directory);
+
+    List<ReplicationChange> changes = outbox.take(10, now);
+    assertThat(changes, hasSize(1));
+    assertThat(changes.get(0).getId(), is("2"));
+  }
+
+  @Test
+  public void testLogIsEmptiedWhenOutboxIs() throws IOException {
+    outbox.addAll(Collections.singletonList(change(Operation.UPDATE, "1", "a")));
+    outbox.completed(outbox.take(10, System.currentTimeMillis()));
+
+    assertThat(Files.size(directory.resolve(ReplicationOutbox.LOG_FILE_NAME)), is(0L));
+  }
+
+  @Test
+  public void testPartlyWrittenRecordIsDiscarded() throws IOException {
+    outbox.addAll(Collections.singletonList(change(Operation.UPDATE, "1", "a")));
+    outbox.close();
+    Path log = directory.resolve(ReplicationOutbox.LOG_FILE_NAME);
+    long size = Files.size(log);
+    Files.write(log, new byte[] {0, 0, 0, 40, 1, 2}, StandardOpenOption.APPEND);
+
+    outbox = new ReplicationOutbox(directory);
+    outbox.addAll(Collections.singletonList(change(Operation.UPDATE, "2", "b")));
+    outbox.close();
+
+    assertThat(Files.size(log) > size, is(true));
+    outbox = new ReplicationOutbox(directory);
+    assertThat(outbox.take(10, System.currentTimeMillis()), hasSize(2));
+  }
+
+  private static ReplicationChange change(Operation operation, String id, String payload) {
+    return new ReplicationChange(
+        0,
+        operation,
+        id,
+        "application/json",
+        payload == null ? null : payload.getBytes(StandardCharsets.UTF_8),
+        System.currentTimeMillis());
+  }
+
+  private static String payload(ReplicationChange change) {
+    return new String(change.getPayload(), StandardCharsets.UTF_8);
+  }
+}
@@ -13,6 +13,7 @@
  */
 package ddf.catalog.plugin.jpeg2000.thumbnail.converter;
 
+import com.github.jaiimageio.jpeg2000.J2KImageReadParam;
 import com.github.jaiimageio.jpeg2000.impl.IISRandomAccessIO;
 import com.github.jaiimageio.jpeg2000.impl.J2KImageReaderSpi;
 import ddf.catalog.data.Metacard;
@@ -22,16 +23,22 @@
 import ddf.catalog.plugin.PluginExecutionException;
 import ddf.catalog.plugin.PostQueryPlugin;
 import ddf.catalog.plugin.StopProcessingException;
+import ddf.catalog.util.impl.Jpeg2000Resolutions;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.Iterator;
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
 import javax.imageio.spi.IIORegistry;
+import javax.imageio.stream.ImageInputStream;
 
 /**
  * check for Jpeg 2000 thumbnails in the result set, and convert them to standard Jpeg so the
- * browser can render them.
+ * browser can render them. Thumbnails larger than {@link #THUMBNAIL_SIZE} are decoded at the lowest
+ * Jpeg 2000 resolution level that is still at least that size, rather than at full resolution.
  */
 public class Jpeg2000ThumbnailConverter implements PostQueryPlugin {
 
@@ -43,6 +50,8 @@ public class Jpeg2000ThumbnailConverter implements PostQueryPlugin {
 
   public static final short START_OF_CODESTREAM_MARKER = (short) 0xff4f;
 
+  public static final int THUMBNAIL_SIZE = 200;
+
   public Jpeg2000ThumbnailConverter() {
     IIORegistry.getDefaultInstance().registerServiceProvider(new J2KImageReaderSpi());
   }
@@ -78,7 +87,7 @@ public QueryResponse process(QueryResponse input)
 
         // convert j2k thumbnail to jpeg thumbnail
         original.reset();
-        BufferedImage thumbnail = ImageIO.read(original);
+        BufferedImage thumbnail = readThumbnail(original);
         if (thumbnail == null) {
           continue;
         }
@@ -90,4 +99,27 @@ public QueryResponse process(QueryResponse input)
     }
     return input;
   }
+
+  private BufferedImage readThumbnail(ByteArrayInputStream original) throws IOException {
+    try (ImageInputStream imageInputStream = ImageIO.createImageInputStream(original)) {
+      Iterator<ImageReader> readers = ImageIO.getImageReaders(imageInputStream);
+      if (!readers.hasNext()) {
+        return null;
+      }
+
+      ImageReader reader = readers.next();
+      try {
+        reader.setInput(imageInputStream);
+        ImageReadParam param = reader.getDefaultReadParam();
+        int size = Math.max(reader.getWidth(0), reader.getHeight(0));
+        if (size <= THUMBNAIL_SIZE || !(param instanceof J2KImageReadParam)) {
+          return reader.read(0, param);
+        }
+        return Jpeg2000Resolutions.readAtLeast(
+            reader, param, ((J2KImageReadParam) param)::setResolution, THUMBNAIL_SIZE);
+      } finally {
+        reader.dispose();
+      }
+    }
+  }
 }
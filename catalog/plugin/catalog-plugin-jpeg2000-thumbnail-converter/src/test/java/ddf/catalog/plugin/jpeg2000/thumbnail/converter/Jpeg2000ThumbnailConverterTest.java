@@ -13,6 +13,8 @@
  */
 package ddf.catalog.plugin.jpeg2000.thumbnail.converter;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -24,6 +26,7 @@
 import ddf.catalog.operation.impl.QueryResponseImpl;
 import ddf.catalog.plugin.PluginExecutionException;
 import ddf.catalog.plugin.StopProcessingException;
+import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
@@ -83,4 +86,20 @@ public void testEmptyThumbnail() throws Exception {
 
     jpeg2000ThumbnailConverter.process(queryResponse);
   }
+
+  @Test
+  public void testLargeThumbnailIsDecodedAtReducedResolution() throws Exception {
+    ByteArrayOutputStream j2k = new ByteArrayOutputStream();
+    ImageIO.write(new BufferedImage(1600, 800, BufferedImage.TYPE_3BYTE_BGR), "jpeg2000", j2k);
+    Metacard metacard = new MetacardImpl();
+    metacard.setAttribute(new AttributeImpl(Metacard.THUMBNAIL, j2k.toByteArray()));
+
+    List<Result> resultList = new ArrayList<>();
+    resultList.add(new ResultImpl(metacard));
+    jpeg2000ThumbnailConverter.process(new QueryResponseImpl(null, resultList, 1));
+
+    BufferedImage thumbnail = ImageIO.read(new ByteArrayInputStream(metacard.getThumbnail()));
+    assertThat(thumbnail.getWidth(), is(Jpeg2000ThumbnailConverter.THUMBNAIL_SIZE));
+    assertThat(thumbnail.getHeight(), is(Jpeg2000ThumbnailConverter.THUMBNAIL_SIZE / 2));
+  }
 }
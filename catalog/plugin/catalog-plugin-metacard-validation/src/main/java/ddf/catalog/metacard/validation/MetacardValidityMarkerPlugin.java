@@ -27,12 +27,14 @@
 import ddf.catalog.plugin.PreIngestPlugin;
 import ddf.catalog.plugin.StopProcessingException;
 import ddf.catalog.util.Describable;
+import ddf.catalog.validation.BatchMetacardValidator;
 import ddf.catalog.validation.MetacardValidator;
 import ddf.catalog.validation.ValidationException;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -81,18 +83,52 @@ public UpdateRequest process(UpdateRequest input)
 
   private <T> List<T> validateList(List<T> requestItems, Function<T, Metacard> itemToMetacard) {
     Map<String, Integer> counter = new HashMap<>();
+    Map<MetacardValidator, Map<Metacard, ValidationException>> batchResults =
+        validateBatches(requestItems.stream().map(itemToMetacard).collect(Collectors.toList()));
 
     List<T> validated =
         requestItems.stream()
-            .map(item -> validate(item, itemToMetacard, counter))
+            .map(item -> validate(item, itemToMetacard, counter, batchResults))
             .filter(didNotFailEnforcedValidator)
             .collect(Collectors.toList());
 
     return validated;
   }
 
+  /**
+   * Runs the validators that can validate a whole request at once, so that they are not asked to
+   * validate each metacard separately.
+   */
+  private Map<MetacardValidator, Map<Metacard, ValidationException>> validateBatches(
+      List<Metacard> metacards) {
+    Map<MetacardValidator, Map<Metacard, ValidationException>> batchResults =
+        new IdentityHashMap<>();
+    for (MetacardValidator validator : metacardValidators) {
+      if (validator instanceof BatchMetacardValidator) {
+        batchResults.put(validator, ((BatchMetacardValidator) validator).validateAll(metacards));
+      }
+    }
+    return batchResults;
+  }
+
+  private void validate(
+      MetacardValidator validator,
+      Metacard metacard,
+      Map<MetacardValidator, Map<Metacard, ValidationException>> batchResults)
+      throws ValidationException {
+    Map<Metacard, ValidationException> failures = batchResults.get(validator);
+    if (failures == null) {
+      validator.validate(metacard);
+    } else if (failures.containsKey(metacard)) {
+      throw failures.get(metacard);
+    }
+  }
+
   private <T> T validate(
-      T item, Function<T, Metacard> itemToMetacard, Map<String, Integer> counter) {
+      T item,
+      Function<T, Metacard> itemToMetacard,
+      Map<String, Integer> counter,
+      Map<MetacardValidator, Map<Metacard, ValidationException>> batchResults) {
     Set<Serializable> newErrors = new HashSet<>();
     Set<Serializable> newWarnings = new HashSet<>();
     Set<Serializable> errorValidators = new HashSet<>();
@@ -107,7 +143,7 @@ private <T> T validate(
 
     for (MetacardValidator validator : metacardValidators) {
       try {
-        validator.validate(metacard);
+        validate(validator, metacard, batchResults);
       } catch (ValidationException e) {
         String validatorName = getValidatorName(validator);
         boolean validationErrorsExist = CollectionUtils.isNotEmpty(e.getErrors());
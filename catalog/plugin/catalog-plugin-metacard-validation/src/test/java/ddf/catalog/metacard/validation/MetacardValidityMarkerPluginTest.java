@@ -26,6 +26,8 @@
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.withSettings;
 
@@ -46,12 +48,14 @@
 import ddf.catalog.plugin.PluginExecutionException;
 import ddf.catalog.plugin.StopProcessingException;
 import ddf.catalog.util.Describable;
+import ddf.catalog.validation.BatchMetacardValidator;
 import ddf.catalog.validation.MetacardValidator;
 import ddf.catalog.validation.ValidationException;
 import java.io.Serializable;
 import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -325,6 +329,27 @@ public void testMetacardPassesEnforcedValidators()
     verifyEnforcedUpdate(updateRequest, updatedMetacards);
   }
 
+  @Test
+  public void testBatchValidatorValidatesWholeRequest()
+      throws ValidationException, StopProcessingException, PluginExecutionException {
+    ValidationException validationException = mock(ValidationException.class);
+    when(validationException.getErrors()).thenReturn(Collections.singletonList(SAMPLE_ERROR));
+    BatchMetacardValidator batchValidator =
+        mock(BatchMetacardValidator.class, withSettings().extraInterfaces(Describable.class));
+    when(((Describable) batchValidator).getId()).thenReturn(ID);
+    metacardValidators.add(batchValidator);
+    enforcedMetacardValidators.add(ID);
+
+    CreateRequest createRequest = getMockCreateRequest();
+    List<Metacard> createdMetacards = createRequest.getMetacards();
+    Map<Metacard, ValidationException> failures = new IdentityHashMap<>();
+    failures.put(createdMetacards.get(0), validationException);
+    when(batchValidator.validateAll(createdMetacards)).thenReturn(failures);
+
+    verifyEnforcedCreate(createRequest, createdMetacards.subList(1, 2));
+    verify(batchValidator, never()).validate(any(Metacard.class));
+  }
+
   @Test
   public void testMetacardFailsEnforcedValidator()
       throws ValidationException, StopProcessingException, PluginExecutionException {
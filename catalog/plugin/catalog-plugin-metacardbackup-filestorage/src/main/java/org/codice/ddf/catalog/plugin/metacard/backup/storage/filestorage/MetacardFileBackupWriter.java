@@ -0,0 +1,186 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.plugin.metacard.backup.storage.filestorage;
+
+import ddf.catalog.data.Metacard;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import org.codice.ddf.catalog.plugin.metacard.backup.common.MetacardBackup;
+import org.codice.ddf.catalog.plugin.metacard.backup.common.MetacardBackupWriter;
+import org.codice.ddf.catalog.plugin.metacard.backup.internal.MetacardBackupException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes metacard backups to files on the local file system.
+ *
+ * <p>All the files of a batch are written before any of them are synced to disk, and the files are
+ * then synced in parallel, so that the file system can commit them together rather than waiting on
+ * each file in turn.
+ */
+public class MetacardFileBackupWriter implements MetacardBackupWriter {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(MetacardFileBackupWriter.class);
+
+  private final Path startingDir;
+
+  private final ExecutorService syncExecutor;
+
+  private final Function<Metacard, byte[]> transformer;
+
+  /**
+   * @param startingDir the directory the backup keys are relative to
+   * @param syncExecutor syncs written files to disk in parallel
+   * @param transformer transforms metacards into their backups, returning null if a metacard cannot
+   *     be transformed
+   */
+  public MetacardFileBackupWriter(
+      Path startingDir, ExecutorService syncExecutor, Function<Metacard, byte[]> transformer) {
+    this.startingDir = startingDir;
+    this.syncExecutor = syncExecutor;
+    this.transformer = transformer;
+  }
+
+  @Override
+  public Collection<MetacardBackup> write(List<MetacardBackup> backups)
+      throws MetacardBackupException {
+    List<MetacardBackup> failed = new ArrayList<>();
+    Map<MetacardBackup, FileChannel> written = new LinkedHashMap<>();
+    try {
+      for (MetacardBackup backup : backups) {
+        if (backup.isDelete()) {
+          delete(backup, failed);
+          continue;
+        }
+
+        byte[] data = transformer.apply(backup.getMetacard());
+        if (data == null) {
+          LOGGER.debug(
+              "Metacard {} could not be transformed. It will not be backed up.", backup.getId());
+          continue;
+        }
+
+        FileChannel channel = write(backup, data);
+        if (channel != null) {
+          written.put(backup, channel);
+        } else {
+          failed.add(backup);
+        }
+      }
+
+      failed.addAll(sync(written));
+    } finally {
+      written.forEach((backup, channel) -> close(channel));
+    }
+    return failed;
+  }
+
+  /** @return the backups whose files could not be synced to disk */
+  private List<MetacardBackup> sync(Map<MetacardBackup, FileChannel> written)
+      throws MetacardBackupException {
+    Map<MetacardBackup, Future<?>> syncs = new LinkedHashMap<>();
+    try {
+      written.forEach(
+          (backup, channel) -> syncs.put(backup, syncExecutor.submit(() -> force(channel))));
+    } catch (RejectedExecutionException e) {
+      syncs.values().forEach(sync -> sync.cancel(true));
+      throw new MetacardBackupException("Unable to sync metacard backups.", e);
+    }
+
+    List<MetacardBackup> failed = new ArrayList<>();
+    for (Map.Entry<MetacardBackup, Future<?>> sync : syncs.entrySet()) {
+      try {
+        sync.getValue().get();
+      } catch (ExecutionException e) {
+        LOGGER.debug("Could not sync the backup of metacard {}.", sync.getKey().getId(), e);
+        failed.add(sync.getKey());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        syncs.values().forEach(pending -> pending.cancel(true));
+        throw new MetacardBackupException("Interrupted while syncing metacard backups.", e);
+      }
+    }
+    return failed;
+  }
+
+  private static Void force(FileChannel channel) throws IOException {
+    channel.force(true);
+    return null;
+  }
+
+  /** @return the channel the backup was written to, or null if it could not be written */
+  private FileChannel write(MetacardBackup backup, byte[] data) {
+    Path file = getFile(backup);
+    FileChannel channel = null;
+    try {
+      Files.createDirectories(file.getParent());
+      channel =
+          FileChannel.open(
+              file,
+              StandardOpenOption.CREATE,
+              StandardOpenOption.WRITE,
+              StandardOpenOption.TRUNCATE_EXISTING);
+      ByteBuffer buffer = ByteBuffer.wrap(data);
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      LOGGER.trace("Wrote File : {}", file);
+      return channel;
+    } catch (IOException e) {
+      LOGGER.debug("Could not write file at path : {}", file, e);
+      close(channel);
+      return null;
+    }
+  }
+
+  private void delete(MetacardBackup backup, List<MetacardBackup> failed) {
+    Path file = getFile(backup);
+    try {
+      Files.deleteIfExists(file);
+      LOGGER.trace("Deleted File : {}", file);
+    } catch (IOException e) {
+      LOGGER.debug("Could not delete file at path : {}", file, e);
+      failed.add(backup);
+    }
+  }
+
+  private Path getFile(MetacardBackup backup) {
+    return startingDir.resolve(backup.getKey().replaceFirst("^/+", ""));
+  }
+
+  private static void close(FileChannel channel) {
+    if (channel == null) {
+      return;
+    }
+    try {
+      channel.close();
+    } catch (IOException e) {
+      LOGGER.debug("Could not close backup file.", e);
+    }
+  }
+}
@@ -20,7 +20,6 @@
 import java.io.File;
 import java.io.IOException;
 import java.net.URLDecoder;
-import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
@@ -28,25 +27,34 @@
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import org.apache.camel.CamelContext;
 import org.apache.commons.lang3.StringUtils;
+import org.codice.ddf.catalog.plugin.metacard.backup.common.MetacardBackupWriter;
 import org.codice.ddf.catalog.plugin.metacard.backup.common.MetacardStorageRoute;
 import org.codice.ddf.catalog.plugin.metacard.backup.common.MetacardTemplate;
 import org.codice.ddf.catalog.plugin.metacard.backup.common.ResponseMetacardActionSplitter;
+import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Creates a camel route for storing metacards from post-ingest on the local file system. This route
- * will transform the metacard using the configured metacard transformer prior to storage.
+ * Creates a camel route for storing metacards from post-ingest on the local file system. The route
+ * queues the metacards, which are transformed using the configured metacard transformer and written
+ * in batches once changes to them have settled.
  */
 public class MetacardFileStorageRoute extends MetacardStorageRoute {
   public static final String OUTPUT_PATH_TEMPLATE = "outputPathTemplate";
 
   protected String outputPathTemplate;
 
+  private static final int SYNC_THREADS = 8;
+
   private List<String> routeIds = new ArrayList<>();
 
+  private ExecutorService syncExecutor = null;
+
   private static final Logger LOGGER = LoggerFactory.getLogger(MetacardFileStorageRoute.class);
 
   public MetacardFileStorageRoute(CamelContext camelContext) {
@@ -90,26 +98,15 @@ public void configure() throws Exception {
         .setHeader(
             TEMPLATED_STRING_HEADER_RTE_PROP,
             method(new MetacardTemplate(outputPathTemplate), "applyTemplate(${body})"))
-        .to("catalog:metacardtransformer")
         .choice()
         .when(
             and(
                 header(PostIngestConsumer.ACTION).isEqualTo(PostIngestConsumer.DELETE),
                 getCheckDeletePredicate()))
-        .bean(
-            MetacardFileStorageRoute.class,
-            String.format(
-                "deleteFile(%s, ${in.headers.%s})",
-                URLEncoder.encode(getStartingDir(), StandardCharsets.UTF_8.name()),
-                URLEncoder.encode(TEMPLATED_STRING_HEADER_RTE_PROP, StandardCharsets.UTF_8.name())))
+        .process(getDeleteBackupProcessor(TEMPLATED_STRING_HEADER_RTE_PROP))
         .stop()
         .otherwise()
-        .to(
-            "file://"
-                + getStartingDir()
-                + "?fileName=${in.headers."
-                + TEMPLATED_STRING_HEADER_RTE_PROP
-                + "}");
+        .process(getBackupProcessor(TEMPLATED_STRING_HEADER_RTE_PROP));
     routeIds.add(route2Id);
 
     LOGGER.trace("Starting metacard file storage route: {}", this);
@@ -131,6 +128,33 @@ public List<String> getRouteIds() {
     return routeIds;
   }
 
+  @Override
+  protected String getBackupDestination() {
+    return "file:" + getStartingDir() + "?" + outputPathTemplate;
+  }
+
+  @Override
+  public void stop(int code) {
+    super.stop(code);
+    shutdownSyncExecutor();
+  }
+
+  @Override
+  protected synchronized MetacardBackupWriter createBackupWriter() {
+    shutdownSyncExecutor();
+    syncExecutor =
+        Executors.newFixedThreadPool(
+            SYNC_THREADS, StandardThreadFactoryBuilder.newThreadFactory("metacardFileSyncThread"));
+    return new MetacardFileBackupWriter(Paths.get(getStartingDir()), syncExecutor, this::transform);
+  }
+
+  private synchronized void shutdownSyncExecutor() {
+    if (syncExecutor != null) {
+      syncExecutor.shutdownNow();
+      syncExecutor = null;
+    }
+  }
+
   public static void deleteFile(String startingDir, String fileName) {
 
     String fullFilePath = null;
@@ -0,0 +1,143 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.plugin.metacard.backup.storage.filestorage;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.MetacardImpl;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import org.codice.ddf.catalog.plugin.metacard.backup.common.MetacardBackup;
+import org.codice.ddf.catalog.plugin.metacard.backup.internal.MetacardBackupException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MetacardFileBackupWriterTest {
+
+  private static final Function<Metacard, byte[]> TRANSFORMER =
+      metacard -> metacard.getTitle().getBytes(StandardCharsets.UTF_8);
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private ExecutorService syncExecutor;
+
+  private Path startingDir;
+
+  private MetacardFileBackupWriter writer;
+
+  @Before
+  public void setUp() {
+    syncExecutor = Executors.newFixedThreadPool(2);
+    startingDir = temporaryFolder.getRoot().toPath();
+    writer = new MetacardFileBackupWriter(startingDir, syncExecutor, TRANSFORMER);
+  }
+
+  @After
+  public void tearDown() {
+    syncExecutor.shutdownNow();
+  }
+
+  @Test
+  public void testBackupsAreWrittenToTheirKeys() throws Exception {
+    Collection<MetacardBackup> failed =
+        writer.write(
+            Arrays.asList(
+                new MetacardBackup("1", "/a/1.xml", metacard("1", "first")),
+                new MetacardBackup("2", "b/2.xml", metacard("2", "second"))));
+
+    assertThat(failed, is(empty()));
+    assertThat(read(startingDir.resolve("a/1.xml")), is("first"));
+    assertThat(read(startingDir.resolve("b/2.xml")), is("second"));
+  }
+
+  @Test
+  public void testExistingBackupsAreReplaced() throws Exception {
+    Path file = startingDir.resolve("1.xml");
+    Files.write(file, "a much longer earlier backup".getBytes(StandardCharsets.UTF_8));
+
+    writer.write(Collections.singletonList(new MetacardBackup("1", "1.xml", metacard("1", "new"))));
+
+    assertThat(read(file), is("new"));
+  }
+
+  @Test
+  public void testDeletedMetacardsAreRemoved() throws Exception {
+    Path file = startingDir.resolve("1.xml");
+    Files.write(file, "first".getBytes(StandardCharsets.UTF_8));
+
+    Collection<MetacardBackup> failed =
+        writer.write(
+            Arrays.asList(
+                new MetacardBackup("1", "1.xml", null), new MetacardBackup("2", "2.xml", null)));
+
+    assertThat(failed, is(empty()));
+    assertThat(Files.exists(file), is(false));
+  }
+
+  @Test
+  public void testMetacardsThatCannotBeTransformedAreSkipped() throws Exception {
+    writer = new MetacardFileBackupWriter(startingDir, syncExecutor, metacard -> null);
+
+    Collection<MetacardBackup> failed =
+        writer.write(
+            Collections.singletonList(new MetacardBackup("1", "1.xml", metacard("1", "t"))));
+
+    assertThat(failed, is(empty()));
+    assertThat(Files.exists(startingDir.resolve("1.xml")), is(false));
+  }
+
+  @Test
+  public void testBackupsThatCannotBeWrittenAreReturned() throws Exception {
+    Files.write(startingDir.resolve("file"), new byte[0]);
+    MetacardBackup unwritable = new MetacardBackup("1", "file/1.xml", metacard("1", "first"));
+    MetacardBackup writable = new MetacardBackup("2", "2.xml", metacard("2", "second"));
+
+    Collection<MetacardBackup> failed = writer.write(Arrays.asList(unwritable, writable));
+
+    assertThat(failed, contains(unwritable));
+    assertThat(read(startingDir.resolve("2.xml")), is("second"));
+  }
+
+  @Test(expected = MetacardBackupException.class)
+  public void testWriteFailsWhenFilesCannotBeSynced() throws Exception {
+    syncExecutor.shutdown();
+
+    writer.write(Collections.singletonList(new MetacardBackup("1", "1.xml", metacard("1", "t"))));
+  }
+
+  private static Metacard metacard(String id, String title) {
+    MetacardImpl metacard = new MetacardImpl();
+    metacard.setId(id);
+    metacard.setTitle(title);
+    return metacard;
+  }
+
+  private static String read(Path file) throws Exception {
+    return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,184 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.plugin.metacard.backup.storage.s3storage;
+
+import ddf.catalog.data.Metacard;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.codice.ddf.catalog.plugin.metacard.backup.common.MetacardBackup;
+import org.codice.ddf.catalog.plugin.metacard.backup.common.MetacardBackupWriter;
+import org.codice.ddf.catalog.plugin.metacard.backup.internal.MetacardBackupException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.Delete;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
+import software.amazon.awssdk.services.s3.model.ObjectCannedACL;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Error;
+
+/**
+ * Writes metacard backups to an S3 bucket.
+ *
+ * <p>The objects of a batch are uploaded in parallel, and the objects of deleted metacards are
+ * removed with as few delete requests as the bucket allows.
+ */
+public class MetacardS3BackupWriter implements MetacardBackupWriter {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(MetacardS3BackupWriter.class);
+
+  /** The most objects S3 deletes in a single request. */
+  private static final int MAX_DELETE_KEYS = 1000;
+
+  private final S3Client s3Client;
+
+  private final String s3Bucket;
+
+  private final ObjectCannedACL cannedAcl;
+
+  private final ExecutorService uploadExecutor;
+
+  private final Function<Metacard, byte[]> transformer;
+
+  /**
+   * @param s3Client the client to write with
+   * @param s3Bucket the bucket to write to
+   * @param cannedAcl the ACL to give uploaded objects, or null to use the bucket's default
+   * @param uploadExecutor uploads objects in parallel
+   * @param transformer transforms metacards into their backups, returning null if a metacard cannot
+   *     be transformed
+   */
+  public MetacardS3BackupWriter(
+      S3Client s3Client,
+      String s3Bucket,
+      ObjectCannedACL cannedAcl,
+      ExecutorService uploadExecutor,
+      Function<Metacard, byte[]> transformer) {
+    this.s3Client = s3Client;
+    this.s3Bucket = s3Bucket;
+    this.cannedAcl = cannedAcl;
+    this.uploadExecutor = uploadExecutor;
+    this.transformer = transformer;
+  }
+
+  @Override
+  public Collection<MetacardBackup> write(List<MetacardBackup> backups)
+      throws MetacardBackupException {
+    List<MetacardBackup> failed = new ArrayList<>();
+    Map<MetacardBackup, Future<?>> uploads = new LinkedHashMap<>();
+    List<MetacardBackup> deletes = new ArrayList<>();
+
+    try {
+      for (MetacardBackup backup : backups) {
+        if (backup.isDelete()) {
+          deletes.add(backup);
+        } else {
+          uploads.put(backup, uploadExecutor.submit(() -> upload(backup)));
+        }
+      }
+    } catch (RejectedExecutionException e) {
+      uploads.values().forEach(upload -> upload.cancel(true));
+      throw new MetacardBackupException("Unable to upload metacard backups.", e);
+    }
+
+    for (int i = 0; i < deletes.size(); i += MAX_DELETE_KEYS) {
+      failed.addAll(delete(deletes.subList(i, Math.min(i + MAX_DELETE_KEYS, deletes.size()))));
+    }
+
+    for (Map.Entry<MetacardBackup, Future<?>> upload : uploads.entrySet()) {
+      try {
+        upload.getValue().get();
+      } catch (ExecutionException e) {
+        LOGGER.debug(
+            "Unable to upload the backup of metacard {} to {}/{}.",
+            upload.getKey().getId(),
+            s3Bucket,
+            upload.getKey().getKey(),
+            e.getCause());
+        failed.add(upload.getKey());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        uploads.values().forEach(pending -> pending.cancel(true));
+        throw new MetacardBackupException("Interrupted while uploading metacard backups.", e);
+      }
+    }
+    return failed;
+  }
+
+  private void upload(MetacardBackup backup) {
+    byte[] data = transformer.apply(backup.getMetacard());
+    if (data == null) {
+      LOGGER.debug(
+          "Metacard {} could not be transformed. It will not be backed up.", backup.getId());
+      return;
+    }
+
+    LOGGER.trace("Uploading: {} / {}", s3Bucket, backup.getKey());
+    PutObjectRequest.Builder request =
+        PutObjectRequest.builder()
+            .bucket(s3Bucket)
+            .key(backup.getKey())
+            .contentLength((long) data.length);
+    if (cannedAcl != null) {
+      request.acl(cannedAcl);
+    }
+    s3Client.putObject(request.build(), RequestBody.fromBytes(data));
+  }
+
+  private List<MetacardBackup> delete(List<MetacardBackup> deletes) {
+    LOGGER.trace("Deleting {} objects from {}", deletes.size(), s3Bucket);
+
+    Map<String, MetacardBackup> backupsByKey = new HashMap<>();
+    deletes.forEach(backup -> backupsByKey.put(backup.getKey(), backup));
+    List<ObjectIdentifier> toDelete =
+        backupsByKey.keySet().stream()
+            .map(key -> ObjectIdentifier.builder().key(key).build())
+            .collect(Collectors.toList());
+
+    DeleteObjectsRequest deleteRequest =
+        DeleteObjectsRequest.builder()
+            .bucket(s3Bucket)
+            .delete(Delete.builder().objects(toDelete).quiet(true).build())
+            .build();
+    try {
+      DeleteObjectsResponse response = s3Client.deleteObjects(deleteRequest);
+      List<MetacardBackup> failed = new ArrayList<>();
+      for (S3Error error : response.errors()) {
+        LOGGER.debug("Unable to delete {}/{}: {}", s3Bucket, error.key(), error.message());
+        MetacardBackup backup = backupsByKey.get(error.key());
+        if (backup != null) {
+          failed.add(backup);
+        }
+      }
+      return failed;
+    } catch (SdkException e) {
+      LOGGER.debug("Unable to delete {} objects from {}.", deletes.size(), s3Bucket, e);
+      return deletes;
+    }
+  }
+}
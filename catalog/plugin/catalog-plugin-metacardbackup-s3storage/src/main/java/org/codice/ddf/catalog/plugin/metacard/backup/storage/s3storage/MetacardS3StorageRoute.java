@@ -20,17 +20,18 @@
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import org.apache.camel.CamelContext;
-import org.apache.camel.component.aws2.s3.AWS2S3Constants;
-import org.apache.camel.impl.DefaultCamelContext;
-import org.apache.camel.support.DefaultRegistry;
-import org.apache.camel.support.SimpleRegistry;
 import org.apache.commons.lang3.StringUtils;
+import org.codice.ddf.catalog.plugin.metacard.backup.common.MetacardBackupWriter;
 import org.codice.ddf.catalog.plugin.metacard.backup.common.MetacardStorageRoute;
 import org.codice.ddf.catalog.plugin.metacard.backup.common.MetacardTemplate;
 import org.codice.ddf.catalog.plugin.metacard.backup.common.ResponseMetacardActionSplitter;
+import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
@@ -39,10 +40,12 @@
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.ObjectCannedACL;
 
 /**
- * Creates a camel route for storing metacards from post-ingest in Amazon S3. This route will
- * transform the metacard using the configured metacard transformer prior to storage.
+ * Creates a camel route for storing metacards from post-ingest in Amazon S3. The route queues the
+ * metacards, which are transformed using the configured metacard transformer and uploaded in
+ * batches once changes to them have settled.
  */
 public class MetacardS3StorageRoute extends MetacardStorageRoute {
   public static final String OBJECT_TEMPLATE = "objectTemplate";
@@ -59,9 +62,9 @@ public class MetacardS3StorageRoute extends MetacardStorageRoute {
 
   public static final String S3_CANNED_ACL_NAME_PROP = "s3CannedAclName";
 
-  public static final String AWS_S3_CLIENT_PROP = "amazonS3Client";
+  public static final String S3_UPLOAD_THREADS_PROP = "s3UploadThreads";
 
-  public static final String AWS_S3_DELETE_AFTER_WRITE_PROP = "deleteAfterWrite";
+  private static final String S3_KEY_HEADER = "s3Key";
 
   protected String objectTemplate;
 
@@ -77,21 +80,18 @@ public class MetacardS3StorageRoute extends MetacardStorageRoute {
 
   protected String s3CannedAclName;
 
-  private List<String> routeIds = new ArrayList<>();
+  protected int s3UploadThreads = 8;
 
-  private final SimpleRegistry registry;
+  private List<String> routeIds = new ArrayList<>();
 
   private MetacardTemplate metacardTemplate = null;
 
-  private S3Client s3Client = null;
+  private ExecutorService uploadExecutor = null;
 
   private static final Logger LOGGER = LoggerFactory.getLogger(MetacardS3StorageRoute.class);
 
   public MetacardS3StorageRoute(CamelContext camelContext) {
     super(camelContext);
-    registry = new SimpleRegistry();
-    DefaultRegistry defaultRegistry = new DefaultRegistry(camelContext.getRegistry(), registry);
-    ((DefaultCamelContext) camelContext).setRegistry(defaultRegistry);
   }
 
   public String getObjectTemplate() {
@@ -150,28 +150,19 @@ public void setS3CannedAclName(String s3CannedAclName) {
     this.s3CannedAclName = s3CannedAclName;
   }
 
+  public int getS3UploadThreads() {
+    return s3UploadThreads;
+  }
+
+  public void setS3UploadThreads(int s3UploadThreads) {
+    this.s3UploadThreads = s3UploadThreads;
+  }
+
   @Override
   public void configure() throws Exception {
     routeIds.clear();
 
-    StringBuilder options = new StringBuilder();
     metacardTemplate = new MetacardTemplate(objectTemplate);
-    s3Client = getS3Client();
-
-    DeleteBean deleteBean = new DeleteBean(s3Client, s3Bucket);
-
-    registry.bind("s3Client", s3Client);
-    registry.bind("deleteBean", deleteBean);
-    addOption(options, AWS_S3_CLIENT_PROP, "#s3Client");
-
-    addOption(options, AWS_S3_DELETE_AFTER_WRITE_PROP, "false");
-
-    String s3Uri = "aws-s3://" + getS3Bucket();
-    if (options.length() > 0) {
-      s3Uri += "?" + options.toString();
-    }
-
-    LOGGER.trace("S3 storage URI: {}", s3Uri);
 
     String metacardRouteId = "metacard-" + UUID.randomUUID().toString();
     String route1Id = metacardRouteId + "1";
@@ -193,23 +184,20 @@ public void configure() throws Exception {
         .setHeader(
             METACARD_BACKUP_KEEP_DELETED_RTE_PROP,
             simple(String.valueOf(keepDeletedMetacards), Boolean.class))
-        .setHeader(AWS2S3Constants.KEY, method(metacardTemplate, "applyTemplate(${body})"))
+        .setHeader(S3_KEY_HEADER, method(metacardTemplate, "applyTemplate(${body})"))
         .choice()
         .when(
             and(
                 header(PostIngestConsumer.ACTION).isEqualTo(PostIngestConsumer.DELETE),
                 getCheckDeletePredicate()))
-        .bean(deleteBean, "delete")
+        .process(getDeleteBackupProcessor(S3_KEY_HEADER))
         .stop()
         .otherwise()
         .choice()
         .when(not(getShouldBackupPredicate()))
         .stop()
         .otherwise()
-        .to("catalog:metacardtransformer")
-        .setHeader(AWS2S3Constants.CANNED_ACL, simple(s3CannedAclName))
-        .setHeader(AWS2S3Constants.CONTENT_LENGTH, simple("${body.length}"))
-        .to(s3Uri);
+        .process(getBackupProcessor(S3_KEY_HEADER));
     routeIds.add(route2Id);
 
     LOGGER.trace("Starting metacard S3 storage route: {}", this);
@@ -262,6 +250,11 @@ public void refresh(Map<String, Object> properties) throws Exception {
       setS3CannedAclName((String) s3CannedAclValue);
     }
 
+    Object s3UploadThreadsValue = properties.get(S3_UPLOAD_THREADS_PROP);
+    if (s3UploadThreadsValue instanceof Integer) {
+      setS3UploadThreads((Integer) s3UploadThreadsValue);
+    }
+
     super.refresh(properties);
   }
 
@@ -270,11 +263,60 @@ public List<String> getRouteIds() {
     return routeIds;
   }
 
-  private void addOption(StringBuilder options, String key, String value) {
-    if (options.length() > 0) {
-      options.append("&");
+  @Override
+  public void stop(int code) {
+    super.stop(code);
+    shutdownUploadExecutor();
+  }
+
+  @Override
+  protected String getBackupDestination() {
+    return "s3:" + s3Endpoint + "/" + s3Bucket + "?" + objectTemplate;
+  }
+
+  @Override
+  protected synchronized MetacardBackupWriter createBackupWriter() {
+    shutdownUploadExecutor();
+    uploadExecutor =
+        Executors.newFixedThreadPool(
+            Math.max(1, s3UploadThreads),
+            StandardThreadFactoryBuilder.newThreadFactory("metacardS3UploadThread"));
+    return new MetacardS3BackupWriter(
+        getS3Client(), s3Bucket, getCannedAcl(s3CannedAclName), uploadExecutor, this::transform);
+  }
+
+  /**
+   * Finds the canned ACL with the given name, which may be written as in the Amazon documentation,
+   * such as {@code bucket-owner-full-control}, or in camel case, such as {@code
+   * BucketOwnerFullControl}.
+   *
+   * @return the canned ACL, or null if there is none with the given name
+   */
+  static ObjectCannedACL getCannedAcl(String cannedAclName) {
+    if (StringUtils.isBlank(cannedAclName)) {
+      return null;
+    }
+
+    ObjectCannedACL cannedAcl =
+        ObjectCannedACL.fromValue(
+            cannedAclName
+                .trim()
+                .replaceAll("([a-z])([A-Z])", "$1-$2")
+                .replace('_', '-')
+                .toLowerCase(Locale.ROOT));
+    if (cannedAcl == ObjectCannedACL.UNKNOWN_TO_SDK_VERSION) {
+      LOGGER.debug(
+          "Unknown S3 canned ACL {}. The bucket's default ACL will be used.", cannedAclName);
+      return null;
+    }
+    return cannedAcl;
+  }
+
+  private synchronized void shutdownUploadExecutor() {
+    if (uploadExecutor != null) {
+      uploadExecutor.shutdownNow();
+      uploadExecutor = null;
     }
-    options.append(key).append("=").append(value);
   }
 
   private S3Client getS3Client() {
@@ -0,0 +1,195 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.plugin.metacard.backup.storage.s3storage;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.MetacardImpl;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.codice.ddf.catalog.plugin.metacard.backup.common.MetacardBackup;
+import org.codice.ddf.catalog.plugin.metacard.backup.internal.MetacardBackupException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
+import software.amazon.awssdk.services.s3.model.ObjectCannedACL;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Error;
+
+public class MetacardS3BackupWriterTest {
+
+  private static final String BUCKET = "s3-bucket";
+
+  private static final Function<Metacard, byte[]> TRANSFORMER =
+      metacard -> metacard.getTitle().getBytes(StandardCharsets.UTF_8);
+
+  private final S3Client s3Client = mock(S3Client.class);
+
+  private ExecutorService uploadExecutor;
+
+  private MetacardS3BackupWriter writer;
+
+  @Before
+  public void setUp() {
+    uploadExecutor = Executors.newFixedThreadPool(2);
+    writer =
+        new MetacardS3BackupWriter(
+            s3Client, BUCKET, ObjectCannedACL.PRIVATE, uploadExecutor, TRANSFORMER);
+    when(s3Client.deleteObjects(any(DeleteObjectsRequest.class)))
+        .thenReturn(DeleteObjectsResponse.builder().build());
+  }
+
+  @After
+  public void tearDown() {
+    uploadExecutor.shutdownNow();
+  }
+
+  @Test
+  public void testBackupsAreUploadedToTheirKeys() throws Exception {
+    Collection<MetacardBackup> failed =
+        writer.write(
+            Arrays.asList(
+                new MetacardBackup("1", "dir/1.xml", metacard("1", "first")),
+                new MetacardBackup("2", "dir/2.xml", metacard("2", "second"))));
+
+    assertThat(failed, is(empty()));
+    ArgumentCaptor<PutObjectRequest> requests = ArgumentCaptor.forClass(PutObjectRequest.class);
+    verify(s3Client, times(2)).putObject(requests.capture(), any(RequestBody.class));
+    assertThat(
+        requests.getAllValues().stream().map(PutObjectRequest::key).collect(Collectors.toList()),
+        containsInAnyOrder("dir/1.xml", "dir/2.xml"));
+    for (PutObjectRequest request : requests.getAllValues()) {
+      assertThat(request.bucket(), is(BUCKET));
+      assertThat(request.acl(), is(ObjectCannedACL.PRIVATE));
+    }
+    verify(s3Client, never()).deleteObjects(any(DeleteObjectsRequest.class));
+  }
+
+  @Test
+  public void testMetacardsThatCannotBeTransformedAreSkipped() throws Exception {
+    writer = new MetacardS3BackupWriter(s3Client, BUCKET, null, uploadExecutor, metacard -> null);
+
+    Collection<MetacardBackup> failed =
+        writer.write(
+            Collections.singletonList(new MetacardBackup("1", "1.xml", metacard("1", "t"))));
+
+    assertThat(failed, is(empty()));
+    verify(s3Client, never()).putObject(any(PutObjectRequest.class), any(RequestBody.class));
+  }
+
+  @Test
+  public void testBackupsThatCannotBeUploadedAreReturned() throws Exception {
+    MetacardBackup refused = new MetacardBackup("1", "1.xml", metacard("1", "first"));
+    MetacardBackup accepted = new MetacardBackup("2", "2.xml", metacard("2", "second"));
+    when(s3Client.putObject(any(PutObjectRequest.class), any(RequestBody.class)))
+        .thenAnswer(
+            invocation -> {
+              if (invocation.<PutObjectRequest>getArgument(0).key().equals("1.xml")) {
+                throw SdkClientException.create("refused");
+              }
+              return PutObjectResponse.builder().build();
+            });
+
+    Collection<MetacardBackup> failed = writer.write(Arrays.asList(refused, accepted));
+
+    assertThat(failed, contains(refused));
+  }
+
+  @Test
+  public void testDeletedMetacardsAreRemovedInBatches() throws Exception {
+    List<MetacardBackup> deletes = new ArrayList<>();
+    for (int i = 0; i < 1500; i++) {
+      deletes.add(new MetacardBackup(String.valueOf(i), i + ".xml", null));
+    }
+
+    Collection<MetacardBackup> failed = writer.write(deletes);
+
+    assertThat(failed, is(empty()));
+    ArgumentCaptor<DeleteObjectsRequest> requests =
+        ArgumentCaptor.forClass(DeleteObjectsRequest.class);
+    verify(s3Client, times(2)).deleteObjects(requests.capture());
+    assertThat(requests.getAllValues().get(0).delete().objects().size(), is(1000));
+    assertThat(requests.getAllValues().get(1).delete().objects().size(), is(500));
+    assertThat(requests.getAllValues().get(0).bucket(), is(BUCKET));
+    verify(s3Client, never()).putObject(any(PutObjectRequest.class), any(RequestBody.class));
+  }
+
+  @Test
+  public void testObjectsThatCannotBeDeletedAreReturned() throws Exception {
+    MetacardBackup refused = new MetacardBackup("1", "1.xml", null);
+    MetacardBackup accepted = new MetacardBackup("2", "2.xml", null);
+    when(s3Client.deleteObjects(any(DeleteObjectsRequest.class)))
+        .thenReturn(
+            DeleteObjectsResponse.builder()
+                .errors(S3Error.builder().key("1.xml").message("AccessDenied").build())
+                .build());
+
+    Collection<MetacardBackup> failed = writer.write(Arrays.asList(refused, accepted));
+
+    assertThat(failed, contains(refused));
+  }
+
+  @Test
+  public void testAllDeletesAreReturnedWhenTheRequestFails() throws Exception {
+    List<MetacardBackup> deletes =
+        Arrays.asList(
+            new MetacardBackup("1", "1.xml", null), new MetacardBackup("2", "2.xml", null));
+    when(s3Client.deleteObjects(any(DeleteObjectsRequest.class)))
+        .thenThrow(SdkClientException.create("unreachable"));
+
+    Collection<MetacardBackup> failed = writer.write(deletes);
+
+    assertThat(failed, containsInAnyOrder(deletes.toArray()));
+  }
+
+  @Test(expected = MetacardBackupException.class)
+  public void testWriteFailsWhenUploadsCannotBeStarted() throws Exception {
+    uploadExecutor.shutdown();
+
+    writer.write(Collections.singletonList(new MetacardBackup("1", "1.xml", metacard("1", "t"))));
+  }
+
+  private static Metacard metacard(String id, String title) {
+    MetacardImpl metacard = new MetacardImpl();
+    metacard.setId(id);
+    metacard.setTitle(title);
+    return metacard;
+  }
+}
@@ -0,0 +1,57 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.plugin.metacard.backup.common;
+
+import ddf.catalog.data.Metacard;
+import java.io.Serializable;
+
+/** A metacard waiting to be backed up, or the removal of a metacard's backup. */
+public class MetacardBackup implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private final String id;
+
+  private final String key;
+
+  private final Metacard metacard;
+
+  /**
+   * @param id the id of the metacard
+   * @param key where the backup is stored, relative to the backup storage
+   * @param metacard the metacard to back up, or null if its backup is to be removed
+   */
+  public MetacardBackup(String id, String key, Metacard metacard) {
+    this.id = id;
+    this.key = key;
+    this.metacard = metacard;
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public String getKey() {
+    return key;
+  }
+
+  public Metacard getMetacard() {
+    return metacard;
+  }
+
+  /** @return true if the backup of the metacard is to be removed */
+  public boolean isDelete() {
+    return metacard == null;
+  }
+}
@@ -0,0 +1,494 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.plugin.metacard.backup.common;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.MetacardImpl;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import org.codice.ddf.catalog.plugin.metacard.backup.internal.MetacardBackupException;
+import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Collects metacard backups and hands them to a {@link MetacardBackupWriter} in batches, so that
+ * ingest does not wait for backups to be written.
+ *
+ * <p>A backup is held for a delay after the first change to its metacard is queued, and later
+ * changes to the same metacard within that time replace it, so a metacard that is updated many
+ * times in quick succession is only written once. Each queued backup is also saved to its own file
+ * in the queue directory, named after the metacard id so that a later change replaces it, and
+ * backups that were queued but not written when the queue stopped are written once it is started
+ * again. Backups that cannot be written are retried after another delay.
+ *
+ * <p>Once the queue is started, backups are saved to the queue directory in batches on the queue
+ * thread rather than on the thread that queues them, unless more than {@value #MAX_UNSAVED_BACKUPS}
+ * are waiting to be saved. Only the ids of saved backups are kept in memory, and the backups are
+ * read back from their files when they are written.
+ */
+public class MetacardBackupQueue {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(MetacardBackupQueue.class);
+
+  private static final String QUEUE_FILE_EXTENSION = ".backup";
+
+  private static final int LOCK_STRIPES = 64;
+
+  private static final int MAX_UNSAVED_BACKUPS = 1000;
+
+  /** The classes a queue file may hold. Anything else is rejected before it is created. */
+  private static final ObjectInputFilter QUEUE_FILE_FILTER =
+      ObjectInputFilter.Config.createFilter(
+          MetacardBackup.class.getName()
+              + ";ddf.catalog.data.**;java.lang.*;java.util.*;java.math.*;java.sql.Timestamp;!*");
+
+  private final Path directory;
+
+  private final MetacardBackupWriter writer;
+
+  private final long delayMillis;
+
+  private final int batchSize;
+
+  private final LongSupplier clock;
+
+  /** The queued backups by metacard id. Guards all of the queue's state. */
+  private final Map<String, QueuedBackup> queuedBackups = new HashMap<>();
+
+  /** The queued backups that are not being written, in the order they are due. */
+  private final PriorityQueue<QueuedBackup> dueOrder =
+      new PriorityQueue<>(Comparator.comparingLong((QueuedBackup queued) -> queued.dueAt));
+
+  /** The ids of the queued backups that have not been saved to the queue directory yet. */
+  private final Set<String> unsavedIds = new LinkedHashSet<>();
+
+  /** Keeps the queue file of a metacard in step with its entry in {@link #queuedBackups}. */
+  private final Object[] locks = new Object[LOCK_STRIPES];
+
+  private volatile ScheduledExecutorService executor;
+
+  /**
+   * @param directory the directory to save queued backups in
+   * @param writer writes the backups
+   * @param delayMillis how long to hold a backup for changes to the same metacard
+   * @param batchSize the most backups to write at a time
+   */
+  public MetacardBackupQueue(
+      Path directory, MetacardBackupWriter writer, long delayMillis, int batchSize) {
+    this(directory, writer, delayMillis, batchSize, System::currentTimeMillis);
+  }
+
+  MetacardBackupQueue(
+      Path directory,
+      MetacardBackupWriter writer,
+      long delayMillis,
+      int batchSize,
+      LongSupplier clock) {
+    this.directory = directory;
+    this.writer = writer;
+    this.delayMillis = Math.max(0, delayMillis);
+    this.batchSize = Math.max(1, batchSize);
+    this.clock = clock;
+    for (int i = 0; i < locks.length; i++) {
+      locks[i] = new Object();
+    }
+  }
+
+  /** Loads the backups left in the queue directory and starts writing queued backups. */
+  public synchronized void start() {
+    if (executor != null) {
+      return;
+    }
+
+    load();
+    executor =
+        Executors.newSingleThreadScheduledExecutor(
+            StandardThreadFactoryBuilder.newThreadFactory("metacardBackupQueueThread"));
+    long period = Math.max(delayMillis / 2, 100);
+    executor.scheduleWithFixedDelay(this::writeDueBackups, period, period, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Stops writing queued backups, and saves the backups that have not been saved yet. Backups still
+   * in the queue are written once it is restarted.
+   */
+  public synchronized void stop() {
+    if (executor != null) {
+      executor.shutdownNow();
+      executor = null;
+    }
+    saveUnsavedBackups();
+  }
+
+  /**
+   * Queues a backup, replacing any backup of the same metacard that has not been written yet.
+   *
+   * @param backup the backup to queue
+   */
+  public void enqueue(MetacardBackup backup) {
+    int unsaved;
+    synchronized (queuedBackups) {
+      QueuedBackup queued = queuedBackups.get(backup.getId());
+      if (queued == null) {
+        queued = new QueuedBackup(backup.getId(), clock.getAsLong() + delayMillis);
+        queuedBackups.put(backup.getId(), queued);
+        dueOrder.add(queued);
+      }
+      queued.backup = backup;
+      queued.version++;
+      unsavedIds.add(backup.getId());
+      unsaved = unsavedIds.size();
+    }
+
+    ScheduledExecutorService saver = executor;
+    if (saver == null || unsaved > MAX_UNSAVED_BACKUPS) {
+      // saving on this thread holds back ingest until the queue thread catches up
+      saveUnsavedBackups();
+    } else if (unsaved == 1) {
+      try {
+        saver.execute(this::saveUnsavedBackups);
+      } catch (RejectedExecutionException e) {
+        saveUnsavedBackups();
+      }
+    }
+  }
+
+  /** @return the number of backups waiting to be written */
+  public int size() {
+    synchronized (queuedBackups) {
+      return queuedBackups.size();
+    }
+  }
+
+  /**
+   * Writes the backups whose delay has passed, a batch at a time.
+   *
+   * @return the number of backups written
+   */
+  int writeDueBackups() {
+    int written = 0;
+    try {
+      saveUnsavedBackups();
+      List<QueuedBackup> batch;
+      do {
+        batch = getDueBackups();
+        if (!batch.isEmpty()) {
+          written += write(batch);
+        }
+      } while (batch.size() == batchSize && !Thread.currentThread().isInterrupted());
+    } catch (RuntimeException e) {
+      LOGGER.debug("Unexpected error writing metacard backups.", e);
+    }
+    return written;
+  }
+
+  private List<QueuedBackup> getDueBackups() {
+    long now = clock.getAsLong();
+    List<QueuedBackup> batch = new ArrayList<>();
+    synchronized (queuedBackups) {
+      while (batch.size() < batchSize && !dueOrder.isEmpty() && dueOrder.peek().dueAt <= now) {
+        batch.add(dueOrder.poll());
+      }
+    }
+    return batch;
+  }
+
+  private int write(List<QueuedBackup> batch) {
+    List<MetacardBackup> backups = new ArrayList<>(batch.size());
+    Map<String, Long> versions = new HashMap<>();
+    Set<String> unreadIds = new HashSet<>();
+    for (QueuedBackup queued : batch) {
+      MetacardBackup backup;
+      synchronized (queuedBackups) {
+        backup = queued.backup;
+        versions.put(queued.id, queued.version);
+      }
+      if (backup == null) {
+        backup = read(getQueueFile(queued.id));
+      }
+      if (backup == null) {
+        unreadIds.add(queued.id);
+      } else {
+        backups.add(backup);
+      }
+    }
+
+    Set<String> failedIds = new HashSet<>();
+    if (!backups.isEmpty()) {
+      try {
+        for (MetacardBackup failed : writer.write(backups)) {
+          failedIds.add(failed.getId());
+        }
+      } catch (MetacardBackupException e) {
+        LOGGER.debug(
+            "Unable to write {} metacard backups. They will be retried.", backups.size(), e);
+        backups.forEach(backup -> failedIds.add(backup.getId()));
+      }
+    }
+
+    if (!failedIds.isEmpty()) {
+      LOGGER.debug("Unable to write {} metacard backups. They will be retried.", failedIds.size());
+    }
+
+    long retryAt = clock.getAsLong() + delayMillis;
+    for (QueuedBackup queued : batch) {
+      synchronized (lockFor(queued.id)) {
+        synchronized (queuedBackups) {
+          if (queued.version != versions.get(queued.id)) {
+            // the metacard changed again while it was being written
+            dueOrder.add(queued);
+            continue;
+          }
+          if (failedIds.contains(queued.id)) {
+            // move it to the back of the queue so it does not hold up other backups
+            queued.dueAt = retryAt;
+            dueOrder.add(queued);
+            continue;
+          }
+          queuedBackups.remove(queued.id);
+        }
+        if (unreadIds.contains(queued.id)) {
+          // its queue file has been discarded, or is kept until it can be read
+          continue;
+        }
+        deleteQueueFile(queued.id);
+      }
+    }
+    return backups.size() - failedIds.size();
+  }
+
+  /**
+   * Saves the backups that have not been saved to the queue directory yet, and drops the ones that
+   * were saved from memory.
+   */
+  private void saveUnsavedBackups() {
+    List<String> ids;
+    synchronized (queuedBackups) {
+      if (unsavedIds.isEmpty()) {
+        return;
+      }
+      ids = new ArrayList<>(unsavedIds);
+      unsavedIds.clear();
+    }
+
+    for (String id : ids) {
+      synchronized (lockFor(id)) {
+        MetacardBackup backup;
+        long version;
+        synchronized (queuedBackups) {
+          QueuedBackup queued = queuedBackups.get(id);
+          if (queued == null || queued.backup == null) {
+            continue;
+          }
+          backup = queued.backup;
+          version = queued.version;
+        }
+
+        if (save(backup)) {
+          synchronized (queuedBackups) {
+            QueuedBackup queued = queuedBackups.get(id);
+            if (queued != null && queued.version == version) {
+              queued.backup = null;
+            }
+          }
+        }
+      }
+    }
+  }
+
+  /** @return whether the backup was saved */
+  private boolean save(MetacardBackup backup) {
+    Path file = getQueueFile(backup.getId());
+    Path temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+    try {
+      Files.createDirectories(directory);
+      try (OutputStream outputStream = Files.newOutputStream(temporaryFile);
+          ObjectOutputStream objectOutputStream = new ObjectOutputStream(outputStream)) {
+        objectOutputStream.writeObject(toSerializable(backup));
+      }
+      Files.move(
+          temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      return true;
+    } catch (IOException e) {
+      LOGGER.debug(
+          "Unable to save the backup of metacard {} to the queue directory. "
+              + "It will not be backed up if the queue is stopped before it is written.",
+          backup.getId(),
+          e);
+      try {
+        Files.deleteIfExists(temporaryFile);
+      } catch (IOException deleteException) {
+        LOGGER.debug("Unable to delete {}.", temporaryFile, deleteException);
+      }
+      return false;
+    }
+  }
+
+  private void load() {
+    if (!Files.isDirectory(directory)) {
+      return;
+    }
+
+    List<String> loadedIds = new ArrayList<>();
+    try (DirectoryStream<Path> files =
+        Files.newDirectoryStream(directory, "*" + QUEUE_FILE_EXTENSION)) {
+      for (Path file : files) {
+        MetacardBackup backup = read(file);
+        if (backup != null) {
+          loadedIds.add(backup.getId());
+        }
+      }
+    } catch (IOException e) {
+      LOGGER.warn("Unable to read the metacard backup queue directory {}.", directory, e);
+    }
+
+    long now = clock.getAsLong();
+    synchronized (queuedBackups) {
+      for (String id : loadedIds) {
+        if (!queuedBackups.containsKey(id)) {
+          QueuedBackup queued = new QueuedBackup(id, now);
+          queuedBackups.put(id, queued);
+          dueOrder.add(queued);
+        }
+      }
+    }
+    if (!loadedIds.isEmpty()) {
+      LOGGER.info("Resuming {} queued metacard backups.", loadedIds.size());
+    }
+  }
+
+  /**
+   * @return the backup saved in {@code file}, or null if it cannot be read. A file that cannot be
+   *     read is discarded, unless it refers to a class that is not available yet.
+   */
+  private MetacardBackup read(Path file) {
+    try (InputStream inputStream = Files.newInputStream(file);
+        ObjectInputStream objectInputStream = new BackupInputStream(inputStream)) {
+      return (MetacardBackup) objectInputStream.readObject();
+    } catch (ClassNotFoundException e) {
+      LOGGER.warn(
+          "Unable to read the queued metacard backup {}. It will be kept until it can be read.",
+          file);
+      LOGGER.debug("Unable to read the queued metacard backup {}.", file, e);
+    } catch (IOException | ClassCastException e) {
+      LOGGER.warn("Unable to read the queued metacard backup {}. It will be discarded.", file);
+      LOGGER.debug("Unable to read the queued metacard backup {}.", file, e);
+      try {
+        Files.deleteIfExists(file);
+      } catch (IOException deleteException) {
+        LOGGER.debug("Unable to delete {}.", file, deleteException);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Replaces the metacard of a backup with a {@link MetacardImpl}, whose serialized form only holds
+   * classes of the catalog API, so that the backup can be read without the classes of the metacard
+   * implementation that was queued.
+   */
+  private static MetacardBackup toSerializable(MetacardBackup backup) {
+    Metacard metacard = backup.getMetacard();
+    if (metacard == null || metacard.getClass() == MetacardImpl.class) {
+      return backup;
+    }
+    return new MetacardBackup(backup.getId(), backup.getKey(), new MetacardImpl(metacard));
+  }
+
+  private void deleteQueueFile(String id) {
+    Path file = getQueueFile(id);
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      LOGGER.debug("Unable to delete the queued metacard backup {}.", file, e);
+    }
+  }
+
+  private Path getQueueFile(String id) {
+    return directory.resolve(
+        UUID.nameUUIDFromBytes(id.getBytes(StandardCharsets.UTF_8)) + QUEUE_FILE_EXTENSION);
+  }
+
+  private Object lockFor(String id) {
+    return locks[Math.floorMod(id.hashCode(), locks.length)];
+  }
+
+  /** A queued backup. Its fields are guarded by {@link #queuedBackups}. */
+  private static class QueuedBackup {
+
+    private final String id;
+
+    private long dueAt;
+
+    /** The backup, until it has been saved to the queue directory. */
+    private MetacardBackup backup;
+
+    /** Counts the changes queued for the metacard. */
+    private long version;
+
+    private QueuedBackup(String id, long dueAt) {
+      this.id = id;
+      this.dueAt = dueAt;
+    }
+  }
+
+  /**
+   * Reads queued backups with the class loader of this class, which sees the catalog API, rather
+   * than the class loader Java serialization would otherwise pick, and only accepts the classes a
+   * backup is made of.
+   */
+  private static class BackupInputStream extends ObjectInputStream {
+
+    BackupInputStream(InputStream inputStream) throws IOException {
+      super(inputStream);
+      setObjectInputFilter(QUEUE_FILE_FILTER);
+    }
+
+    @Override
+    protected Class<?> resolveClass(ObjectStreamClass desc)
+        throws IOException, ClassNotFoundException {
+      try {
+        return Class.forName(desc.getName(), false, MetacardBackupQueue.class.getClassLoader());
+      } catch (ClassNotFoundException e) {
+        return super.resolveClass(desc);
+      }
+    }
+  }
+}
@@ -0,0 +1,31 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.plugin.metacard.backup.common;
+
+import java.util.Collection;
+import java.util.List;
+import org.codice.ddf.catalog.plugin.metacard.backup.internal.MetacardBackupException;
+
+/** Writes batches of metacard backups to a backup storage. */
+public interface MetacardBackupWriter {
+
+  /**
+   * Writes the given backups, removing the backups of deleted metacards.
+   *
+   * @param backups the backups to write, with at most one backup for each metacard
+   * @return the backups that could not be written and should be retried
+   * @throws MetacardBackupException if none of the backups could be written
+   */
+  Collection<MetacardBackup> write(List<MetacardBackup> backups) throws MetacardBackupException;
+}
@@ -16,13 +16,21 @@
 import ddf.catalog.data.Attribute;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.types.Core;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
 import org.apache.camel.Predicate;
+import org.apache.camel.Processor;
+import org.apache.camel.ProducerTemplate;
 import org.apache.camel.builder.RouteBuilder;
 import org.apache.camel.model.ModelCamelContext;
 import org.apache.camel.model.RouteDefinition;
@@ -49,8 +57,16 @@ public abstract class MetacardStorageRoute extends RouteBuilder {
 
   public static final String METACARD_BACKUP_TAGS_PROPERTY = "backupMetacardTags";
 
+  public static final String BACKUP_BATCH_SIZE_PROPERTY = "backupBatchSize";
+
+  public static final String BACKUP_DELAY_PROPERTY = "backupDelaySeconds";
+
   private static final String INVALID_TAG = "INVALID";
 
+  private static final String METACARD_TRANSFORMER_URI = "catalog:metacardtransformer";
+
+  private static final String QUEUE_DIRECTORY = "metacard-backup-queue";
+
   protected boolean backupInvalidMetacards;
 
   protected boolean keepDeletedMetacards;
@@ -59,6 +75,14 @@ public abstract class MetacardStorageRoute extends RouteBuilder {
 
   protected List<String> backupMetacardTags;
 
+  protected int backupBatchSize = 100;
+
+  protected int backupDelaySeconds = 5;
+
+  private MetacardBackupQueue backupQueue;
+
+  private ProducerTemplate producerTemplate;
+
   private static final Logger LOGGER = LoggerFactory.getLogger(MetacardStorageRoute.class);
 
   public MetacardStorageRoute(CamelContext camelContext) {
@@ -67,6 +91,7 @@ public MetacardStorageRoute(CamelContext camelContext) {
 
   public void start() {
     try {
+      startBackupQueue();
       getContext().addRoutes(this);
       getContext().start();
     } catch (Exception e) {
@@ -92,10 +117,21 @@ public void stop(int code) {
     } catch (Exception e) {
       LOGGER.error("Could not stop route: {}", e);
     }
+
+    stopBackupQueue();
   }
 
   public abstract List<String> getRouteIds();
 
+  /**
+   * @return a description of where backups are stored, such as a directory or bucket, that
+   *     identifies the queue of backups waiting to be written there
+   */
+  protected abstract String getBackupDestination();
+
+  /** @return a writer for the backup storage as it is currently configured */
+  protected abstract MetacardBackupWriter createBackupWriter();
+
   public String getMetacardTransformerId() {
     return metacardTransformerId;
   }
@@ -128,6 +164,22 @@ public void setBackupMetacardTags(List<String> backupMetacardTags) {
     this.backupMetacardTags = backupMetacardTags;
   }
 
+  public int getBackupBatchSize() {
+    return backupBatchSize;
+  }
+
+  public void setBackupBatchSize(int backupBatchSize) {
+    this.backupBatchSize = backupBatchSize;
+  }
+
+  public int getBackupDelaySeconds() {
+    return backupDelaySeconds;
+  }
+
+  public void setBackupDelaySeconds(int backupDelaySeconds) {
+    this.backupDelaySeconds = backupDelaySeconds;
+  }
+
   public void refresh(Map<String, Object> properties) throws Exception {
     Object backupInvalidProp = properties.get(BACKUP_INVALID_PROPERTY);
     if (backupInvalidProp instanceof Boolean) {
@@ -149,6 +201,16 @@ public void refresh(Map<String, Object> properties) throws Exception {
       this.backupMetacardTags = (List<String>) metacardTagsProp;
     }
 
+    Object batchSizeProp = properties.get(BACKUP_BATCH_SIZE_PROPERTY);
+    if (batchSizeProp instanceof Integer) {
+      this.backupBatchSize = (Integer) batchSizeProp;
+    }
+
+    Object delayProp = properties.get(BACKUP_DELAY_PROPERTY);
+    if (delayProp instanceof Integer) {
+      this.backupDelaySeconds = (Integer) delayProp;
+    }
+
     stop(0);
     configure();
     start();
@@ -195,6 +257,89 @@ protected Predicate getCheckDeletePredicate() {
     };
   }
 
+  /**
+   * Queues the metacard in the body of the exchange to be backed up under the given key.
+   *
+   * @param keyHeader the header holding where the backup is stored
+   */
+  protected Processor getBackupProcessor(String keyHeader) {
+    return exchange -> enqueue(exchange, keyHeader, false);
+  }
+
+  /**
+   * Queues the removal of the backup of the metacard in the body of the exchange.
+   *
+   * @param keyHeader the header holding where the backup is stored
+   */
+  protected Processor getDeleteBackupProcessor(String keyHeader) {
+    return exchange -> enqueue(exchange, keyHeader, true);
+  }
+
+  /**
+   * Transforms a metacard with the configured metacard transformer.
+   *
+   * @return the transformed metacard, or null if it could not be transformed
+   */
+  protected byte[] transform(Metacard metacard) {
+    ProducerTemplate template = producerTemplate;
+    if (template == null) {
+      return null;
+    }
+    return template.requestBodyAndHeader(
+        METACARD_TRANSFORMER_URI,
+        metacard,
+        METACARD_TRANSFORMER_ID_RTE_PROP,
+        metacardTransformerId,
+        byte[].class);
+  }
+
+  private void enqueue(Exchange exchange, String keyHeader, boolean delete) {
+    Metacard metacard = exchange.getIn().getBody(Metacard.class);
+    String key = exchange.getIn().getHeader(keyHeader, String.class);
+    MetacardBackupQueue queue = backupQueue;
+    if (metacard == null || key == null || queue == null) {
+      LOGGER.debug("Unable to queue the backup of metacard {}.", metacard);
+      return;
+    }
+    queue.enqueue(new MetacardBackup(metacard.getId(), key, delete ? null : metacard));
+  }
+
+  private synchronized void startBackupQueue() {
+    stopBackupQueue();
+    producerTemplate = getContext().createProducerTemplate();
+    backupQueue =
+        new MetacardBackupQueue(
+            getQueueDirectory(),
+            createBackupWriter(),
+            TimeUnit.SECONDS.toMillis(backupDelaySeconds),
+            backupBatchSize);
+    backupQueue.start();
+  }
+
+  private synchronized void stopBackupQueue() {
+    if (backupQueue != null) {
+      backupQueue.stop();
+      backupQueue = null;
+    }
+    if (producerTemplate != null) {
+      try {
+        producerTemplate.stop();
+      } catch (Exception e) {
+        LOGGER.debug("Could not stop the metacard transformer producer.", e);
+      }
+      producerTemplate = null;
+    }
+  }
+
+  private Path getQueueDirectory() {
+    String dataDirectory = System.getProperty("ddf.data", System.getProperty("java.io.tmpdir"));
+    String destination = getBackupDestination();
+    return Paths.get(
+        dataDirectory,
+        QUEUE_DIRECTORY,
+        UUID.nameUUIDFromBytes(destination.getBytes(StandardCharsets.UTF_8)).toString());
+  }
+
   private boolean isTagAllowed(Metacard metacard) {
     if (CollectionUtils.isEmpty(backupMetacardTags)) {
       return true;
@@ -0,0 +1,205 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.plugin.metacard.backup.common;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.MetacardImpl;
+import java.io.File;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MetacardBackupQueueTest {
+
+  private static final long DELAY = 1000;
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private final AtomicLong clock = new AtomicLong(1000000);
+
+  private final List<List<MetacardBackup>> batches = new ArrayList<>();
+
+  private final List<MetacardBackup> failures = new ArrayList<>();
+
+  private Path directory;
+
+  @Before
+  public void setUp() {
+    directory = temporaryFolder.getRoot().toPath().resolve("queue");
+  }
+
+  @Test
+  public void testChangesToAMetacardAreWrittenOnce() {
+    MetacardBackupQueue queue = queue(10);
+    queue.enqueue(new MetacardBackup("1", "key1", metacard("1", "first")));
+    queue.enqueue(new MetacardBackup("2", "key2", null));
+    clock.addAndGet(DELAY / 2);
+    queue.enqueue(new MetacardBackup("1", "key1", metacard("1", "latest")));
+
+    assertThat(queue.writeDueBackups(), is(0));
+
+    clock.addAndGet(DELAY / 2);
+    assertThat(queue.writeDueBackups(), is(2));
+
+    assertThat(batches.size(), is(1));
+    assertThat(batches.get(0).get(0).getMetacard().getTitle(), is("latest"));
+    assertThat(batches.get(0).get(1).isDelete(), is(true));
+    assertThat(queue.size(), is(0));
+    assertThat(queueFiles(), is(empty()));
+  }
+
+  @Test
+  public void testBackupsAreWrittenInBatches() {
+    MetacardBackupQueue queue = queue(2);
+    for (int i = 0; i < 5; i++) {
+      queue.enqueue(new MetacardBackup("id" + i, "key" + i, metacard("id" + i, "title")));
+    }
+    clock.addAndGet(DELAY);
+
+    assertThat(queue.writeDueBackups(), is(5));
+    assertThat(batches.size(), is(3));
+    assertThat(batches.get(2).size(), is(1));
+  }
+
+  @Test
+  public void testQueuedBackupsAreWrittenAfterRestart() {
+    MetacardBackupQueue queue = queue(10);
+    queue.enqueue(new MetacardBackup("1", "key1", metacard("1", "title")));
+    queue.enqueue(new MetacardBackup("2", "key2", null));
+
+    MetacardBackupQueue restarted = queue(10);
+    restarted.start();
+    restarted.stop();
+
+    assertThat(restarted.size(), is(2));
+    assertThat(restarted.writeDueBackups(), is(2));
+    assertThat(queueFiles(), is(empty()));
+  }
+
+  @Test
+  public void testQueuedMetacardsAreReadAfterRestart() {
+    MetacardBackupQueue queue = queue(10);
+    queue.enqueue(new MetacardBackup("1", "key1", new MetacardImpl(metacard("1", "title")) {}));
+
+    MetacardBackupQueue restarted = queue(10);
+    restarted.start();
+    restarted.stop();
+    clock.addAndGet(DELAY);
+
+    assertThat(restarted.writeDueBackups(), is(1));
+    Metacard written = batches.get(0).get(0).getMetacard();
+    assertThat(written.getClass(), is(equalTo(MetacardImpl.class)));
+    assertThat(written.getId(), is("1"));
+    assertThat(written.getTitle(), is("title"));
+    assertThat(written.getMetacardType().getName(), is(MetacardImpl.BASIC_METACARD.getName()));
+  }
+
+  @Test
+  public void testBackupsQueuedWhileStartedAreSavedWhenStopped() {
+    MetacardBackupQueue queue = queue(10);
+    queue.start();
+    queue.enqueue(new MetacardBackup("1", "key1", metacard("1", "title")));
+    queue.stop();
+
+    MetacardBackupQueue restarted = queue(10);
+    restarted.start();
+    restarted.stop();
+
+    assertThat(restarted.writeDueBackups(), is(1));
+    assertThat(batches.get(0).get(0).getMetacard().getTitle(), is("title"));
+  }
+
+  @Test
+  public void testQueueFilesWithUnexpectedClassesAreDiscarded() {
+    MetacardImpl metacard = (MetacardImpl) metacard("1", "title");
+    metacard.setAttribute("unexpected", URI.create("http://example.com"));
+    MetacardBackupQueue queue = queue(10);
+    queue.enqueue(new MetacardBackup("1", "key1", metacard));
+
+    MetacardBackupQueue restarted = queue(10);
+    restarted.start();
+    restarted.stop();
+
+    assertThat(restarted.size(), is(0));
+    assertThat(queueFiles(), is(empty()));
+  }
+
+  @Test
+  public void testFailedBackupsAreRetried() {
+    MetacardBackupQueue queue = queue(10);
+    MetacardBackup failing = new MetacardBackup("1", "key1", metacard("1", "title"));
+    queue.enqueue(failing);
+    queue.enqueue(new MetacardBackup("2", "key2", metacard("2", "title")));
+    failures.add(failing);
+    clock.addAndGet(DELAY);
+
+    assertThat(queue.writeDueBackups(), is(1));
+    assertThat(queue.size(), is(1));
+    assertThat(queueFiles().size(), is(1));
+
+    failures.clear();
+    assertThat(queue.writeDueBackups(), is(0));
+    clock.addAndGet(DELAY);
+    assertThat(queue.writeDueBackups(), is(1));
+    assertThat(ids(batches.get(1)), contains("1"));
+    assertThat(queueFiles(), is(empty()));
+  }
+
+  private MetacardBackupQueue queue(int batchSize) {
+    return new MetacardBackupQueue(directory, this::write, DELAY, batchSize, clock::get);
+  }
+
+  private Collection<MetacardBackup> write(List<MetacardBackup> backups) {
+    batches.add(new ArrayList<>(backups));
+    List<MetacardBackup> failed = new ArrayList<>();
+    for (MetacardBackup backup : backups) {
+      if (failures.stream().anyMatch(failure -> failure.getId().equals(backup.getId()))) {
+        failed.add(backup);
+      }
+    }
+    return failed;
+  }
+
+  private static List<String> ids(List<MetacardBackup> backups) {
+    List<String> ids = new ArrayList<>();
+    backups.forEach(backup -> ids.add(backup.getId()));
+    return ids;
+  }
+
+  private List<File> queueFiles() {
+    File[] files = directory.toFile().listFiles();
+    return files == null ? Collections.emptyList() : List.of(files);
+  }
+
+  private static Metacard metacard(String id, String title) {
+    MetacardImpl metacard = new MetacardImpl();
+    metacard.setId(id);
+    metacard.setTitle(title);
+    return metacard;
+  }
+}
@@ -38,6 +38,7 @@
 import ddf.catalog.operation.Update;
 import ddf.catalog.operation.UpdateRequest;
 import ddf.catalog.operation.UpdateResponse;
+import ddf.catalog.operation.impl.QueryImpl;
 import ddf.catalog.plugin.PluginExecutionException;
 import ddf.catalog.plugin.PostFederatedQueryPlugin;
 import ddf.catalog.plugin.PostIngestPlugin;
@@ -50,9 +51,13 @@
 import ddf.catalog.plugin.StopProcessingException;
 import ddf.catalog.source.Source;
 import ddf.catalog.util.impl.Requests;
+import ddf.security.audit.AuditEvent;
 import ddf.security.audit.SecurityLogger;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.stream.Stream;
 import org.apache.commons.lang.StringUtils;
 
 /** Logs the current operation being performed to the security logger. */
@@ -75,10 +80,7 @@
   @Override
   public CreateRequest process(CreateRequest input)
       throws PluginExecutionException, StopProcessingException {
-    String additional =
-        input.getMetacards().stream()
-            .map(Metacard::getId)
-            .collect(Collectors.joining(",", "Creating metacards: ", ""));
+    Object additional = ids("Creating metacards: ", input.getMetacards().stream());
     logOperation(CatalogOperationType.INGEST_REQUEST, input, additional);
     return input;
   }
@@ -86,11 +88,8 @@ public CreateRequest process(CreateRequest input)
   @Override
   public UpdateRequest process(UpdateRequest input)
       throws PluginExecutionException, StopProcessingException {
-    String additional =
-        input.getUpdates().stream()
-            .map(Map.Entry::getValue)
-            .map(Metacard::getId)
-            .collect(Collectors.joining(",", "Updating metacards: ", ""));
+    Object additional =
+        ids("Updating metacards: ", input.getUpdates().stream().map(Map.Entry::getValue));
     logOperation(CatalogOperationType.UPDATE_REQUEST, input, additional);
     return input;
   }
@@ -98,8 +97,11 @@ public UpdateRequest process(UpdateRequest input)
   @Override
   public DeleteRequest process(DeleteRequest input)
       throws PluginExecutionException, StopProcessingException {
-    String additional = "Deleting: " + input.getAttributeName();
-    additional += " with values: " + StringUtils.join(input.getAttributeValues(), ",");
+    Object additional =
+        new AuditText(
+            "Deleting: " + input.getAttributeName() + " with values: ",
+            ",",
+            input.getAttributeValues().toArray());
     logOperation(CatalogOperationType.DELETE_REQUEST, input, additional);
     return input;
   }
@@ -107,9 +109,7 @@ public DeleteRequest process(DeleteRequest input)
   @Override
   public QueryRequest process(QueryRequest input)
       throws PluginExecutionException, StopProcessingException {
-    Query query = input.getQuery();
-    String additional = query.toString();
-    logOperation(CatalogOperationType.QUERY_REQUEST, input, additional);
+    logOperation(CatalogOperationType.QUERY_REQUEST, input, new QueryText(input.getQuery()));
     return input;
   }
 
@@ -127,31 +127,24 @@ public ResourceRequest process(ResourceRequest input)
 
   @Override
   public CreateResponse process(CreateResponse input) throws PluginExecutionException {
-    String additional =
-        input.getCreatedMetacards().stream()
-            .map(Metacard::getId)
-            .collect(Collectors.joining(",", "Created metacards: ", ""));
+    Object additional = ids("Created metacards: ", input.getCreatedMetacards().stream());
     logOperation(CatalogOperationType.INGEST_RESPONSE, input, additional);
     return input;
   }
 
   @Override
   public UpdateResponse process(UpdateResponse input) throws PluginExecutionException {
-    String additional =
-        input.getUpdatedMetacards().stream()
-            .map(Update::getNewMetacard)
-            .map(Metacard::getId)
-            .collect(Collectors.joining(",", "Updated metacards: ", ""));
+    Object additional =
+        ids(
+            "Updated metacards: ",
+            input.getUpdatedMetacards().stream().map(Update::getNewMetacard));
     logOperation(CatalogOperationType.UPDATE_RESPONSE, input, additional);
     return input;
   }
 
   @Override
   public DeleteResponse process(DeleteResponse input) throws PluginExecutionException {
-    String additional =
-        input.getDeletedMetacards().stream()
-            .map(Metacard::getId)
-            .collect(Collectors.joining(",", "Deleted metacards: ", ""));
+    Object additional = ids("Deleted metacards: ", input.getDeletedMetacards().stream());
     logOperation(CatalogOperationType.DELETE_RESPONSE, input, additional);
     return input;
   }
@@ -159,11 +152,8 @@ public DeleteResponse process(DeleteResponse input) throws PluginExecutionExcept
   @Override
   public QueryResponse process(QueryResponse input)
       throws PluginExecutionException, StopProcessingException {
-    String addtional =
-        input.getResults().stream()
-            .map(Result::getMetacard)
-            .map(Metacard::getId)
-            .collect(Collectors.joining(",", "Queried metacards: ", ""));
+    Object addtional =
+        ids("Queried metacards: ", input.getResults().stream().map(Result::getMetacard));
     logOperation(CatalogOperationType.QUERY_RESPONSE, input, addtional);
     return input;
   }
@@ -179,30 +169,24 @@ public ResourceResponse process(ResourceResponse input)
   @Override
   public QueryRequest process(Source source, QueryRequest input)
       throws PluginExecutionException, StopProcessingException {
-    Query query = input.getQuery();
-    String additional = query.toString() + " for source " + source.getId();
+    Object additional =
+        new AuditText("", " for source ", new QueryText(input.getQuery()), source.getId());
     logOperation(CatalogOperationType.QUERY_REQUEST, input, additional);
     return input;
   }
 
   @Override
   public CreateStorageRequest process(CreateStorageRequest input) throws PluginExecutionException {
-    String additional =
-        input.getContentItems().stream()
-            .map(ContentItem::getMetacard)
-            .map(Metacard::getId)
-            .collect(Collectors.joining(",", "Creating products: ", ""));
+    Object additional =
+        ids("Creating products: ", input.getContentItems().stream().map(ContentItem::getMetacard));
     logOperation(CatalogOperationType.INGEST_REQUEST, input, additional);
     return input;
   }
 
   @Override
   public UpdateStorageRequest process(UpdateStorageRequest input) throws PluginExecutionException {
-    String additional =
-        input.getContentItems().stream()
-            .map(ContentItem::getMetacard)
-            .map(Metacard::getId)
-            .collect(Collectors.joining(",", "Updating products: ", ""));
+    Object additional =
+        ids("Updating products: ", input.getContentItems().stream().map(ContentItem::getMetacard));
     logOperation(CatalogOperationType.UPDATE_REQUEST, input, additional);
     return input;
   }
@@ -210,11 +194,10 @@ public UpdateStorageRequest process(UpdateStorageRequest input) throws PluginExe
   @Override
   public CreateStorageResponse process(CreateStorageResponse input)
       throws PluginExecutionException {
-    String additional =
-        input.getCreatedContentItems().stream()
-            .map(ContentItem::getMetacard)
-            .map(Metacard::getId)
-            .collect(Collectors.joining(",", "Created product: ", ""));
+    Object additional =
+        ids(
+            "Created product: ",
+            input.getCreatedContentItems().stream().map(ContentItem::getMetacard));
     logOperation(CatalogOperationType.INGEST_RESPONSE, input, additional);
     return input;
   }
@@ -222,36 +205,147 @@ public CreateStorageResponse process(CreateStorageResponse input)
   @Override
   public UpdateStorageResponse process(UpdateStorageResponse input)
       throws PluginExecutionException {
-    String additional =
-        input.getUpdatedContentItems().stream()
-            .map(ContentItem::getMetacard)
-            .map(Metacard::getId)
-            .collect(Collectors.joining(",", "Updated products: ", ""));
+    Object additional =
+        ids(
+            "Updated products: ",
+            input.getUpdatedContentItems().stream().map(ContentItem::getMetacard));
     logOperation(CatalogOperationType.UPDATE_RESPONSE, input, additional);
     return input;
   }
 
   private void logOperation(
-      CatalogOperationType operationType, Request request, String additionalInfo) {
+      CatalogOperationType operationType, Request request, Object additionalInfo) {
+    securityLogger.audit(
+        new OperationEvent("Performing ", operationType, additionalInfo, storeIds(request)));
+  }
+
+  private void logOperation(
+      CatalogOperationType operationType, Response response, Object additionalInfo) {
+    securityLogger.audit(
+        new OperationEvent(
+            "Receiving results of ",
+            operationType,
+            additionalInfo,
+            storeIds(response.getRequest())));
+  }
+
+  /** @return a copy of the ids of the stores a request is for, or null if it is for the catalog */
+  private static List<String> storeIds(Request request) {
     if (Requests.isLocal(request)) {
-      securityLogger.audit("Performing {} operation {} on catalog.", operationType, additionalInfo);
-    } else {
-      securityLogger.audit(
-          "Performing {} operation {} on {}", operationType, additionalInfo, request.getStoreIds());
+      return null;
     }
+    Set<String> storeIds = request.getStoreIds();
+    return storeIds != null ? new ArrayList<>(storeIds) : null;
   }
 
-  private void logOperation(
-      CatalogOperationType operationType, Response response, String additionalInfo) {
-    if (Requests.isLocal(response.getRequest())) {
-      securityLogger.audit(
-          "Receiving results of {} operation {} on catalog.", operationType, additionalInfo);
-    } else {
-      securityLogger.audit(
-          "Receiving results of {} operation {} on {}",
-          operationType,
-          additionalInfo,
-          response.getRequest().getStoreIds());
+  /**
+   * An operation audit event. Everything it renders is captured when it is logged, as the request
+   * and response may be changed by later plugins before the event is written.
+   */
+  private static final class OperationEvent implements AuditEvent {
+
+    private final String action;
+
+    private final CatalogOperationType operationType;
+
+    private final Object additionalInfo;
+
+    private final List<String> storeIds;
+
+    private OperationEvent(
+        String action,
+        CatalogOperationType operationType,
+        Object additionalInfo,
+        List<String> storeIds) {
+      this.action = action;
+      this.operationType = operationType;
+      this.additionalInfo = additionalInfo;
+      this.storeIds = storeIds;
+    }
+
+    @Override
+    public String render() {
+      return action
+          + operationType
+          + " operation "
+          + additionalInfo
+          + (storeIds == null ? " on catalog." : " on " + storeIds);
+    }
+  }
+
+  /**
+   * Captures the ids of the metacards an operation is for without turning them into text, which is
+   * left to when the audit message is written.
+   */
+  private static AuditText ids(String prefix, Stream<Metacard> metacards) {
+    return new AuditText(prefix, ",", metacards.map(Metacard::getId).toArray());
+  }
+
+  /**
+   * The parts of a query that are audited. Later plugins may change or replace the query, so they
+   * are captured when the query is logged. Only the filter is held rather than copied, as filters
+   * are not changed once they are built, and it is turned into text when the event is written.
+   */
+  private static final class QueryText {
+
+    private final Object filter;
+
+    private final int startIndex;
+
+    private final int pageSize;
+
+    private final boolean requestsTotalResultsCount;
+
+    private final long timeoutMillis;
+
+    private final String sortBy;
+
+    private QueryText(Query query) {
+      this.filter = query instanceof QueryImpl ? ((QueryImpl) query).getFilter() : query.toString();
+      this.startIndex = query.getStartIndex();
+      this.pageSize = query.getPageSize();
+      this.requestsTotalResultsCount = query.requestsTotalResultsCount();
+      this.timeoutMillis = query.getTimeoutMillis();
+      this.sortBy = query.getSortBy() != null ? query.getSortBy().toString() : null;
+    }
+
+    @Override
+    public String toString() {
+      return "Query{"
+          + "filter="
+          + filter
+          + ", startIndex="
+          + startIndex
+          + ", pageSize="
+          + pageSize
+          + ", requestsTotalResultsCount="
+          + requestsTotalResultsCount
+          + ", timeoutMillis="
+          + timeoutMillis
+          + ", sortBy="
+          + sortBy
+          + '}';
+    }
+  }
+
+  /** Text that is only built when the audit event it is part of is written. */
+  private static final class AuditText {
+
+    private final String prefix;
+
+    private final String separator;
+
+    private final Object[] values;
+
+    private AuditText(String prefix, String separator, Object... values) {
+      this.prefix = prefix;
+      this.separator = separator;
+      this.values = values;
+    }
+
+    @Override
+    public String toString() {
+      return prefix + StringUtils.join(values, separator);
     }
   }
 
@@ -22,8 +22,8 @@
 import ddf.catalog.plugin.PolicyResponse;
 import ddf.catalog.plugin.StopProcessingException;
 import ddf.catalog.plugin.impl.PolicyResponseImpl;
+import ddf.util.XmlMetadataAnalysis;
 import java.io.Serializable;
-import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -32,11 +32,6 @@
 import java.util.Map;
 import java.util.Set;
 import java.util.StringTokenizer;
-import javax.xml.stream.XMLInputFactory;
-import javax.xml.stream.XMLStreamConstants;
-import javax.xml.stream.XMLStreamException;
-import javax.xml.stream.XMLStreamReader;
-import org.codehaus.stax2.XMLInputFactory2;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -49,19 +44,6 @@ public class XmlAttributeSecurityPolicyPlugin implements PolicyPlugin {
   private static final Logger LOGGER =
       LoggerFactory.getLogger(XmlAttributeSecurityPolicyPlugin.class);
 
-  /** Input factory */
-  private static volatile XMLInputFactory xmlInputFactory = null;
-
-  static {
-    XMLInputFactory xmlInputFactoryTmp = XMLInputFactory2.newInstance();
-    xmlInputFactoryTmp.setProperty(XMLInputFactory.IS_REPLACING_ENTITY_REFERENCES, Boolean.FALSE);
-    xmlInputFactoryTmp.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
-    xmlInputFactoryTmp.setProperty(
-        XMLInputFactory.SUPPORT_DTD, Boolean.FALSE); // This disables DTDs entirely for that factory
-    xmlInputFactoryTmp.setProperty(XMLInputFactory.IS_COALESCING, Boolean.FALSE);
-    xmlInputFactory = xmlInputFactoryTmp;
-  }
-
   /** Default XML elements to be parsed. Overridden with the metatype. */
   private List<String> xmlElements = new ArrayList<>();
 
@@ -72,7 +54,12 @@ public class XmlAttributeSecurityPolicyPlugin implements PolicyPlugin {
   private List<String> securityAttributeIntersections = new ArrayList<>();
 
   /**
-   * Parse XML metadata using StAX to find the security element
+   * Find the security elements in the XML metadata. The metadata is read through the shared {@link
+   * XmlMetadataAnalysis}, so it is only parsed once no matter how many operations ask for it.
+   *
+   * <p>Every element matching one of the xml elements is read, not only the first one. The values
+   * of the union attributes of all of them are combined, and each intersection attribute holds the
+   * values common to every element that has it.
    *
    * @param metacard XML metadata to parse
    */
@@ -83,33 +70,20 @@ public Map<String, Set<String>> parseSecurityMetadata(Metacard metacard) {
       return securityMap;
     }
 
-    XMLStreamReader xmlStreamReader = null;
-    try (StringReader reader = new StringReader(xmlMetadata)) {
-      xmlStreamReader = xmlInputFactory.createXMLStreamReader(reader);
-      Map<String, Set<Set<String>>> intersectionMap = new HashMap<>();
-      while (xmlStreamReader.hasNext()) {
-        int event = xmlStreamReader.next();
-        if (event == XMLStreamConstants.START_ELEMENT) {
-          String localName = xmlStreamReader.getLocalName();
-
-          if (xmlElements.contains(localName)) {
-            LOGGER.debug("Parsing security attribute.");
-            parseSecurityBlock(securityMap, intersectionMap, xmlStreamReader);
-          }
-        }
-      }
-    } catch (XMLStreamException e) {
+    XmlMetadataAnalysis analysis = XmlMetadataAnalysis.of(xmlMetadata);
+    if (!analysis.isWellFormed()) {
       // if this happens and message redacting is enabled, the message will be excluded from results
-      LOGGER.info("Unable to parse security from XML metadata.", e);
-    } finally {
-      if (xmlStreamReader != null) {
-        try {
-          xmlStreamReader.close();
-        } catch (XMLStreamException e) {
-          // ignore
-        }
+      LOGGER.info("Unable to parse security from XML metadata.");
+    }
+
+    Map<String, Set<Set<String>>> intersectionMap = new HashMap<>();
+    for (String xmlElement : getXmlElements()) {
+      for (Map<String, String> attributes : analysis.getElementAttributes(xmlElement)) {
+        LOGGER.debug("Parsing security attribute.");
+        parseSecurityBlock(securityMap, intersectionMap, attributes);
       }
     }
+    buildIntersectionAttributes(securityMap, intersectionMap);
 
     return securityMap;
   }
@@ -117,38 +91,31 @@ public Map<String, Set<String>> parseSecurityMetadata(Metacard metacard) {
   /**
    * Parses the security element in the metadata
    *
-   * @param xmlStreamReader xml stream
+   * @param attributes attributes of the security element
    */
   private void parseSecurityBlock(
       Map<String, Set<String>> securityMap,
       Map<String, Set<Set<String>>> intersectionMap,
-      XMLStreamReader xmlStreamReader) {
+      Map<String, String> attributes) {
     LOGGER.debug("Parsing metacard security block");
-    int numAttrs = xmlStreamReader.getAttributeCount();
 
-    for (int i = 0; i < numAttrs; i++) {
-      String name = xmlStreamReader.getAttributeLocalName(i);
+    for (Map.Entry<String, String> attribute : attributes.entrySet()) {
+      String name = attribute.getKey();
       if (getSecurityAttributeUnions().contains(name)) {
         LOGGER.debug("Found {} in metacard", name);
         if (!securityMap.containsKey(name)) {
           securityMap.put(name, new HashSet<>());
         }
-        buildSecurityAttribute(securityMap.get(name), xmlStreamReader.getAttributeValue(i));
+        buildSecurityAttribute(securityMap.get(name), attribute.getValue());
       } else if (getSecurityAttributeIntersections().contains(name)) {
         if (!intersectionMap.containsKey(name)) {
           intersectionMap.put(name, new HashSet<>());
         }
         Set<String> valueSet = new HashSet<>();
-        buildSecurityAttribute(valueSet, xmlStreamReader.getAttributeValue(i));
+        buildSecurityAttribute(valueSet, attribute.getValue());
         intersectionMap.get(name).add(valueSet);
       }
     }
-    try {
-      xmlStreamReader.close();
-    } catch (Exception e) {
-      LOGGER.debug("Exception closing xmlStreamReader. {}", e);
-    }
-    buildIntersectionAttributes(securityMap, intersectionMap);
   }
 
   private void buildSecurityAttribute(Set<String> builderSet, String attributeValue) {
@@ -144,6 +144,25 @@ public void testMetadataParse() {
     Assert.assertTrue(list.contains("AUS"));
   }
 
+  @Test
+  public void testAllMatchingSecurityBlocksAreRead() {
+    metacard.setMetadata(
+        "<metadata>\n"
+            + "  <security controls=\"low\" marker=\"A\" countries=\"USA CAN\"/>\n"
+            + "  <title>Title</title>\n"
+            + "  <security controls=\"high\" countries=\"USA GBR\"/>\n"
+            + "  <security marker=\"B\"/>\n"
+            + "</metadata>");
+    plugin.setXmlElements(Arrays.asList("security"));
+
+    Map<String, Set<String>> stringSetMap = plugin.parseSecurityMetadata(metacard);
+
+    Assert.assertEquals(3, stringSetMap.size());
+    Assert.assertEquals(Set.of("low", "high"), stringSetMap.get("controls"));
+    Assert.assertEquals(Set.of("A", "B"), stringSetMap.get("marker"));
+    Assert.assertEquals(Set.of("USA"), stringSetMap.get("countries"));
+  }
+
   @Test
   public void testEmptyGetters() {
     MetacardImpl m = new MetacardImpl();
@@ -0,0 +1,113 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.commands.solr;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+import org.apache.solr.common.params.CursorMarkParams;
+
+/**
+ * How far a re-index has progressed.
+ *
+ * <p>The checkpoint is the Solr cursor mark from which the documents that have not all been written
+ * yet are read, along with the query the cursor belongs to and the number of documents written
+ * before it. Checkpoints are saved as properties files so that a re-index can pick up where an
+ * earlier one stopped.
+ */
+class ReindexCheckpoint {
+
+  private static final String QUERY = "query";
+
+  private static final String CURSOR_MARK = "cursorMark";
+
+  private static final String COUNT = "count";
+
+  private final String query;
+
+  private String cursorMark = CursorMarkParams.CURSOR_MARK_START;
+
+  private long count;
+
+  ReindexCheckpoint(String query) {
+    this.query = query;
+  }
+
+  /**
+   * Loads a saved checkpoint.
+   *
+   * @param file the file the checkpoint was saved to
+   * @throws IOException if the file cannot be read
+   */
+  static ReindexCheckpoint load(Path file) throws IOException {
+    Properties properties = new Properties();
+    try (InputStream inputStream = Files.newInputStream(file)) {
+      properties.load(inputStream);
+    }
+
+    ReindexCheckpoint checkpoint = new ReindexCheckpoint(properties.getProperty(QUERY, ""));
+    checkpoint.cursorMark = properties.getProperty(CURSOR_MARK, CursorMarkParams.CURSOR_MARK_START);
+    checkpoint.count = Long.parseLong(properties.getProperty(COUNT, "0"));
+    return checkpoint;
+  }
+
+  /**
+   * Saves this checkpoint, replacing the file in one step so that an interrupted save leaves the
+   * earlier checkpoint in place.
+   *
+   * @param file the file to save the checkpoint to
+   * @throws IOException if the file cannot be written
+   */
+  void save(Path file) throws IOException {
+    Properties properties = new Properties();
+    properties.setProperty(QUERY, query);
+    properties.setProperty(CURSOR_MARK, cursorMark);
+    properties.setProperty(COUNT, Long.toString(count));
+
+    Files.createDirectories(file.getParent());
+    Path temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+    try (OutputStream outputStream = Files.newOutputStream(temporaryFile)) {
+      properties.store(outputStream, null);
+    }
+    Files.move(
+        temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  String getQuery() {
+    return query;
+  }
+
+  String getCursorMark() {
+    return cursorMark;
+  }
+
+  long getCount() {
+    return count;
+  }
+
+  /**
+   * Moves this checkpoint past a page of documents that have all been written.
+   *
+   * @param nextCursorMark the cursor mark following the page
+   * @param pageSize the number of documents in the page
+   */
+  void advance(String nextCursorMark, long pageSize) {
+    cursorMark = nextCursorMark;
+    count += pageSize;
+  }
+}
@@ -23,9 +23,14 @@
 import ddf.catalog.source.solr.SolrMetacardClientImpl;
 import ddf.security.Subject;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.Executors;
@@ -33,8 +38,10 @@
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.collections4.ListUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.karaf.shell.api.action.Command;
 import org.apache.karaf.shell.api.action.Option;
@@ -59,14 +66,25 @@
     description =
         "Reindexes data from a source collection to current Catalog Framework collection(s).")
 public class ReindexCommand extends SolrCommands {
-  private static final int PAGE_SIZE = 200;
+  private static final int PAGE_SIZE = 1000;
 
-  private static final int WRITE_TXN_SIZE = 100;
+  private static final String CHECKPOINT_EXTENSION = ".checkpoint";
 
   @VisibleForTesting protected static final String EARLY_TIME = "1900-01-01T00:00:00.000Z";
 
   private String cursorMark = CursorMarkParams.CURSOR_MARK_START;
 
+  private Path checkpointFile;
+
+  private ReindexCheckpoint checkpoint;
+
+  /** The pages that have been read but not all written yet, in the order they were read. */
+  private final Deque<Page> pendingPages = new ArrayDeque<>();
+
+  private final AtomicLong failedCount = new AtomicLong();
+
+  private volatile boolean readFailed = false;
+
   private Reader readerThread = null;
 
   private SolrMetacardClientImpl metacardClient =
@@ -134,17 +152,45 @@ public class ReindexCommand extends SolrCommands {
       required = false)
   int numThreads = Runtime.getRuntime().availableProcessors();
 
+  @Option(
+      name = "-s",
+      aliases = {"--batch-size"},
+      description = "Number of records written to the Catalog Framework at a time. Default is 500",
+      required = false)
+  int batchSize = 500;
+
+  @Option(
+      name = "-m",
+      aliases = {"--max-rate"},
+      description =
+          "Maximum number of records per second to read, to limit the load put on a live system. Default (0) is unlimited",
+      required = false)
+  int maxRate = 0;
+
+  @Option(
+      name = "-r",
+      aliases = {"--resume"},
+      description =
+          "Resume an interrupted or failed re-index of the collection, with the same query options, from its last checkpoint.",
+      required = false)
+  boolean resume = false;
+
   @Override
   public Object execute() throws Exception {
     if (StringUtils.isEmpty(collection)) {
       throw new IllegalArgumentException(
           "Source Solr Host and Source Collection need to be provided");
     }
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("Batch size must be at least 1");
+    }
     if (dryrun) {
       printInfoMessage("Solr Query: " + getQuery());
       return null;
     }
 
+    loadCheckpoint();
+
     if (solrjClient == null) {
       // getting either a local or cloud client dependence on how custom.system.properties is
       // configured.
@@ -156,15 +202,25 @@ public Object execute() throws Exception {
         totalCount = getHits(solrjClient);
         if (totalCount > 0) {
           LOGGER.debug("Number of records to reindex: {}", totalCount);
+          checkpoint.save(checkpointFile);
           startTime = System.currentTimeMillis();
           printProgress();
           migrate(solrjClient);
           waitForCompletion();
+          if (readFailed || failedCount.get() > 0) {
+            printErrorMessage(
+                String.format(
+                    "%nRe-Index incomplete, %d records could not be written. Run the command again with --resume to retry from the last checkpoint.",
+                    failedCount.get()));
+            stopWorkers(false);
+            return null;
+          }
           printInfoMessage("\nRe-Index complete");
         } else {
           printInfoMessage("\nNothing to re-index");
         }
         stopWorkers(false);
+        Files.deleteIfExists(checkpointFile);
       } else {
         printErrorMessage("The Solr client is not available.");
       }
@@ -180,6 +236,55 @@ public Object execute() throws Exception {
     return null;
   }
 
+  /**
+   * Starts from the saved checkpoint when resuming, or from a new one otherwise. A checkpoint is
+   * only left behind by a re-index that did not complete, so one must not be overwritten by a new
+   * re-index.
+   */
+  private void loadCheckpoint() throws IOException {
+    if (checkpointFile == null) {
+      checkpointFile =
+          Paths.get(
+              System.getProperty("ddf.home"), "data", "reindex", collection + CHECKPOINT_EXTENSION);
+    }
+
+    String query = getQuery().getQuery();
+    if (resume) {
+      if (!Files.exists(checkpointFile)) {
+        printErrorMessage(String.format("No interrupted re-index of [%s] was found.", collection));
+        throw new IllegalStateException("No interrupted re-index found");
+      }
+      checkpoint = ReindexCheckpoint.load(checkpointFile);
+      if (!query.equals(checkpoint.getQuery())) {
+        printErrorMessage(
+            String.format(
+                "The interrupted re-index of [%s] used the query [%s]. Resume it with the same options.",
+                collection, checkpoint.getQuery()));
+        throw new IllegalStateException("Query does not match the interrupted re-index");
+      }
+      cursorMark = checkpoint.getCursorMark();
+      count.set(checkpoint.getCount());
+      printInfoMessage("Resuming re-index after " + checkpoint.getCount() + " records");
+    } else if (Files.exists(checkpointFile)) {
+      printErrorMessage(
+          String.format(
+              "An interrupted re-index of [%s] exists. Use --resume to complete it.", collection));
+      throw new IllegalStateException("Interrupted re-index exists");
+    } else {
+      checkpoint = new ReindexCheckpoint(query);
+    }
+  }
+
+  @VisibleForTesting
+  protected void setCheckpointFile(Path checkpointFile) {
+    this.checkpointFile = checkpointFile;
+  }
+
+  @VisibleForTesting
+  protected void setResume(boolean resume) {
+    this.resume = resume;
+  }
+
   @VisibleForTesting
   protected void setSolrjClient(SolrClient solrjClient) {
     this.solrjClient = solrjClient;
@@ -276,37 +381,6 @@ private void waitForCompletion() throws InterruptedException {
     }
   }
 
-  private List<Metacard> getData(SolrClient sourceSolr) throws IOException, SolrServerException {
-    final SolrQuery query = getQuery();
-    List<Metacard> data = new ArrayList<>();
-
-    LOGGER.trace("Retrieving data with query: {}", query);
-
-    /**
-     * Always query the default collection, unable to use overload function that takes in a core
-     * name due to how SolrClientFactory create its client.
-     */
-    QueryResponse response = sourceSolr.query(query);
-    cursorMark = response.getNextCursorMark();
-    SolrDocumentList docList = response.getResults();
-
-    if (LOGGER.isTraceEnabled()) {
-      LOGGER.trace("Query returned: {} items", docList.size());
-    }
-
-    for (SolrDocument doc : docList) {
-      try {
-        Metacard metacard = metacardClient.createMetacard(doc);
-        data.add(metacard);
-      } catch (MetacardCreationException e) {
-        if (LOGGER.isDebugEnabled()) {
-          LOGGER.debug("Unable to convert: {} to metacard", doc, e);
-        }
-      }
-    }
-    return data;
-  }
-
   @VisibleForTesting
   SolrQuery getQuery() {
     StringBuilder querySB = new StringBuilder();
@@ -333,7 +407,7 @@ SolrQuery getQuery() {
      */
     query.addSort(new SortClause("id_txt", ORDER.desc));
     query.setParam(CursorMarkParams.CURSOR_MARK_PARAM, cursorMark);
-    query.setRows(PAGE_SIZE);
+    query.setRows(Math.max(PAGE_SIZE, batchSize));
     return query;
   }
 
@@ -357,8 +431,44 @@ private void printProgress() {
     printProgressAndFlush(startTime, totalCount, count.get());
   }
 
+  /**
+   * Moves the checkpoint past every page at the head of the pending pages that has been written
+   * completely, and saves it. Pages are written by several threads, so a page can complete before
+   * an earlier one, in which case the checkpoint only moves once the earlier page completes too.
+   */
+  private void completeBatch(Page page, boolean written) {
+    if (!written) {
+      page.failed = true;
+    }
+    if (page.remainingBatches.decrementAndGet() > 0) {
+      return;
+    }
+
+    synchronized (pendingPages) {
+      boolean advanced = false;
+      while (!pendingPages.isEmpty() && pendingPages.peekFirst().remainingBatches.get() == 0) {
+        Page completed = pendingPages.peekFirst();
+        if (completed.failed) {
+          // the checkpoint stays before the failed page so that a resumed re-index retries it
+          break;
+        }
+        pendingPages.removeFirst();
+        checkpoint.advance(completed.nextCursorMark, completed.size);
+        advanced = true;
+      }
+
+      if (advanced) {
+        try {
+          checkpoint.save(checkpointFile);
+        } catch (IOException e) {
+          LOGGER.info("Unable to save re-index checkpoint to {}", checkpointFile, e);
+        }
+      }
+    }
+  }
+
   class Reader extends Thread {
-    private boolean running = true;
+    private volatile boolean running = true;
     private SolrClient sourceSolr;
 
     public Reader(SolrClient sourceSolr) {
@@ -367,34 +477,48 @@ public Reader(SolrClient sourceSolr) {
 
     @Override
     public void run() {
+      long readCount = 0;
+      long readStart = System.currentTimeMillis();
       try {
         while (running) {
-          List<Metacard> data = null;
-          try {
-            data = getData(sourceSolr);
-          } catch (IOException | SolrServerException e) {
-            LOGGER.info("Unable to query solr data", e);
-          }
+          final SolrQuery query = getQuery();
+          LOGGER.trace("Retrieving data with query: {}", query);
 
-          if (CollectionUtils.isEmpty(data)) {
-            running = false;
-            LOGGER.trace("No more data to be retrieved from Solr.");
-          }
+          /**
+           * Always query the default collection, unable to use overload function that takes in a
+           * core name due to how SolrClientFactory create its client.
+           */
+          QueryResponse response = sourceSolr.query(query);
+          SolrDocumentList docList = response.getResults();
 
-          if (!running) {
+          if (CollectionUtils.isEmpty(docList)) {
+            LOGGER.trace("No more data to be retrieved from Solr.");
             break;
           }
 
-          try {
-            LOGGER.debug("Data ({}) retrieved, adding to work queue", data.size());
-            addWorkItems(data);
-          } catch (InterruptedException e) {
-            LOGGER.warn("Unable to complete reindexing. Process interrupted", e);
-            Thread.currentThread().interrupt();
+          LOGGER.debug("Data ({}) retrieved, adding to work queue", docList.size());
+          String nextCursorMark = response.getNextCursorMark();
+          readCount += docList.size();
+          addWorkItems(docList, nextCursorMark == null ? cursorMark : nextCursorMark);
+          throttle(readCount, readStart);
+
+          if (nextCursorMark == null || nextCursorMark.equals(cursorMark)) {
+            break;
           }
+          cursorMark = nextCursorMark;
         }
+      } catch (IOException | SolrServerException e) {
+        readFailed = true;
+        LOGGER.info("Unable to query solr data", e);
+      } catch (InterruptedException e) {
+        readFailed = true;
+        LOGGER.warn("Unable to complete reindexing. Process interrupted", e);
+        Thread.currentThread().interrupt();
       } catch (RuntimeException e) {
+        readFailed = true;
         LOGGER.warn("Unable to complete reindexing. Process failed", e);
+      } finally {
+        running = false;
       }
     }
 
@@ -402,24 +526,26 @@ public boolean isRunning() {
       return running;
     }
 
-    void addWorkItems(List<Metacard> data) throws InterruptedException {
-      if (data.size() <= WRITE_TXN_SIZE) {
-        WorkItem workItem = new WorkItem(data);
-        publishExecutor.execute(new Publisher(workItem));
-      } else {
-        List<Metacard> metacards = new ArrayList<>(WRITE_TXN_SIZE);
-        for (Metacard metacard : data) {
-          if (metacards.size() >= WRITE_TXN_SIZE) {
-            WorkItem workItem = new WorkItem(metacards);
-            publishExecutor.execute(new Publisher(workItem));
-            metacards = new ArrayList<>(WRITE_TXN_SIZE);
-          }
-          metacards.add(metacard);
-        }
-        if (!metacards.isEmpty()) {
-          WorkItem workItem = new WorkItem(metacards);
-          publishExecutor.execute(new Publisher(workItem));
-        }
+    /** Waits as long as needed to keep reading at or below the maximum rate. */
+    private void throttle(long readCount, long readStart) throws InterruptedException {
+      if (maxRate <= 0) {
+        return;
+      }
+      long aheadMillis = readCount * 1000 / maxRate - (System.currentTimeMillis() - readStart);
+      if (aheadMillis > 0) {
+        Thread.sleep(aheadMillis);
+      }
+    }
+
+    void addWorkItems(List<SolrDocument> docList, String nextCursorMark) {
+      List<List<SolrDocument>> batches = ListUtils.partition(docList, batchSize);
+      Page page = new Page(nextCursorMark, docList.size(), batches.size());
+      synchronized (pendingPages) {
+        pendingPages.addLast(page);
+      }
+
+      for (List<SolrDocument> batch : batches) {
+        publishExecutor.execute(new Publisher(new WorkItem(new ArrayList<>(batch)), page));
       }
     }
   }
@@ -427,32 +553,75 @@ void addWorkItems(List<Metacard> data) throws InterruptedException {
   class Publisher implements Runnable {
     private WorkItem workItem;
 
-    public Publisher(WorkItem workItem) {
+    private Page page;
+
+    public Publisher(WorkItem workItem, Page page) {
       this.workItem = workItem;
+      this.page = page;
     }
 
     @Override
     public void run() {
-      CreateRequest createRequest = new CreateRequestImpl(new ArrayList<>(workItem.getMetacards()));
-
-      Subject systemSubject =
-          AccessController.doPrivileged(
-              (PrivilegedAction<Subject>) () -> security.runAsAdmin(security::getSystemSubject));
-      systemSubject.execute((Callable) () -> catalogFramework.create(createRequest));
-      count.addAndGet(workItem.getMetacards().size());
-      printProgress();
+      boolean written = false;
+      try {
+        List<Metacard> metacards = new ArrayList<>(workItem.getDocuments().size());
+        for (SolrDocument doc : workItem.getDocuments()) {
+          try {
+            metacards.add(metacardClient.createMetacard(doc));
+          } catch (MetacardCreationException e) {
+            if (LOGGER.isDebugEnabled()) {
+              LOGGER.debug("Unable to convert: {} to metacard", doc, e);
+            }
+          }
+        }
+
+        if (!metacards.isEmpty()) {
+          CreateRequest createRequest = new CreateRequestImpl(metacards);
+
+          Subject systemSubject =
+              AccessController.doPrivileged(
+                  (PrivilegedAction<Subject>)
+                      () -> security.runAsAdmin(security::getSystemSubject));
+          systemSubject.execute((Callable) () -> catalogFramework.create(createRequest));
+        }
+        written = true;
+        count.addAndGet(workItem.getDocuments().size());
+        printProgress();
+      } catch (RuntimeException e) {
+        failedCount.addAndGet(workItem.getDocuments().size());
+        LOGGER.info("Unable to write {} records", workItem.getDocuments().size(), e);
+      } finally {
+        completeBatch(page, written);
+      }
     }
   }
 
   class WorkItem {
-    List<Metacard> metacards;
+    List<SolrDocument> documents;
+
+    public WorkItem(List<SolrDocument> documents) {
+      this.documents = documents;
+    }
 
-    public WorkItem(List<Metacard> metacards) {
-      this.metacards = metacards;
+    public List<SolrDocument> getDocuments() {
+      return documents;
     }
+  }
+
+  /** A page of documents read with a Solr cursor, which is written in one or more batches. */
+  private static class Page {
+    private final String nextCursorMark;
+
+    private final long size;
+
+    private final AtomicInteger remainingBatches;
+
+    private volatile boolean failed = false;
 
-    public List<Metacard> getMetacards() {
-      return metacards;
+    private Page(String nextCursorMark, long size, int batches) {
+      this.nextCursorMark = nextCursorMark;
+      this.size = size;
+      this.remainingBatches = new AtomicInteger(batches);
     }
   }
 }
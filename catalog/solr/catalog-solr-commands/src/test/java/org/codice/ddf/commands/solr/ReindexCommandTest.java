@@ -14,9 +14,11 @@
 package org.codice.ddf.commands.solr;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
 import static org.hamcrest.core.StringContains.containsString;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -29,6 +31,9 @@
 import ddf.catalog.operation.CreateResponse;
 import ddf.catalog.source.solr.SolrMetacardClientImpl;
 import ddf.security.Subject;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
 import org.apache.shiro.util.ThreadContext;
@@ -38,11 +43,14 @@
 import org.apache.solr.client.solrj.response.SolrPingResponse;
 import org.apache.solr.common.SolrDocument;
 import org.apache.solr.common.SolrDocumentList;
+import org.apache.solr.common.params.CursorMarkParams;
 import org.apache.solr.common.util.NamedList;
 import org.codice.ddf.security.Security;
+import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.junit.MockitoJUnitRunner;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -54,6 +62,14 @@ public static void beforeClass() {
     setDdfEtc();
   }
 
+  private Path checkpointFile;
+
+  @Before
+  public void setUpCheckpoint() throws Exception {
+    checkpointFile = getBaseDirPath().resolve("reindex").resolve("catalog.checkpoint");
+    Files.deleteIfExists(checkpointFile);
+  }
+
   @Test(expected = IllegalArgumentException.class)
   public void testNoArgReindex() throws Exception {
     ReindexCommand reindexCommand = new ReindexCommand();
@@ -111,10 +127,70 @@ public void testReindex() throws Exception {
     command.setNumThread(1);
     command.setCollection("catalog");
     command.setCatalogFramework(catalogFramework);
+    command.setCheckpointFile(checkpointFile);
     command.security = security;
     command.execute();
 
     verify(catalogFramework, times(1)).create(any(CreateRequest.class));
+    assertThat(Files.exists(checkpointFile), is(false));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testReindexWithInterruptedReindex() throws Exception {
+    new ReindexCheckpoint("*:*").save(checkpointFile);
+    CatalogFramework catalogFramework = mock(CatalogFramework.class);
+
+    ReindexCommand command = new ReindexCommand();
+    command.setCollection("catalog");
+    command.setCatalogFramework(catalogFramework);
+    command.setCheckpointFile(checkpointFile);
+    try {
+      command.execute();
+    } finally {
+      verify(catalogFramework, never()).create(any(CreateRequest.class));
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testResumeWithoutInterruptedReindex() throws Exception {
+    ReindexCommand command = new ReindexCommand();
+    command.setCollection("catalog");
+    command.setCheckpointFile(checkpointFile);
+    command.setResume(true);
+    command.execute();
+  }
+
+  @Test
+  public void testResumeReindex() throws Exception {
+    ReindexCheckpoint checkpoint = new ReindexCheckpoint("*:*");
+    checkpoint.advance("cursor1234", 5);
+    checkpoint.save(checkpointFile);
+
+    SolrClient cloudClient = mock(SolrClient.class);
+    QueryResponse hitCountResponse = mock(QueryResponse.class);
+    SolrDocumentList hitCountResults = mock(SolrDocumentList.class);
+    when(hitCountResults.getNumFound()).thenReturn(6L);
+    when(hitCountResponse.getResults()).thenReturn(hitCountResults);
+    QueryResponse emptyResponse = mock(QueryResponse.class);
+    when(emptyResponse.getResults()).thenReturn(new SolrDocumentList());
+    when(cloudClient.query(any(SolrQuery.class))).thenReturn(hitCountResponse, emptyResponse);
+    SolrPingResponse pingResponse = mock(SolrPingResponse.class);
+    when(cloudClient.ping()).thenReturn(pingResponse);
+    when(pingResponse.getResponse()).thenReturn(new NamedList<>(Map.of("status", "OK")));
+
+    ReindexCommand command = new ReindexCommand();
+    command.setSolrjClient(cloudClient);
+    command.setNumThread(1);
+    command.setCollection("catalog");
+    command.setCheckpointFile(checkpointFile);
+    command.setResume(true);
+    command.execute();
+
+    ArgumentCaptor<SolrQuery> queries = ArgumentCaptor.forClass(SolrQuery.class);
+    verify(cloudClient, times(2)).query(queries.capture());
+    List<SolrQuery> values = queries.getAllValues();
+    assertThat(values.get(1).get(CursorMarkParams.CURSOR_MARK_PARAM), is("cursor1234"));
+    assertThat(Files.exists(checkpointFile), is(false));
   }
 
   @Test
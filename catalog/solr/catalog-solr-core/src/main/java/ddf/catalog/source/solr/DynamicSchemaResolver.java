@@ -28,13 +28,13 @@
 import ddf.catalog.data.impl.MetacardTypeImpl;
 import ddf.catalog.data.types.experimental.Extracted;
 import ddf.catalog.source.solr.json.MetacardTypeMapperFactory;
+import ddf.util.XmlMetadataAnalysis;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
-import java.io.StringReader;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.util.ArrayList;
@@ -49,10 +49,6 @@
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
-import javax.xml.stream.XMLInputFactory;
-import javax.xml.stream.XMLStreamConstants;
-import javax.xml.stream.XMLStreamException;
-import javax.xml.stream.XMLStreamReader;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
@@ -66,7 +62,6 @@
 import org.apache.solr.common.SolrInputDocument;
 import org.apache.solr.common.util.NamedList;
 import org.apache.solr.common.util.SimpleOrderedMap;
-import org.codehaus.stax2.XMLInputFactory2;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.GeometryCollection;
 import org.locationtech.jts.geom.GeometryFactory;
@@ -100,8 +95,6 @@ public class DynamicSchemaResolver {
 
   private static final String COULD_NOT_SERIALIZE_OBJECT_MESSAGE = "Could not serialize object";
 
-  private static final XMLInputFactory XML_INPUT_FACTORY;
-
   static final int FIVE_MEGABYTES = 5 * 1024 * 1024;
 
   private static final String METADATA_SIZE_LIMIT = "metadata.size.limit";
@@ -129,24 +122,6 @@ public class DynamicSchemaResolver {
   private static final ObjectMapper METACARD_TYPE_MAPPER =
       MetacardTypeMapperFactory.newObjectMapper();
 
-  static {
-    ClassLoader tccl = Thread.currentThread().getContextClassLoader();
-    try {
-      Thread.currentThread().setContextClassLoader(DynamicSchemaResolver.class.getClassLoader());
-
-      XML_INPUT_FACTORY = XMLInputFactory2.newInstance();
-      XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_REPLACING_ENTITY_REFERENCES, Boolean.FALSE);
-      XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
-      XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_COALESCING, Boolean.FALSE);
-      XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_VALIDATING, Boolean.FALSE);
-      XML_INPUT_FACTORY.setProperty(
-          XMLInputFactory.SUPPORT_DTD,
-          Boolean.FALSE); // This disables DTDs entirely for that factory
-    } finally {
-      Thread.currentThread().setContextClassLoader(tccl);
-    }
-  }
-
   Set<String> fieldsCache = new HashSet<>();
 
   private Set<String> anyTextFields = new HashSet<>();
@@ -773,64 +748,24 @@ private String findAnyMatchingNumericalField(String propertyName, String fieldSu
 
   /**
    * Given xml as a string, this method will parse out element text and CDATA text. It separates
-   * each by one space character.
+   * each by one space character. The text comes from the shared {@link XmlMetadataAnalysis}, so
+   * metadata that was already read by another component is not parsed again.
    *
    * @param xmlDatas List of XML as {@code String}
    * @return parsed CDATA and element text
    */
-  @SuppressWarnings(
-      "squid:S2093" /* try-with-resource will throw IOException with InputStream and we do not care to get that exception */)
   private List<String> parseTextFrom(List<Serializable> xmlDatas) {
-
-    StringBuilder builder = new StringBuilder();
     List<String> parsedTexts = new ArrayList<>();
-    XMLStreamReader xmlStreamReader = null;
-    StringReader sr = null;
     long starttime = System.currentTimeMillis();
 
-    try {
-      for (Serializable xmlData : xmlDatas) {
-        // xml parser does not handle leading whitespace
-        sr = new StringReader(xmlData.toString());
-        xmlStreamReader = XML_INPUT_FACTORY.createXMLStreamReader(sr);
-
-        while (xmlStreamReader.hasNext()) {
-          int event = xmlStreamReader.next();
-
-          if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA) {
-
-            String text = xmlStreamReader.getText();
-
-            if (StringUtils.isNotBlank(text)) {
-              builder.append(" ").append(text.trim());
-            }
-          }
-          if (event == XMLStreamConstants.START_ELEMENT) {
-            for (int i = 0; i < xmlStreamReader.getAttributeCount(); i++) {
-
-              String text = xmlStreamReader.getAttributeValue(i);
-
-              if (StringUtils.isNotBlank(text)) {
-                builder.append(" ").append(text.trim());
-              }
-            }
-          }
-        }
-        parsedTexts.add(builder.toString());
-        builder.setLength(0);
-      }
-    } catch (XMLStreamException e1) {
-      LOGGER.info(
-          "Failure occurred in parsing the xml data. No data has been stored or indexed.", e1);
-    } finally {
-      IOUtils.closeQuietly(sr);
-      if (xmlStreamReader != null) {
-        try {
-          xmlStreamReader.close();
-        } catch (XMLStreamException e) {
-          LOGGER.debug("Exception closing XMLStreamReader", e);
-        }
+    for (Serializable xmlData : xmlDatas) {
+      XmlMetadataAnalysis analysis = XmlMetadataAnalysis.of(xmlData.toString());
+      if (!analysis.isWellFormed()) {
+        LOGGER.info(
+            "Failure occurred in parsing the xml data. No data has been stored or indexed.");
+        break;
       }
+      parsedTexts.add(analysis.getText());
     }
     long endTime = System.currentTimeMillis();
 
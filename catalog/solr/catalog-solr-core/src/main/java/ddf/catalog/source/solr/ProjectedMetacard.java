@@ -0,0 +1,128 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.source.solr;
+
+import ddf.catalog.data.Attribute;
+import ddf.catalog.data.AttributeDescriptor;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.types.Core;
+import java.io.Serializable;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A metacard that was read from Solr with only some of its attributes. The other attributes of its
+ * {@link ddf.catalog.data.MetacardType} are loaded from Solr the first time one of them is read.
+ *
+ * <p>Attributes set on the metacard before the rest are loaded, including attributes removed by
+ * setting them to null, are kept as set. The rest are only loaded if the metacard has not been
+ * modified since it was read, as told by its {@link Core#METACARD_MODIFIED} date, so that a
+ * metacard never mixes attributes of two versions. Otherwise they are left unset.
+ */
+class ProjectedMetacard extends MetacardImpl {
+
+  private static final long serialVersionUID = 1L;
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ProjectedMetacard.class);
+
+  private final transient Predicate<String> isRead;
+
+  private final transient Set<String> setAttributes = new HashSet<>();
+
+  private transient Supplier<Metacard> loader;
+
+  /**
+   * @param metacard the metacard holding the attributes that were read
+   * @param isRead tells whether an attribute, by name, was read
+   * @param loader loads the complete metacard, or returns null if it cannot be loaded
+   */
+  ProjectedMetacard(Metacard metacard, Predicate<String> isRead, Supplier<Metacard> loader) {
+    super(metacard);
+    this.isRead = isRead;
+    this.loader = loader;
+  }
+
+  @Override
+  public synchronized Attribute getAttribute(String name) {
+    Attribute attribute = super.getAttribute(name);
+    if (attribute == null && isUnloaded(name)) {
+      load();
+      attribute = super.getAttribute(name);
+    }
+    return attribute;
+  }
+
+  @Override
+  public synchronized void setAttribute(Attribute attribute) {
+    if (attribute != null && loader != null) {
+      setAttributes.add(attribute.getName());
+    }
+    super.setAttribute(attribute);
+  }
+
+  private boolean isUnloaded(String name) {
+    return loader != null
+        && !isRead.test(name)
+        && !setAttributes.contains(name)
+        && getMetacardType().getAttributeDescriptor(name) != null;
+  }
+
+  private synchronized void load() {
+    if (loader == null) {
+      return;
+    }
+
+    Metacard metacard = loader.get();
+    loader = null;
+    if (metacard == null) {
+      LOGGER.debug("Unable to load the attributes of metacard {} that were not read", getId());
+      return;
+    }
+    if (!Objects.equals(
+        valueOf(super.getAttribute(Core.METACARD_MODIFIED)),
+        valueOf(metacard.getAttribute(Core.METACARD_MODIFIED)))) {
+      LOGGER.debug(
+          "Metacard {} was modified after it was read. "
+              + "The attributes that were not read will not be loaded.",
+          getId());
+      return;
+    }
+
+    for (AttributeDescriptor descriptor : getMetacardType().getAttributeDescriptors()) {
+      String name = descriptor.getName();
+      if (!isRead.test(name) && !setAttributes.contains(name)) {
+        super.setAttribute(metacard.getAttribute(name));
+      }
+    }
+  }
+
+  private static Serializable valueOf(Attribute attribute) {
+    return attribute == null ? null : attribute.getValue();
+  }
+
+  /**
+   * Serializes the complete metacard, since the attributes that were not read cannot be loaded once
+   * it is deserialized.
+   */
+  private synchronized Object writeReplace() {
+    load();
+    return new MetacardImpl(this, getMetacardType());
+  }
+}
@@ -16,6 +16,7 @@
 import static ddf.catalog.Constants.ADDITIONAL_SORT_BYS;
 import static ddf.catalog.Constants.EXPERIMENTAL_FACET_PROPERTIES_KEY;
 import static ddf.catalog.Constants.EXPERIMENTAL_FACET_RESULTS_KEY;
+import static ddf.catalog.Constants.RESULT_ATTRIBUTES;
 import static ddf.catalog.Constants.SUGGESTION_BUILD_KEY;
 import static ddf.catalog.Constants.SUGGESTION_CONTEXT_KEY;
 import static ddf.catalog.Constants.SUGGESTION_DICT_KEY;
@@ -36,6 +37,7 @@
 import ddf.catalog.data.impl.ContentTypeImpl;
 import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.data.impl.ResultImpl;
+import ddf.catalog.data.types.Core;
 import ddf.catalog.filter.FilterAdapter;
 import ddf.catalog.operation.FacetAttributeResult;
 import ddf.catalog.operation.Query;
@@ -47,6 +49,12 @@
 import ddf.catalog.operation.impl.SourceResponseImpl;
 import ddf.catalog.source.UnsupportedQueryException;
 import ddf.measure.Distance;
+import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.context.Scope;
 import java.io.IOException;
 import java.io.Serializable;
 import java.security.AccessController;
@@ -58,6 +66,7 @@
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -98,6 +107,20 @@ public class SolrMetacardClientImpl implements SolrMetacardClient {
 
   private static final String GEOMETRY_FIELD = Metacard.GEOGRAPHY + SchemaFields.GEO_SUFFIX;
 
+  /**
+   * Attributes read even when only some attributes are requested, since the framework and its
+   * access plugins rely on them, and the modified date tells whether the attributes that were not
+   * read can still be loaded from the same version of the metacard.
+   */
+  private static final List<String> ALWAYS_READ_ATTRIBUTES =
+      List.of(Metacard.ID, Metacard.TAGS, Core.METACARD_MODIFIED);
+
+  private static final List<String> ALWAYS_READ_FIELDS =
+      List.of(
+          SchemaFields.METACARD_TYPE_FIELD_NAME,
+          SchemaFields.METACARD_TYPE_OBJECT_FIELD_NAME,
+          Metacard.SECURITY + "*");
+
   private static final Logger LOGGER = LoggerFactory.getLogger(SolrMetacardClientImpl.class);
 
   private static final String QUOTE = "\"";
@@ -162,6 +185,14 @@ public class SolrMetacardClientImpl implements SolrMetacardClient {
   private static final String QM_TRACEID = "qm.trace-id";
   private static final String QM_ELAPSED = ".elapsed";
 
+  private static final String INSTRUMENTATION_NAME = "ddf.catalog.solr";
+
+  private static final AttributeKey<String> DB_SYSTEM = AttributeKey.stringKey("db.system");
+
+  private static final AttributeKey<String> DB_OPERATION = AttributeKey.stringKey("db.operation");
+
+  private static final AttributeKey<Long> NUM_FOUND = AttributeKey.longKey("solr.num_found");
+
   protected ResultHighlighter highlighter;
 
   public SolrMetacardClientImpl(
@@ -222,7 +253,7 @@ public SourceResponse query(QueryRequest request) throws UnsupportedQueryExcepti
       if (shouldDoRealTimeGet(request)) {
         LOGGER.debug("Performing real time query for {}", traceSource);
         SolrQuery realTimeQuery = getRealTimeQuery(query, solrFilterDelegate.getIds());
-        solrResponse = client.query(realTimeQuery, METHOD.POST);
+        solrResponse = query(realTimeQuery, "realtime get");
         metrics.put(SQCMB + "realtimeQuery" + QM_ELAPSED, System.nanoTime() - start);
       } else {
         if (userSpellcheckIsOn) {
@@ -234,7 +265,7 @@ public SourceResponse query(QueryRequest request) throws UnsupportedQueryExcepti
         metrics.put(SQCMB + "hilighterPreQuery" + QM_ELAPSED, currentTime - start);
         start = currentTime;
         LOGGER.debug("Performing query for {}", traceSource);
-        solrResponse = client.query(query, METHOD.POST);
+        solrResponse = query(query, "query");
         metrics.put(SQCMB + "normalQuery" + QM_ELAPSED, System.nanoTime() - start);
       }
       LOGGER.trace("End executing solr query for {}", traceSource);
@@ -263,7 +294,7 @@ public SourceResponse query(QueryRequest request) throws UnsupportedQueryExcepti
       LOGGER.trace("Handled spellcheck for {}", traceSource);
       metrics.put(SQCMB + "spellcheckHandling" + QM_ELAPSED, System.nanoTime() - start);
       if (docs != null) {
-        addDocsToResults(docs, results);
+        addDocsToResults(docs, results, getResultAttributes(request));
         totalHits = docs.getNumFound();
       }
 
@@ -310,7 +341,7 @@ private List<SolrDocument> getSolrDocs(Set<String> ids) throws UnsupportedQueryE
     List<List<String>> partitions = Lists.partition(new ArrayList<>(ids), GET_BY_ID_LIMIT);
     for (List<String> partition : partitions) {
       try {
-        SolrDocumentList page = client.getById(partition);
+        SolrDocumentList page = getById(partition);
         page.iterator().forEachRemaining(solrDocs::add);
       } catch (SolrServerException | SolrException | IOException e) {
         throw new UnsupportedQueryException(ERR_UNSUPPORTED_QUERY_MSG, e);
@@ -455,7 +486,7 @@ private SolrDocumentList handleSpellcheck(
       highlighter.processPreQuery(request, query);
       long time2 = System.nanoTime();
       responseProps.put(SQCMB + "highlighter.processPreQuery" + QM_ELAPSED, time2 - time1);
-      QueryResponse solrResponseRequery = client.query(query, METHOD.POST);
+      QueryResponse solrResponseRequery = query(query, "spellcheck requery");
       SolrDocumentList docs = solrResponseRequery.getResults();
       long time3 = System.nanoTime();
       responseProps.put(SQCMB + "highlighter.respRequery" + QM_ELAPSED, time3 - time2);
@@ -513,7 +544,8 @@ private Collation getCollationToResend(QueryResponse solrResponse) {
     return bestCollation;
   }
 
-  private void addDocsToResults(SolrDocumentList docs, List<Result> results)
+  private void addDocsToResults(
+      SolrDocumentList docs, List<Result> results, Set<String> resultAttributes)
       throws UnsupportedQueryException {
     for (SolrDocument doc : docs) {
       if (LOGGER.isDebugEnabled()) {
@@ -521,7 +553,7 @@ private void addDocsToResults(SolrDocumentList docs, List<Result> results)
       }
       ResultImpl tmpResult;
       try {
-        tmpResult = createResult(doc);
+        tmpResult = createResult(doc, resultAttributes);
       } catch (MetacardCreationException e) {
         throw new UnsupportedQueryException("Could not create result metacard(s).", e);
       }
@@ -555,7 +587,7 @@ public List<Metacard> query(String queryString) throws UnsupportedQueryException
     SolrQuery query = new SolrQuery();
     query.setQuery(queryString);
     try {
-      QueryResponse solrResponse = client.query(query, METHOD.POST);
+      QueryResponse solrResponse = query(query, "query");
       SolrDocumentList docs = solrResponse.getResults();
 
       return createMetacards(docs);
@@ -617,7 +649,7 @@ public Set<ContentType> getContentTypes() {
 
     long timer0 = System.nanoTime();
     try {
-      QueryResponse solrResponse = client.query(query, METHOD.POST);
+      QueryResponse solrResponse = query(query, "content types");
       List<FacetField> facetFields = solrResponse.getFacetFields();
       for (Map.Entry<String, List<PivotField>> entry : solrResponse.getFacetPivot()) {
 
@@ -702,7 +734,49 @@ protected SolrQuery getSolrQuery(QueryRequest request, SolrFilterDelegate solrFi
 
     SolrQuery query = filterAdapter.adapt(request.getQuery(), solrFilterDelegate);
 
-    return postAdapt(request, solrFilterDelegate, query);
+    query = postAdapt(request, solrFilterDelegate, query);
+    setResultFields(query, getResultAttributes(request));
+    return query;
+  }
+
+  /**
+   * Gets the attributes requested with {@link ddf.catalog.Constants#RESULT_ATTRIBUTES}, along with
+   * the attributes that are always read.
+   *
+   * @return the names of the attributes to read, or an empty set if all of them are to be read
+   */
+  private Set<String> getResultAttributes(QueryRequest request) {
+    Serializable resultAttributes = request.getPropertyValue(RESULT_ATTRIBUTES);
+    if (!(resultAttributes instanceof String[]) || ((String[]) resultAttributes).length == 0) {
+      return Collections.emptySet();
+    }
+
+    Set<String> attributes = new LinkedHashSet<>(ALWAYS_READ_ATTRIBUTES);
+    attributes.addAll(Arrays.asList((String[]) resultAttributes));
+    return attributes;
+  }
+
+  /**
+   * Limits the fields Solr returns to those of the given attributes, keeping any pseudo-fields,
+   * such as the relevance score, that the query already asks for.
+   */
+  private void setResultFields(SolrQuery query, Set<String> resultAttributes) {
+    if (resultAttributes.isEmpty()) {
+      return;
+    }
+
+    Set<String> fields = new LinkedHashSet<>(ALWAYS_READ_FIELDS);
+    for (String attribute : resultAttributes) {
+      fields.addAll(resolver.getAnonymousField(attribute));
+    }
+    if (query.getFields() != null) {
+      for (String field : query.getFields().split(",")) {
+        if (!"*".equals(field)) {
+          fields.add(field);
+        }
+      }
+    }
+    query.setFields(fields.toArray(new String[0]));
   }
 
   protected SolrQuery getRealTimeQuery(SolrQuery originalQuery, Collection<String> ids) {
@@ -782,11 +856,55 @@ private boolean queryingForAllRecords(QueryRequest request) {
     return request.getQuery().getPageSize() < 0;
   }
 
+  /** Sends a query to Solr in its own client span, so that each round trip shows up in traces. */
+  private QueryResponse query(SolrQuery query, String operation)
+      throws SolrServerException, IOException {
+    Span span = startSpan(operation);
+    try (Scope ignored = span.makeCurrent()) {
+      QueryResponse response = client.query(query, METHOD.POST);
+      if (response.getResults() != null) {
+        span.setAttribute(NUM_FOUND, response.getResults().getNumFound());
+      }
+      return response;
+    } catch (SolrServerException | IOException | RuntimeException e) {
+      recordFailure(span, e);
+      throw e;
+    } finally {
+      span.end();
+    }
+  }
+
+  private SolrDocumentList getById(List<String> ids) throws SolrServerException, IOException {
+    Span span = startSpan("get by id");
+    try (Scope ignored = span.makeCurrent()) {
+      return client.getById(ids);
+    } catch (SolrServerException | IOException | RuntimeException e) {
+      recordFailure(span, e);
+      throw e;
+    } finally {
+      span.end();
+    }
+  }
+
+  private static Span startSpan(String operation) {
+    return GlobalOpenTelemetry.getTracer(INSTRUMENTATION_NAME)
+        .spanBuilder("solr " + operation)
+        .setSpanKind(SpanKind.CLIENT)
+        .setAttribute(DB_SYSTEM, "solr")
+        .setAttribute(DB_OPERATION, operation)
+        .startSpan();
+  }
+
+  private static void recordFailure(Span span, Exception e) {
+    span.recordException(e);
+    span.setStatus(StatusCode.ERROR, e.getClass().getSimpleName());
+  }
+
   private int queryForNumberOfRows(SolrQuery query) throws SolrServerException, IOException {
     long timer0 = System.nanoTime();
     int numRows;
     query.setRows(0);
-    QueryResponse solrResponse = client.query(query, METHOD.POST);
+    QueryResponse solrResponse = query(query, "row count");
     numRows = Math.toIntExact(solrResponse.getResults().getNumFound());
     LOGGER.debug(
         "Solr client - query for num rows - elapsed time: {}ns", System.nanoTime() - timer0);
@@ -867,8 +985,18 @@ protected String setSortProperty(
     return resolver.getSortKey(sortProperty);
   }
 
-  private ResultImpl createResult(SolrDocument doc) throws MetacardCreationException {
-    ResultImpl result = new ResultImpl(createMetacard(doc));
+  private ResultImpl createResult(SolrDocument doc, Set<String> resultAttributes)
+      throws MetacardCreationException {
+    Metacard metacard = createMetacard(doc);
+    if (!resultAttributes.isEmpty()) {
+      Object id = doc.getFirstValue(Metacard.ID + SchemaFields.TEXT_SUFFIX);
+      metacard =
+          new ProjectedMetacard(
+              metacard,
+              name -> resultAttributes.contains(name) || name.startsWith(Metacard.SECURITY),
+              () -> loadMetacard(String.valueOf(id)));
+    }
+    ResultImpl result = new ResultImpl(metacard);
 
     if (doc.get(RELEVANCE_SORT_FIELD) != null) {
       result.setRelevanceScore(((Float) (doc.get(RELEVANCE_SORT_FIELD))).doubleValue());
@@ -890,6 +1018,16 @@ private ResultImpl createResult(SolrDocument doc) throws MetacardCreationExcepti
     return result;
   }
 
+  private Metacard loadMetacard(String id) {
+    try {
+      List<Metacard> metacards = getIds(Collections.singleton(id));
+      return metacards.isEmpty() ? null : metacards.get(0);
+    } catch (UnsupportedQueryException e) {
+      LOGGER.debug("Unable to load metacard {}", id, e);
+      return null;
+    }
+  }
+
   public MetacardImpl createMetacard(SolrDocument doc) throws MetacardCreationException {
     MetacardType metacardType = resolver.getMetacardType(doc);
     MetacardImpl metacard = new MetacardImpl(metacardType);
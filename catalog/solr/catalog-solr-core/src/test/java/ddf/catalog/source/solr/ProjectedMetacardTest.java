@@ -0,0 +1,130 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.source.solr;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.types.Core;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Date;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ProjectedMetacardTest {
+
+  private final AtomicInteger loads = new AtomicInteger();
+
+  private MetacardImpl partial;
+
+  private MetacardImpl complete;
+
+  private ProjectedMetacard metacard;
+
+  private final Date modified = new Date();
+
+  @Before
+  public void setUp() {
+    partial = new MetacardImpl();
+    partial.setId("1234");
+    partial.setTitle("title");
+    partial.setAttribute(Core.METACARD_MODIFIED, modified);
+
+    complete = new MetacardImpl();
+    complete.setId("1234");
+    complete.setTitle("title");
+    complete.setDescription("description");
+    complete.setMetadata("<metadata/>");
+    complete.setAttribute(Core.METACARD_MODIFIED, modified);
+
+    metacard =
+        new ProjectedMetacard(
+            partial,
+            Set.of(Metacard.ID, Metacard.TITLE, Core.METACARD_MODIFIED)::contains,
+            () -> {
+              loads.incrementAndGet();
+              return complete;
+            });
+  }
+
+  @Test
+  public void testReadAttributesDoNotLoad() {
+    assertThat(metacard.getTitle(), is("title"));
+    assertThat(metacard.getId(), is("1234"));
+    assertThat(loads.get(), is(0));
+  }
+
+  @Test
+  public void testOtherAttributesAreLoadedOnce() {
+    assertThat(metacard.getMetadata(), is("<metadata/>"));
+    assertThat(metacard.getDescription(), is("description"));
+    assertThat(metacard.getAttribute(Metacard.THUMBNAIL), is(nullValue()));
+    assertThat(loads.get(), is(1));
+  }
+
+  @Test
+  public void testSetAttributesAreKept() {
+    metacard.setAttribute(Metacard.DESCRIPTION, "changed");
+    metacard.setAttribute(Metacard.METADATA, null);
+
+    assertThat(metacard.getDescription(), is("changed"));
+    assertThat(metacard.getMetadata(), is(nullValue()));
+    assertThat(metacard.getAttribute(Metacard.CREATED), is(nullValue()));
+    assertThat(loads.get(), is(1));
+  }
+
+  @Test
+  public void testAttributesAreReadWhenNotLoaded() {
+    metacard = new ProjectedMetacard(partial, Set.of(Metacard.TITLE)::contains, () -> null);
+
+    assertThat(metacard.getMetadata(), is(nullValue()));
+    assertThat(metacard.getTitle(), is("title"));
+  }
+
+  @Test
+  public void testAttributesAreNotLoadedFromModifiedMetacard() {
+    complete.setAttribute(Core.METACARD_MODIFIED, new Date(modified.getTime() + 1000));
+
+    assertThat(metacard.getDescription(), is(nullValue()));
+    assertThat(metacard.getMetadata(), is(nullValue()));
+    assertThat(metacard.getTitle(), is("title"));
+    assertThat(loads.get(), is(1));
+  }
+
+  @Test
+  public void testSerializedMetacardIsComplete() throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(metacard);
+    }
+
+    Metacard deserialized;
+    try (ObjectInputStream in =
+        new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      deserialized = (Metacard) in.readObject();
+    }
+
+    assertThat(deserialized.getClass() == MetacardImpl.class, is(true));
+    assertThat(deserialized.getMetadata(), is("<metadata/>"));
+    assertThat(deserialized.getTitle(), is("title"));
+  }
+}
@@ -14,8 +14,10 @@
 package ddf.catalog.source.solr;
 
 import static ddf.catalog.Constants.QUERY_HIGHLIGHT_KEY;
+import static ddf.catalog.Constants.RESULT_ATTRIBUTES;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.mockito.ArgumentMatchers.any;
@@ -191,6 +193,33 @@ public void testQueryOneResults() throws Exception {
     assertThat(results.get(0).getMetacard().getAttribute("title").getValue(), is("normal"));
   }
 
+  @Test
+  public void testQueryResultAttributes() throws Exception {
+    QueryRequest request = createQuery(builder.attribute("anyText").is().like().text("normal"));
+    request.getProperties().put(RESULT_ATTRIBUTES, new String[] {"title"});
+
+    List<String> names = Collections.singletonList("title");
+    List<String> values = Collections.singletonList("normal");
+
+    Map<String, String> attributes = createAttributes(names, values);
+
+    when(queryResponse.getResults()).thenReturn(createSolrDocumentList(attributes));
+    when(dynamicSchemaResolver.getAnonymousField("title"))
+        .thenReturn(Collections.singletonList("title_txt"));
+    mockDynamicSchemsolverCalls(createAttributeDescriptor(names), attributes);
+
+    List<Result> results = clientImpl.query(request).getResults();
+    verify(solrQuery)
+        .setFields(
+            SchemaFields.METACARD_TYPE_FIELD_NAME,
+            SchemaFields.METACARD_TYPE_OBJECT_FIELD_NAME,
+            Metacard.SECURITY + "*",
+            "title_txt");
+    assertThat(results.size(), is(1));
+    assertThat(results.get(0).getMetacard(), instanceOf(ProjectedMetacard.class));
+    assertThat(results.get(0).getMetacard().getAttribute("title").getValue(), is("normal"));
+  }
+
   @Test
   public void testRealTimeQuery() throws Exception {
     QueryRequest request = createQuery(builder.attribute("anyText").is().like().text("normal"));
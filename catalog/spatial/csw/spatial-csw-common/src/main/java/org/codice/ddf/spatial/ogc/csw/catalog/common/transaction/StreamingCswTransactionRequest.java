@@ -0,0 +1,150 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.spatial.ogc.csw.catalog.common.transaction;
+
+import ddf.catalog.data.Metacard;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import org.codice.ddf.spatial.ogc.csw.catalog.actions.DeleteAction;
+import org.codice.ddf.spatial.ogc.csw.catalog.actions.InsertAction;
+import org.codice.ddf.spatial.ogc.csw.catalog.actions.UpdateAction;
+
+/**
+ * A {@link CswTransactionRequest} that is read while it is being processed, so that the records of
+ * its insert actions do not all have to be held in memory.
+ *
+ * <p>The insert actions are read by iterating over {@link #getStreamingInsertActions()}. The update
+ * and delete actions are read along the way, so they are only complete once the insert actions have
+ * all been iterated over. If the insert actions are not streamed, calling any of the other action
+ * getters reads the whole transaction into memory instead.
+ */
+public class StreamingCswTransactionRequest extends CswTransactionRequest {
+
+  private final ActionReader actionReader;
+
+  private final Iterator<StreamingInsertAction> insertActions = new InsertActionIterator();
+
+  private boolean streamed = false;
+
+  private boolean read = false;
+
+  public StreamingCswTransactionRequest(ActionReader actionReader) {
+    this.actionReader = actionReader;
+  }
+
+  /**
+   * Returns the insert actions of the transaction, read as they are iterated over.
+   *
+   * @throws IllegalStateException if the actions of the transaction have already been read
+   */
+  public Iterator<StreamingInsertAction> getStreamingInsertActions() {
+    if (streamed || read) {
+      throw new IllegalStateException("The insert actions of the transaction were already read.");
+    }
+    streamed = true;
+    return insertActions;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @throws IllegalStateException if the insert actions have already been streamed
+   */
+  @Override
+  public List<InsertAction> getInsertActions() {
+    if (streamed) {
+      throw new IllegalStateException("The insert actions of the transaction were streamed.");
+    }
+    readAll();
+    return super.getInsertActions();
+  }
+
+  @Override
+  public List<DeleteAction> getDeleteActions() {
+    readAll();
+    return super.getDeleteActions();
+  }
+
+  @Override
+  public List<UpdateAction> getUpdateActions() {
+    readAll();
+    return super.getUpdateActions();
+  }
+
+  private void readAll() {
+    if (streamed) {
+      // skip the insert actions the caller did not stream so the actions after them are read
+      while (insertActions.hasNext()) {
+        insertActions.next();
+      }
+    } else if (!read) {
+      read = true;
+      while (insertActions.hasNext()) {
+        StreamingInsertAction insertAction = insertActions.next();
+        List<Metacard> records = new ArrayList<>();
+        insertAction.getRecords().forEachRemaining(records::add);
+        super.getInsertActions()
+            .add(
+                new InsertActionImpl(
+                    insertAction.getTypeName(), insertAction.getHandle(), records));
+      }
+    }
+  }
+
+  /** Reads the actions of a transaction in the order they appear in the request. */
+  public interface ActionReader {
+
+    /**
+     * Reads up to and including the start of the next insert action. Any records of the previous
+     * insert action that were not iterated over are skipped.
+     *
+     * @param updateActions the list to add the update actions that are read to
+     * @param deleteActions the list to add the delete actions that are read to
+     * @return the next insert action, or null if there are no more actions
+     */
+    StreamingInsertAction readNextInsertAction(
+        List<UpdateAction> updateActions, List<DeleteAction> deleteActions);
+  }
+
+  private class InsertActionIterator implements Iterator<StreamingInsertAction> {
+
+    private StreamingInsertAction next;
+
+    private boolean done = false;
+
+    @Override
+    public boolean hasNext() {
+      if (next == null && !done) {
+        next =
+            actionReader.readNextInsertAction(
+                StreamingCswTransactionRequest.super.getUpdateActions(),
+                StreamingCswTransactionRequest.super.getDeleteActions());
+        done = next == null;
+      }
+      return next != null;
+    }
+
+    @Override
+    public StreamingInsertAction next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      StreamingInsertAction insertAction = next;
+      next = null;
+      return insertAction;
+    }
+  }
+}
@@ -0,0 +1,57 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.spatial.ogc.csw.catalog.common.transaction;
+
+import ddf.catalog.data.Metacard;
+import java.util.Iterator;
+
+/**
+ * A single insert action within a {@link StreamingCswTransactionRequest}, whose records are read
+ * from the request one at a time as they are iterated over.
+ */
+public class StreamingInsertAction {
+
+  private final String typeName;
+
+  private final String handle;
+
+  private final Iterator<Metacard> records;
+
+  /**
+   * @param typeName the type of record being inserted, such as csw:Record
+   * @param handle the name to associate with this insert action
+   * @param records the records to insert, read as they are iterated over
+   */
+  public StreamingInsertAction(String typeName, String handle, Iterator<Metacard> records) {
+    this.typeName = typeName;
+    this.handle = handle;
+    this.records = records;
+  }
+
+  /**
+   * Returns the records to insert. The records can only be iterated over once, and only until the
+   * next insert action of the transaction is read.
+   */
+  public Iterator<Metacard> getRecords() {
+    return records;
+  }
+
+  public String getTypeName() {
+    return typeName;
+  }
+
+  public String getHandle() {
+    return handle;
+  }
+}
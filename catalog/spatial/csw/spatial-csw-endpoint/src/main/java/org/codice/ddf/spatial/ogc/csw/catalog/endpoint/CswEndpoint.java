@@ -15,6 +15,7 @@
 
 import com.google.common.base.Splitter;
 import com.google.common.collect.Iterables;
+import com.thoughtworks.xstream.XStreamException;
 import ddf.catalog.CatalogFramework;
 import ddf.catalog.data.Attribute;
 import ddf.catalog.data.Metacard;
@@ -53,12 +54,15 @@
 import java.math.BigInteger;
 import java.net.URL;
 import java.nio.file.Paths;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -157,6 +161,9 @@
 import org.codice.ddf.spatial.ogc.csw.catalog.common.GetRecordByIdRequest;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.GetRecordsRequest;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.transaction.CswTransactionRequest;
+import org.codice.ddf.spatial.ogc.csw.catalog.common.transaction.InsertActionImpl;
+import org.codice.ddf.spatial.ogc.csw.catalog.common.transaction.StreamingCswTransactionRequest;
+import org.codice.ddf.spatial.ogc.csw.catalog.common.transaction.StreamingInsertAction;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.transformer.TransformerManager;
 import org.codice.ddf.spatial.ogc.csw.catalog.endpoint.transformer.CswActionTransformerProvider;
 import org.locationtech.jts.geom.Envelope;
@@ -235,6 +242,10 @@ public class CswEndpoint implements Csw {
 
   static final int DEFAULT_BATCH = 500;
 
+  static final int INSERT_BATCH_SIZE = 100;
+
+  private static final int MAX_PENDING_INSERT_BATCHES = 4;
+
   private static final List<String> ELEMENT_NAMES = Arrays.asList("brief", "summary", "full");
 
   private static final Logger LOGGER = LoggerFactory.getLogger(CswEndpoint.class);
@@ -570,56 +581,13 @@ public TransactionResponseType transaction(CswTransactionRequest request) throws
     response.setTransactionSummary(summary);
     response.setVersion(CswConstants.VERSION_2_0_2);
 
-    int numInserted = 0;
     final Subject subject = SecurityUtils.getSubject();
-    for (InsertAction insertAction : request.getInsertActions()) {
-      final InsertAction transformInsertAction = transformInsertAction(insertAction);
-
-      List<Metacard> metacards = transformInsertAction.getRecords();
-      CompletionService<CreateResponse> completionService =
-          new ExecutorCompletionService<>(queryExecutor);
-
-      for (Metacard record : metacards) {
-        CreateRequest createRequest = new CreateRequestImpl(record);
-        Callable<CreateResponse> callable =
-            () -> {
-              try {
-                return framework.create(createRequest);
-              } catch (IngestException | SourceUnavailableException e) {
-                LOGGER.debug("Unable to insert record(s)", e);
-                throw new CswException(
-                    "Unable to insert record(s).",
-                    CswConstants.TRANSACTION_FAILED,
-                    transformInsertAction.getHandle());
-              }
-            };
-        Callable<CreateResponse> createCallable = subject.associateWith(callable);
-        completionService.submit(createCallable);
-      }
-
-      for (int i = 0; i < metacards.size(); i++) {
-        try {
-          Future<CreateResponse> completedFuture = completionService.take();
-
-          try {
-            CreateResponse futureResponse = completedFuture.get();
-            numInserted += futureResponse.getCreatedMetacards().size();
-            if (request.isVerbose()) {
-              response.getInsertResult().add(getInsertResultFromResponse(futureResponse));
-            }
-          } catch (ExecutionException | CancellationException e) {
-            LOGGER.debug("Error ingesting Metacard", e);
-            throw new CswException(
-                "Unable to insert record(s).",
-                CswConstants.TRANSACTION_FAILED,
-                insertAction.getHandle());
-          }
-        } catch (InterruptedException e) {
-          LOGGER.debug("Metacard ingest interrupted", e);
-          Thread.currentThread().interrupt();
-          break;
-        }
-      }
+    int numInserted;
+    if (request instanceof StreamingCswTransactionRequest) {
+      numInserted =
+          insertStreamingRecords((StreamingCswTransactionRequest) request, response, subject);
+    } else {
+      numInserted = insertRecords(request, response, subject);
     }
     LOGGER.debug("{} records inserted.", numInserted);
     response.getTransactionSummary().setTotalInserted(BigInteger.valueOf(numInserted));
@@ -683,6 +651,177 @@ public TransactionResponseType transaction(CswTransactionRequest request) throws
     return response;
   }
 
+  private int insertRecords(
+      CswTransactionRequest request, TransactionResponseType response, Subject subject)
+      throws CswException {
+    int numInserted = 0;
+    for (InsertAction insertAction : request.getInsertActions()) {
+      final InsertAction transformInsertAction = transformInsertAction(insertAction);
+
+      List<Metacard> metacards = transformInsertAction.getRecords();
+      CompletionService<CreateResponse> completionService =
+          new ExecutorCompletionService<>(queryExecutor);
+
+      for (Metacard record : metacards) {
+        CreateRequest createRequest = new CreateRequestImpl(record);
+        Callable<CreateResponse> callable =
+            () -> {
+              try {
+                return framework.create(createRequest);
+              } catch (IngestException | SourceUnavailableException e) {
+                LOGGER.debug("Unable to insert record(s)", e);
+                throw new CswException(
+                    "Unable to insert record(s).",
+                    CswConstants.TRANSACTION_FAILED,
+                    transformInsertAction.getHandle());
+              }
+            };
+        Callable<CreateResponse> createCallable = subject.associateWith(callable);
+        completionService.submit(createCallable);
+      }
+
+      for (int i = 0; i < metacards.size(); i++) {
+        try {
+          Future<CreateResponse> completedFuture = completionService.take();
+
+          try {
+            CreateResponse futureResponse = completedFuture.get();
+            numInserted += futureResponse.getCreatedMetacards().size();
+            if (request.isVerbose()) {
+              response.getInsertResult().add(getInsertResultFromResponse(futureResponse));
+            }
+          } catch (ExecutionException | CancellationException e) {
+            LOGGER.debug("Error ingesting Metacard", e);
+            throw new CswException(
+                "Unable to insert record(s).",
+                CswConstants.TRANSACTION_FAILED,
+                insertAction.getHandle());
+          }
+        } catch (InterruptedException e) {
+          LOGGER.debug("Metacard ingest interrupted", e);
+          Thread.currentThread().interrupt();
+          break;
+        }
+      }
+    }
+    return numInserted;
+  }
+
+  /**
+   * Inserts the records of a transaction as they are read from the request, in batches of {@link
+   * #INSERT_BATCH_SIZE} records. Reading stops while {@link #MAX_PENDING_INSERT_BATCHES} batches
+   * are being ingested, so only those batches are held in memory. If the transaction fails, the
+   * batches still being ingested are waited for before the failure is reported.
+   */
+  private int insertStreamingRecords(
+      StreamingCswTransactionRequest request, TransactionResponseType response, Subject subject)
+      throws CswException {
+    int numInserted = 0;
+    Iterator<StreamingInsertAction> insertActions = request.getStreamingInsertActions();
+    while (hasNextStreamingElement(insertActions, null)) {
+      StreamingInsertAction insertAction = insertActions.next();
+      String handle = insertAction.getHandle();
+      Iterator<Metacard> records = insertAction.getRecords();
+      Deque<Future<CreateResponse>> pendingBatches = new ArrayDeque<>();
+
+      try {
+        while (hasNextStreamingElement(records, handle)) {
+          List<Metacard> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+          while (batch.size() < INSERT_BATCH_SIZE && hasNextStreamingElement(records, handle)) {
+            batch.add(records.next());
+          }
+          final InsertAction transformInsertAction =
+              transformInsertAction(
+                  new InsertActionImpl(insertAction.getTypeName(), handle, batch));
+          CreateRequest createRequest = new CreateRequestImpl(transformInsertAction.getRecords());
+          Callable<CreateResponse> callable =
+              () -> {
+                try {
+                  return framework.create(createRequest);
+                } catch (IngestException | SourceUnavailableException e) {
+                  LOGGER.debug("Unable to insert record(s)", e);
+                  throw new CswException(
+                      "Unable to insert record(s).",
+                      CswConstants.TRANSACTION_FAILED,
+                      transformInsertAction.getHandle());
+                }
+              };
+          pendingBatches.add(queryExecutor.submit(subject.associateWith(callable)));
+
+          if (pendingBatches.size() >= MAX_PENDING_INSERT_BATCHES) {
+            numInserted += completeInsertBatch(pendingBatches.remove(), handle, request, response);
+          }
+        }
+
+        while (!pendingBatches.isEmpty()) {
+          numInserted += completeInsertBatch(pendingBatches.remove(), handle, request, response);
+        }
+      } finally {
+        awaitInsertBatches(pendingBatches);
+      }
+    }
+    return numInserted;
+  }
+
+  /**
+   * Reads ahead in a streaming transaction.
+   *
+   * @param handle the handle of the insert action being read, or null if none is being read
+   * @throws CswException if the next action or record of the transaction cannot be read
+   */
+  private static boolean hasNextStreamingElement(Iterator<?> elements, String handle)
+      throws CswException {
+    try {
+      return elements.hasNext();
+    } catch (XStreamException e) {
+      LOGGER.debug("Unable to read record(s)", e);
+      throw new CswException(
+          "Unable to read record(s).", e, CswConstants.TRANSACTION_FAILED, handle);
+    }
+  }
+
+  /** Waits for the batches of a failed insert action to finish, ignoring their results. */
+  private static void awaitInsertBatches(Deque<Future<CreateResponse>> pendingBatches) {
+    while (!pendingBatches.isEmpty()) {
+      Future<CreateResponse> batch = pendingBatches.remove();
+      try {
+        batch.get();
+      } catch (ExecutionException | CancellationException e) {
+        LOGGER.debug("Error ingesting Metacard", e);
+      } catch (InterruptedException e) {
+        LOGGER.debug("Metacard ingest interrupted", e);
+        Thread.currentThread().interrupt();
+        batch.cancel(true);
+        pendingBatches.forEach(pending -> pending.cancel(true));
+        pendingBatches.clear();
+      }
+    }
+  }
+
+  private int completeInsertBatch(
+      Future<CreateResponse> batch,
+      String handle,
+      CswTransactionRequest request,
+      TransactionResponseType response)
+      throws CswException {
+    try {
+      CreateResponse createResponse = batch.get();
+      if (request.isVerbose()) {
+        response.getInsertResult().add(getInsertResultFromResponse(createResponse));
+      }
+      return createResponse.getCreatedMetacards().size();
+    } catch (ExecutionException | CancellationException e) {
+      LOGGER.debug("Error ingesting Metacard", e);
+      throw new CswException(
+          "Unable to insert record(s).", CswConstants.TRANSACTION_FAILED, handle);
+    } catch (InterruptedException e) {
+      LOGGER.debug("Metacard ingest interrupted", e);
+      Thread.currentThread().interrupt();
+      throw new CswException(
+          "Unable to insert record(s).", CswConstants.TRANSACTION_FAILED, handle);
+    }
+  }
+
   private InsertResultType getInsertResultFromResponse(CreateResponse createResponse)
       throws CswException {
     InsertResultType result = new InsertResultType();
@@ -31,6 +31,8 @@
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
 import javax.ws.rs.GET;
@@ -57,6 +59,7 @@
 import org.codice.ddf.configuration.DictionaryMap;
 import org.codice.ddf.cxf.client.ClientBuilderFactory;
 import org.codice.ddf.log.sanitizer.LogSanitizer;
+import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
 import org.codice.ddf.platform.util.TransformerProperties;
 import org.codice.ddf.platform.util.XMLUtils;
 import org.codice.ddf.security.Security;
@@ -67,6 +70,7 @@
 import org.codice.ddf.spatial.ogc.csw.catalog.common.transformer.TransformerManager;
 import org.codice.ddf.spatial.ogc.csw.catalog.endpoint.event.CswSubscription;
 import org.codice.ddf.spatial.ogc.csw.catalog.endpoint.event.CswSubscriptionConfigFactory;
+import org.codice.ddf.spatial.ogc.csw.catalog.endpoint.event.EventBatchSettings;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.FrameworkUtil;
 import org.osgi.framework.InvalidSyntaxException;
@@ -93,6 +97,8 @@ public class CswSubscriptionEndpoint implements CswSubscribe, Subscriber {
 
   private static final String EXITING_STR = "EXITING: {}";
 
+  private static final int EVENT_DELIVERY_THREADS = 4;
+
   private final TransformerManager schemaTransformerManager;
 
   private final TransformerManager mimeTypeTransformerManager;
@@ -115,6 +121,14 @@ public class CswSubscriptionEndpoint implements CswSubscribe, Subscriber {
 
   private Security security;
 
+  private final ScheduledExecutorService eventDeliveryExecutor;
+
+  private long eventBatchWindowMillis = 1000;
+
+  private int eventBatchSize = 100;
+
+  private int maxPendingEvents = 10000;
+
   public CswSubscriptionEndpoint(
       EventProcessor eventProcessor,
       TransformerManager mimeTypeTransformerManager,
@@ -132,6 +146,10 @@ public CswSubscriptionEndpoint(
     this.queryFactory = queryFactory;
     this.clientBuilderFactory = clientBuilderFactory;
     this.security = security;
+    this.eventDeliveryExecutor =
+        Executors.newScheduledThreadPool(
+            EVENT_DELIVERY_THREADS,
+            StandardThreadFactoryBuilder.newThreadFactory("cswEventDeliveryThread"));
 
     try {
       this.datatypeFactory = DatatypeFactory.newInstance();
@@ -419,13 +437,49 @@ private synchronized CswSubscription getSubscription(String subscriptionId) {
 
   public CswSubscription createSubscription(GetRecordsType request) throws CswException {
     QueryRequest query = queryFactory.getQuery(request);
+    EventBatchSettings batchSettings =
+        new EventBatchSettings(
+            eventBatchWindowMillis, eventBatchSize, maxPendingEvents, eventDeliveryExecutor);
     // if it is an empty query we need to create a filterless subscription
     if (((QueryType) request.getAbstractQuery().getValue()).getConstraint() == null) {
       return CswSubscription.getFilterlessSubscription(
-          mimeTypeTransformerManager, request, query, clientBuilderFactory, security);
+          mimeTypeTransformerManager,
+          request,
+          query,
+          clientBuilderFactory,
+          security,
+          batchSettings);
     }
     return new CswSubscription(
-        mimeTypeTransformerManager, request, query, clientBuilderFactory, security);
+        mimeTypeTransformerManager, request, query, clientBuilderFactory, security, batchSettings);
+  }
+
+  /**
+   * Sets how long the events of new subscriptions are held so that they can be combined and sent
+   * together.
+   *
+   * @param eventBatchWindowMillis the batch window in milliseconds, or 0 to send each event as it
+   *     happens
+   */
+  public void setEventBatchWindowMillis(long eventBatchWindowMillis) {
+    this.eventBatchWindowMillis = eventBatchWindowMillis;
+  }
+
+  /** Sets the most records sent to the response handler of a new subscription in one event. */
+  public void setEventBatchSize(int eventBatchSize) {
+    this.eventBatchSize = eventBatchSize;
+  }
+
+  /**
+   * Sets the most events held for a new subscription whose response handler cannot keep up, past
+   * which its oldest events are dropped.
+   */
+  public void setMaxPendingEvents(int maxPendingEvents) {
+    this.maxPendingEvents = maxPendingEvents;
+  }
+
+  public void destroy() {
+    eventDeliveryExecutor.shutdownNow();
   }
 
   public synchronized String addOrUpdateSubscription(
@@ -512,6 +566,9 @@ private synchronized CswSubscription deleteCswSubscription(String subscriptionId
       } else {
         LOGGER.debug("No ServiceRegistration found for subscription: {}", logSanitizedId);
       }
+      if (subscription != null) {
+        subscription.close();
+      }
 
       Configuration subscriptionConfig = getSubscriptionConfiguration(subscriptionId);
       try {
@@ -44,10 +44,33 @@ public CswSubscription(
       ClientBuilderFactory clientBuilderFactory,
       Security security)
       throws CswException {
+    this(
+        mimeTypeTransformerManager,
+        request,
+        query,
+        clientBuilderFactory,
+        security,
+        EventBatchSettings.DISABLED);
+  }
+
+  public CswSubscription(
+      TransformerManager mimeTypeTransformerManager,
+      GetRecordsType request,
+      QueryRequest query,
+      ClientBuilderFactory clientBuilderFactory,
+      Security security,
+      EventBatchSettings batchSettings)
+      throws CswException {
     this(
         request,
         query.getQuery(),
-        new SendEvent(mimeTypeTransformerManager, request, query, clientBuilderFactory, security),
+        new SendEvent(
+            mimeTypeTransformerManager,
+            request,
+            query,
+            clientBuilderFactory,
+            security,
+            batchSettings),
         query.getSourceIds(),
         query.isEnterprise());
   }
@@ -59,10 +82,33 @@ public static CswSubscription getFilterlessSubscription(
       ClientBuilderFactory clientBuilderFactory,
       Security security)
       throws CswException {
+    return getFilterlessSubscription(
+        mimeTypeTransformerManager,
+        request,
+        query,
+        clientBuilderFactory,
+        security,
+        EventBatchSettings.DISABLED);
+  }
+
+  public static CswSubscription getFilterlessSubscription(
+      TransformerManager mimeTypeTransformerManager,
+      GetRecordsType request,
+      QueryRequest query,
+      ClientBuilderFactory clientBuilderFactory,
+      Security security,
+      EventBatchSettings batchSettings)
+      throws CswException {
     return new CswSubscription(
         request,
         Filter.INCLUDE,
-        new SendEvent(mimeTypeTransformerManager, request, query, clientBuilderFactory, security),
+        new SendEvent(
+            mimeTypeTransformerManager,
+            request,
+            query,
+            clientBuilderFactory,
+            security,
+            batchSettings),
         null,
         false);
   }
@@ -70,4 +116,11 @@ public static CswSubscription getFilterlessSubscription(
   public GetRecordsType getOriginalRequest() {
     return originalRequest;
   }
+
+  /** Discards the events of the subscription that have not been sent yet. */
+  public void close() {
+    if (getDeliveryMethod() instanceof SendEvent) {
+      ((SendEvent) getDeliveryMethod()).close();
+    }
+  }
 }
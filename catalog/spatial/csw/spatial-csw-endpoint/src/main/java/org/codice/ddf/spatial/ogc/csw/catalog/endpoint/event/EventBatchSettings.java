@@ -0,0 +1,74 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.spatial.ogc.csw.catalog.endpoint.event;
+
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * How the events of a subscription are batched before they are sent to its response handler.
+ *
+ * <p>Events are held for up to the batch window, so that the events for the same metacard can be
+ * combined and the events of an ingest burst can be sent together. A window of 0 disables batching
+ * and sends each event as it happens.
+ */
+public class EventBatchSettings {
+
+  public static final EventBatchSettings DISABLED = new EventBatchSettings(0, 1, 1, null);
+
+  private final long windowMillis;
+
+  private final int maxBatchSize;
+
+  private final int maxPendingEvents;
+
+  private final ScheduledExecutorService executor;
+
+  /**
+   * @param windowMillis how long events are held before they are sent, or 0 to not batch events
+   * @param maxBatchSize the most records sent in one event. A batch is sent as soon as it is full.
+   * @param maxPendingEvents the most events held for a subscription. The oldest events are dropped
+   *     when a response handler falls further behind.
+   * @param executor sends the batches
+   */
+  public EventBatchSettings(
+      long windowMillis,
+      int maxBatchSize,
+      int maxPendingEvents,
+      ScheduledExecutorService executor) {
+    this.windowMillis = windowMillis;
+    this.maxBatchSize = Math.max(maxBatchSize, 1);
+    this.maxPendingEvents = Math.max(maxPendingEvents, this.maxBatchSize);
+    this.executor = executor;
+  }
+
+  public boolean isEnabled() {
+    return windowMillis > 0 && executor != null;
+  }
+
+  public long getWindowMillis() {
+    return windowMillis;
+  }
+
+  public int getMaxBatchSize() {
+    return maxBatchSize;
+  }
+
+  public int getMaxPendingEvents() {
+    return maxPendingEvents;
+  }
+
+  public ScheduledExecutorService getExecutor() {
+    return executor;
+  }
+}
@@ -0,0 +1,289 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.spatial.ogc.csw.catalog.endpoint.event;
+
+import ddf.catalog.data.Metacard;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import javax.ws.rs.HttpMethod;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Holds the events of a subscription for a batch window and sends them to its response handler in
+ * batches, with one {@code GetRecordsResponse} for each kind of event.
+ *
+ * <p>Events for the same metacard that happen in the same window are combined into one: a create
+ * followed by updates is sent as a create of the latest metacard, a create followed by a delete is
+ * not sent at all, and any other event replaces the ones before it. Batches that cannot be sent are
+ * held and retried with an increasing delay, up to the most events the subscription may hold, past
+ * which the oldest events are dropped.
+ */
+class EventBatcher {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(EventBatcher.class);
+
+  private static final long MAX_RETRY_DELAY_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+  private static final int MAX_RETRY_SHIFT = 16;
+
+  private final EventBatchSettings settings;
+
+  private final Delivery delivery;
+
+  private final String callbackUrl;
+
+  private Map<Object, Event> pendingEvents = new LinkedHashMap<>();
+
+  private ScheduledFuture<?> scheduledFlush;
+
+  private long scheduledFlushTime;
+
+  private boolean sending = false;
+
+  private boolean closed = false;
+
+  private int failures = 0;
+
+  EventBatcher(EventBatchSettings settings, Delivery delivery, String callbackUrl) {
+    this.settings = settings;
+    this.delivery = delivery;
+    this.callbackUrl = callbackUrl;
+  }
+
+  /**
+   * Adds an event to the next batch.
+   *
+   * @param operation the HTTP method the event is sent with
+   * @param metacard the created, updated or deleted metacard
+   * @param oldMetacard the metacard before it was updated, or null
+   */
+  synchronized void add(String operation, Metacard metacard, Metacard oldMetacard) {
+    if (closed) {
+      return;
+    }
+
+    Event event = new Event(operation, metacard, oldMetacard);
+    Object key = event.key();
+    Event combined = combine(pendingEvents.remove(key), event);
+    if (combined != null) {
+      pendingEvents.put(key, combined);
+    }
+    dropOldestEvents();
+
+    if (!sending) {
+      scheduleFlush(
+          pendingEvents.size() >= settings.getMaxBatchSize() ? 0 : settings.getWindowMillis());
+    }
+  }
+
+  /** Discards the held events and stops sending batches. */
+  synchronized void close() {
+    closed = true;
+    pendingEvents.clear();
+    if (scheduledFlush != null) {
+      scheduledFlush.cancel(false);
+      scheduledFlush = null;
+    }
+  }
+
+  synchronized int getPendingEventCount() {
+    return pendingEvents.size();
+  }
+
+  private void flush() {
+    List<Event> batch;
+    synchronized (this) {
+      scheduledFlush = null;
+      if (sending || closed || pendingEvents.isEmpty()) {
+        return;
+      }
+      sending = true;
+      batch = new ArrayList<>(pendingEvents.values());
+      pendingEvents = new LinkedHashMap<>();
+    }
+
+    List<Event> unsent = batch;
+    try {
+      unsent = send(batch);
+    } finally {
+      synchronized (this) {
+        sending = false;
+        if (unsent.isEmpty()) {
+          failures = 0;
+        } else {
+          failures++;
+          requeue(unsent);
+        }
+        if (!pendingEvents.isEmpty() && !closed) {
+          scheduleFlush(nextFlushDelay(!unsent.isEmpty()));
+        }
+      }
+    }
+  }
+
+  /** Sends the batch and returns the events that could not be sent. */
+  private List<Event> send(List<Event> batch) {
+    Map<String, List<Event>> eventsByOperation = new LinkedHashMap<>();
+    for (Event event : batch) {
+      eventsByOperation.computeIfAbsent(event.operation, o -> new ArrayList<>()).add(event);
+    }
+
+    List<Event> unsent = new ArrayList<>();
+    for (Map.Entry<String, List<Event>> operationEvents : eventsByOperation.entrySet()) {
+      List<Event> events = operationEvents.getValue();
+      for (int start = 0; start < events.size(); start += settings.getMaxBatchSize()) {
+        List<Event> chunk =
+            events.subList(start, Math.min(start + settings.getMaxBatchSize(), events.size()));
+        if (!unsent.isEmpty() || !delivery.send(operationEvents.getKey(), metacards(chunk))) {
+          unsent.addAll(chunk);
+        }
+      }
+    }
+    return unsent;
+  }
+
+  private void requeue(List<Event> unsent) {
+    Map<Object, Event> events = new LinkedHashMap<>();
+    for (Event event : unsent) {
+      Object key = event.key();
+      Event combined = combine(event, pendingEvents.remove(key));
+      if (combined != null) {
+        events.put(key, combined);
+      }
+    }
+    events.putAll(pendingEvents);
+    pendingEvents = events;
+    dropOldestEvents();
+  }
+
+  private void dropOldestEvents() {
+    int dropped = 0;
+    Iterator<Event> iterator = pendingEvents.values().iterator();
+    while (pendingEvents.size() > settings.getMaxPendingEvents() && iterator.hasNext()) {
+      iterator.next();
+      iterator.remove();
+      dropped++;
+    }
+    if (dropped > 0) {
+      LOGGER.debug(
+          "Dropped {} events for subscription callback {} because too many events are pending.",
+          dropped,
+          callbackUrl);
+    }
+  }
+
+  private long nextFlushDelay(boolean failed) {
+    if (failed) {
+      long delay = settings.getWindowMillis() << Math.min(failures, MAX_RETRY_SHIFT);
+      return Math.min(delay, MAX_RETRY_DELAY_MILLIS);
+    }
+    return pendingEvents.size() >= settings.getMaxBatchSize() ? 0 : settings.getWindowMillis();
+  }
+
+  private void scheduleFlush(long delayMillis) {
+    long flushTime = System.currentTimeMillis() + delayMillis;
+    if (scheduledFlush != null) {
+      if (scheduledFlushTime <= flushTime) {
+        return;
+      }
+      scheduledFlush.cancel(false);
+    }
+
+    try {
+      scheduledFlush =
+          settings.getExecutor().schedule(this::flush, delayMillis, TimeUnit.MILLISECONDS);
+      scheduledFlushTime = flushTime;
+    } catch (RejectedExecutionException e) {
+      LOGGER.debug("Unable to schedule events for subscription callback {}.", callbackUrl, e);
+      scheduledFlush = null;
+    }
+  }
+
+  private static List<Metacard> metacards(List<Event> events) {
+    List<Metacard> metacards = new ArrayList<>();
+    for (Event event : events) {
+      metacards.add(event.metacard);
+      if (event.oldMetacard != null) {
+        metacards.add(event.oldMetacard);
+      }
+    }
+    return metacards;
+  }
+
+  /**
+   * Combines an event with the one that follows it for the same metacard.
+   *
+   * @return the combined event, or null if neither needs to be sent
+   */
+  private static Event combine(Event earlier, Event later) {
+    if (earlier == null) {
+      return later;
+    }
+    if (later == null) {
+      return earlier;
+    }
+    if (HttpMethod.POST.equals(earlier.operation)) {
+      if (HttpMethod.DELETE.equals(later.operation)) {
+        return null;
+      }
+      if (HttpMethod.PUT.equals(later.operation)) {
+        return new Event(HttpMethod.POST, later.metacard, null);
+      }
+    }
+    if (HttpMethod.PUT.equals(earlier.operation) && HttpMethod.PUT.equals(later.operation)) {
+      return new Event(HttpMethod.PUT, later.metacard, earlier.oldMetacard);
+    }
+    return later;
+  }
+
+  /** Sends a batch of events to the response handler. */
+  @FunctionalInterface
+  interface Delivery {
+
+    /**
+     * @param operation the HTTP method to send the events with
+     * @param metacards the metacards of the events
+     * @return false if the events could not be sent and should be retried
+     */
+    boolean send(String operation, List<Metacard> metacards);
+  }
+
+  private static class Event {
+
+    private final String operation;
+
+    private final Metacard metacard;
+
+    private final Metacard oldMetacard;
+
+    private Event(String operation, Metacard metacard, Metacard oldMetacard) {
+      this.operation = operation;
+      this.metacard = metacard;
+      this.oldMetacard = oldMetacard;
+    }
+
+    private Object key() {
+      String id = metacard.getId();
+      // events for metacards without ids cannot be combined
+      return id != null ? id : new Object();
+    }
+  }
+}
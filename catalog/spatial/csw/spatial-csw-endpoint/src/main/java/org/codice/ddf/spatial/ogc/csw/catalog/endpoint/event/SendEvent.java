@@ -32,6 +32,7 @@
 import java.net.UnknownHostException;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.TimeUnit;
@@ -105,6 +106,8 @@ public class SendEvent implements DeliveryMethod, Pingable {
 
   SecureCxfClientFactory<CswSubscribe> cxfClientFactory;
 
+  private final EventBatcher batcher;
+
   public SendEvent(
       TransformerManager transformerManager,
       GetRecordsType request,
@@ -112,6 +115,23 @@ public SendEvent(
       ClientBuilderFactory clientBuilderFactory,
       Security security)
       throws CswException {
+    this(
+        transformerManager,
+        request,
+        query,
+        clientBuilderFactory,
+        security,
+        EventBatchSettings.DISABLED);
+  }
+
+  public SendEvent(
+      TransformerManager transformerManager,
+      GetRecordsType request,
+      QueryRequest query,
+      ClientBuilderFactory clientBuilderFactory,
+      Security security,
+      EventBatchSettings batchSettings)
+      throws CswException {
 
     URL deliveryMethodUrl;
     if (request.getResponseHandler() != null && !request.getResponseHandler().isEmpty()) {
@@ -154,6 +174,7 @@ public SendEvent(
             .useSamlEcp(true)
             .useSubjectRetrievalInterceptor()
             .build();
+    this.batcher = createBatcher(batchSettings);
     try {
       InetAddress address = InetAddress.getByName(callbackUrl.getHost());
       ip = address.getHostAddress();
@@ -168,6 +189,15 @@ public SendEvent(
       QueryRequest query,
       SecureCxfClientFactory<CswSubscribe> cxfClientFactory)
       throws CswException {
+    this(request, query, cxfClientFactory, EventBatchSettings.DISABLED);
+  }
+
+  public SendEvent(
+      GetRecordsType request,
+      QueryRequest query,
+      SecureCxfClientFactory<CswSubscribe> cxfClientFactory,
+      EventBatchSettings batchSettings)
+      throws CswException {
 
     URL deliveryMethodUrl;
     if (request.getResponseHandler() != null && !request.getResponseHandler().isEmpty()) {
@@ -200,6 +230,7 @@ public SendEvent(
     this.resultType = request.getResultType() == null ? ResultType.HITS : request.getResultType();
 
     this.cxfClientFactory = cxfClientFactory;
+    this.batcher = createBatcher(batchSettings);
     try {
       InetAddress address = InetAddress.getByName(callbackUrl.getHost());
       ip = address.getHostAddress();
@@ -209,15 +240,32 @@ public SendEvent(
     ping();
   }
 
-  private void sendEvent(String operation, Metacard... metacards) {
+  private EventBatcher createBatcher(EventBatchSettings batchSettings) {
+    if (!batchSettings.isEnabled()) {
+      return null;
+    }
+    return new EventBatcher(batchSettings, this::sendEvent, callbackUrl.toString());
+  }
+
+  private void event(String operation, Metacard metacard, Metacard oldMetacard) {
+    if (batcher != null) {
+      batcher.add(operation, metacard, oldMetacard);
+    } else if (oldMetacard != null) {
+      sendEvent(operation, Arrays.asList(metacard, oldMetacard));
+    } else {
+      sendEvent(operation, Collections.singletonList(metacard));
+    }
+  }
+
+  /** @return false if the event could not be sent to the response handler */
+  private boolean sendEvent(String operation, List<Metacard> metacards) {
     if (subject == null) {
-      return;
+      return true;
     }
     try {
-      List<Result> results =
-          Arrays.asList(metacards).stream().map(ResultImpl::new).collect(Collectors.toList());
+      List<Result> results = metacards.stream().map(ResultImpl::new).collect(Collectors.toList());
 
-      QueryResponse queryResponse = new QueryResponseImpl(query, results, true, metacards.length);
+      QueryResponse queryResponse = new QueryResponseImpl(query, results, true, metacards.size());
       CswRecordCollection recordCollection = new CswRecordCollection();
 
       recordCollection.setElementName(elementName);
@@ -237,14 +285,15 @@ private void sendEvent(String operation, Metacard... metacards) {
       }
 
       if (queryResponse.getResults().isEmpty()) {
-        return;
+        return true;
       }
       recordCollection.setSourceResponse(queryResponse);
 
-      send(operation, recordCollection);
+      return send(operation, recordCollection);
     } catch (StopProcessingException | InvalidSyntaxException e) {
       LOGGER.debug("Unable to send event error running AccessPlugin processPostQuery. ", e);
     }
+    return true;
   }
 
   private boolean send(String operation, CswRecordCollection recordCollection) {
@@ -274,25 +323,25 @@ private boolean send(String operation, CswRecordCollection recordCollection) {
   public void created(Metacard newMetacard) {
 
     LOGGER.debug("Created {}", newMetacard);
-    sendEvent(HttpMethod.POST, newMetacard);
+    event(HttpMethod.POST, newMetacard, null);
   }
 
   @Override
   public void updatedHit(Metacard newMetacard, Metacard oldMetacard) {
     LOGGER.debug("Updated Hit {} {}", newMetacard, oldMetacard);
-    sendEvent(HttpMethod.PUT, newMetacard, oldMetacard);
+    event(HttpMethod.PUT, newMetacard, oldMetacard);
   }
 
   @Override
   public void updatedMiss(Metacard newMetacard, Metacard oldMetacard) {
     LOGGER.debug("Updated Miss {} {}", newMetacard, oldMetacard);
-    sendEvent(HttpMethod.PUT, newMetacard, oldMetacard);
+    event(HttpMethod.PUT, newMetacard, oldMetacard);
   }
 
   @Override
   public void deleted(Metacard oldMetacard) {
     LOGGER.debug("Deleted {}", oldMetacard);
-    sendEvent(HttpMethod.DELETE, oldMetacard);
+    event(HttpMethod.DELETE, oldMetacard, null);
   }
 
   private long introduceJitter(long value, double percent) {
@@ -326,6 +375,13 @@ List<AccessPlugin> getAccessPlugins() throws InvalidSyntaxException {
     return serviceCollection.stream().map(bundleContext::getService).collect(Collectors.toList());
   }
 
+  /** Discards the events waiting to be sent. Called when the subscription is deleted. */
+  public void close() {
+    if (batcher != null) {
+      batcher.close();
+    }
+  }
+
   public long getLastPing() {
     return lastPing;
   }
@@ -66,15 +66,20 @@ public CswTransactionRequest readFrom(
       MultivaluedMap<String, String> multivaluedMap,
       InputStream inputStream)
       throws IOException, WebApplicationException {
-    XStream xStream = new XStream(new Xpp3Driver(new NoNameCoder()));
+    Xpp3Driver driver = new Xpp3Driver(new NoNameCoder());
+    XStream xStream = new XStream(driver);
     xStream.addPermission(NoTypePermission.NONE);
+    // XStream would otherwise keep every record it reads so that later elements can refer to them
+    xStream.setMode(XStream.NO_REFERENCES);
     TransactionRequestConverter transactionRequestConverter =
         new TransactionRequestConverter(cswRecordConverter, registry);
     transactionRequestConverter.setCswRecordConverter(new CswRecordConverter(metacardType));
+    // the records to insert are read from the request body as they are ingested
+    transactionRequestConverter.setStreamInserts(true);
     xStream.registerConverter(transactionRequestConverter);
     xStream.allowTypeHierarchy(CswTransactionRequest.class);
     xStream.alias("csw:" + CswConstants.TRANSACTION, CswTransactionRequest.class);
     xStream.alias(CswConstants.TRANSACTION, CswTransactionRequest.class);
-    return (CswTransactionRequest) xStream.fromXML(inputStream);
+    return (CswTransactionRequest) xStream.unmarshal(driver.createReader(inputStream));
   }
 }
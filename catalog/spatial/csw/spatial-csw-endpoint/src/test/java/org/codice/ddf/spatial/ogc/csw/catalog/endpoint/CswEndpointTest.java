@@ -37,6 +37,7 @@
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
+import com.thoughtworks.xstream.converters.ConversionException;
 import ddf.catalog.CatalogFramework;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.Result;
@@ -81,6 +82,7 @@
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -88,6 +90,7 @@
 import java.util.Optional;
 import java.util.Queue;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.activation.MimeType;
@@ -145,6 +148,8 @@
 import org.codice.ddf.spatial.ogc.csw.catalog.common.transaction.CswTransactionRequest;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.transaction.DeleteActionImpl;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.transaction.InsertActionImpl;
+import org.codice.ddf.spatial.ogc.csw.catalog.common.transaction.StreamingCswTransactionRequest;
+import org.codice.ddf.spatial.ogc.csw.catalog.common.transaction.StreamingInsertAction;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.transaction.UpdateActionImpl;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.transformer.TransformerManager;
 import org.codice.ddf.spatial.ogc.csw.catalog.endpoint.transformer.CswActionTransformerProvider;
@@ -1700,6 +1705,84 @@ public void testIngestTransaction()
         cswQnameOutPutSchema);
   }
 
+  @Test
+  public void testIngestStreamingTransaction()
+      throws CswException, SourceUnavailableException, FederationException, IngestException {
+    int recordCount = CswEndpoint.INSERT_BATCH_SIZE * 2 + 1;
+    List<Metacard> records = new ArrayList<>();
+    for (int i = 0; i < recordCount; i++) {
+      records.add(new MetacardImpl());
+    }
+    Iterator<StreamingInsertAction> insertActions =
+        Collections.singletonList(
+                new StreamingInsertAction(CswConstants.CSW_TYPE, null, records.iterator()))
+            .iterator();
+    StreamingCswTransactionRequest request =
+        new StreamingCswTransactionRequest(
+            (updateActions, deleteActions) ->
+                insertActions.hasNext() ? insertActions.next() : null);
+    when(catalogFramework.create(any(CreateRequest.class)))
+        .thenAnswer(
+            invocation -> {
+              CreateRequest createRequest = invocation.getArgument(0);
+              return new CreateResponseImpl(createRequest, null, createRequest.getMetacards());
+            });
+
+    TransactionResponseType response = csw.transaction(request);
+
+    assertThat(response.getTransactionSummary().getTotalInserted().intValue(), is(recordCount));
+    verify(catalogFramework, times(3)).create(any(CreateRequest.class));
+  }
+
+  @Test
+  public void testIngestStreamingTransactionWithMalformedRecord()
+      throws SourceUnavailableException, IngestException {
+    Iterator<Metacard> records =
+        new Iterator<Metacard>() {
+          private int count = 0;
+
+          @Override
+          public boolean hasNext() {
+            if (count > CswEndpoint.INSERT_BATCH_SIZE) {
+              throw new ConversionException("Malformed record");
+            }
+            return true;
+          }
+
+          @Override
+          public Metacard next() {
+            count++;
+            return new MetacardImpl();
+          }
+        };
+    Iterator<StreamingInsertAction> insertActions =
+        Collections.singletonList(
+                new StreamingInsertAction(CswConstants.CSW_TYPE, "handle", records))
+            .iterator();
+    StreamingCswTransactionRequest request =
+        new StreamingCswTransactionRequest(
+            (updateActions, deleteActions) ->
+                insertActions.hasNext() ? insertActions.next() : null);
+    AtomicInteger ingested = new AtomicInteger();
+    when(catalogFramework.create(any(CreateRequest.class)))
+        .thenAnswer(
+            invocation -> {
+              Thread.sleep(100);
+              ingested.incrementAndGet();
+              CreateRequest createRequest = invocation.getArgument(0);
+              return new CreateResponseImpl(createRequest, null, createRequest.getMetacards());
+            });
+
+    try {
+      csw.transaction(request);
+      fail("Expected the transaction to fail");
+    } catch (CswException e) {
+      assertThat(e.getExceptionCode(), is(CswConstants.TRANSACTION_FAILED));
+      assertThat(e.getLocator(), is("handle"));
+    }
+    assertThat(ingested.get(), is(1));
+  }
+
   @Test
   public void testIngestVerboseTransaction()
       throws CswException, SourceUnavailableException, FederationException, IngestException {
@@ -0,0 +1,180 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.spatial.ogc.csw.catalog.endpoint.event;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.MetacardImpl;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import javax.ws.rs.HttpMethod;
+import org.junit.Before;
+import org.junit.Test;
+
+public class EventBatcherTest {
+
+  private static final String CALLBACK_URL = "https://localhost:12345/test";
+
+  private final List<Runnable> scheduledFlushes = new ArrayList<>();
+
+  private final List<String> sentOperations = new ArrayList<>();
+
+  private final List<List<Metacard>> sentBatches = new ArrayList<>();
+
+  private boolean deliverySucceeds = true;
+
+  private ScheduledExecutorService executor;
+
+  @Before
+  public void setUp() {
+    executor = mock(ScheduledExecutorService.class);
+    doAnswer(
+            invocation -> {
+              scheduledFlushes.add(invocation.getArgument(0));
+              return mock(ScheduledFuture.class);
+            })
+        .when(executor)
+        .schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+  }
+
+  @Test
+  public void testEventsForSameMetacardAreCombined() {
+    EventBatcher batcher = batcher(100, 100);
+    Metacard created = metacard("1");
+    Metacard updated = metacard("1");
+    Metacard other = metacard("2");
+    Metacard otherUpdated = metacard("2");
+
+    batcher.add(HttpMethod.POST, created, null);
+    batcher.add(HttpMethod.PUT, updated, created);
+    batcher.add(HttpMethod.PUT, other, metacard("2"));
+    batcher.add(HttpMethod.PUT, otherUpdated, other);
+    batcher.add(HttpMethod.POST, metacard("3"), null);
+    batcher.add(HttpMethod.DELETE, metacard("3"), null);
+    runScheduledFlushes();
+
+    assertThat(sentOperations, contains(HttpMethod.POST, HttpMethod.PUT));
+    assertThat(sentBatches.get(0), contains(updated));
+    assertThat(sentBatches.get(1), hasSize(2));
+    assertThat(sentBatches.get(1).get(0), is(otherUpdated));
+    assertThat(batcher.getPendingEventCount(), is(0));
+  }
+
+  @Test
+  public void testFullBatchesAreSplit() {
+    EventBatcher batcher = batcher(2, 100);
+
+    for (int i = 0; i < 5; i++) {
+      batcher.add(HttpMethod.POST, metacard(String.valueOf(i)), null);
+    }
+    runScheduledFlushes();
+
+    assertThat(sentBatches, hasSize(3));
+    assertThat(sentBatches.get(0), hasSize(2));
+    assertThat(sentBatches.get(2), hasSize(1));
+  }
+
+  @Test
+  public void testUnsentEventsAreRetried() {
+    EventBatcher batcher = batcher(100, 100);
+    Metacard created = metacard("1");
+    Metacard updated = metacard("1");
+
+    deliverySucceeds = false;
+    batcher.add(HttpMethod.POST, created, null);
+    runScheduledFlushes();
+    assertThat(batcher.getPendingEventCount(), is(1));
+
+    deliverySucceeds = true;
+    batcher.add(HttpMethod.PUT, updated, created);
+    runScheduledFlushes();
+
+    assertThat(sentOperations, contains(HttpMethod.POST));
+    assertThat(sentBatches.get(0), contains(updated));
+    assertThat(batcher.getPendingEventCount(), is(0));
+  }
+
+  @Test
+  public void testOldestEventsAreDroppedPastCapacity() {
+    EventBatcher batcher = batcher(2, 2);
+    Metacard second = metacard("2");
+    Metacard third = metacard("3");
+
+    deliverySucceeds = false;
+    batcher.add(HttpMethod.POST, metacard("1"), null);
+    batcher.add(HttpMethod.POST, second, null);
+    runScheduledFlushes();
+    batcher.add(HttpMethod.POST, third, null);
+    deliverySucceeds = true;
+    runScheduledFlushes();
+
+    assertThat(sentBatches, hasSize(1));
+    assertThat(sentBatches.get(0), contains(second, third));
+  }
+
+  @Test
+  public void testClosedBatcherDiscardsEvents() {
+    EventBatcher batcher = batcher(100, 100);
+
+    batcher.add(HttpMethod.POST, metacard("1"), null);
+    batcher.close();
+    batcher.add(HttpMethod.POST, metacard("2"), null);
+    runScheduledFlushes();
+
+    assertThat(sentBatches, is(empty()));
+    assertThat(batcher.getPendingEventCount(), is(0));
+  }
+
+  private EventBatcher batcher(int maxBatchSize, int maxPendingEvents) {
+    return new EventBatcher(
+        new EventBatchSettings(1000, maxBatchSize, maxPendingEvents, executor),
+        (operation, metacards) -> {
+          if (deliverySucceeds) {
+            sentOperations.add(operation);
+            sentBatches.add(metacards);
+          }
+          return deliverySucceeds;
+        },
+        CALLBACK_URL);
+  }
+
+  private void runScheduledFlushes() {
+    while (!scheduledFlushes.isEmpty()) {
+      List<Runnable> flushes = new ArrayList<>(scheduledFlushes);
+      scheduledFlushes.clear();
+      flushes.forEach(Runnable::run);
+      if (!deliverySucceeds) {
+        return;
+      }
+    }
+  }
+
+  private static Metacard metacard(String id) {
+    MetacardImpl metacard = new MetacardImpl();
+    metacard.setId(id);
+    return metacard;
+  }
+}
@@ -30,10 +30,12 @@
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.NoSuchElementException;
 import java.util.Optional;
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBElement;
@@ -53,6 +55,8 @@
 import org.codice.ddf.spatial.ogc.csw.catalog.common.transaction.CswTransactionRequest;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.transaction.DeleteActionImpl;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.transaction.InsertActionImpl;
+import org.codice.ddf.spatial.ogc.csw.catalog.common.transaction.StreamingCswTransactionRequest;
+import org.codice.ddf.spatial.ogc.csw.catalog.common.transaction.StreamingInsertAction;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.transaction.UpdateActionImpl;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.transformer.TransformerManager;
 
@@ -65,6 +69,8 @@ public class TransactionRequestConverter implements Converter {
 
   private AttributeRegistry registry;
 
+  private boolean streamInserts = false;
+
   public TransactionRequestConverter(Converter itp, AttributeRegistry registry) {
     this.delegatingTransformer = itp;
     this.registry = registry;
@@ -78,6 +84,15 @@ public void setCswRecordConverter(CswRecordConverter cswRecordConverter) {
     this.cswRecordConverter = cswRecordConverter;
   }
 
+  /**
+   * Sets whether transactions are unmarshalled as a {@link StreamingCswTransactionRequest}, whose
+   * inserted records are read one at a time as they are processed. The reader a streaming
+   * transaction is unmarshalled from must stay open until the transaction has been processed.
+   */
+  public void setStreamInserts(boolean streamInserts) {
+    this.streamInserts = streamInserts;
+  }
+
   @Override
   public void marshal(
       Object o, HierarchicalStreamWriter writer, MarshallingContext marshallingContext) {
@@ -130,7 +145,10 @@ public void marshal(
 
   @Override
   public Object unmarshal(HierarchicalStreamReader reader, UnmarshallingContext context) {
-    CswTransactionRequest cswTransactionRequest = new CswTransactionRequest();
+    CswTransactionRequest cswTransactionRequest =
+        streamInserts
+            ? new StreamingCswTransactionRequest(new StreamingActionReader(reader, context))
+            : new CswTransactionRequest();
 
     cswTransactionRequest.setVersion(reader.getAttribute(CswConstants.VERSION));
     cswTransactionRequest.setService(reader.getAttribute(CswConstants.SERVICE));
@@ -139,6 +157,11 @@ public Object unmarshal(HierarchicalStreamReader reader, UnmarshallingContext co
 
     XStreamAttributeCopier.copyXmlNamespaceDeclarationsIntoContext(reader, context);
 
+    if (streamInserts) {
+      // the actions are read as the insert actions are streamed
+      return cswTransactionRequest;
+    }
+
     while (reader.hasMoreChildren()) {
       reader.moveDown();
 
@@ -166,26 +189,12 @@ public Object unmarshal(HierarchicalStreamReader reader, UnmarshallingContext co
         cswTransactionRequest
             .getInsertActions()
             .add(new InsertActionImpl(typeName, handle, metacards));
-      } else if (reader.getNodeName().contains("Delete")) {
-        XStreamAttributeCopier.copyXmlNamespaceDeclarationsIntoContext(reader, context);
-
-        Map<String, String> xmlnsAttributeToUriMappings =
-            getXmlnsAttributeToUriMappingsFromContext(context);
-        Map<String, String> prefixToUriMappings =
-            getPrefixToUriMappingsFromXmlnsAttributes(xmlnsAttributeToUriMappings);
-
-        StringWriter writer = new StringWriter();
-        XStreamAttributeCopier.copyXml(reader, writer, xmlnsAttributeToUriMappings);
-
-        DeleteType deleteType = getElementFromXml(writer.toString(), DeleteType.class);
-
-        cswTransactionRequest
-            .getDeleteActions()
-            .add(new DeleteActionImpl(deleteType, prefixToUriMappings));
-      } else if (reader.getNodeName().contains("Update")) {
-        XStreamAttributeCopier.copyXmlNamespaceDeclarationsIntoContext(reader, context);
-        UpdateAction updateAction = parseUpdateAction(reader, context);
-        cswTransactionRequest.getUpdateActions().add(updateAction);
+      } else {
+        parseDeleteOrUpdateAction(
+            reader,
+            context,
+            cswTransactionRequest.getUpdateActions(),
+            cswTransactionRequest.getDeleteActions());
       }
       reader.moveUp();
     }
@@ -193,6 +202,32 @@ public Object unmarshal(HierarchicalStreamReader reader, UnmarshallingContext co
     return cswTransactionRequest;
   }
 
+  private void parseDeleteOrUpdateAction(
+      HierarchicalStreamReader reader,
+      UnmarshallingContext context,
+      List<UpdateAction> updateActions,
+      List<DeleteAction> deleteActions) {
+    if (reader.getNodeName().contains("Delete")) {
+      XStreamAttributeCopier.copyXmlNamespaceDeclarationsIntoContext(reader, context);
+
+      Map<String, String> xmlnsAttributeToUriMappings =
+          getXmlnsAttributeToUriMappingsFromContext(context);
+      Map<String, String> prefixToUriMappings =
+          getPrefixToUriMappingsFromXmlnsAttributes(xmlnsAttributeToUriMappings);
+
+      StringWriter writer = new StringWriter();
+      XStreamAttributeCopier.copyXml(reader, writer, xmlnsAttributeToUriMappings);
+
+      DeleteType deleteType = getElementFromXml(writer.toString(), DeleteType.class);
+
+      deleteActions.add(new DeleteActionImpl(deleteType, prefixToUriMappings));
+    } else if (reader.getNodeName().contains("Update")) {
+      XStreamAttributeCopier.copyXmlNamespaceDeclarationsIntoContext(reader, context);
+      UpdateAction updateAction = parseUpdateAction(reader, context);
+      updateActions.add(updateAction);
+    }
+  }
+
   private UpdateAction parseUpdateAction(
       HierarchicalStreamReader reader, UnmarshallingContext context) {
     Map<String, String> xmlnsAttributeToUriMappings =
@@ -434,4 +469,103 @@ private Map<String, String> getPrefixToUriMappingsFromXmlnsAttributes(
   public boolean canConvert(Class aClass) {
     return CswTransactionRequest.class.isAssignableFrom(aClass);
   }
+
+  /** Reads the actions of a streaming transaction from where its reader was left. */
+  private class StreamingActionReader implements StreamingCswTransactionRequest.ActionReader {
+
+    private final HierarchicalStreamReader reader;
+
+    private final UnmarshallingContext context;
+
+    private RecordIterator records;
+
+    private StreamingActionReader(HierarchicalStreamReader reader, UnmarshallingContext context) {
+      this.reader = reader;
+      this.context = context;
+    }
+
+    @Override
+    public StreamingInsertAction readNextInsertAction(
+        List<UpdateAction> updateActions, List<DeleteAction> deleteActions) {
+      if (records != null) {
+        records.skipRemaining();
+        records = null;
+      }
+
+      while (reader.hasMoreChildren()) {
+        reader.moveDown();
+
+        if (reader.getNodeName().contains("Insert")) {
+          String typeName =
+              StringUtils.defaultIfEmpty(
+                  reader.getAttribute(CswConstants.TYPE_NAME_PARAMETER), CswConstants.CSW_RECORD);
+          String handle =
+              StringUtils.defaultIfEmpty(reader.getAttribute(CswConstants.HANDLE_PARAMETER), "");
+          context.put(CswConstants.TRANSFORMER_LOOKUP_KEY, TransformerManager.ID);
+          context.put(CswConstants.TRANSFORMER_LOOKUP_VALUE, typeName);
+          // the reader is left on the <Insert> until its records have been read
+          records = new RecordIterator(reader, context);
+          return new StreamingInsertAction(typeName, handle, records);
+        }
+
+        parseDeleteOrUpdateAction(reader, context, updateActions, deleteActions);
+        reader.moveUp();
+      }
+      return null;
+    }
+  }
+
+  /** Converts the records of an insert action into metacards one at a time. */
+  private class RecordIterator implements Iterator<Metacard> {
+
+    private final HierarchicalStreamReader reader;
+
+    private final UnmarshallingContext context;
+
+    private Metacard next;
+
+    private boolean done = false;
+
+    private RecordIterator(HierarchicalStreamReader reader, UnmarshallingContext context) {
+      this.reader = reader;
+      this.context = context;
+    }
+
+    @Override
+    public boolean hasNext() {
+      while (next == null && !done) {
+        if (reader.hasMoreChildren()) {
+          reader.moveDown(); // move down to the record's tag
+          next = (Metacard) context.convertAnother(null, MetacardImpl.class, delegatingTransformer);
+          reader.moveUp();
+        } else {
+          // move back up to the <Transaction>
+          reader.moveUp();
+          done = true;
+        }
+      }
+      return next != null;
+    }
+
+    @Override
+    public Metacard next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      Metacard metacard = next;
+      next = null;
+      return metacard;
+    }
+
+    private void skipRemaining() {
+      if (!done) {
+        while (reader.hasMoreChildren()) {
+          reader.moveDown();
+          reader.moveUp();
+        }
+        reader.moveUp();
+        done = true;
+      }
+    }
+  }
 }
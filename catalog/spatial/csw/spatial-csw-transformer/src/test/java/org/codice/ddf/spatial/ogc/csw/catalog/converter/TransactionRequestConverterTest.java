@@ -16,6 +16,7 @@
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.emptyCollectionOf;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.mockito.ArgumentMatchers.any;
@@ -26,6 +27,7 @@
 import com.thoughtworks.xstream.converters.Converter;
 import com.thoughtworks.xstream.io.xml.Xpp3Driver;
 import ddf.catalog.data.AttributeRegistry;
+import ddf.catalog.data.Metacard;
 import ddf.catalog.data.impl.AttributeRegistryImpl;
 import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.data.impl.types.AssociationsAttributes;
@@ -35,7 +37,9 @@
 import ddf.catalog.data.impl.types.MediaAttributes;
 import ddf.catalog.data.impl.types.TopicAttributes;
 import java.io.IOException;
+import java.io.StringReader;
 import java.util.Arrays;
+import java.util.Iterator;
 import net.opengis.cat.csw.v_2_0_2.DeleteType;
 import net.opengis.cat.csw.v_2_0_2.QueryConstraintType;
 import org.apache.commons.io.IOUtils;
@@ -46,6 +50,8 @@
 import org.codice.ddf.spatial.ogc.csw.catalog.common.transaction.CswTransactionRequest;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.transaction.DeleteActionImpl;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.transaction.InsertActionImpl;
+import org.codice.ddf.spatial.ogc.csw.catalog.common.transaction.StreamingCswTransactionRequest;
+import org.codice.ddf.spatial.ogc.csw.catalog.common.transaction.StreamingInsertAction;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.transaction.UpdateActionImpl;
 import org.custommonkey.xmlunit.Diff;
 import org.custommonkey.xmlunit.XMLUnit;
@@ -267,4 +273,76 @@ public void testUnmarshalDelete() throws Exception {
     DeleteAction action = request.getDeleteActions().get(0);
     assertThat(action.getTypeName(), is(CswConstants.CSW_RECORD));
   }
+
+  @Test
+  public void testUnmarshalStreamingInserts() throws Exception {
+    String transaction =
+        "<csw:Transaction service=\"CSW\" version=\"2.0.2\" verboseResponse=\"true\""
+            + " xmlns:csw=\"http://www.opengis.net/cat/csw/2.0.2\""
+            + " xmlns:ogc=\"http://www.opengis.net/ogc\">"
+            + "<csw:Insert handle=\"first\"><csw:Record/><csw:Record/><csw:Record/></csw:Insert>"
+            + "<csw:Delete typeName=\"csw:Record\"><csw:Constraint version=\"2.0.0\">"
+            + "<ogc:Filter><ogc:PropertyIsEqualTo><ogc:PropertyName>title</ogc:PropertyName>"
+            + "<ogc:Literal>foo</ogc:Literal></ogc:PropertyIsEqualTo></ogc:Filter>"
+            + "</csw:Constraint></csw:Delete>"
+            + "<csw:Insert handle=\"second\"><csw:Record/></csw:Insert>"
+            + "</csw:Transaction>";
+    when(cswRecordConverter.unmarshal(any(), any())).thenAnswer(invocation -> new MetacardImpl());
+    TransactionRequestConverter converter =
+        new TransactionRequestConverter(cswRecordConverter, mockRegistry);
+    converter.setStreamInserts(true);
+    xStream.registerConverter(converter);
+
+    CswTransactionRequest request =
+        (CswTransactionRequest)
+            xStream.unmarshal(new Xpp3Driver().createReader(new StringReader(transaction)));
+
+    assertThat(request, instanceOf(StreamingCswTransactionRequest.class));
+    assertThat(request.isVerbose(), is(true));
+    Iterator<StreamingInsertAction> insertActions =
+        ((StreamingCswTransactionRequest) request).getStreamingInsertActions();
+
+    StreamingInsertAction first = insertActions.next();
+    assertThat(first.getHandle(), is("first"));
+    assertThat(first.getTypeName(), is(CswConstants.CSW_RECORD));
+    assertThat(first.getRecords().next(), notNullValue());
+
+    // the records of the first insert that were not read are skipped
+    StreamingInsertAction second = insertActions.next();
+    assertThat(second.getHandle(), is("second"));
+    assertThat(countRecords(second.getRecords()), is(1));
+    assertThat(insertActions.hasNext(), is(false));
+
+    assertThat(request.getDeleteActions(), hasSize(1));
+    assertThat(request.getUpdateActions(), emptyCollectionOf(UpdateAction.class));
+  }
+
+  @Test
+  public void testUnmarshalStreamingInsertsReadAll() throws Exception {
+    String insertRequest =
+        IOUtils.toString(
+            TransactionRequestConverterTest.class.getResourceAsStream("/insertRequest.xml"));
+    when(cswRecordConverter.unmarshal(any(), any())).thenAnswer(invocation -> new MetacardImpl());
+    TransactionRequestConverter converter =
+        new TransactionRequestConverter(cswRecordConverter, mockRegistry);
+    converter.setStreamInserts(true);
+    xStream.registerConverter(converter);
+
+    CswTransactionRequest request =
+        (CswTransactionRequest)
+            xStream.unmarshal(new Xpp3Driver().createReader(new StringReader(insertRequest)));
+
+    assertThat(request.getDeleteActions(), emptyCollectionOf(DeleteAction.class));
+    assertThat(request.getInsertActions(), hasSize(1));
+    assertThat(request.getInsertActions().get(0).getRecords(), hasSize(1));
+  }
+
+  private static int countRecords(Iterator<Metacard> records) {
+    int count = 0;
+    while (records.hasNext()) {
+      records.next();
+      count++;
+    }
+    return count;
+  }
 }
@@ -0,0 +1,528 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.spatial.geocoding.query;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.IntPredicate;
+import java.util.regex.Pattern;
+import org.apache.commons.lang3.StringUtils;
+import org.codice.ddf.spatial.geocoding.GeoCodingConstants;
+import org.codice.ddf.spatial.geocoding.GeoEntry;
+
+/**
+ * An immutable, in-memory index of gazetteer entries.
+ *
+ * <p>Entry data is held column-wise in primitive arrays. Name lookups use a sorted array of
+ * normalized name keys (one key per word boundary of each name), so a prefix lookup is two binary
+ * searches followed by a scan of the matching range. Spatial lookups use a fixed one-degree grid
+ * stored in compressed-row form, so a radius search only visits the cells overlapping the search
+ * area.
+ *
+ * <p>Instances are built once with {@link #builder()} and are safe to share between threads.
+ */
+public final class GazetteerIndex {
+
+  static final double EARTH_RADIUS_KM = 6371.0088;
+
+  private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+  private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+  private static final int GRID_ROWS = 180;
+
+  private static final int GRID_COLUMNS = 360;
+
+  private final String[] ids;
+
+  private final String[] titles;
+
+  private final String[] countryCodes;
+
+  private final double[] latitudes;
+
+  private final double[] longitudes;
+
+  private final long[] populations;
+
+  private final int[] gazetteerSorts;
+
+  private final short[] featureCodes;
+
+  private final String[] featureCodeTable;
+
+  private final BitSet cities;
+
+  private final Map<String, Integer> idToEntry;
+
+  private final String[] nameKeys;
+
+  private final int[] nameKeyEntries;
+
+  private final int[] cellStarts;
+
+  private final int[] cellEntries;
+
+  private GazetteerIndex(Builder builder) {
+    List<PendingEntry> entries = new ArrayList<>(builder.entries.values());
+    int size = entries.size();
+    ids = new String[size];
+    titles = new String[size];
+    countryCodes = new String[size];
+    latitudes = new double[size];
+    longitudes = new double[size];
+    populations = new long[size];
+    gazetteerSorts = new int[size];
+    featureCodes = new short[size];
+    cities = new BitSet(size);
+    idToEntry = new HashMap<>(size * 2);
+
+    Map<String, Short> featureCodeOrdinals = new LinkedHashMap<>();
+    List<NameKey> keys = new ArrayList<>(size * 2);
+    int[] cellCounts = new int[GRID_ROWS * GRID_COLUMNS + 1];
+
+    for (int i = 0; i < size; i++) {
+      PendingEntry pending = entries.get(i);
+      GeoEntry geoEntry = pending.geoEntry;
+      ids[i] = pending.id;
+      titles[i] = pending.title;
+      countryCodes[i] = geoEntry.getCountryCode();
+      latitudes[i] = geoEntry.getLatitude() == null ? Double.NaN : geoEntry.getLatitude();
+      longitudes[i] = geoEntry.getLongitude() == null ? Double.NaN : geoEntry.getLongitude();
+      populations[i] = geoEntry.getPopulation();
+      gazetteerSorts[i] = pending.gazetteerSort;
+
+      String featureCode = StringUtils.defaultString(geoEntry.getFeatureCode());
+      featureCodes[i] =
+          featureCodeOrdinals.computeIfAbsent(
+              featureCode, code -> (short) featureCodeOrdinals.size());
+      if (GeoCodingConstants.CITY_FEATURE_CODES.contains(featureCode)) {
+        cities.set(i);
+      }
+
+      idToEntry.put(pending.id, i);
+
+      for (String key : nameKeysFor(pending.title, countryCodes[i])) {
+        keys.add(new NameKey(key, i));
+      }
+
+      if (hasLocation(i)) {
+        cellCounts[cellOf(latitudes[i], longitudes[i]) + 1]++;
+      }
+    }
+
+    featureCodeTable = featureCodeOrdinals.keySet().toArray(new String[0]);
+
+    keys.sort(Comparator.comparing((NameKey key) -> key.key).thenComparingInt(key -> key.entry));
+    nameKeys = new String[keys.size()];
+    nameKeyEntries = new int[keys.size()];
+    for (int i = 0; i < keys.size(); i++) {
+      nameKeys[i] = keys.get(i).key;
+      nameKeyEntries[i] = keys.get(i).entry;
+    }
+
+    cellStarts = cellCounts;
+    for (int i = 1; i < cellStarts.length; i++) {
+      cellStarts[i] += cellStarts[i - 1];
+    }
+    cellEntries = new int[cellStarts[cellStarts.length - 1]];
+    int[] cellFill = Arrays.copyOf(cellStarts, cellStarts.length - 1);
+    for (int i = 0; i < size; i++) {
+      if (hasLocation(i)) {
+        cellEntries[cellFill[cellOf(latitudes[i], longitudes[i])]++] = i;
+      }
+    }
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /** @return the number of entries in this index */
+  public int size() {
+    return ids.length;
+  }
+
+  /**
+   * Finds the entries with a name word starting with the normalized {@code prefix}.
+   *
+   * @param prefix the search text
+   * @param maxResults the maximum number of entries to return
+   * @param ordering the order in which to return matches
+   * @return matching entry numbers, best first
+   */
+  int[] findByNamePrefix(String prefix, int maxResults, EntryOrder ordering) {
+    String normalized = normalize(prefix);
+    if (normalized.isEmpty() || maxResults <= 0) {
+      return new int[0];
+    }
+
+    int from = lowerBound(normalized);
+    int to = lowerBound(normalized + Character.MAX_VALUE);
+
+    // an entry has a key per word, so it can be in the range more than once
+    BestEntries best = new BestEntries(Math.min(maxResults, to - from), ordering);
+    for (int i = from; i < to; i++) {
+      best.offerDistinct(nameKeyEntries[i]);
+    }
+    return best.drain();
+  }
+
+  /**
+   * Finds the entries within {@code radiusInKm} of the given point that match {@code filter}.
+   *
+   * @return matching entry numbers, ordered by {@code ordering}
+   */
+  int[] findWithinRadius(
+      double latitude,
+      double longitude,
+      double radiusInKm,
+      int maxResults,
+      IntPredicate filter,
+      EntryOrder ordering) {
+    if (maxResults <= 0 || radiusInKm <= 0) {
+      return new int[0];
+    }
+
+    double latDelta = Math.toDegrees(radiusInKm / EARTH_RADIUS_KM);
+    int minRow = rowOf(Math.max(-90, latitude - latDelta));
+    int maxRow = rowOf(Math.min(90, latitude + latDelta));
+
+    double cosLat =
+        Math.min(
+            Math.cos(Math.toRadians(Math.min(90, Math.abs(latitude) + latDelta))),
+            Math.cos(Math.toRadians(latitude)));
+    boolean allColumns = cosLat <= 0 || latDelta / Math.max(cosLat, 1e-9) >= 180;
+    double lonDelta = allColumns ? 180 : latDelta / cosLat;
+
+    BestEntries best = new BestEntries(Math.min(maxResults, cellEntries.length), ordering);
+    for (int row = minRow; row <= maxRow; row++) {
+      if (allColumns) {
+        for (int column = 0; column < GRID_COLUMNS; column++) {
+          visitCell(row * GRID_COLUMNS + column, latitude, longitude, radiusInKm, filter, best);
+        }
+      } else {
+        int firstColumn = (int) Math.floor(longitude - lonDelta + 180);
+        int lastColumn = (int) Math.floor(longitude + lonDelta + 180);
+        for (int column = firstColumn; column <= lastColumn; column++) {
+          int wrapped = Math.floorMod(column, GRID_COLUMNS);
+          visitCell(row * GRID_COLUMNS + wrapped, latitude, longitude, radiusInKm, filter, best);
+        }
+      }
+    }
+    return best.drain();
+  }
+
+  private void visitCell(
+      int cell,
+      double latitude,
+      double longitude,
+      double radiusInKm,
+      IntPredicate filter,
+      BestEntries best) {
+    for (int i = cellStarts[cell]; i < cellStarts[cell + 1]; i++) {
+      int entry = cellEntries[i];
+      if (filter.test(entry)
+          && distanceInKm(latitude, longitude, latitudes[entry], longitudes[entry]) <= radiusInKm) {
+        best.offer(entry);
+      }
+    }
+  }
+
+  Integer entryForId(String id) {
+    return idToEntry.get(id);
+  }
+
+  String id(int entry) {
+    return ids[entry];
+  }
+
+  String title(int entry) {
+    return titles[entry];
+  }
+
+  String countryCode(int entry) {
+    return countryCodes[entry];
+  }
+
+  double latitude(int entry) {
+    return latitudes[entry];
+  }
+
+  double longitude(int entry) {
+    return longitudes[entry];
+  }
+
+  long population(int entry) {
+    return populations[entry];
+  }
+
+  int gazetteerSort(int entry) {
+    return gazetteerSorts[entry];
+  }
+
+  String featureCode(int entry) {
+    return featureCodeTable[featureCodes[entry]];
+  }
+
+  boolean isCity(int entry) {
+    return cities.get(entry);
+  }
+
+  /** Orders entries by descending population. */
+  EntryOrder byPopulation() {
+    return (a, b) -> Long.compare(populations[b], populations[a]);
+  }
+
+  /** Orders entries by feature code, then descending population, as the catalog query does. */
+  EntryOrder byFeatureCodeThenPopulation() {
+    EntryOrder byFeatureCode =
+        (a, b) -> featureCodes[a] == featureCodes[b] ? 0 : featureCode(a).compareTo(featureCode(b));
+    return byFeatureCode.thenComparing(byPopulation());
+  }
+
+  static double distanceInKm(double lat1, double lon1, double lat2, double lon2) {
+    double dLat = Math.toRadians(lat2 - lat1);
+    double dLon = Math.toRadians(lon2 - lon1);
+    double a =
+        Math.sin(dLat / 2) * Math.sin(dLat / 2)
+            + Math.cos(Math.toRadians(lat1))
+                * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2)
+                * Math.sin(dLon / 2);
+    return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+  }
+
+  static String normalize(String text) {
+    if (text == null) {
+      return "";
+    }
+    String stripped =
+        DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+    return NON_WORD.matcher(stripped.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+  }
+
+  /**
+   * Produces one key per word of {@code title}, each running from that word to the end of the
+   * title, so that "New York, US" can be found by both "new y" and "york". A trailing country code
+   * does not get a key of its own, otherwise every entry in a country would match its code.
+   */
+  private static Collection<String> nameKeysFor(String title, String countryCode) {
+    String normalized = normalize(title);
+    List<String> keys = new ArrayList<>();
+    if (normalized.isEmpty()) {
+      return keys;
+    }
+    String normalizedCountryCode = normalize(countryCode);
+    keys.add(normalized);
+    for (int i = normalized.indexOf(' '); i >= 0; i = normalized.indexOf(' ', i + 1)) {
+      String key = normalized.substring(i + 1);
+      if (!key.equals(normalizedCountryCode)) {
+        keys.add(key);
+      }
+    }
+    return keys;
+  }
+
+  private int lowerBound(String key) {
+    int low = 0;
+    int high = nameKeys.length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (nameKeys[mid].compareTo(key) < 0) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  private boolean hasLocation(int entry) {
+    return !Double.isNaN(latitudes[entry]) && !Double.isNaN(longitudes[entry]);
+  }
+
+  private static int rowOf(double latitude) {
+    return Math.min(GRID_ROWS - 1, (int) Math.floor(latitude + 90));
+  }
+
+  private static int cellOf(double latitude, double longitude) {
+    int column = Math.floorMod((int) Math.floor(longitude + 180), GRID_COLUMNS);
+    return Math.max(0, rowOf(latitude)) * GRID_COLUMNS + column;
+  }
+
+  /** Orders entry numbers, like a {@link Comparator} that does not box them. */
+  @FunctionalInterface
+  interface EntryOrder {
+    int compare(int entry, int other);
+
+    default EntryOrder thenComparing(EntryOrder next) {
+      return (entry, other) -> {
+        int comparison = compare(entry, other);
+        return comparison != 0 ? comparison : next.compare(entry, other);
+      };
+    }
+  }
+
+  /** The best entries offered so far, in a binary heap with the worst of them at the root. */
+  private static final class BestEntries {
+    private final int[] heap;
+
+    private final EntryOrder ordering;
+
+    private int size;
+
+    private BestEntries(int maxResults, EntryOrder ordering) {
+      this.heap = new int[maxResults];
+      this.ordering = ordering;
+    }
+
+    private void offer(int entry) {
+      if (size < heap.length) {
+        heap[size] = entry;
+        siftUp(size++);
+      } else if (size > 0 && ordering.compare(entry, heap[0]) < 0) {
+        heap[0] = entry;
+        siftDown(0);
+      }
+    }
+
+    /**
+     * Offers an entry that may have been offered before. Only entries that would be kept are looked
+     * for in the heap, which holds at most the maximum number of results.
+     */
+    private void offerDistinct(int entry) {
+      boolean kept = size < heap.length || (size > 0 && ordering.compare(entry, heap[0]) < 0);
+      if (kept && !contains(entry)) {
+        offer(entry);
+      }
+    }
+
+    private boolean contains(int entry) {
+      for (int i = 0; i < size; i++) {
+        if (heap[i] == entry) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    /** @return the entries, best first */
+    private int[] drain() {
+      int[] results = new int[size];
+      for (int i = results.length - 1; i >= 0; i--) {
+        results[i] = heap[0];
+        heap[0] = heap[--size];
+        siftDown(0);
+      }
+      return results;
+    }
+
+    private void siftUp(int index) {
+      while (index > 0) {
+        int parent = (index - 1) >>> 1;
+        if (ordering.compare(heap[index], heap[parent]) <= 0) {
+          return;
+        }
+        swap(index, parent);
+        index = parent;
+      }
+    }
+
+    private void siftDown(int index) {
+      while (true) {
+        int worst = index;
+        for (int child = 2 * index + 1; child <= 2 * index + 2 && child < size; child++) {
+          if (ordering.compare(heap[child], heap[worst]) > 0) {
+            worst = child;
+          }
+        }
+        if (worst == index) {
+          return;
+        }
+        swap(index, worst);
+        index = worst;
+      }
+    }
+
+    private void swap(int i, int j) {
+      int entry = heap[i];
+      heap[i] = heap[j];
+      heap[j] = entry;
+    }
+  }
+
+  private static final class NameKey {
+    private final String key;
+
+    private final int entry;
+
+    private NameKey(String key, int entry) {
+      this.key = key;
+      this.entry = entry;
+    }
+  }
+
+  private static final class PendingEntry {
+    private final String id;
+
+    private final String title;
+
+    private final int gazetteerSort;
+
+    private final GeoEntry geoEntry;
+
+    private PendingEntry(String id, String title, int gazetteerSort, GeoEntry geoEntry) {
+      this.id = id;
+      this.title = title;
+      this.gazetteerSort = gazetteerSort;
+      this.geoEntry = geoEntry;
+    }
+  }
+
+  public static final class Builder {
+    private final Map<String, PendingEntry> entries = new LinkedHashMap<>();
+
+    private Builder() {}
+
+    /**
+     * Adds an entry to the index, replacing any entry added earlier with the same id.
+     *
+     * @param id the identifier of the gazetteer metacard
+     * @param title the display name of the entry, used for name lookups and suggestions
+     * @param gazetteerSort the gazetteer sort value of the entry
+     * @param geoEntry the entry
+     * @return this builder
+     */
+    public Builder add(String id, String title, int gazetteerSort, GeoEntry geoEntry) {
+      if (StringUtils.isNotBlank(id) && geoEntry != null) {
+        entries.put(id, new PendingEntry(id, title, gazetteerSort, geoEntry));
+      }
+      return this;
+    }
+
+    public GazetteerIndex build() {
+      return new GazetteerIndex(this);
+    }
+  }
+}
@@ -14,6 +14,7 @@
 package org.codice.ddf.spatial.geocoding.query;
 
 import static ddf.catalog.Constants.ADDITIONAL_SORT_BYS;
+import static ddf.catalog.Constants.RESULT_ATTRIBUTES;
 import static ddf.catalog.Constants.SUGGESTION_CONTEXT_KEY;
 import static ddf.catalog.Constants.SUGGESTION_DICT_KEY;
 import static ddf.catalog.Constants.SUGGESTION_QUERY_KEY;
@@ -91,6 +92,16 @@ public class GazetteerQueryCatalog implements GeoEntryQueryable {
 
   private static final long TIMEOUT = 10000L;
 
+  /** The attributes of gazetteer metacards that geo entries and nearby locations are made from. */
+  private static final String[] GEO_ENTRY_ATTRIBUTES = {
+    GeoEntryAttributes.FEATURE_CODE_ATTRIBUTE_NAME,
+    Location.COUNTRY_CODE,
+    Core.TITLE,
+    GeoEntryAttributes.POPULATION_ATTRIBUTE_NAME,
+    GeoEntryAttributes.GAZETTEER_SORT_VALUE,
+    Core.LOCATION
+  };
+
   private CatalogFramework catalogFramework;
 
   private FilterBuilder filterBuilder;
@@ -122,7 +133,7 @@ public GazetteerQueryCatalog(CatalogFramework catalogFramework, FilterBuilder fi
   public List<GeoEntry> query(String queryString, int maxResults) throws GeoEntryQueryException {
     Filter textFilter = filterBuilder.attribute(Core.TITLE).is().like().text(queryString);
     Filter queryFilter = filterBuilder.allOf(tagFilter, textFilter);
-    Map<String, Serializable> properties = new HashMap<>();
+    Map<String, Serializable> properties = geoEntryProperties();
 
     SortBy featureCodeSortBy =
         new SortByImpl(GeoEntryAttributes.FEATURE_CODE_ATTRIBUTE_NAME, SortOrder.ASCENDING);
@@ -158,7 +169,9 @@ public GeoEntry queryById(String id) throws GeoEntryQueryException {
 
     QueryResponse queryResponse;
     try {
-      queryResponse = catalogFramework.query(new QueryRequestImpl(new QueryImpl(queryFilter)));
+      queryResponse =
+          catalogFramework.query(
+              new QueryRequestImpl(new QueryImpl(queryFilter), geoEntryProperties()));
     } catch (UnsupportedQueryException | SourceUnavailableException | FederationException e) {
       throw new GeoEntryQueryException(ERROR_MESSAGE, e);
     }
@@ -203,7 +216,17 @@ public List<Suggestion> getSuggestedNames(String queryString, int maxResults)
     return Collections.emptyList();
   }
 
-  private GeoEntry transformMetacardToGeoEntry(Metacard metacard) {
+  /**
+   * @return query request properties asking for only the attributes of gazetteer metacards that
+   *     {@link #transformMetacardToGeoEntry(Metacard)} reads
+   */
+  static Map<String, Serializable> geoEntryProperties() {
+    Map<String, Serializable> properties = new HashMap<>();
+    properties.put(RESULT_ATTRIBUTES, GEO_ENTRY_ATTRIBUTES.clone());
+    return properties;
+  }
+
+  GeoEntry transformMetacardToGeoEntry(Metacard metacard) {
     GeoEntry.Builder geoEntryBuilder = new GeoEntry.Builder();
     String featureCode =
         getStringAttributeFromMetacard(metacard, GeoEntryAttributes.FEATURE_CODE_ATTRIBUTE_NAME);
@@ -274,7 +297,7 @@ public List<NearbyLocation> getNearestCities(String location, int radiusInKm, in
 
     Filter queryFilter = filterBuilder.allOf(featureCodeFilter, tagFilter, textFilter);
     Query query = new QueryImpl(queryFilter, 1, maxResults, SortBy.NATURAL_ORDER, false, TIMEOUT);
-    QueryRequest queryRequest = new QueryRequestImpl(query);
+    QueryRequest queryRequest = new QueryRequestImpl(query, geoEntryProperties());
 
     QueryResponse queryResponse;
     try {
@@ -0,0 +1,387 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.spatial.geocoding.query;
+
+import static ddf.catalog.Constants.ADDITIONAL_SORT_BYS;
+import static org.codice.ddf.spatial.geocoding.GeoCodingConstants.GAZETTEER_METACARD_TAG;
+
+import ddf.catalog.CatalogFramework;
+import ddf.catalog.data.Attribute;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.Result;
+import ddf.catalog.data.types.Core;
+import ddf.catalog.federation.FederationException;
+import ddf.catalog.filter.FilterBuilder;
+import ddf.catalog.filter.impl.SortByImpl;
+import ddf.catalog.operation.QueryRequest;
+import ddf.catalog.operation.QueryResponse;
+import ddf.catalog.operation.impl.QueryImpl;
+import ddf.catalog.operation.impl.QueryRequestImpl;
+import ddf.catalog.source.SourceUnavailableException;
+import ddf.catalog.source.UnsupportedQueryException;
+import ddf.security.service.SecurityServiceException;
+import java.io.Serializable;
+import java.lang.reflect.InvocationTargetException;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.lang3.StringUtils;
+import org.codice.ddf.security.Security;
+import org.codice.ddf.spatial.geocoding.GeoEntry;
+import org.codice.ddf.spatial.geocoding.GeoEntryAttributes;
+import org.codice.ddf.spatial.geocoding.GeoEntryQueryException;
+import org.codice.ddf.spatial.geocoding.GeoEntryQueryable;
+import org.codice.ddf.spatial.geocoding.Suggestion;
+import org.codice.ddf.spatial.geocoding.context.NearbyLocation;
+import org.codice.ddf.spatial.geocoding.context.impl.NearbyLocationImpl;
+import org.codice.ddf.spatial.geocoding.context.impl.SuggestionImpl;
+import org.geotools.api.filter.Filter;
+import org.geotools.api.filter.sort.SortBy;
+import org.geotools.api.filter.sort.SortOrder;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.io.WKTReader;
+import org.locationtech.spatial4j.context.SpatialContext;
+import org.locationtech.spatial4j.shape.impl.PointImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link GeoEntryQueryable} that answers gazetteer queries from a {@link GazetteerIndex} held in
+ * memory instead of sending every lookup through the {@link CatalogFramework}.
+ *
+ * <p>The index is loaded from the gazetteer metacards created by the GeoNames indexer, and is
+ * reloaded in the background whenever the number of gazetteer metacards in the catalog or the
+ * latest of their {@link Core#METACARD_MODIFIED} dates changes. Until the first load completes, and
+ * for country code lookups (which need the country shapes that are not held in memory), calls are
+ * passed on to the catalog-backed delegate.
+ */
+public class InMemoryGazetteerQueryCatalog implements GeoEntryQueryable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(InMemoryGazetteerQueryCatalog.class);
+
+  private static final SpatialContext SPATIAL_CONTEXT = SpatialContext.GEO;
+
+  private static final ThreadLocal<WKTReader> WKT_READER_THREAD_LOCAL =
+      ThreadLocal.withInitial(WKTReader::new);
+
+  private static final int PAGE_SIZE = 1000;
+
+  private static final long REFRESH_INTERVAL_MINUTES = 10;
+
+  private static final long TIMEOUT = 60000L;
+
+  private static final SortBy MODIFIED_ASCENDING =
+      new SortByImpl(Core.METACARD_MODIFIED, SortOrder.ASCENDING);
+
+  private static final SortBy MODIFIED_DESCENDING =
+      new SortByImpl(Core.METACARD_MODIFIED, SortOrder.DESCENDING);
+
+  private static final SortBy ID_ASCENDING = new SortByImpl(Core.ID, SortOrder.ASCENDING);
+
+  private final CatalogFramework catalogFramework;
+
+  private final GazetteerQueryCatalog delegate;
+
+  private final ScheduledExecutorService executor;
+
+  private final Security security;
+
+  private final FilterBuilder filterBuilder;
+
+  private final Filter tagFilter;
+
+  private final Filter modifiedFilter;
+
+  private final Filter unmodifiedFilter;
+
+  private volatile GazetteerIndex index;
+
+  private long indexedHits = -1;
+
+  private Date indexedModified;
+
+  public InMemoryGazetteerQueryCatalog(
+      CatalogFramework catalogFramework,
+      FilterBuilder filterBuilder,
+      GazetteerQueryCatalog delegate,
+      ScheduledExecutorService executor,
+      Security security) {
+    this.catalogFramework = catalogFramework;
+    this.delegate = delegate;
+    this.executor = executor;
+    this.security = security;
+    this.filterBuilder = filterBuilder;
+    this.tagFilter =
+        filterBuilder.attribute(Core.METACARD_TAGS).is().like().text(GAZETTEER_METACARD_TAG);
+    Filter noModifiedDate = filterBuilder.attribute(Core.METACARD_MODIFIED).empty();
+    this.modifiedFilter = filterBuilder.allOf(tagFilter, filterBuilder.not(noModifiedDate));
+    this.unmodifiedFilter = filterBuilder.allOf(tagFilter, noModifiedDate);
+  }
+
+  public void init() {
+    executor.scheduleWithFixedDelay(
+        this::refreshAsSystem, 0, REFRESH_INTERVAL_MINUTES, TimeUnit.MINUTES);
+  }
+
+  public void destroy() {
+    executor.shutdownNow();
+  }
+
+  @Override
+  public List<GeoEntry> query(String queryString, int maxResults) throws GeoEntryQueryException {
+    GazetteerIndex current = index;
+    if (current == null) {
+      return delegate.query(queryString, maxResults);
+    }
+
+    List<GeoEntry> geoEntries = new ArrayList<>();
+    for (int entry :
+        current.findByNamePrefix(queryString, maxResults, current.byFeatureCodeThenPopulation())) {
+      geoEntries.add(toGeoEntry(current, entry));
+    }
+    return geoEntries;
+  }
+
+  @Override
+  public GeoEntry queryById(String id) throws GeoEntryQueryException {
+    if (StringUtils.isBlank(id)) {
+      throw new IllegalArgumentException("id cannot be blank or null");
+    }
+
+    GazetteerIndex current = index;
+    if (current == null) {
+      return delegate.queryById(id);
+    }
+
+    Integer entry = current.entryForId(id);
+    return entry == null ? null : toGeoEntry(current, entry);
+  }
+
+  @Override
+  public List<Suggestion> getSuggestedNames(String queryString, int maxResults)
+      throws GeoEntryQueryException {
+    GazetteerIndex current = index;
+    if (current == null) {
+      return delegate.getSuggestedNames(queryString, maxResults);
+    }
+
+    List<Suggestion> suggestions = new ArrayList<>();
+    for (int entry : current.findByNamePrefix(queryString, maxResults, current.byPopulation())) {
+      suggestions.add(new SuggestionImpl(current.id(entry), current.title(entry)));
+    }
+    return suggestions;
+  }
+
+  @Override
+  public List<NearbyLocation> getNearestCities(String location, int radiusInKm, int maxResults)
+      throws ParseException, GeoEntryQueryException {
+    GazetteerIndex current = index;
+    if (current == null) {
+      return delegate.getNearestCities(location, radiusInKm, maxResults);
+    }
+
+    Point center;
+    try {
+      center = WKT_READER_THREAD_LOCAL.get().read(location).getCentroid();
+    } catch (org.locationtech.jts.io.ParseException e) {
+      throw new ParseException(e.getMessage(), 0);
+    }
+    PointImpl centerPoint = new PointImpl(center.getX(), center.getY(), SPATIAL_CONTEXT);
+
+    List<NearbyLocation> nearbyLocations = new ArrayList<>();
+    for (int entry :
+        current.findWithinRadius(
+            center.getY(),
+            center.getX(),
+            radiusInKm,
+            maxResults,
+            current::isCity,
+            current.byPopulation())) {
+      PointImpl cityPoint =
+          new PointImpl(current.longitude(entry), current.latitude(entry), SPATIAL_CONTEXT);
+      nearbyLocations.add(new NearbyLocationImpl(centerPoint, cityPoint, current.title(entry)));
+    }
+    return nearbyLocations;
+  }
+
+  @Override
+  public Optional<String> getCountryCode(String wktLocation, int radius)
+      throws GeoEntryQueryException, ParseException {
+    return delegate.getCountryCode(wktLocation, radius);
+  }
+
+  /**
+   * Reloads the index if the gazetteer metacards in the catalog have changed since last load, as
+   * told by their number and the latest of their modified dates.
+   */
+  void refresh() throws GeoEntryQueryException {
+    QueryResponse latest = executeQuery(latestModifiedRequest());
+    long hits = latest.getHits();
+    Date latestModified =
+        latest.getResults().isEmpty()
+            ? null
+            : getModified(latest.getResults().get(0).getMetacard());
+    if (index != null && hits == indexedHits && Objects.equals(latestModified, indexedModified)) {
+      LOGGER.trace("Gazetteer index is up to date with {} entries.", hits);
+      return;
+    }
+
+    long start = System.currentTimeMillis();
+    GazetteerIndex.Builder builder = GazetteerIndex.builder();
+    if (loadModified(builder) < hits) {
+      loadUnmodified(builder);
+    }
+
+    GazetteerIndex loaded = builder.build();
+    index = loaded;
+    indexedHits = hits;
+    indexedModified = latestModified;
+    LOGGER.debug(
+        "Loaded {} gazetteer entries into memory in {} ms.",
+        loaded.size(),
+        System.currentTimeMillis() - start);
+  }
+
+  /**
+   * Adds the gazetteer metacards that have a modified date to {@code builder}, in ascending order
+   * of that date and then of their ids. Each page starts at the latest date read so far and only
+   * skips the metacards already read with that date, rather than every metacard read before it.
+   *
+   * @return the number of metacards read
+   */
+  private long loadModified(GazetteerIndex.Builder builder) throws GeoEntryQueryException {
+    Date watermark = null;
+    int readAtWatermark = 0;
+    long read = 0;
+    List<Result> results;
+    do {
+      Filter filter =
+          watermark == null
+              ? modifiedFilter
+              : filterBuilder.allOf(
+                  tagFilter,
+                  filterBuilder.anyOf(
+                      filterBuilder.attribute(Core.METACARD_MODIFIED).after().date(watermark),
+                      filterBuilder
+                          .attribute(Core.METACARD_MODIFIED)
+                          .is()
+                          .equalTo()
+                          .date(watermark)));
+      results =
+          executeQuery(pageRequest(filter, readAtWatermark + 1, MODIFIED_ASCENDING)).getResults();
+      for (Result result : results) {
+        Metacard metacard = result.getMetacard();
+        addToIndex(builder, metacard);
+        Date modified = getModified(metacard);
+        if (modified != null && modified.equals(watermark)) {
+          readAtWatermark++;
+        } else {
+          watermark = modified;
+          readAtWatermark = 1;
+        }
+      }
+      read += results.size();
+    } while (results.size() == PAGE_SIZE);
+    return read;
+  }
+
+  /** Adds the gazetteer metacards that have no modified date to {@code builder}. */
+  private void loadUnmodified(GazetteerIndex.Builder builder) throws GeoEntryQueryException {
+    int startIndex = 1;
+    List<Result> results;
+    do {
+      results = executeQuery(pageRequest(unmodifiedFilter, startIndex, ID_ASCENDING)).getResults();
+      for (Result result : results) {
+        addToIndex(builder, result.getMetacard());
+      }
+      startIndex += PAGE_SIZE;
+    } while (results.size() == PAGE_SIZE);
+  }
+
+  private void refreshAsSystem() {
+    security.runAsAdmin(
+        () -> {
+          try {
+            security.runWithSubjectOrElevate(
+                () -> {
+                  refresh();
+                  return null;
+                });
+          } catch (SecurityServiceException | InvocationTargetException e) {
+            LOGGER.debug("Unable to load the in-memory gazetteer index.", e);
+          }
+          return null;
+        });
+  }
+
+  private QueryRequest latestModifiedRequest() {
+    return new QueryRequestImpl(new QueryImpl(tagFilter, 1, 1, MODIFIED_DESCENDING, true, TIMEOUT));
+  }
+
+  /** Ties in {@code sortBy} are broken by id, so that pages of the same query never overlap. */
+  private QueryRequest pageRequest(Filter filter, int startIndex, SortBy sortBy) {
+    Map<String, Serializable> properties = GazetteerQueryCatalog.geoEntryProperties();
+    properties.put(ADDITIONAL_SORT_BYS, new SortBy[] {ID_ASCENDING});
+    return new QueryRequestImpl(
+        new QueryImpl(filter, startIndex, PAGE_SIZE, sortBy, false, TIMEOUT), properties);
+  }
+
+  private QueryResponse executeQuery(QueryRequest request) throws GeoEntryQueryException {
+    try {
+      return catalogFramework.query(request);
+    } catch (UnsupportedQueryException | SourceUnavailableException | FederationException e) {
+      throw new GeoEntryQueryException("Unable to load gazetteer entries from the catalog.", e);
+    }
+  }
+
+  private void addToIndex(GazetteerIndex.Builder builder, Metacard metacard) {
+    GeoEntry geoEntry = delegate.transformMetacardToGeoEntry(metacard);
+    int gazetteerSort = 0;
+    Attribute attribute = metacard.getAttribute(GeoEntryAttributes.GAZETTEER_SORT_VALUE);
+    if (attribute != null && attribute.getValue() instanceof Integer) {
+      gazetteerSort = (Integer) attribute.getValue();
+    }
+    builder.add(metacard.getId(), geoEntry.getName(), gazetteerSort, geoEntry);
+  }
+
+  private static Date getModified(Metacard metacard) {
+    Attribute attribute = metacard.getAttribute(Core.METACARD_MODIFIED);
+    if (attribute == null || !(attribute.getValue() instanceof Date)) {
+      return null;
+    }
+    return (Date) attribute.getValue();
+  }
+
+  private static GeoEntry toGeoEntry(GazetteerIndex index, int entry) {
+    GeoEntry.Builder builder =
+        new GeoEntry.Builder()
+            .name(index.title(entry))
+            .countryCode(index.countryCode(entry))
+            .population(index.population(entry))
+            .gazetteerSort(index.gazetteerSort(entry));
+    if (StringUtils.isNotEmpty(index.featureCode(entry))) {
+      builder.featureCode(index.featureCode(entry));
+    }
+    if (!Double.isNaN(index.latitude(entry))) {
+      builder.latitude(index.latitude(entry)).longitude(index.longitude(entry));
+    }
+    return builder.build();
+  }
+}
@@ -13,13 +13,16 @@
  */
 package org.codice.ddf.spatial.geocoding.query;
 
+import static ddf.catalog.Constants.RESULT_ATTRIBUTES;
 import static org.codice.ddf.spatial.geocoding.GeoCodingConstants.GAZETTEER_METACARD_TAG;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.arrayContainingInAnyOrder;
 import static org.hamcrest.Matchers.closeTo;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import ddf.catalog.CatalogFramework;
@@ -51,6 +54,7 @@
 import org.codice.ddf.spatial.geocoding.context.NearbyLocation;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 
 public class GazetteerQueryCatalogTest {
 
@@ -101,6 +105,23 @@ public void testQuery() throws Exception {
     assertThat(geoEntry.getPopulation(), is(123456789L));
   }
 
+  @Test
+  public void testQueryRequestsGeoEntryAttributes() throws Exception {
+    queryCatalog.query(QUERY_STRING, 1);
+
+    ArgumentCaptor<QueryRequest> request = ArgumentCaptor.forClass(QueryRequest.class);
+    verify(catalogFramework).query(request.capture());
+    assertThat(
+        (String[]) request.getValue().getPropertyValue(RESULT_ATTRIBUTES),
+        arrayContainingInAnyOrder(
+            GeoEntryAttributes.FEATURE_CODE_ATTRIBUTE_NAME,
+            Location.COUNTRY_CODE,
+            Core.TITLE,
+            GeoEntryAttributes.POPULATION_ATTRIBUTE_NAME,
+            GeoEntryAttributes.GAZETTEER_SORT_VALUE,
+            Core.LOCATION));
+  }
+
   @Test
   public void testQueryById() throws Exception {
     GeoEntry geoEntry = queryCatalog.queryById(QUERY_STRING);
@@ -0,0 +1,286 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.spatial.geocoding.query;
+
+import static org.codice.ddf.spatial.geocoding.GeoCodingConstants.GAZETTEER_METACARD_TAG;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import ddf.catalog.CatalogFramework;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.MetacardType;
+import ddf.catalog.data.Result;
+import ddf.catalog.data.impl.AttributeImpl;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.impl.MetacardTypeImpl;
+import ddf.catalog.data.impl.ResultImpl;
+import ddf.catalog.data.impl.types.LocationAttributes;
+import ddf.catalog.data.types.Core;
+import ddf.catalog.data.types.Location;
+import ddf.catalog.filter.FilterBuilder;
+import ddf.catalog.filter.proxy.builder.GeotoolsFilterBuilder;
+import ddf.catalog.operation.Query;
+import ddf.catalog.operation.QueryRequest;
+import ddf.catalog.operation.impl.QueryResponseImpl;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.stream.Collectors;
+import org.codice.ddf.security.Security;
+import org.codice.ddf.spatial.geocoding.GeoCodingConstants;
+import org.codice.ddf.spatial.geocoding.GeoEntry;
+import org.codice.ddf.spatial.geocoding.GeoEntryAttributes;
+import org.codice.ddf.spatial.geocoding.Suggestion;
+import org.codice.ddf.spatial.geocoding.context.NearbyLocation;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+public class InMemoryGazetteerQueryCatalogTest {
+
+  private static final MetacardType GEO_ENTRY_METACARD_TYPE =
+      new MetacardTypeImpl(
+          "GeoEntryAttributes", Arrays.asList(new LocationAttributes(), new GeoEntryAttributes()));
+
+  private static final FilterBuilder FILTER_BUILDER = new GeotoolsFilterBuilder();
+
+  private static final String NEAR_BOSTON_WKT = "POINT(-71.07124328613281 42.353671973455704)";
+
+  private List<Result> results;
+
+  private CatalogFramework catalogFramework;
+
+  private GazetteerQueryCatalog delegate;
+
+  private InMemoryGazetteerQueryCatalog queryCatalog;
+
+  @Before
+  public void setUp() throws Exception {
+    results =
+        Arrays.asList(
+            new ResultImpl(
+                generateMetacard("1", "Boston, USA", "PPLA", 600000L, "POINT (-71.0596 42.3577)")),
+            new ResultImpl(
+                generateMetacard("2", "New York, USA", "PPL", 8000000L, "POINT (-74.006 40.7128)")),
+            new ResultImpl(
+                generateMetacard(
+                    "3", "Cambridge, USA", "PPL", 110000L, "POINT (-71.1097 42.3736)")),
+            new ResultImpl(
+                generateMetacard("4", "Boston Harbor, USA", "BAY", 0L, "POINT (-70.95 42.33)")));
+
+    catalogFramework = mock(CatalogFramework.class);
+    when(catalogFramework.query(any(QueryRequest.class)))
+        .thenReturn(new QueryResponseImpl(mock(QueryRequest.class), results, results.size()));
+
+    delegate = mock(GazetteerQueryCatalog.class);
+    when(delegate.transformMetacardToGeoEntry(any(Metacard.class))).thenCallRealMethod();
+
+    queryCatalog =
+        new InMemoryGazetteerQueryCatalog(
+            catalogFramework,
+            FILTER_BUILDER,
+            delegate,
+            mock(ScheduledExecutorService.class),
+            mock(Security.class));
+  }
+
+  @Test
+  public void testDelegatesBeforeIndexLoaded() throws Exception {
+    queryCatalog.query("boston", 1);
+    queryCatalog.getSuggestedNames("boston", 1);
+    queryCatalog.getNearestCities(NEAR_BOSTON_WKT, 10, 1);
+
+    verify(delegate).query("boston", 1);
+    verify(delegate).getSuggestedNames("boston", 1);
+    verify(delegate).getNearestCities(NEAR_BOSTON_WKT, 10, 1);
+  }
+
+  @Test
+  public void testQuery() throws Exception {
+    queryCatalog.refresh();
+
+    List<GeoEntry> geoEntries = queryCatalog.query("boston", 10);
+    assertThat(
+        geoEntries.stream().map(GeoEntry::getName).collect(Collectors.toList()),
+        contains("Boston Harbor, USA", "Boston, USA"));
+
+    GeoEntry boston = geoEntries.get(1);
+    assertThat(boston.getCountryCode(), is("USA"));
+    assertThat(boston.getFeatureCode(), is("PPLA"));
+    assertThat(boston.getPopulation(), is(600000L));
+    assertThat(boston.getLatitude(), is(42.3577));
+    assertThat(boston.getLongitude(), is(-71.0596));
+    verify(delegate, never()).query(anyString(), anyInt());
+  }
+
+  @Test
+  public void testQueryMatchesLaterWords() throws Exception {
+    queryCatalog.refresh();
+
+    List<GeoEntry> geoEntries = queryCatalog.query("York", 10);
+    assertThat(
+        geoEntries.stream().map(GeoEntry::getName).collect(Collectors.toList()),
+        contains("New York, USA"));
+  }
+
+  @Test
+  public void testQueryDoesNotMatchCountryCode() throws Exception {
+    queryCatalog.refresh();
+
+    assertThat(queryCatalog.query("USA", 10), is(empty()));
+  }
+
+  @Test
+  public void testQueryById() throws Exception {
+    queryCatalog.refresh();
+
+    assertThat(queryCatalog.queryById("3").getName(), is("Cambridge, USA"));
+    assertThat(queryCatalog.queryById("unknown"), is(nullValue()));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testQueryByBlankId() throws Exception {
+    queryCatalog.queryById(" ");
+  }
+
+  @Test
+  public void testGetSuggestedNames() throws Exception {
+    queryCatalog.refresh();
+
+    List<Suggestion> suggestions = queryCatalog.getSuggestedNames("bo", 1);
+    assertThat(suggestions.size(), is(1));
+    assertThat(suggestions.get(0).getId(), is("1"));
+    assertThat(suggestions.get(0).getName(), is("Boston, USA"));
+  }
+
+  @Test
+  public void testGetNearestCities() throws Exception {
+    queryCatalog.refresh();
+
+    List<NearbyLocation> nearbyLocations = queryCatalog.getNearestCities(NEAR_BOSTON_WKT, 10, 10);
+    assertThat(
+        nearbyLocations.stream().map(NearbyLocation::getName).collect(Collectors.toList()),
+        contains("Boston, USA", "Cambridge, USA"));
+
+    NearbyLocation boston = nearbyLocations.get(0);
+    assertThat(boston.getCardinalDirection(), is("SW"));
+    assertThat(boston.getDistance(), is(closeTo(1.06, .01)));
+  }
+
+  @Test
+  public void testGetCountryCodeDelegates() throws Exception {
+    queryCatalog.refresh();
+    queryCatalog.getCountryCode(NEAR_BOSTON_WKT, 10);
+
+    verify(delegate).getCountryCode(NEAR_BOSTON_WKT, 10);
+  }
+
+  @Test
+  public void testRefreshSkipsReloadWhenUnchanged() throws Exception {
+    queryCatalog.refresh();
+    queryCatalog.refresh();
+
+    // one latest modified query and one page for the first refresh, only the first for the second
+    verify(catalogFramework, times(3)).query(any(QueryRequest.class));
+  }
+
+  @Test
+  public void testRefreshReloadsWhenAMetacardIsModified() throws Exception {
+    queryCatalog.refresh();
+    // the number of metacards is unchanged, but the latest modified date is not
+    Metacard boston = results.get(0).getMetacard();
+    boston.setAttribute(new AttributeImpl(Core.TITLE, "Boston, MA"));
+    boston.setAttribute(new AttributeImpl(Core.METACARD_MODIFIED, new Date()));
+
+    queryCatalog.refresh();
+
+    assertThat(queryCatalog.queryById("1").getName(), is("Boston, MA"));
+  }
+
+  @Test
+  public void testRefreshPagesFromTheLatestModifiedDate() throws Exception {
+    List<Result> firstPage = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      Metacard metacard =
+          generateMetacard(Integer.toString(i), "Place " + i, "PPL", 0L, "POINT (0 0)");
+      metacard.setAttribute(
+          new AttributeImpl(Core.METACARD_MODIFIED, new Date(i < 998 ? 1000L : 2000L)));
+      firstPage.add(new ResultImpl(metacard));
+    }
+    Metacard last = generateMetacard("1000", "Place 1000", "PPL", 0L, "POINT (0 0)");
+    last.setAttribute(new AttributeImpl(Core.METACARD_MODIFIED, new Date(3000L)));
+    List<Result> secondPage = Arrays.asList(new ResultImpl(last));
+    when(catalogFramework.query(any(QueryRequest.class)))
+        .thenAnswer(
+            invocation -> {
+              Query query = invocation.<QueryRequest>getArgument(0).getQuery();
+              List<Result> page;
+              if (query.getPageSize() == 1) {
+                page = secondPage;
+              } else {
+                page = query.getStartIndex() == 1 ? firstPage : secondPage;
+              }
+              return new QueryResponseImpl(mock(QueryRequest.class), page, 1001L);
+            });
+
+    queryCatalog.refresh();
+
+    ArgumentCaptor<QueryRequest> requests = ArgumentCaptor.forClass(QueryRequest.class);
+    verify(catalogFramework, atLeastOnce()).query(requests.capture());
+    List<Query> pages =
+        requests.getAllValues().stream()
+            .map(QueryRequest::getQuery)
+            .filter(query -> query.getPageSize() != 1)
+            .collect(Collectors.toList());
+    assertThat(pages.size(), is(2));
+    // the second page starts after the two metacards already read with the latest date
+    assertThat(pages.get(1).getStartIndex(), is(3));
+    assertThat(
+        pages.get(1).getSortBy().getPropertyName().getPropertyName(), is(Core.METACARD_MODIFIED));
+    assertThat(queryCatalog.queryById("1000").getName(), is("Place 1000"));
+  }
+
+  private Metacard generateMetacard(
+      String id, String title, String featureCode, long population, String wkt) {
+    Metacard metacard = new MetacardImpl(GEO_ENTRY_METACARD_TYPE);
+    metacard.setAttribute(new AttributeImpl(Core.ID, id));
+    metacard.setAttribute(new AttributeImpl(Core.TITLE, title));
+    metacard.setAttribute(new AttributeImpl(Location.COUNTRY_CODE, "USA"));
+    metacard.setAttribute(
+        new AttributeImpl(GeoEntryAttributes.FEATURE_CODE_ATTRIBUTE_NAME, featureCode));
+    metacard.setAttribute(
+        new AttributeImpl(GeoEntryAttributes.POPULATION_ATTRIBUTE_NAME, population));
+    metacard.setAttribute(new AttributeImpl(Core.LOCATION, wkt));
+    metacard.setAttribute(
+        new AttributeImpl(
+            Core.METACARD_TAGS,
+            Arrays.asList(GAZETTEER_METACARD_TAG, GeoCodingConstants.GEONAMES_TAG)));
+    return metacard;
+  }
+}
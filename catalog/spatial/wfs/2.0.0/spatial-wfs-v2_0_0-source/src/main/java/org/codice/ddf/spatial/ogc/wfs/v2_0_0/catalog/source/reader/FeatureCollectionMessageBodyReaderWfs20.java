@@ -15,17 +15,19 @@
 
 import com.thoughtworks.xstream.XStream;
 import com.thoughtworks.xstream.XStreamException;
+import com.thoughtworks.xstream.io.HierarchicalStreamReader;
+import com.thoughtworks.xstream.io.xml.StaxDriver;
 import com.thoughtworks.xstream.io.xml.WstxDriver;
 import com.thoughtworks.xstream.security.NoTypePermission;
 import ddf.catalog.data.Metacard;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.StringReader;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Type;
 import java.math.BigInteger;
-import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 import javax.ws.rs.Consumes;
@@ -36,14 +38,6 @@
 import javax.ws.rs.core.Response.ResponseBuilder;
 import javax.ws.rs.ext.MessageBodyReader;
 import javax.ws.rs.ext.Provider;
-import javax.xml.bind.JAXBContext;
-import javax.xml.bind.JAXBElement;
-import javax.xml.bind.JAXBException;
-import javax.xml.bind.Unmarshaller;
-import javax.xml.stream.XMLInputFactory;
-import javax.xml.stream.XMLStreamException;
-import javax.xml.stream.XMLStreamReader;
-import net.opengis.wfs.v_2_0_0.FeatureCollectionType;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
 import org.codice.ddf.log.sanitizer.LogSanitizer;
@@ -56,6 +50,13 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Reads a WFS 2.0 GetFeature response straight from the response stream.
+ *
+ * <p>The {@code numberMatched} and {@code numberReturned} attributes are read from the root
+ * element, and each feature member is then converted by its registered {@link FeatureConverter} as
+ * it is reached, so the response is never held in memory as a whole.
+ */
 @Consumes({MediaType.TEXT_XML, MediaType.APPLICATION_XML, Wfs20Constants.GML_MIME_TYPE})
 @Provider
 public class FeatureCollectionMessageBodyReaderWfs20
@@ -64,7 +65,13 @@
   private static final Logger LOGGER =
       LoggerFactory.getLogger(FeatureCollectionMessageBodyReaderWfs20.class);
 
-  private static final JAXBContext JAXB_CONTEXT = initJaxbContext();
+  private static final String FEATURE_COLLECTION = "FeatureCollection";
+
+  private static final String EXCEPTION_REPORT = "ExceptionReport";
+
+  private static final String NUMBER_MATCHED = "numberMatched";
+
+  private static final String NUMBER_RETURNED = "numberReturned";
 
   protected XStream xstream;
 
@@ -73,8 +80,11 @@
   protected Map<String, FeatureConverter> featureConverterMap =
       new HashMap<String, FeatureConverter>();
 
+  private final StaxDriver staxDriver;
+
   public FeatureCollectionMessageBodyReaderWfs20() {
-    xstream = new XStream(new WstxDriver());
+    staxDriver = new WstxDriver();
+    xstream = new XStream(staxDriver);
     xstream.addPermission(NoTypePermission.NONE);
     xstream.setClassLoader(this.getClass().getClassLoader());
     xstream.registerConverter(new GmlGeometryConverter());
@@ -82,32 +92,7 @@ public FeatureCollectionMessageBodyReaderWfs20() {
     featureCollectionConverter = new FeatureCollectionConverterWfs20();
     featureCollectionConverter.setFeatureConverterMap(featureConverterMap);
     xstream.registerConverter(featureCollectionConverter);
-    xstream.alias("FeatureCollection", Wfs20FeatureCollection.class);
-  }
-
-  private static JAXBContext initJaxbContext() {
-    JAXBContext jaxbContext = null;
-
-    // JAXB context path
-    String contextPath =
-        StringUtils.join(
-            new String[] {
-              Wfs20Constants.OGC_WFS_PACKAGE,
-              Wfs20Constants.OGC_FILTER_PACKAGE,
-              Wfs20Constants.OGC_GML_PACKAGE,
-              Wfs20Constants.OGC_OWS_PACKAGE
-            },
-            ":");
-
-    try {
-      jaxbContext =
-          JAXBContext.newInstance(
-              contextPath, FeatureCollectionMessageBodyReaderWfs20.class.getClassLoader());
-    } catch (JAXBException e) {
-      LOGGER.info("Unable to create JAXB context using contextPath: {}.", contextPath, e);
-    }
-
-    return jaxbContext;
+    xstream.alias(FEATURE_COLLECTION, Wfs20FeatureCollection.class);
   }
 
   @Override
@@ -119,10 +104,6 @@ public boolean isReadable(
     return Wfs20FeatureCollection.class.isAssignableFrom(clazz);
   }
 
-  @SuppressWarnings({
-    "unchecked",
-    "squid:S2093"
-  } /*instream declaration is a re-creation and as such cannot be put in a try-catch*/)
   @Override
   public Wfs20FeatureCollection readFrom(
       Class<Wfs20FeatureCollection> clazz,
@@ -133,92 +114,128 @@ public Wfs20FeatureCollection readFrom(
       InputStream inStream)
       throws IOException, WebApplicationException {
 
-    // Save original input stream for any exception message that might need to be
-    // created and additional attributes
-    String originalInputStream = IOUtils.toString(inStream, "UTF-8");
-    LOGGER.debug("{}", LogSanitizer.sanitize(originalInputStream));
+    // Keep what is read up to the root element in case the server sent an exception report
+    RootRecordingInputStream recordingStream = new RootRecordingInputStream(inStream);
+    HierarchicalStreamReader reader = null;
 
     ClassLoader ccl = Thread.currentThread().getContextClassLoader();
 
     try {
       Thread.currentThread()
           .setContextClassLoader(FeatureCollectionMessageBodyReaderWfs20.class.getClassLoader());
-      // Fetch FeatureCollection attributes
-      Unmarshaller unmarshaller = null;
-      JAXBElement<FeatureCollectionType> wfsFeatureCollectionType = null;
       xstream.allowTypeHierarchy(Wfs20FeatureCollection.class);
-      try {
-        unmarshaller = JAXB_CONTEXT.createUnmarshaller();
-        XMLInputFactory xmlInputFactory = XMLInputFactory.newFactory();
-        xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
-        xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
-        xmlInputFactory.setProperty(XMLInputFactory.IS_REPLACING_ENTITY_REFERENCES, false);
-        XMLStreamReader xmlStreamReader =
-            xmlInputFactory.createXMLStreamReader(new StringReader(originalInputStream));
-        wfsFeatureCollectionType =
-            (JAXBElement<FeatureCollectionType>) unmarshaller.unmarshal(xmlStreamReader);
-      } catch (ClassCastException e1) {
-        LOGGER.debug(
-            "Exception unmarshalling {}, could be an OWS Exception Report from server.",
-            e1.getMessage());
 
+      // Creating the reader moves it to the root element
+      reader = staxDriver.createReader(recordingStream);
+      String rootName = reader.getNodeName();
+
+      if (EXCEPTION_REPORT.equals(rootName)) {
         // If an ExceptionReport is sent from the remote WFS site it will be sent with an
         // JAX-RS "OK" status, hence the ErrorResponse exception mapper will not fire.
-        // Instead the ServiceExceptionReport will come here and be treated like a GetFeature
-        // response, resulting in an XStreamException since ExceptionReport cannot be
-        // unmarshalled. So this catch clause is responsible for catching that XStream
-        // exception and creating a JAX-RS response containing the original stream
-        // (with the ExceptionReport) and rethrowing it as a WebApplicationException,
-        // which CXF will wrap as a ClientException that the WfsSource catches, converts
-        // to a WfsException, and logs.
-
-        ByteArrayInputStream bis =
-            new ByteArrayInputStream(originalInputStream.getBytes(StandardCharsets.UTF_8));
-        ResponseBuilder responseBuilder = Response.ok(bis);
+        // Instead the ExceptionReport will come here and be treated like a GetFeature
+        // response. So this reader is responsible for creating a JAX-RS response containing
+        // the original stream (with the ExceptionReport) and throwing it as a
+        // WebApplicationException, which CXF will wrap as a ClientException that the
+        // WfsSource catches, converts to a WfsException, and logs.
+        LOGGER.debug("Received an exception report from server.");
+        ResponseBuilder responseBuilder =
+            Response.ok(new ByteArrayInputStream(recordingStream.readFully()));
         responseBuilder.type("text/xml");
-        Response response = responseBuilder.build();
-        throw new WebApplicationException(e1, response);
-      } catch (VirtualMachineError e) {
-        throw e;
-      } catch (JAXBException | XMLStreamException e1) {
-        LOGGER.debug("Error in retrieving feature collection.", e1);
-      } catch (RuntimeException e) {
-        LOGGER.debug("Error processing collection", e);
-        throw e;
+        throw new WebApplicationException(responseBuilder.build());
       }
+      recordingStream.stopRecording();
 
-      Wfs20FeatureCollection featureCollection = null;
-
-      if (null != wfsFeatureCollectionType && null != wfsFeatureCollectionType.getValue()) {
-        BigInteger numberReturned = wfsFeatureCollectionType.getValue().getNumberReturned();
-        String numberMatched = wfsFeatureCollectionType.getValue().getNumberMatched();
-
-        // Re-create the input stream (since it has already been read for potential
-        // exception message creation)
-        inStream = new ByteArrayInputStream(originalInputStream.getBytes("UTF-8"));
-
-        try {
-          xstream.allowTypeHierarchy(Wfs20FeatureCollection.class);
-          featureCollection = (Wfs20FeatureCollection) xstream.fromXML(inStream);
-          featureCollection.setNumberMatched(numberMatched);
-          featureCollection.setNumberReturned(numberReturned);
-
-        } catch (XStreamException e) {
-          LOGGER.debug("Exception unmarshalling", e);
-        } finally {
-          IOUtils.closeQuietly(inStream);
-        }
+      if (!FEATURE_COLLECTION.equals(rootName)) {
+        LOGGER.debug(
+            "Error in retrieving feature collection. Unexpected root element {}.",
+            LogSanitizer.sanitize(rootName));
+        return null;
       }
 
+      String numberMatched = reader.getAttribute(NUMBER_MATCHED);
+      BigInteger numberReturned = toBigInteger(reader.getAttribute(NUMBER_RETURNED));
+
+      Wfs20FeatureCollection featureCollection = (Wfs20FeatureCollection) xstream.unmarshal(reader);
+      featureCollection.setNumberMatched(numberMatched);
+      featureCollection.setNumberReturned(numberReturned);
       return featureCollection;
+    } catch (XStreamException e) {
+      LOGGER.debug("Exception unmarshalling", e);
+      return null;
     } finally {
+      if (reader != null) {
+        reader.close();
+      }
       Thread.currentThread().setContextClassLoader(ccl);
     }
   }
 
+  private static BigInteger toBigInteger(String value) {
+    if (StringUtils.isBlank(value)) {
+      return null;
+    }
+    try {
+      return new BigInteger(value.trim());
+    } catch (NumberFormatException e) {
+      LOGGER.debug("Invalid {} value: {}", NUMBER_RETURNED, LogSanitizer.sanitize(value));
+      return null;
+    }
+  }
+
   public void registerConverter(FeatureConverter converter) {
     featureConverterMap.put(converter.getMetacardType().getName(), converter);
     xstream.registerConverter(converter);
     xstream.alias(converter.getMetacardType().getName(), Metacard.class);
   }
+
+  /**
+   * Records the bytes read through it until {@link #stopRecording()} is called, so that a response
+   * that turns out not to be a feature collection can still be passed on in full.
+   */
+  private static class RootRecordingInputStream extends FilterInputStream {
+
+    private ByteArrayOutputStream recorded = new ByteArrayOutputStream();
+
+    RootRecordingInputStream(InputStream in) {
+      super(in);
+    }
+
+    void stopRecording() {
+      recorded = null;
+    }
+
+    /** @return the bytes recorded so far followed by the rest of the stream */
+    byte[] readFully() throws IOException {
+      IOUtils.copy(in, recorded);
+      return recorded.toByteArray();
+    }
+
+    @Override
+    public int read() throws IOException {
+      int b = super.read();
+      if (b != -1 && recorded != null) {
+        recorded.write(b);
+      }
+      return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      int count = super.read(b, off, len);
+      if (count > 0 && recorded != null) {
+        recorded.write(b, off, count);
+      }
+      return count;
+    }
+
+    @Override
+    public boolean markSupported() {
+      return false;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      return recorded == null ? super.skip(n) : IOUtils.skip(this, n);
+    }
+  }
 }
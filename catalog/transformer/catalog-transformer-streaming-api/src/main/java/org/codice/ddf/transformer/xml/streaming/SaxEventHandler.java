@@ -43,4 +43,15 @@ public interface SaxEventHandler extends ContentHandler {
    * @return a set of attribute descriptors that can be returned by this handler
    */
   Set<AttributeDescriptor> getSupportedAttributeDescriptors();
+
+  /**
+   * Whether this handler can parse one document after another. A reusable handler discards the
+   * state of the previous document, including its attributes, when it receives {@link
+   * #startDocument()}.
+   *
+   * @return true if this handler can be used for more than one document
+   */
+  default boolean isReusable() {
+    return false;
+  }
 }
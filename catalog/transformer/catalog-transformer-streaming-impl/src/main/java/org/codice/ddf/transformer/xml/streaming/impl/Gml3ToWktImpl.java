@@ -26,6 +26,7 @@
 import javax.xml.parsers.SAXParserFactory;
 import org.codice.ddf.platform.util.XMLUtils;
 import org.codice.ddf.transformer.xml.streaming.Gml3ToWkt;
+import org.codice.ddf.transformer.xml.streaming.lib.XmlReaderPool;
 import org.geotools.api.referencing.FactoryException;
 import org.geotools.api.referencing.operation.MathTransform;
 import org.geotools.api.referencing.operation.TransformException;
@@ -55,6 +56,14 @@ public class Gml3ToWktImpl implements Gml3ToWkt {
     PARSER_FACTORY.setNamespaceAware(true);
   }
 
+  private static final XmlReaderPool READER_POOL =
+      new XmlReaderPool(Runtime.getRuntime().availableProcessors() * 2, Gml3ToWktImpl::newReader);
+
+  /*
+   * Looking up the transform decodes the EPSG database, so it is only done once
+   */
+  private static volatile MathTransform latLonTransform;
+
   private final Supplier<XSDParserDelegate> gmlParserDelegateSupplier;
 
   public Gml3ToWktImpl(final Supplier<XSDParserDelegate> gmlParserDelegateSupplier) {
@@ -74,6 +83,18 @@ public String convert(String xml) throws ValidationException {
 
   @Override
   public String convert(InputStream xml) throws ValidationException {
+    return new WKTWriter().write(parseGeometry(xml));
+  }
+
+  /**
+   * Parses GML into a lon/lat geometry, for callers that can use the geometry directly rather than
+   * its WKT.
+   *
+   * @param xml the GML
+   * @return the geometry in lon/lat
+   * @throws ValidationException if the GML is not a geometry or cannot be parsed or transformed
+   */
+  public Geometry parseGeometry(InputStream xml) throws ValidationException {
     Object parsedObject = parseXml(xml);
 
     if (parsedObject instanceof Envelope) {
@@ -82,8 +103,7 @@ public String convert(InputStream xml) throws ValidationException {
 
     if (parsedObject instanceof Geometry) {
       try {
-        Geometry geometry = convertCRS((Geometry) parsedObject);
-        return new WKTWriter().write(geometry);
+        return convertCRS((Geometry) parsedObject);
       } catch (TransformException e) {
         LOGGER.debug("Failed to transform geometry to lon/lat", e);
         throw new ValidationExceptionImpl(
@@ -99,13 +119,14 @@ public String convert(InputStream xml) throws ValidationException {
 
   @Override
   public Object parseXml(InputStream xml) throws ValidationException {
+    XMLReader reader = null;
     try {
-      final XMLReader reader = PARSER_FACTORY.newSAXParser().getXMLReader();
+      reader = READER_POOL.borrow();
       final XSDParserDelegate gmlParserDelegate = gmlParserDelegateSupplier.get();
       reader.setContentHandler(gmlParserDelegate);
       reader.parse(new InputSource(xml));
       return gmlParserDelegate.getParsedObject();
-    } catch (ParserConfigurationException | IOException e) {
+    } catch (IOException e) {
       LOGGER.debug("Failed to read gml InputStream", e);
       throw new ValidationExceptionImpl(
           e, Collections.singletonList("Cannot read gml"), new ArrayList<>());
@@ -113,6 +134,16 @@ public Object parseXml(InputStream xml) throws ValidationException {
       LOGGER.debug("Failed to parse gml xml", e);
       throw new ValidationExceptionImpl(
           e, Collections.singletonList("Cannot parse gml xml"), new ArrayList<>());
+    } finally {
+      READER_POOL.release(reader);
+    }
+  }
+
+  private static XMLReader newReader() throws SAXException {
+    try {
+      return PARSER_FACTORY.newSAXParser().getXMLReader();
+    } catch (ParserConfigurationException e) {
+      throw new SAXException("Unable to create a gml parser", e);
     }
   }
 
@@ -121,8 +152,14 @@ private Geometry convertCRS(Geometry geometry) throws ValidationException, Trans
   }
 
   private MathTransform getLatLonTransform() throws ValidationException {
+    MathTransform transform = latLonTransform;
+    if (transform != null) {
+      return transform;
+    }
     try {
-      return CRS.findMathTransform(DefaultGeographicCRS.WGS84, CRS.decode(EPSG_4326, false));
+      transform = CRS.findMathTransform(DefaultGeographicCRS.WGS84, CRS.decode(EPSG_4326, false));
+      latLonTransform = transform;
+      return transform;
     } catch (FactoryException e) {
       throw new ValidationExceptionImpl(
           "Failed to find EPSG:4326 CRS, do you have the dependencies added?", e);
@@ -28,6 +28,7 @@
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Supplier;
 import javax.xml.stream.XMLStreamException;
 import org.codice.ddf.transformer.xml.streaming.AbstractSaxEventHandler;
 import org.codice.ddf.transformer.xml.streaming.Gml3ToWkt;
@@ -72,6 +73,12 @@ public class GmlHandler extends AbstractSaxEventHandler {
 
   private Deque<String> state;
 
+  /*
+   * Creates a GMLHandler for each document, or null if the same GMLHandler is used for every
+   * document
+   */
+  private Supplier<GMLHandler> gmlHandlerSupplier;
+
   private SaxEventHandlerUtils saxEventHandlerUtils = new SaxEventHandlerUtils();
 
   static {
@@ -92,6 +99,18 @@ public GmlHandler(GMLHandler gmlHandler, Gml3ToWkt gml3Converter) {
     state = new ArrayDeque<>();
   }
 
+  /**
+   * Creates a handler that can parse one document after another, using a new {@link GMLHandler} for
+   * each of them.
+   *
+   * @param gmlHandlerSupplier creates the GMLHandler for each document
+   * @param gml3Converter converts GML3 geometries to WKT
+   */
+  public GmlHandler(Supplier<GMLHandler> gmlHandlerSupplier, Gml3ToWkt gml3Converter) {
+    this(gmlHandlerSupplier.get(), gml3Converter);
+    this.gmlHandlerSupplier = gmlHandlerSupplier;
+  }
+
   /** @return list of {@link Attribute} (should be all <Metacard.GEOGRAPHY, WKT strings>) */
   @Override
   public List<Attribute> getAttributes() {
@@ -104,6 +123,25 @@ public Set<AttributeDescriptor> getSupportedAttributeDescriptors() {
     return attributeDescriptors;
   }
 
+  @Override
+  public boolean isReusable() {
+    return gmlHandlerSupplier != null && gml3Element != null;
+  }
+
+  /** Discards the state of the previous document, if this handler is reusable. */
+  @Override
+  public void startDocument() {
+    if (!isReusable()) {
+      return;
+    }
+    gh = gmlHandlerSupplier.get();
+    attributes = new ArrayList<>();
+    state.clear();
+    readingGml = false;
+    readingGml3 = false;
+    gml3Element.reset().resetNamespaces();
+  }
+
   @Override
   public void startPrefixMapping(String prefix, String uri) throws SAXException {
     try {
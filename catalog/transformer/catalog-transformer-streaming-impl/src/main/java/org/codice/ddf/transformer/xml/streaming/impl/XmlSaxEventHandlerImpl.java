@@ -101,6 +101,13 @@ protected XmlSaxEventHandlerImpl(Map<String, String> xmlToMetacardMap) {
   public void startDocument() {
     textDataOfElement = new StringBuilder();
     attributes = new ArrayList<>();
+    elementBeingRead = null;
+  }
+
+  /** The state of each document is discarded when the next one starts. */
+  @Override
+  public boolean isReusable() {
+    return true;
   }
 
   /**
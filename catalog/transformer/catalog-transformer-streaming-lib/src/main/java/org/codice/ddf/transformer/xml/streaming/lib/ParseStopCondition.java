@@ -0,0 +1,101 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.transformer.xml.streaming.lib;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Decides when enough of a document has been parsed, so that parsing can stop before the end of the
+ * document.
+ *
+ * <p>The condition is a list of elements, given either by their local names, such as {@code title},
+ * or by the local names of the element and its parents, such as {@code metacard/string/value}. It
+ * is satisfied once each of the elements has ended at least once.
+ *
+ * <p>Not threadsafe
+ */
+class ParseStopCondition {
+
+  private final List<String[]> elementPaths = new ArrayList<>();
+
+  private final List<String> openElements = new ArrayList<>();
+
+  private final boolean[] ended;
+
+  private int remaining;
+
+  /** @param elements the elements that have to be parsed before parsing can stop */
+  ParseStopCondition(Collection<String> elements) {
+    if (elements != null) {
+      for (String element : elements) {
+        if (StringUtils.isNotBlank(element)) {
+          elementPaths.add(StringUtils.split(element.trim(), '/'));
+        }
+      }
+    }
+    ended = new boolean[elementPaths.size()];
+    reset();
+  }
+
+  /** @return true if parsing has to continue to the end of the document */
+  boolean isEmpty() {
+    return elementPaths.isEmpty();
+  }
+
+  /** Prepares the condition for a new document. */
+  void reset() {
+    openElements.clear();
+    Arrays.fill(ended, false);
+    remaining = elementPaths.size();
+  }
+
+  void startElement(String localName) {
+    if (!isEmpty()) {
+      openElements.add(localName);
+    }
+  }
+
+  /** @return true if every element of the condition has now ended */
+  boolean endElement() {
+    if (!isEmpty()) {
+      for (int i = 0; i < ended.length; i++) {
+        if (!ended[i] && matchesOpenElements(elementPaths.get(i))) {
+          ended[i] = true;
+          remaining--;
+        }
+      }
+    }
+    if (!openElements.isEmpty()) {
+      openElements.remove(openElements.size() - 1);
+    }
+    return !isEmpty() && remaining == 0;
+  }
+
+  private boolean matchesOpenElements(String[] path) {
+    int offset = openElements.size() - path.length;
+    if (offset < 0) {
+      return false;
+    }
+    for (int i = 0; i < path.length; i++) {
+      if (!path[i].equals(openElements.get(offset + i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
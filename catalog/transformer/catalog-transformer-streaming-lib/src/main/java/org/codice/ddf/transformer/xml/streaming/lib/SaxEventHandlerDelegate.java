@@ -32,8 +32,11 @@
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.CloseShieldInputStream;
 import org.apache.commons.io.input.TeeInputStream;
 import org.apache.commons.lang.StringUtils;
 import org.codice.ddf.platform.util.XMLUtils;
@@ -60,29 +63,48 @@ public class SaxEventHandlerDelegate extends DefaultHandler {
 
   private static final XMLUtils XML_UTILS = XMLUtils.getInstance();
 
-  private XMLReader parser;
+  /*
+   * Secure parsers are expensive to create and configure, so they are shared by all delegates
+   */
+  private static final XmlReaderPool PARSER_POOL =
+      new XmlReaderPool(
+          Runtime.getRuntime().availableProcessors() * 2, XML_UTILS::getSecureXmlParser);
 
   private List<SaxEventHandler> eventHandlers = new ArrayList<>();
 
   private InputTransformerErrorHandler inputTransformerErrorHandler;
 
+  /*
+   * The error handler of the document that was last read
+   */
+  private InputTransformerErrorHandler documentErrorHandler;
+
   private SaxEventHandlerUtils saxEventHandlerUtils = new SaxEventHandlerUtils();
 
-  public SaxEventHandlerDelegate() {
-    try {
-      parser = XML_UTILS.getSecureXmlParser();
-    } catch (Exception e) {
-      LOGGER.debug(
-          "Exception thrown during creation of SaxEventHandlerDelegate. Probably caused by one of the setFeature calls",
-          e);
-    }
-  }
+  private ParseStopCondition stopCondition = new ParseStopCondition(Collections.emptyList());
+
+  private MetacardType metacardType;
+
+  private String metacardTypeId;
+
+  public SaxEventHandlerDelegate() {}
 
   public SaxEventHandlerDelegate(List<SaxEventHandler> eventHandlers) {
-    this();
     this.eventHandlers = eventHandlers;
   }
 
+  /**
+   * @param eventHandlers the handlers to pass the SAX events to
+   * @param stopAfterElements the elements, by local name or by a path of local names such as {@code
+   *     metacard/title}, after which the rest of the document does not need to be parsed. Parsing
+   *     stops once each of them has been read. If empty, the whole document is parsed.
+   */
+  public SaxEventHandlerDelegate(
+      List<SaxEventHandler> eventHandlers, Collection<String> stopAfterElements) {
+    this(eventHandlers);
+    this.stopCondition = new ParseStopCondition(stopAfterElements);
+  }
+
   /**
    * Takes in an {@link InputStream} returns a {@link Metacard}, populated with all the {@link
    * Attribute}s parsed by the {@link SaxEventHandlerDelegate#eventHandlers}
@@ -93,9 +115,18 @@ public SaxEventHandlerDelegate(List<SaxEventHandler> eventHandlers) {
    * @throws CatalogTransformerException
    */
   public SaxEventHandlerDelegate read(InputStream inputStream) throws CatalogTransformerException {
-
+    boolean stopped = false;
+    XMLReader parser = null;
     try {
-      InputSource newStream = new InputSource(new BufferedInputStream(inputStream));
+      parser = PARSER_POOL.borrow();
+      stopCondition.reset();
+
+      /*
+       * Shield the stream from the parser, which closes it when it finishes, so that the rest of
+       * the stream can still be read if parsing stops early
+       */
+      InputSource newStream =
+          new InputSource(new BufferedInputStream(CloseShieldInputStream.wrap(inputStream)));
 
       /*
        * Set the parser's ContentHandler to this delegate, which ensures the delegate receives all
@@ -103,19 +134,47 @@ public SaxEventHandlerDelegate read(InputStream inputStream) throws CatalogTrans
        * Set the parser's ErrorHandler to be a new InputTransformerHandler
        */
       parser.setContentHandler(this);
-      InputTransformerErrorHandler inputTransformerErrorHandler =
-          getInputTransformerErrorHandler().configure(new StringBuilder());
-      parser.setErrorHandler(inputTransformerErrorHandler);
+      documentErrorHandler = getInputTransformerErrorHandler().configure(new StringBuilder());
+      parser.setErrorHandler(documentErrorHandler);
       parser.parse(newStream);
+    } catch (ParsingStoppedException e) {
+      stopped = true;
     } catch (IOException | SAXException e) {
       throw new CatalogTransformerException("Could not properly parse metacard", e);
+    } finally {
+      PARSER_POOL.release(parser);
+    }
+
+    if (stopped) {
+      try {
+        endDocument();
+        /*
+         * Read the rest of the document without parsing it, so that callers reading the document
+         * from the same stream, such as through a tee, still see all of it
+         */
+        IOUtils.consume(inputStream);
+      } catch (IOException | SAXException e) {
+        throw new CatalogTransformerException("Could not properly parse metacard", e);
+      }
     }
 
     return this;
   }
 
+  /**
+   * @return true if all the handlers can parse one document after another, so that this delegate
+   *     can be reused
+   */
+  public boolean isReusable() {
+    return eventHandlers.stream().allMatch(SaxEventHandler::isReusable);
+  }
+
   public Metacard getMetacard(String id) {
-    MetacardType metacardType = getMetacardType(id);
+    if (metacardType == null || !Objects.equals(id, metacardTypeId)) {
+      metacardType = getMetacardType(id);
+      metacardTypeId = id;
+    }
+    MetacardType metacardType = this.metacardType;
 
     if (metacardType == null) {
       metacardType = MetacardImpl.BASIC_METACARD;
@@ -128,8 +187,7 @@ public Metacard getMetacard(String id) {
     /*
      * If any major errors occur during parsing, print them out and add them to the metacard as validation errors
      */
-    InputTransformerErrorHandler inputTransformerErrorHandler =
-        (InputTransformerErrorHandler) parser.getErrorHandler();
+    InputTransformerErrorHandler inputTransformerErrorHandler = documentErrorHandler;
     if (inputTransformerErrorHandler != null) {
       String parseWarningsErrors = inputTransformerErrorHandler.getParseWarningsErrors();
       if (StringUtils.isNotBlank(parseWarningsErrors)) {
@@ -175,8 +233,8 @@ public Metacard getMetacard(String id) {
   }
 
   /**
-   * Takes in a sax event from {@link SaxEventHandlerDelegate#parser} and passes it to the {@link
-   * SaxEventHandlerDelegate#eventHandlers}
+   * Takes in a sax event from {@link SaxEventHandlerDelegate#PARSER_POOL parser} and passes it to
+   * the {@link SaxEventHandlerDelegate#eventHandlers}
    */
   @Override
   public void startDocument() throws SAXException {
@@ -186,8 +244,8 @@ public void startDocument() throws SAXException {
   }
 
   /**
-   * Takes in a sax event from {@link SaxEventHandlerDelegate#parser} and passes it to the {@link
-   * SaxEventHandlerDelegate#eventHandlers}
+   * Takes in a sax event from {@link SaxEventHandlerDelegate#PARSER_POOL parser} and passes it to
+   * the {@link SaxEventHandlerDelegate#eventHandlers}
    */
   @Override
   public void endDocument() throws SAXException {
@@ -197,8 +255,8 @@ public void endDocument() throws SAXException {
   }
 
   /**
-   * Takes in a sax event from {@link SaxEventHandlerDelegate#parser} and passes it to the {@link
-   * SaxEventHandlerDelegate#eventHandlers}
+   * Takes in a sax event from {@link SaxEventHandlerDelegate#PARSER_POOL parser} and passes it to
+   * the {@link SaxEventHandlerDelegate#eventHandlers}
    *
    * @param uri the URI that is passed in by {@link SaxEventHandlerDelegate}
    * @param localName the localName that is passed in by {@link SaxEventHandlerDelegate}
@@ -209,14 +267,15 @@ public void endDocument() throws SAXException {
   @Override
   public void startElement(String uri, String localName, String qName, Attributes attributes)
       throws SAXException {
+    stopCondition.startElement(localName);
     for (SaxEventHandler transformer : eventHandlers) {
       transformer.startElement(uri, localName, qName, attributes);
     }
   }
 
   /**
-   * Takes in a sax event from {@link SaxEventHandlerDelegate#parser} and passes it to the {@link
-   * SaxEventHandlerDelegate#eventHandlers}
+   * Takes in a sax event from {@link SaxEventHandlerDelegate#PARSER_POOL parser} and passes it to
+   * the {@link SaxEventHandlerDelegate#eventHandlers}
    *
    * @param ch the ch that is passed in by {@link SaxEventHandlerDelegate}
    * @param start the start that is passed in by {@link SaxEventHandlerDelegate}
@@ -231,8 +290,8 @@ public void characters(char ch[], int start, int length) throws SAXException {
   }
 
   /**
-   * Takes in a sax event from {@link SaxEventHandlerDelegate#parser} and passes it to the {@link
-   * SaxEventHandlerDelegate#eventHandlers}
+   * Takes in a sax event from {@link SaxEventHandlerDelegate#PARSER_POOL parser} and passes it to
+   * the {@link SaxEventHandlerDelegate#eventHandlers}
    *
    * @param namespaceURI the namespaceURI that is passed in by {@link SaxEventHandlerDelegate}
    * @param localName the localName that is passed in by {@link SaxEventHandlerDelegate}
@@ -245,11 +304,15 @@ public void endElement(String namespaceURI, String localName, String qName) thro
     for (SaxEventHandler transformer : eventHandlers) {
       transformer.endElement(namespaceURI, localName, qName);
     }
+
+    if (stopCondition.endElement()) {
+      throw new ParsingStoppedException();
+    }
   }
 
   /**
-   * Takes in a sax event from {@link SaxEventHandlerDelegate#parser} and passes it to the {@link
-   * SaxEventHandlerDelegate#eventHandlers}
+   * Takes in a sax event from {@link SaxEventHandlerDelegate#PARSER_POOL parser} and passes it to
+   * the {@link SaxEventHandlerDelegate#eventHandlers}
    *
    * @param prefix the prefix that is passed in by {@link SaxEventHandlerDelegate}
    * @param uri the uri that is passed in by {@link SaxEventHandlerDelegate}
@@ -299,6 +362,14 @@ public MetacardType getMetacardType(String id) {
 
     return new DynamicMetacardType(attributeDescriptors, id);
   }
+
+  /** Thrown to stop the parser once the stop condition has been satisfied. */
+  private static class ParsingStoppedException extends SAXException {
+
+    private ParsingStoppedException() {
+      super("Parsing stopped once the configured elements were read");
+    }
+  }
 }
 
 /**
@@ -249,6 +249,17 @@ public void addNamespace(String prefix, String uri) throws XMLStreamException {
     namespaceStack.push(new NamespaceMapping(prefix, uri));
   }
 
+  /**
+   * Discards all namespace mappings, so that the converter can be used for a new document
+   *
+   * @return this
+   */
+  public SaxEventToXmlElementConverter resetNamespaces() {
+    namespaceStack.clear();
+    scopeOfNamespacesAdded.clear();
+    return this;
+  }
+
   public void removeNamespace(String prefix) {
     Iterator<NamespaceMapping> iter = namespaceStack.iterator();
     while (iter.hasNext()) {
@@ -24,7 +24,10 @@
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.stream.Collectors;
 import org.codice.ddf.transformer.xml.streaming.SaxEventHandler;
 import org.codice.ddf.transformer.xml.streaming.SaxEventHandlerFactory;
@@ -40,6 +43,8 @@ public class XmlInputTransformer implements InputTransformer, Describable {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(XmlInputTransformer.class);
 
+  private static final int MAX_IDLE_DELEGATES = Runtime.getRuntime().availableProcessors() * 2;
+
   /*
    * The Describable attributes that can be used to describe this (specific configuration of) transformer
    */
@@ -66,6 +71,18 @@ public class XmlInputTransformer implements InputTransformer, Describable {
    */
   private List<String> saxEventHandlerConfiguration;
 
+  /*
+   * Elements after which the rest of a document is not parsed. Empty to parse whole documents
+   */
+  private List<String> stopAfterElements = Collections.emptyList();
+
+  /*
+   * Delegates that have finished transforming a document and can transform another, along with the
+   * factories they were created from
+   */
+  private final BlockingQueue<PooledDelegate> idleDelegates =
+      new ArrayBlockingQueue<>(MAX_IDLE_DELEGATES);
+
   /**
    * Method to create a new {@link SaxEventHandlerDelegate}, configured to parse a metacard
    * according to {@link XmlInputTransformer#saxEventHandlerConfiguration} and {@link
@@ -74,20 +91,52 @@ public class XmlInputTransformer implements InputTransformer, Describable {
    * @return a new SaxEventHandlerDelegate
    */
   SaxEventHandlerDelegate create() {
+    return create(getConfiguredFactories());
+  }
+
+  private SaxEventHandlerDelegate create(List<SaxEventHandlerFactory> factories) {
 
     /*
      * Gets new instances of each SaxEventHandler denoted in saxEventHandlerConfiguration
      */
     List<SaxEventHandler> filteredSaxEventHandlers =
-        saxEventHandlerFactories.stream()
-            .filter(p -> saxEventHandlerConfiguration.contains(p.getId()))
+        factories.stream()
             .map(SaxEventHandlerFactory::getNewSaxEventHandler)
             .collect(Collectors.toList());
     /*
      * Pass all the new handlers to configure and create a new SaxEventHandlerDelegate and sets
      * the metacardType
      */
-    return new SaxEventHandlerDelegate(filteredSaxEventHandlers);
+    return new SaxEventHandlerDelegate(filteredSaxEventHandlers, stopAfterElements);
+  }
+
+  private List<SaxEventHandlerFactory> getConfiguredFactories() {
+    return saxEventHandlerFactories.stream()
+        .filter(p -> saxEventHandlerConfiguration.contains(p.getId()))
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Takes an idle delegate created from the currently configured factories, or creates a new one if
+   * there are none. Delegates created from factories that are no longer configured or available are
+   * discarded.
+   */
+  private PooledDelegate borrowDelegate() {
+    List<SaxEventHandlerFactory> factories = getConfiguredFactories();
+    PooledDelegate pooledDelegate;
+    while ((pooledDelegate = idleDelegates.poll()) != null) {
+      if (pooledDelegate.factories.equals(factories)) {
+        return pooledDelegate;
+      }
+    }
+    return new PooledDelegate(create(factories), factories);
+  }
+
+  /** Keeps a delegate for the next document, if its handlers can parse another document. */
+  private void releaseDelegate(PooledDelegate pooledDelegate) {
+    if (pooledDelegate.delegate.isReusable()) {
+      idleDelegates.offer(pooledDelegate);
+    }
   }
 
   /**
@@ -107,9 +156,10 @@ public Metacard transform(InputStream inputStream) throws CatalogTransformerExce
     }
 
     /*
-     * Create the necessary new SaxEventHandlerDelegate
+     * Get an idle SaxEventHandlerDelegate or create the necessary new one
      */
-    SaxEventHandlerDelegate delegate = create();
+    PooledDelegate pooledDelegate = borrowDelegate();
+    SaxEventHandlerDelegate delegate = pooledDelegate.delegate;
     /*
      * Split the input stream, so that we can use it for parsing as well as read it into the Metacard.METADATA attribute
      */
@@ -136,6 +186,7 @@ public Metacard transform(InputStream inputStream) throws CatalogTransformerExce
       }
       metacard.setAttribute(new AttributeImpl(Metacard.METADATA, metadata));
 
+      releaseDelegate(pooledDelegate);
       return metacard;
     } catch (IOException e) {
       LOGGER.debug("IO Exception during parsing", e);
@@ -173,6 +224,7 @@ public Metacard transform(InputStream inputStream, String id)
    */
   public void setSaxEventHandlerFactories(List<SaxEventHandlerFactory> saxEventHandlerFactories) {
     this.saxEventHandlerFactories = saxEventHandlerFactories;
+    idleDelegates.clear();
   }
 
   /**
@@ -182,6 +234,21 @@ public void setSaxEventHandlerFactories(List<SaxEventHandlerFactory> saxEventHan
    */
   public void setSaxEventHandlerConfiguration(List<String> saxEventHandlerConfiguration) {
     this.saxEventHandlerConfiguration = saxEventHandlerConfiguration;
+    idleDelegates.clear();
+  }
+
+  /**
+   * Setter to set the elements after which the rest of a document is not parsed, for documents
+   * whose configured attributes all come from their beginning. The whole document is still read
+   * into the {@link Metacard#METADATA} attribute.
+   *
+   * @param stopAfterElements a list of element local names, or of paths of local names such as
+   *     {@code metacard/title}. If empty, whole documents are parsed.
+   */
+  public void setStopAfterElements(List<String> stopAfterElements) {
+    this.stopAfterElements =
+        stopAfterElements == null ? Collections.emptyList() : stopAfterElements;
+    idleDelegates.clear();
   }
 
   @Override
@@ -228,4 +295,17 @@ public void setDescription(String description) {
   public void setOrganization(String organization) {
     this.organization = organization;
   }
+
+  private static class PooledDelegate {
+
+    private final SaxEventHandlerDelegate delegate;
+
+    private final List<SaxEventHandlerFactory> factories;
+
+    private PooledDelegate(
+        SaxEventHandlerDelegate delegate, List<SaxEventHandlerFactory> factories) {
+      this.delegate = delegate;
+      this.factories = factories;
+    }
+  }
 }
@@ -0,0 +1,69 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.transformer.xml.streaming.lib;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * A pool of configured {@link XMLReader}s, so that a new parser does not have to be created and
+ * configured for each document. A reader can be reused once it has finished parsing a document, but
+ * not by two threads at once, so each reader is borrowed from the pool for one parse and then
+ * released back to it.
+ */
+public class XmlReaderPool {
+
+  private static final DefaultHandler NO_OP_HANDLER = new DefaultHandler();
+
+  private final BlockingQueue<XMLReader> readers;
+
+  private final ReaderFactory readerFactory;
+
+  /**
+   * @param maximumSize the most idle readers to keep
+   * @param readerFactory creates and configures a new reader when none is idle
+   */
+  public XmlReaderPool(int maximumSize, ReaderFactory readerFactory) {
+    this.readers = new ArrayBlockingQueue<>(Math.max(1, maximumSize));
+    this.readerFactory = readerFactory;
+  }
+
+  /** @return an idle reader, or a new one if none is idle */
+  public XMLReader borrow() throws SAXException {
+    XMLReader reader = readers.poll();
+    return reader != null ? reader : readerFactory.create();
+  }
+
+  /**
+   * Returns a reader to the pool once it has finished parsing. Its handlers are cleared so that the
+   * pool does not hold on to them.
+   */
+  public void release(XMLReader reader) {
+    if (reader == null) {
+      return;
+    }
+    reader.setContentHandler(NO_OP_HANDLER);
+    reader.setErrorHandler(NO_OP_HANDLER);
+    readers.offer(reader);
+  }
+
+  /** Creates and configures a new reader. */
+  @FunctionalInterface
+  public interface ReaderFactory {
+    XMLReader create() throws SAXException;
+  }
+}
@@ -18,7 +18,11 @@
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import ddf.catalog.data.Attribute;
@@ -35,6 +39,9 @@
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
@@ -183,6 +190,54 @@ public void testExceptionHappyHandler()
     assertThat(metacard.getAttribute(Metacard.ID).getValue(), is("test"));
   }
 
+  @Test
+  public void testStopAfterElements() throws Exception {
+    InputStream inputStream = new FileInputStream("src/test/resources/metacard2.xml");
+    SaxEventHandlerFactory saxEventHandlerFactory = mock(SaxEventHandlerFactory.class);
+    when(saxEventHandlerFactory.getId()).thenReturn("test");
+    SaxEventHandler handler = getNewHandler();
+    when(saxEventHandlerFactory.getNewSaxEventHandler()).thenReturn(handler);
+    XmlInputTransformer xmlInputTransformer = new XmlInputTransformer();
+    xmlInputTransformer.setSaxEventHandlerConfiguration(Collections.singletonList("test"));
+    xmlInputTransformer.setSaxEventHandlerFactories(
+        Collections.singletonList(saxEventHandlerFactory));
+    xmlInputTransformer.setStopAfterElements(Collections.singletonList("metacard/type"));
+
+    Metacard metacard = xmlInputTransformer.transform(inputStream, "test");
+
+    verify(handler).endElement(any(), eq("type"), any());
+    verify(handler, never()).startElement(any(), eq("source"), any(), any());
+    verify(handler, times(1)).endDocument();
+    assertThat(
+        metacard.getAttribute(Metacard.METADATA).getValue(),
+        is(
+            new String(
+                Files.readAllBytes(Paths.get("src/test/resources/metacard2.xml")),
+                StandardCharsets.UTF_8)));
+  }
+
+  @Test
+  public void testReusableDelegateIsReused() throws Exception {
+    SaxEventHandlerFactory saxEventHandlerFactory = mock(SaxEventHandlerFactory.class);
+    when(saxEventHandlerFactory.getId()).thenReturn("test");
+    SaxEventHandler handler = getNewHandler();
+    when(handler.isReusable()).thenReturn(true);
+    when(saxEventHandlerFactory.getNewSaxEventHandler()).thenReturn(handler);
+    XmlInputTransformer xmlInputTransformer = new XmlInputTransformer();
+    xmlInputTransformer.setSaxEventHandlerConfiguration(Collections.singletonList("test"));
+    xmlInputTransformer.setSaxEventHandlerFactories(
+        Collections.singletonList(saxEventHandlerFactory));
+
+    for (int i = 0; i < 3; i++) {
+      try (InputStream inputStream = new FileInputStream("src/test/resources/metacard2.xml")) {
+        xmlInputTransformer.transform(inputStream, "test");
+      }
+    }
+
+    verify(saxEventHandlerFactory, times(1)).getNewSaxEventHandler();
+    verify(handler, times(3)).startDocument();
+  }
+
   @Test
   public void testDescribableGettersSetters() {
     XmlInputTransformer inputTransformer = new XmlInputTransformer();
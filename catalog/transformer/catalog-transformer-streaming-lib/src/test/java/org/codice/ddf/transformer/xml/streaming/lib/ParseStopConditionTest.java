@@ -0,0 +1,72 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.transformer.xml.streaming.lib;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Test;
+
+public class ParseStopConditionTest {
+
+  @Test
+  public void testEmptyConditionNeverStops() {
+    ParseStopCondition condition = new ParseStopCondition(Arrays.asList("", " "));
+
+    condition.startElement("metacard");
+
+    assertThat(condition.isEmpty(), is(true));
+    assertThat(condition.endElement(), is(false));
+  }
+
+  @Test
+  public void testStopsOnceEveryElementHasEnded() {
+    ParseStopCondition condition = new ParseStopCondition(Arrays.asList("title", "source"));
+
+    condition.startElement("metacard");
+    condition.startElement("title");
+    assertThat(condition.endElement(), is(false));
+    condition.startElement("source");
+
+    assertThat(condition.endElement(), is(true));
+  }
+
+  @Test
+  public void testPathMatchesParents() {
+    ParseStopCondition condition =
+        new ParseStopCondition(Collections.singletonList("string/value"));
+
+    condition.startElement("metacard");
+    condition.startElement("value");
+    assertThat(condition.endElement(), is(false));
+    condition.startElement("string");
+    condition.startElement("value");
+
+    assertThat(condition.endElement(), is(true));
+  }
+
+  @Test
+  public void testResetStartsOver() {
+    ParseStopCondition condition = new ParseStopCondition(Arrays.asList("title", "source"));
+    condition.startElement("title");
+    condition.endElement();
+
+    condition.reset();
+    condition.startElement("source");
+
+    assertThat(condition.endElement(), is(false));
+  }
+}
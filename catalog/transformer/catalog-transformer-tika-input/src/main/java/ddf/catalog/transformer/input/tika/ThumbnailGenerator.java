@@ -0,0 +1,155 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.transformer.input.tika;
+
+import com.github.jaiimageio.jpeg2000.J2KImageReadParam;
+import ddf.catalog.util.impl.Jpeg2000Resolutions;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.concurrent.Semaphore;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import org.imgscalr.Scalr;
+
+/**
+ * Creates JPEG thumbnails of images without decoding them at full resolution.
+ *
+ * <p>Only as much of the image as the thumbnail needs is decoded: JPEG 2000 images are decoded at
+ * the lowest resolution level that is still larger than the thumbnail, TIFF images use the smallest
+ * matching overview, and other images are read with source subsampling. The memory needed for a
+ * thumbnail therefore depends on the thumbnail size rather than on the size of the image. The
+ * number of thumbnails created at the same time is also limited.
+ */
+class ThumbnailGenerator {
+
+  static final int THUMBNAIL_SIZE = 200;
+
+  /** Images are decoded at up to twice the thumbnail size so the final resize stays smooth. */
+  private static final int DECODE_SIZE = THUMBNAIL_SIZE * 2;
+
+  /** Overviews must have the aspect ratio of the full image to within this fraction. */
+  private static final double OVERVIEW_ASPECT_TOLERANCE = 0.02;
+
+  private volatile Semaphore permits;
+
+  ThumbnailGenerator(int maxConcurrentThumbnails) {
+    setMaxConcurrentThumbnails(maxConcurrentThumbnails);
+  }
+
+  void setMaxConcurrentThumbnails(int maxConcurrentThumbnails) {
+    permits = new Semaphore(Math.max(1, maxConcurrentThumbnails), true);
+  }
+
+  /**
+   * @param input the image
+   * @return the JPEG thumbnail, or null if no registered image reader can read {@code input}
+   * @throws IOException if the image cannot be read
+   * @throws InterruptedException if interrupted while waiting for other thumbnails to finish
+   */
+  byte[] createThumbnail(InputStream input) throws IOException, InterruptedException {
+    Semaphore acquired = permits;
+    acquired.acquire();
+    try (ImageInputStream imageInputStream = ImageIO.createImageInputStream(input)) {
+      if (imageInputStream == null) {
+        return null;
+      }
+
+      Iterator<ImageReader> readers = ImageIO.getImageReaders(imageInputStream);
+      if (!readers.hasNext()) {
+        return null;
+      }
+
+      ImageReader reader = readers.next();
+      try {
+        reader.setInput(imageInputStream);
+        BufferedImage thumbnail = Scalr.resize(toRgb(readReduced(reader)), THUMBNAIL_SIZE);
+
+        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+          ImageIO.write(thumbnail, "jpeg", out);
+          return out.toByteArray();
+        }
+      } finally {
+        reader.dispose();
+      }
+    } finally {
+      acquired.release();
+    }
+  }
+
+  private static BufferedImage readReduced(ImageReader reader) throws IOException {
+    int imageIndex = selectOverview(reader);
+    int width = reader.getWidth(imageIndex);
+    int height = reader.getHeight(imageIndex);
+    int reduction = Math.max(1, Math.max(width, height) / DECODE_SIZE);
+
+    ImageReadParam param = reader.getDefaultReadParam();
+    if (reduction > 1 && param instanceof J2KImageReadParam) {
+      return Jpeg2000Resolutions.readAtLeast(
+          reader, param, ((J2KImageReadParam) param)::setResolution, DECODE_SIZE);
+    }
+
+    param.setSourceSubsampling(reduction, reduction, 0, 0);
+    return reader.read(imageIndex, param);
+  }
+
+  /**
+   * Returns the index of the smallest reduced-resolution image of a TIFF that is still larger than
+   * the decode size, or 0 if the TIFF has no such overview.
+   */
+  private static int selectOverview(ImageReader reader) throws IOException {
+    if (!"tif".equalsIgnoreCase(reader.getFormatName())
+        && !"tiff".equalsIgnoreCase(reader.getFormatName())) {
+      return 0;
+    }
+
+    int width = reader.getWidth(0);
+    int height = reader.getHeight(0);
+    double aspect = (double) width / height;
+    int selected = 0;
+    int selectedSize = Math.max(width, height);
+
+    int images = reader.getNumImages(true);
+    for (int i = 1; i < images; i++) {
+      int overviewWidth = reader.getWidth(i);
+      int overviewHeight = reader.getHeight(i);
+      int overviewSize = Math.max(overviewWidth, overviewHeight);
+      double overviewAspect = (double) overviewWidth / overviewHeight;
+      if (overviewSize >= DECODE_SIZE
+          && overviewSize < selectedSize
+          && Math.abs(overviewAspect - aspect) <= aspect * OVERVIEW_ASPECT_TOLERANCE) {
+        selected = i;
+        selectedSize = overviewSize;
+      }
+    }
+    return selected;
+  }
+
+  private static BufferedImage toRgb(BufferedImage image) {
+    if (image.getType() == BufferedImage.TYPE_INT_RGB) {
+      return image;
+    }
+    BufferedImage rgb =
+        new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+    Graphics2D graphics = rgb.createGraphics();
+    graphics.drawImage(image, null, null);
+    graphics.dispose();
+    return rgb;
+  }
+}
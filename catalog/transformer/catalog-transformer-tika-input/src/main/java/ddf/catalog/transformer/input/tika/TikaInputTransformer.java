@@ -34,10 +34,6 @@
 import ddf.catalog.transformer.common.tika.MetacardCreator;
 import ddf.catalog.transformer.common.tika.TikaMetadataExtractor;
 import ddf.catalog.util.impl.ServiceComparator;
-import java.awt.Graphics2D;
-import java.awt.Image;
-import java.awt.image.BufferedImage;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
@@ -53,7 +49,6 @@
 import java.util.TreeMap;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
-import javax.imageio.ImageIO;
 import javax.imageio.spi.IIORegistry;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.io.input.CloseShieldInputStream;
@@ -64,7 +59,6 @@
 import org.apache.tika.mime.MediaTypeRegistry;
 import org.codice.ddf.configuration.DictionaryMap;
 import org.codice.ddf.platform.util.TemporaryFileBackedOutputStream;
-import org.imgscalr.Scalr;
 import org.osgi.framework.Bundle;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.Constants;
@@ -165,6 +159,9 @@ public class TikaInputTransformer implements InputTransformer {
 
   private boolean useResourceTitleAsTitle;
 
+  private final ThumbnailGenerator thumbnailGenerator =
+      new ThumbnailGenerator(Runtime.getRuntime().availableProcessors());
+
   public TikaInputTransformer(BundleContext bundleContext, MetacardType metacardType) {
     this.commonTikaMetacardType = metacardType;
     classLoaderAndBundleContextSetup(bundleContext);
@@ -457,6 +454,10 @@ public void removeMetadataExtractor(ServiceReference<MetadataExtractor> metadata
     metadataExtractors.remove(metadataExtractorRef);
   }
 
+  public void setMaxConcurrentThumbnails(int maxConcurrentThumbnails) {
+    thumbnailGenerator.setMaxConcurrentThumbnails(maxConcurrentThumbnails);
+  }
+
   /** @param useResourceTitleAsTitle must be non-null */
   public void setUseResourceTitleAsTitle(Boolean useResourceTitleAsTitle) {
     Validate.notNull(useResourceTitleAsTitle, "useResourceTitleAsTitle must be non-null");
@@ -602,27 +603,16 @@ private void addMediaTypetoMimeTypes(MediaType mediaType, List<String> mimeTypes
 
   private void createThumbnail(InputStream input, Metacard metacard) {
     try {
-      Image image = ImageIO.read(new CloseShieldInputStream(input));
-
-      if (null != image) {
-        BufferedImage bufferedImage =
-            new BufferedImage(
-                image.getWidth(null), image.getHeight(null), BufferedImage.TYPE_INT_RGB);
-        Graphics2D graphics = bufferedImage.createGraphics();
-        graphics.drawImage(image, null, null);
-        graphics.dispose();
+      byte[] thumbBytes = thumbnailGenerator.createThumbnail(new CloseShieldInputStream(input));
 
-        BufferedImage thumb = Scalr.resize(bufferedImage, 200);
-
-        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-          ImageIO.write(thumb, "jpeg", out);
-
-          byte[] thumbBytes = out.toByteArray();
-          metacard.setAttribute(new AttributeImpl(Metacard.THUMBNAIL, thumbBytes));
-        }
+      if (null != thumbBytes) {
+        metacard.setAttribute(new AttributeImpl(Metacard.THUMBNAIL, thumbBytes));
       } else {
         LOGGER.debug("Unable to read image from input stream to create thumbnail.");
       }
+    } catch (InterruptedException e) {
+      LOGGER.debug("Interrupted while waiting to create thumbnail.", e);
+      Thread.currentThread().interrupt();
     } catch (Exception e) {
       LOGGER.debug("Unable to read image from input stream to create thumbnail.", e);
     }
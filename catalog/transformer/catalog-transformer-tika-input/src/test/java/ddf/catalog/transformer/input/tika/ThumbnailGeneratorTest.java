@@ -0,0 +1,111 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.transformer.input.tika;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import org.junit.Test;
+
+public class ThumbnailGeneratorTest {
+
+  private final ThumbnailGenerator thumbnailGenerator = new ThumbnailGenerator(1);
+
+  @Test
+  public void testSubsampledThumbnail() throws Exception {
+    BufferedImage thumbnail = thumbnail(write(image(1700, 850, Color.RED), "png"));
+
+    assertThat(thumbnail.getWidth(), is(ThumbnailGenerator.THUMBNAIL_SIZE));
+    assertThat(thumbnail.getHeight(), is(ThumbnailGenerator.THUMBNAIL_SIZE / 2));
+    assertThat(new Color(thumbnail.getRGB(100, 50)).getRed(), is(greaterThan(200)));
+  }
+
+  @Test
+  public void testPortraitThumbnail() throws Exception {
+    BufferedImage thumbnail = thumbnail(write(image(300, 900, Color.RED), "jpeg"));
+
+    assertThat(thumbnail.getHeight(), is(ThumbnailGenerator.THUMBNAIL_SIZE));
+  }
+
+  @Test
+  public void testJpeg2000Thumbnail() throws Exception {
+    BufferedImage thumbnail = thumbnail(write(image(1600, 800, Color.RED), "jpeg2000"));
+
+    assertThat(thumbnail.getWidth(), is(ThumbnailGenerator.THUMBNAIL_SIZE));
+    assertThat(thumbnail.getHeight(), is(ThumbnailGenerator.THUMBNAIL_SIZE / 2));
+  }
+
+  @Test
+  public void testTiffOverviewIsUsed() throws Exception {
+    ImageWriter writer = ImageIO.getImageWritersByFormatName("tiff").next();
+    ByteArrayOutputStream tiff = new ByteArrayOutputStream();
+    try (ImageOutputStream out = ImageIO.createImageOutputStream(tiff)) {
+      writer.setOutput(out);
+      writer.prepareWriteSequence(null);
+      writer.writeToSequence(new IIOImage(image(1600, 800, Color.RED), null, null), null);
+      writer.writeToSequence(new IIOImage(image(400, 200, Color.BLUE), null, null), null);
+      writer.endWriteSequence();
+    } finally {
+      writer.dispose();
+    }
+
+    BufferedImage thumbnail = thumbnail(tiff.toByteArray());
+
+    assertThat(thumbnail.getWidth(), is(ThumbnailGenerator.THUMBNAIL_SIZE));
+    Color color = new Color(thumbnail.getRGB(100, 50));
+    assertThat(color.getBlue(), is(greaterThan(200)));
+    assertThat(color.getRed(), is(lessThan(50)));
+  }
+
+  @Test
+  public void testNotAnImage() throws Exception {
+    assertThat(
+        thumbnailGenerator.createThumbnail(new ByteArrayInputStream("text".getBytes())),
+        is(nullValue()));
+  }
+
+  private BufferedImage thumbnail(byte[] image) throws IOException, InterruptedException {
+    return ImageIO.read(
+        new ByteArrayInputStream(
+            thumbnailGenerator.createThumbnail(new ByteArrayInputStream(image))));
+  }
+
+  private static BufferedImage image(int width, int height, Color color) {
+    BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
+    Graphics2D graphics = image.createGraphics();
+    graphics.setColor(color);
+    graphics.fillRect(0, 0, width, height);
+    graphics.dispose();
+    return image;
+  }
+
+  private static byte[] write(BufferedImage image, String format) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ImageIO.write(image, format, out);
+    return out.toByteArray();
+  }
+}
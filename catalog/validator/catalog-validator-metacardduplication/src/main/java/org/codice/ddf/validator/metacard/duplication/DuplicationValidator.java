@@ -14,18 +14,22 @@
 package org.codice.ddf.validator.metacard.duplication;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.Iterables;
 import ddf.catalog.CatalogFramework;
 import ddf.catalog.data.Attribute;
 import ddf.catalog.data.Metacard;
+import ddf.catalog.data.Result;
+import ddf.catalog.data.types.Core;
 import ddf.catalog.federation.FederationException;
 import ddf.catalog.filter.FilterBuilder;
+import ddf.catalog.filter.impl.SortByImpl;
 import ddf.catalog.operation.QueryRequest;
 import ddf.catalog.operation.SourceResponse;
 import ddf.catalog.operation.impl.QueryImpl;
 import ddf.catalog.operation.impl.QueryRequestImpl;
 import ddf.catalog.source.SourceUnavailableException;
 import ddf.catalog.source.UnsupportedQueryException;
-import ddf.catalog.validation.MetacardValidator;
+import ddf.catalog.validation.BatchMetacardValidator;
 import ddf.catalog.validation.ReportingMetacardValidator;
 import ddf.catalog.validation.ValidationException;
 import ddf.catalog.validation.impl.ValidationExceptionImpl;
@@ -35,10 +39,16 @@
 import ddf.catalog.validation.violation.ValidationViolation;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
@@ -46,12 +56,15 @@
 import java.util.stream.Stream;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.ArrayUtils;
+import org.apache.commons.lang.StringUtils;
 import org.geotools.api.filter.Filter;
+import org.geotools.api.filter.sort.SortBy;
+import org.geotools.api.filter.sort.SortOrder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 public class DuplicationValidator
-    implements MetacardValidator,
+    implements BatchMetacardValidator,
         ReportingMetacardValidator,
         ddf.catalog.util.Describable,
         org.codice.ddf.platform.services.common.Describable {
@@ -63,6 +76,14 @@
 
   private static final String VERSION = "version";
 
+  /** Keeps the number of clauses in each batch query well below common search engine limits. */
+  private static final int MAX_VALUES_PER_QUERY = 256;
+
+  private static final int BATCH_PAGE_SIZE = 1000;
+
+  /** Pages of batch query results are sorted by id so that paging neither skips nor repeats any. */
+  private static final SortBy ID_ASCENDING = new SortByImpl(Core.ID, SortOrder.ASCENDING);
+
   private static Properties describableProperties = new Properties();
 
   static {
@@ -126,32 +147,64 @@ public void validate(Metacard metacard) throws ValidationException {
     final Optional<MetacardValidationReport> report = validateMetacard(metacard);
 
     if (report.isPresent()) {
-      final List<String> errors =
-          report.get().getMetacardValidationViolations().stream()
-              .filter(
-                  validationViolation ->
-                      validationViolation.getSeverity().equals(ValidationViolation.Severity.ERROR))
-              .map(ValidationViolation::getMessage)
-              .collect(Collectors.toList());
-      final List<String> warnings =
-          report.get().getMetacardValidationViolations().stream()
-              .filter(
-                  validationViolation ->
-                      validationViolation
-                          .getSeverity()
-                          .equals(ValidationViolation.Severity.WARNING))
-              .map(ValidationViolation::getMessage)
-              .collect(Collectors.toList());
-
-      String message =
-          String.format("Duplicate data found in catalog for ID {%s}.", metacard.getId());
-      final ValidationExceptionImpl exception = new ValidationExceptionImpl(message);
-      exception.setErrors(errors);
-      exception.setWarnings(warnings);
-      throw exception;
+      throw createValidationException(metacard, report.get());
     }
   }
 
+  /**
+   * Validates a batch of metacards with one catalog query per configured attribute (split into
+   * chunks of {@value #MAX_VALUES_PER_QUERY} values) instead of one query per metacard. A metacard
+   * is also reported as a duplicate of any metacard earlier in the batch that shares one of its
+   * attribute values, so only the first of several duplicates in a batch passes.
+   */
+  @Override
+  public Map<Metacard, ValidationException> validateAll(List<Metacard> metacards) {
+    Preconditions.checkArgument(metacards != null, "The metacards cannot be null.");
+
+    Map<Metacard, Set<ValidationViolation>> violations = new IdentityHashMap<>();
+    if (ArrayUtils.isNotEmpty(warnOnDuplicateAttributes)) {
+      reportDuplicates(
+          metacards, warnOnDuplicateAttributes, ValidationViolation.Severity.WARNING, violations);
+    }
+    if (ArrayUtils.isNotEmpty(errorOnDuplicateAttributes)) {
+      reportDuplicates(
+          metacards, errorOnDuplicateAttributes, ValidationViolation.Severity.ERROR, violations);
+    }
+
+    Map<Metacard, ValidationException> failures = new IdentityHashMap<>();
+    violations.forEach(
+        (metacard, metacardViolations) ->
+            getReport(metacardViolations)
+                .ifPresent(
+                    report -> failures.put(metacard, createValidationException(metacard, report))));
+    return failures;
+  }
+
+  private ValidationException createValidationException(
+      Metacard metacard, MetacardValidationReport report) {
+    final List<String> errors =
+        report.getMetacardValidationViolations().stream()
+            .filter(
+                validationViolation ->
+                    validationViolation.getSeverity().equals(ValidationViolation.Severity.ERROR))
+            .map(ValidationViolation::getMessage)
+            .collect(Collectors.toList());
+    final List<String> warnings =
+        report.getMetacardValidationViolations().stream()
+            .filter(
+                validationViolation ->
+                    validationViolation.getSeverity().equals(ValidationViolation.Severity.WARNING))
+            .map(ValidationViolation::getMessage)
+            .collect(Collectors.toList());
+
+    String message =
+        String.format("Duplicate data found in catalog for ID {%s}.", metacard.getId());
+    final ValidationExceptionImpl exception = new ValidationExceptionImpl(message);
+    exception.setErrors(errors);
+    exception.setWarnings(warnings);
+    return exception;
+  }
+
   private Set<ValidationViolation> reportDuplicates(final Metacard metacard) {
 
     Set<ValidationViolation> violations = new HashSet<>();
@@ -210,6 +263,136 @@ private ValidationViolation reportDuplicates(
     return violation;
   }
 
+  private void reportDuplicates(
+      final List<Metacard> metacards,
+      String[] attributeNames,
+      ValidationViolation.Severity severity,
+      Map<Metacard, Set<ValidationViolation>> violations) {
+
+    Map<Metacard, Integer> batchIndexes = new IdentityHashMap<>();
+    // attribute name -> value -> metacards in the batch with that value, in batch order
+    Map<String, Map<String, List<Metacard>>> batchValues = new LinkedHashMap<>();
+    for (Metacard metacard : metacards) {
+      batchIndexes.putIfAbsent(metacard, batchIndexes.size());
+      for (String attributeName : attributeNames) {
+        for (String value : getValues(metacard, attributeName)) {
+          batchValues
+              .computeIfAbsent(attributeName, name -> new LinkedHashMap<>())
+              .computeIfAbsent(value, v -> new ArrayList<>())
+              .add(metacard);
+        }
+      }
+    }
+
+    Map<String, Map<String, Set<String>>> catalogIds = new HashMap<>();
+    batchValues.forEach(
+        (attributeName, values) ->
+            catalogIds.put(attributeName, queryIds(attributeName, values.keySet())));
+
+    for (Metacard metacard : metacards) {
+      Set<String> uniqueAttributeNames = new HashSet<>();
+      Set<String> duplicates = new HashSet<>();
+
+      for (String attributeName : attributeNames) {
+        if (metacard.getAttribute(attributeName) == null) {
+          continue;
+        }
+        uniqueAttributeNames.add(attributeName);
+
+        for (String value : getValues(metacard, attributeName)) {
+          catalogIds.get(attributeName).getOrDefault(value, new HashSet<>()).stream()
+              .filter(id -> !id.equals(metacard.getId()))
+              .forEach(duplicates::add);
+
+          for (Metacard earlier : batchValues.get(attributeName).get(value)) {
+            if (earlier == metacard) {
+              break;
+            }
+            if (earlier.getId() == null || !earlier.getId().equals(metacard.getId())) {
+              duplicates.add(describe(earlier, batchIndexes.get(earlier)));
+            }
+          }
+        }
+      }
+
+      if (!duplicates.isEmpty()) {
+        ValidationViolation violation = createViolation(uniqueAttributeNames, duplicates, severity);
+        LOGGER.debug(violation.getMessage());
+        violations.computeIfAbsent(metacard, m -> new HashSet<>()).add(violation);
+      }
+    }
+  }
+
+  /**
+   * @return the id of a metacard in a batch, or if it does not have one yet, its title or position
+   *     in the batch
+   */
+  private static String describe(Metacard metacard, int batchIndex) {
+    if (metacard.getId() != null) {
+      return metacard.getId();
+    }
+    if (StringUtils.isNotBlank(metacard.getTitle())) {
+      return String.format("metacard titled '%s'", metacard.getTitle());
+    }
+    return String.format("metacard %d of the batch", batchIndex + 1);
+  }
+
+  private static Set<String> getValues(Metacard metacard, String attributeName) {
+    Attribute attribute = metacard.getAttribute(attributeName);
+    if (attribute == null || attribute.getValues() == null) {
+      return new HashSet<>();
+    }
+    return attribute.getValues().stream()
+        .filter(value -> value != null)
+        .map(value -> value.toString().trim())
+        .collect(Collectors.toSet());
+  }
+
+  /** @return the ids of the catalog metacards with each of the given attribute values */
+  private Map<String, Set<String>> queryIds(String attributeName, Set<String> values) {
+    Map<String, Set<String>> idsByValue = new HashMap<>();
+
+    for (List<String> chunk : Iterables.partition(values, MAX_VALUES_PER_QUERY)) {
+      final Filter filter =
+          filterBuilder.allOf(
+              filterBuilder.anyOf(
+                  chunk.stream()
+                      .map(value -> filterBuilder.attribute(attributeName).equalTo().text(value))
+                      .toArray(Filter[]::new)));
+
+      int startIndex = 1;
+      List<Result> results;
+      do {
+        // keeps the default timeout, as the query of a single metacard does
+        QueryImpl query = new QueryImpl(filter);
+        query.setStartIndex(startIndex);
+        query.setPageSize(BATCH_PAGE_SIZE);
+        query.setSortBy(ID_ASCENDING);
+        query.setRequestsTotalResultsCount(false);
+        SourceResponse response = query(query);
+        if (response == null) {
+          break;
+        }
+        results = response.getResults();
+        for (Result result : results) {
+          Attribute attribute = result.getMetacard().getAttribute(attributeName);
+          if (attribute == null || attribute.getValues() == null) {
+            continue;
+          }
+          for (Serializable value : attribute.getValues()) {
+            if (value != null && values.contains(value.toString().trim())) {
+              idsByValue
+                  .computeIfAbsent(value.toString().trim(), v -> new HashSet<>())
+                  .add(result.getMetacard().getId());
+            }
+          }
+        }
+        startIndex += BATCH_PAGE_SIZE;
+      } while (results.size() >= BATCH_PAGE_SIZE);
+    }
+    return idsByValue;
+  }
+
   private Filter[] buildFilters(Set<Attribute> attributes) {
 
     return attributes.stream()
@@ -233,6 +416,10 @@ private SourceResponse query(Set<Attribute> attributes) {
 
     QueryImpl query = new QueryImpl(filter);
     query.setRequestsTotalResultsCount(false);
+    return query(query);
+  }
+
+  private SourceResponse query(QueryImpl query) {
     QueryRequest request = new QueryRequestImpl(query);
 
     SourceResponse response = null;
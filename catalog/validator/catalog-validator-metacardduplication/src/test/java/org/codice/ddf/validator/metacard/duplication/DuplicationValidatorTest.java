@@ -24,6 +24,7 @@
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -33,10 +34,13 @@
 import ddf.catalog.data.impl.AttributeImpl;
 import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.data.impl.ResultImpl;
+import ddf.catalog.data.types.Core;
 import ddf.catalog.federation.FederationException;
 import ddf.catalog.filter.FilterBuilder;
+import ddf.catalog.operation.Query;
 import ddf.catalog.operation.QueryRequest;
 import ddf.catalog.operation.QueryResponse;
+import ddf.catalog.operation.impl.QueryImpl;
 import ddf.catalog.plugin.PluginExecutionException;
 import ddf.catalog.plugin.StopProcessingException;
 import ddf.catalog.source.SourceUnavailableException;
@@ -53,6 +57,7 @@
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.geotools.api.filter.Filter;
+import org.geotools.api.filter.sort.SortOrder;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -241,4 +246,93 @@ public void testValidateMetacardWithMultiValuedAttribute()
               assertThat(violation.getMessage(), containsString(Metacard.TAGS));
             });
   }
+
+  @Test
+  public void testValidateAllQueriesOnceForBatch()
+      throws UnsupportedQueryException, SourceUnavailableException, FederationException {
+    validator.setErrorOnDuplicateAttributes(new String[] {Metacard.CHECKSUM});
+
+    MetacardImpl otherMetacard = new MetacardImpl();
+    otherMetacard.setId("other metacard ID");
+    otherMetacard.setAttribute(new AttributeImpl(Metacard.CHECKSUM, "other-checksum-value"));
+
+    Map<Metacard, ValidationException> failures =
+        validator.validateAll(Arrays.asList(testMetacard, otherMetacard));
+
+    verify(mockFramework, times(1)).query(any(QueryRequest.class));
+    assertThat(failures.size(), is(1));
+    assertThat(failures.get(testMetacard).getErrors().get(0), containsString(ID));
+    assertThat(failures.containsKey(otherMetacard), is(false));
+  }
+
+  @Test
+  public void testValidateAllFlagsLaterDuplicatesInBatch() {
+    validator.setWarnOnDuplicateAttributes(new String[] {Metacard.CHECKSUM});
+
+    MetacardImpl first = new MetacardImpl();
+    first.setId("first");
+    first.setAttribute(new AttributeImpl(Metacard.CHECKSUM, "new-checksum-value "));
+    MetacardImpl second = new MetacardImpl();
+    second.setId("second");
+    second.setAttribute(new AttributeImpl(Metacard.CHECKSUM, "new-checksum-value"));
+
+    Map<Metacard, ValidationException> failures =
+        validator.validateAll(Arrays.asList(first, second));
+
+    assertThat(failures.size(), is(1));
+    assertThat(failures.get(second).getWarnings().get(0), containsString("first"));
+  }
+
+  @Test
+  public void testValidateAllPagesInIdOrderWithATimeout()
+      throws UnsupportedQueryException, SourceUnavailableException, FederationException {
+    validator.setErrorOnDuplicateAttributes(new String[] {Metacard.CHECKSUM});
+    ArgumentCaptor<QueryRequest> queryRequestCaptor = ArgumentCaptor.forClass(QueryRequest.class);
+
+    validator.validateAll(Arrays.asList(testMetacard));
+
+    verify(mockFramework).query(queryRequestCaptor.capture());
+    Query query = queryRequestCaptor.getValue().getQuery();
+    assertThat(query.getSortBy().getPropertyName().getPropertyName(), is(Core.ID));
+    assertThat(query.getSortBy().getSortOrder(), is(SortOrder.ASCENDING));
+    assertThat(query.getTimeoutMillis(), is(new QueryImpl(Filter.INCLUDE).getTimeoutMillis()));
+  }
+
+  @Test
+  public void testValidateAllNamesBatchDuplicatesWithoutIds() {
+    validator.setWarnOnDuplicateAttributes(new String[] {Metacard.CHECKSUM});
+
+    MetacardImpl titled = new MetacardImpl();
+    titled.setTitle("first title");
+    titled.setAttribute(new AttributeImpl(Metacard.CHECKSUM, "new-checksum-value"));
+    MetacardImpl untitled = new MetacardImpl();
+    untitled.setAttribute(new AttributeImpl(Metacard.CHECKSUM, "new-checksum-value"));
+    MetacardImpl third = new MetacardImpl();
+    third.setId("third");
+    third.setAttribute(new AttributeImpl(Metacard.CHECKSUM, "new-checksum-value"));
+
+    Map<Metacard, ValidationException> failures =
+        validator.validateAll(Arrays.asList(titled, untitled, third));
+
+    String warning = failures.get(third).getWarnings().get(0);
+    assertThat(warning, containsString("metacard titled 'first title'"));
+    assertThat(warning, containsString("metacard 2 of the batch"));
+    assertThat(warning, not(containsString("null")));
+  }
+
+  @Test
+  public void testValidateAllNoDuplicates() {
+    validator.setErrorOnDuplicateAttributes(new String[] {Metacard.TITLE});
+
+    MetacardImpl metacard = new MetacardImpl();
+    metacard.setId("id");
+    metacard.setTitle("title");
+
+    assertThat(validator.validateAll(Arrays.asList(metacard)).isEmpty(), is(true));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testValidateAllNullInput() {
+    validator.validateAll(null);
+  }
 }
@@ -45,6 +45,8 @@ public class KlvContext {
 
   private final Map<String, KlvDataElement> keyToDataElementMap;
 
+  private volatile KlvKeyTrie keyTrie;
+
   /**
    * Constructs a {@code KlvContext} containing the properties of a specific KLV-encoded data set.
    *
@@ -95,6 +97,7 @@ public void addDataElement(final KlvDataElement dataElement) {
     Preconditions.checkArgument(dataElement != null, "The data element cannot be null.");
     nameToDataElementMap.put(dataElement.getName(), dataElement);
     keyToDataElementMap.put(dataElement.getKeyAsString(), dataElement);
+    keyTrie = null;
   }
 
   /**
@@ -111,6 +114,7 @@ public void addDataElements(final Collection<? extends KlvDataElement> dataEleme
           nameToDataElementMap.put(dataElement.getName(), dataElement);
           keyToDataElementMap.put(dataElement.getKeyAsString(), dataElement);
         });
+    keyTrie = null;
   }
 
   public KeyLength getKeyLength() {
@@ -157,4 +161,17 @@ public KlvDataElement getDataElementByName(final String name) {
   Map<String, KlvDataElement> getKeyToDataElementMap() {
     return keyToDataElementMap;
   }
+
+  /**
+   * Returns a {@link KlvKeyTrie} over the data elements in this {@code KlvContext}, building it on
+   * first use after the data elements change.
+   */
+  KlvKeyTrie getKeyTrie() {
+    KlvKeyTrie trie = keyTrie;
+    if (trie == null) {
+      trie = new KlvKeyTrie(keyToDataElementMap.values());
+      keyTrie = trie;
+    }
+    return trie;
+  }
 }
@@ -14,9 +14,8 @@
 package org.codice.ddf.libs.klv;
 
 import com.google.common.base.Preconditions;
-import java.util.List;
-import java.util.Map;
-import javax.xml.bind.DatatypeConverter;
+import java.nio.ByteBuffer;
+import java.util.function.Consumer;
 import org.codice.ddf.libs.klv.data.Klv;
 
 /** Decodes bytes that contain KLV-encoded data. */
@@ -52,39 +51,80 @@ public KlvDecoder(final KlvContext klvContext) {
   public KlvContext decode(final byte[] klvBytes) throws KlvDecodingException {
     Preconditions.checkArgument(klvBytes != null, "The array of bytes to decode cannot be null.");
 
-    List<Klv> klvDataElements;
-
-    try {
-      klvDataElements =
-          Klv.bytesToList(
-              klvBytes,
-              0,
-              klvBytes.length,
-              klvContext.getKeyLength(),
-              klvContext.getLengthEncoding());
-    } catch (RuntimeException e) {
-      throw new KlvDecodingException(
-          String.format(
-              "Could not decode KLV using the given key length %s and length encoding %s",
-              klvContext.getKeyLength(), klvContext.getLengthEncoding()),
-          e);
-    }
-
     final KlvContext decodedContext =
         new KlvContext(klvContext.getKeyLength(), klvContext.getLengthEncoding());
-    final Map<String, KlvDataElement> keyToDataElementMap = klvContext.getKeyToDataElementMap();
+    decode(ByteBuffer.wrap(klvBytes), decodedContext::addDataElement);
+    return decodedContext;
+  }
 
-    klvDataElements.forEach(
-        klv -> {
-          final String key = DatatypeConverter.printHexBinary(klv.getFullKey());
+  /**
+   * Decodes the KLV data between the position and limit of {@code klvBuffer} according to the
+   * properties in the {@link KlvContext} that was provided in the constructor, passing each decoded
+   * {@link KlvDataElement} to {@code callback} as soon as it has been decoded.
+   *
+   * <p>Keys are matched directly against the bytes in the buffer, and the value bytes of data
+   * elements that are not in the {@code KlvContext} are skipped without being copied, so this
+   * method can be used on a slice of a large (for example, memory-mapped) buffer.
+   *
+   * <p>The buffer's position is advanced past each KLV set as it is read. If the data is malformed,
+   * the data elements decoded before the malformed KLV set will already have been passed to {@code
+   * callback}.
+   *
+   * @param klvBuffer buffer holding data in KLV format
+   * @param callback called with a new decoded copy of each data element found in the buffer
+   * @throws IllegalArgumentException if {@code klvBuffer} or {@code callback} is null
+   * @throws KlvDecodingException if the KLV cannot be decoded using the given context information
+   */
+  public void decode(final ByteBuffer klvBuffer, final Consumer<KlvDataElement> callback)
+      throws KlvDecodingException {
+    Preconditions.checkArgument(klvBuffer != null, "The buffer to decode cannot be null.");
+    Preconditions.checkArgument(callback != null, "The callback cannot be null.");
 
-          if (keyToDataElementMap.containsKey(key)) {
-            final KlvDataElement dataElementCopy = keyToDataElementMap.get(key).copy();
-            dataElementCopy.decodeValue(klv);
-            decodedContext.addDataElement(dataElementCopy);
-          }
-        });
+    final KlvKeyTrie keyTrie = klvContext.getKeyTrie();
 
-    return decodedContext;
+    while (klvBuffer.hasRemaining()) {
+      final KlvDataElement dataElement;
+      final Klv klv;
+
+      try {
+        dataElement =
+            keyTrie.find(klvBuffer, klvBuffer.position(), klvContext.getKeyLength().value());
+        klv = dataElement == null ? skipKlv(klvBuffer) : readKlv(klvBuffer);
+      } catch (RuntimeException e) {
+        throw new KlvDecodingException(
+            String.format(
+                "Could not decode KLV using the given key length %s and length encoding %s",
+                klvContext.getKeyLength(), klvContext.getLengthEncoding()),
+            e);
+      }
+
+      if (klv != null) {
+        final KlvDataElement dataElementCopy = dataElement.copy();
+        dataElementCopy.decodeValue(klv);
+        callback.accept(dataElementCopy);
+      }
+    }
+  }
+
+  private Klv readKlv(final ByteBuffer klvBuffer) {
+    return Klv.fromBuffer(klvBuffer, klvContext.getKeyLength(), klvContext.getLengthEncoding());
+  }
+
+  private Klv skipKlv(final ByteBuffer klvBuffer) {
+    final int keyLength = klvContext.getKeyLength().value();
+    if (klvBuffer.remaining() < keyLength) {
+      throw new IndexOutOfBoundsException(
+          String.format("Not enough bytes for %d-byte key.", keyLength));
+    }
+    klvBuffer.position(klvBuffer.position() + keyLength);
+    final int length = Klv.readLength(klvBuffer, klvContext.getLengthEncoding());
+    if (length < 0 || length > klvBuffer.remaining()) {
+      throw new IndexOutOfBoundsException(
+          String.format(
+              "Not enough bytes left in buffer (%d) for the declared length (%d).",
+              klvBuffer.remaining(), length));
+    }
+    klvBuffer.position(klvBuffer.position() + length);
+    return null;
   }
 }
@@ -0,0 +1,81 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.libs.klv;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * A byte-indexed trie mapping KLV keys to the {@link KlvDataElement}s that decode them.
+ *
+ * <p>Each node is a block of 256 slots in a single {@code int} array, indexed by the unsigned value
+ * of the next key byte, so looking up a key read from a {@link ByteBuffer} needs neither a copy of
+ * the key nor a hex {@link String}.
+ */
+final class KlvKeyTrie {
+  private static final int FANOUT = 256;
+
+  private static final int NO_CHILD = 0;
+
+  private int[] children = new int[FANOUT];
+
+  private KlvDataElement[] elements = new KlvDataElement[1];
+
+  private int nodeCount = 1;
+
+  KlvKeyTrie(final Collection<KlvDataElement> dataElements) {
+    dataElements.forEach(this::add);
+  }
+
+  /**
+   * Finds the data element whose key is the {@code keyLength} bytes of {@code buffer} starting at
+   * absolute index {@code offset}. The buffer's position is not changed.
+   *
+   * @return the matching data element, or null if no data element has that key
+   */
+  KlvDataElement find(final ByteBuffer buffer, final int offset, final int keyLength) {
+    int node = 0;
+    for (int i = 0; i < keyLength; i++) {
+      node = children[node * FANOUT + (buffer.get(offset + i) & 0xFF)];
+      if (node == NO_CHILD) {
+        return null;
+      }
+    }
+    return elements[node];
+  }
+
+  private void add(final KlvDataElement dataElement) {
+    final byte[] key = dataElement.keyBytes;
+    int node = 0;
+    for (final byte keyByte : key) {
+      final int slot = node * FANOUT + (keyByte & 0xFF);
+      if (children[slot] == NO_CHILD) {
+        // newNode() may replace the children array, so it must be called before the store
+        final int child = newNode();
+        children[slot] = child;
+      }
+      node = children[slot];
+    }
+    elements[node] = dataElement;
+  }
+
+  private int newNode() {
+    if (nodeCount == elements.length) {
+      elements = Arrays.copyOf(elements, nodeCount * 2);
+      children = Arrays.copyOf(children, nodeCount * 2 * FANOUT);
+    }
+    return nodeCount++;
+  }
+}
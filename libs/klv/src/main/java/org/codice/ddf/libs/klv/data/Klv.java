@@ -15,6 +15,7 @@
 
 import com.google.common.base.Preconditions;
 import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
@@ -161,6 +162,93 @@ private Klv(
     this.offsetAfterInstantiation = valueOffset + this.value.length;
   }
 
+  /**
+   * Creates a KLV set from the bytes at the current position of the given buffer, leaving the
+   * buffer positioned at the first byte after the KLV set. Only the value bytes are copied.
+   *
+   * @param buffer The buffer positioned at the start of the KLV set
+   * @param keyLength The number of bytes in the key.
+   * @param lengthEncoding The length field encoding type.
+   * @throws IndexOutOfBoundsException If the buffer does not hold the whole KLV set.
+   */
+  private Klv(
+      final ByteBuffer buffer, final KeyLength keyLength, final LengthEncoding lengthEncoding) {
+    checkEnoughBytesRemaining(
+        buffer.remaining(),
+        keyLength.value(),
+        String.format("Not enough bytes for %d-byte key.", keyLength.value()));
+
+    this.keyLength = keyLength;
+    if (keyLength == KeyLength.SIXTEEN_BYTES) {
+      this.keyIfLong = new byte[16];
+      buffer.get(this.keyIfLong);
+    } else {
+      for (int i = 0; i < keyLength.value(); i++) {
+        this.keyIfShort = (this.keyIfShort << 8) | (buffer.get() & 0xFF);
+      }
+    }
+
+    final int length = readLength(buffer, lengthEncoding);
+    checkEnoughBytesRemaining(
+        buffer.remaining(),
+        length,
+        String.format(
+            "Not enough bytes left in buffer (%d) for the declared length (%d).",
+            buffer.remaining(), length));
+
+    this.value = new byte[length];
+    buffer.get(this.value);
+  }
+
+  /**
+   * Reads the KLV set at the current position of {@code buffer} and advances the buffer past it.
+   * Unlike {@link #bytesToList}, the bytes following the KLV set are not examined, so a caller can
+   * decode a large buffer one KLV set at a time.
+   *
+   * @param buffer The buffer positioned at the start of the KLV set
+   * @param keyLength Length of the key
+   * @param lengthEncoding Flag indicating encoding type
+   * @return the KLV set
+   * @throws IndexOutOfBoundsException If the buffer does not hold the whole KLV set.
+   */
+  public static Klv fromBuffer(
+      final ByteBuffer buffer, final KeyLength keyLength, final LengthEncoding lengthEncoding) {
+    return new Klv(buffer, keyLength, lengthEncoding);
+  }
+
+  /**
+   * Reads a length field at the current position of {@code buffer} and advances the buffer past it.
+   *
+   * @param buffer The buffer positioned at the start of the length field
+   * @param lengthEncoding Flag indicating encoding type
+   * @return the number of value bytes declared by the length field
+   * @throws IndexOutOfBoundsException If the buffer does not hold the whole length field.
+   */
+  public static int readLength(final ByteBuffer buffer, final LengthEncoding lengthEncoding) {
+    final String lengthEncodingErrorMessage =
+        String.format("Not enough bytes for %s length encoding.", lengthEncoding);
+
+    int length = 0;
+    int lengthBytes = lengthEncoding.value();
+    if (lengthEncoding == LengthEncoding.BER) {
+      checkEnoughBytesRemaining(buffer.remaining(), 1, lengthEncodingErrorMessage);
+      final int ber = buffer.get() & 0xFF;
+
+      // Short BER form: the low seven bits are the length. Long BER form: the low seven bits
+      // are the number of bytes that follow and hold the length.
+      if ((ber & 0x80) == 0) {
+        return ber;
+      }
+      lengthBytes = ber & 0x7F;
+    }
+
+    checkEnoughBytesRemaining(buffer.remaining(), lengthBytes, lengthEncodingErrorMessage);
+    for (int i = 0; i < lengthBytes; i++) {
+      length = (length << 8) | (buffer.get() & 0xFF);
+    }
+    return length;
+  }
+
   /**
    * Returns a byte array representing the key. This is a copy of the bytes from the original byte
    * set.
@@ -205,6 +293,16 @@ public byte[] getValue() {
     return Arrays.copyOf(this.value, this.value.length);
   }
 
+  /**
+   * Returns the value of this KLV set as a read-only buffer over the underlying byte array, without
+   * copying it.
+   *
+   * @return the value
+   */
+  public ByteBuffer getValueAsBuffer() {
+    return ByteBuffer.wrap(this.value).asReadOnlyBuffer();
+  }
+
   /**
    * Returns up to the first byte of the value as an 8-bit signed integer.
    *
@@ -526,7 +624,7 @@ public static List<Klv> bytesToList(
     return list;
   }
 
-  private void checkEnoughBytesRemaining(
+  private static void checkEnoughBytesRemaining(
       final int actualNumberOfBytesRemaining,
       final int minimumExpectedNumberOfBytesRemaining,
       final String message) {
@@ -43,7 +43,11 @@ public KlvLocalSet(final byte[] key, final String name, final KlvContext localSe
   @Override
   protected void decodeValue(final Klv klv) {
     try {
-      value = new KlvDecoder(localSetKlvContext).decode(klv.getValue());
+      final KlvContext decodedContext =
+          new KlvContext(localSetKlvContext.getKeyLength(), localSetKlvContext.getLengthEncoding());
+      new KlvDecoder(localSetKlvContext)
+          .decode(klv.getValueAsBuffer(), decodedContext::addDataElement);
+      value = decodedContext;
     } catch (KlvDecodingException e) {
       LOGGER.debug("Couldn't decode the KLV local set named {}", name, e);
     }
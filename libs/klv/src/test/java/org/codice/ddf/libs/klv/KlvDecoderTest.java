@@ -27,11 +27,14 @@
 import static org.junit.Assert.fail;
 
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
@@ -224,6 +227,74 @@ public void testKLVSet() throws Exception {
         });
   }
 
+  @Test
+  public void testKLVSetFromBuffer() throws Exception {
+    byte[] klvBytes;
+
+    try (final InputStream inputStream =
+        getClass().getClassLoader().getResourceAsStream("testKLV.klv")) {
+      klvBytes = IOUtils.toByteArray(inputStream);
+    }
+
+    // Surround the KLV with unrelated bytes to check that only the slice is decoded.
+    final ByteBuffer buffer = ByteBuffer.allocate(klvBytes.length + 8);
+    buffer.put(new byte[] {1, 2, 3, 4}).put(klvBytes).put(new byte[] {5, 6, 7, 8});
+    buffer.position(4).limit(4 + klvBytes.length);
+
+    final List<KlvDataElement> decodedDataElements = new ArrayList<>();
+    new KlvDecoder(getKLVContext(DATA_ELEMENTS)).decode(buffer.slice(), decodedDataElements::add);
+
+    assertThat(decodedDataElements.size(), is(1));
+
+    final KlvContext localSet = ((KlvLocalSet) decodedDataElements.get(0)).getValue();
+    assertThat(localSet.getDataElements().size(), is(DATA_ELEMENTS.size()));
+    assertThat(
+        localSet.getDataElementByName(TIMESTAMP).getValue(), is(EXPECTED_VALUES.get(TIMESTAMP)));
+  }
+
+  @Test
+  public void testDecodeBufferSkipsUnknownKeys() throws KlvDecodingException {
+    final byte[] klvBytes = {9, 2, 1, 1, 7, 3, 9, 8, 7, 8, (byte) 0x81, 1, 0};
+    final KlvContext klvContext = new KlvContext(KeyLength.ONE_BYTE, LengthEncoding.BER);
+    klvContext.addDataElement(new KlvBytes(new byte[] {7}, "test"));
+
+    final List<KlvDataElement> decodedDataElements = new ArrayList<>();
+    final ByteBuffer buffer = ByteBuffer.wrap(klvBytes);
+    new KlvDecoder(klvContext).decode(buffer, decodedDataElements::add);
+
+    assertThat(decodedDataElements.size(), is(1));
+    assertThat(decodedDataElements.get(0).getValue(), is(new byte[] {9, 8, 7}));
+    assertThat(buffer.hasRemaining(), is(false));
+  }
+
+  @Test
+  public void testDecodeBufferPartialKey() {
+    final byte[] klvBytes = {7, 1, 1, -14, 7};
+    final KlvContext klvContext = new KlvContext(KeyLength.TWO_BYTES, LengthEncoding.ONE_BYTE);
+    klvContext.addDataElement(new KlvBytes(new byte[] {7, 1}, "test"));
+
+    final List<KlvDataElement> decodedDataElements = new ArrayList<>();
+    try {
+      new KlvDecoder(klvContext).decode(ByteBuffer.wrap(klvBytes), decodedDataElements::add);
+      fail("Should have thrown a KlvDecodingException.");
+    } catch (KlvDecodingException e) {
+      assertThat(e.getCause(), instanceOf(IndexOutOfBoundsException.class));
+    }
+  }
+
+  @Test
+  public void testDataElementAddedAfterDecoding() throws KlvDecodingException {
+    final byte[] klvBytes = {7, 1, 9, 8, 1, 6};
+    final KlvContext klvContext = new KlvContext(KeyLength.ONE_BYTE, LengthEncoding.ONE_BYTE);
+    klvContext.addDataElement(new KlvBytes(new byte[] {7}, "first"));
+    final KlvDecoder decoder = new KlvDecoder(klvContext);
+
+    assertThat(decoder.decode(klvBytes).getDataElements().size(), is(1));
+
+    klvContext.addDataElement(new KlvBytes(new byte[] {8}, "second"));
+    assertThat(decoder.decode(klvBytes).getDataElements().size(), is(2));
+  }
+
   private KlvContext decodeKLV(
       final KeyLength keyLength,
       final LengthEncoding lengthEncoding,
@@ -16,6 +16,7 @@
 import com.google.common.io.ByteSource;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -23,7 +24,6 @@
 import java.util.Set;
 import java.util.function.BiConsumer;
 import org.apache.commons.collections4.CollectionUtils;
-import org.apache.commons.lang.ArrayUtils;
 import org.jcodec.api.JCodecException;
 import org.jcodec.containers.mps.MTSUtils.StreamType;
 import org.jcodec.containers.mps.psi.PMTSection;
@@ -49,7 +49,8 @@ public class MpegTransportStreamMetadataExtractor {
 
   private final Map<Integer, PMTStream> programElementaryStreams = new HashMap<>();
 
-  private final Map<Integer, byte[]> currentMetadataPacketBytesByStream = new HashMap<>();
+  private final Map<Integer, MetadataPacketBuffer> currentMetadataPacketBytesByStream =
+      new HashMap<>();
 
   /**
    * Constructs an {@code MpegTransportStreamMetadataExtractor} with the given {@link ByteSource} as
@@ -72,6 +73,26 @@ public MpegTransportStreamMetadataExtractor(final ByteSource byteSource) {
    * @throws Exception if an error occurs while parsing the transport stream
    */
   public void getMetadata(final BiConsumer<Integer, byte[]> callback) throws Exception {
+    extractTransportStreamMetadata(
+        (streamId, metadataPacket) ->
+            callback.accept(streamId, getByteBufferAsBytes(metadataPacket)));
+  }
+
+  /**
+   * Parses the transport stream and calls the given callback for each metadata packet in each
+   * metadata stream found in the transport stream, without copying the metadata packet's payload.
+   * The callback is called immediately upon finding a complete metadata packet.
+   *
+   * <p>The buffer passed to the callback is read-only and is only valid until the callback returns;
+   * its contents will be overwritten by the next metadata packet of the same stream. Callers that
+   * need to keep the payload must copy it, or use {@link #getMetadata(BiConsumer)} instead.
+   *
+   * @param callback a callback that will be called for each metadata packet in each metadata stream
+   *     found in the transport stream, where the first parameter is the packet ID of the metadata
+   *     stream and the second parameter is a buffer holding the metadata packet's payload
+   * @throws Exception if an error occurs while parsing the transport stream
+   */
+  public void getMetadataBuffers(final BiConsumer<Integer, ByteBuffer> callback) throws Exception {
     extractTransportStreamMetadata(callback);
   }
 
@@ -98,7 +119,7 @@ public Map<Integer, List<byte[]>> getMetadata() throws Exception {
     return metadataPacketsByStream;
   }
 
-  private void extractTransportStreamMetadata(final BiConsumer<Integer, byte[]> callback)
+  private void extractTransportStreamMetadata(final BiConsumer<Integer, ByteBuffer> callback)
       throws Exception {
     final ResettableMTSSource source = MTSSources.from(byteSource);
 
@@ -213,29 +234,28 @@ private byte[] getByteBufferAsBytes(final ByteBuffer buffer) {
   }
 
   private void handleElementaryStreamPacket(
-      final MTSPacket packet, final int packetId, final BiConsumer<Integer, byte[]> callback) {
+      final MTSPacket packet, final int packetId, final BiConsumer<Integer, ByteBuffer> callback) {
     if (programElementaryStreams.containsKey(packetId)) {
       final PMTStream stream = programElementaryStreams.get(packetId);
 
       if (isMetadataStream(stream)) {
-        final byte[] currentMetadataPacketBytes = currentMetadataPacketBytesByStream.get(packetId);
+        final MetadataPacketBuffer currentMetadataPacket =
+            currentMetadataPacketBytesByStream.get(packetId);
 
         final boolean startingNewMetadataPacket = packet.isPayloadUnitStartIndicator();
-        final boolean currentMetadataPacketToHandle = currentMetadataPacketBytes != null;
+        final boolean currentMetadataPacketToHandle = currentMetadataPacket != null;
         final boolean reachedEndOfCurrentMetadataPacket =
             startingNewMetadataPacket && currentMetadataPacketToHandle;
 
-        final byte[] payloadBytes = getByteBufferAsBytes(packet.getPayload());
+        final ByteBuffer payload = packet.getPayload();
 
         if (reachedEndOfCurrentMetadataPacket) {
-          callback.accept(packetId, currentMetadataPacketBytes);
-          startNewMetadataPacketBytes(packetId, payloadBytes);
+          callback.accept(packetId, currentMetadataPacket.asReadOnlyBuffer());
+          currentMetadataPacket.start(payload);
         } else if (startingNewMetadataPacket) {
-          startNewMetadataPacketBytes(packetId, payloadBytes);
+          startNewMetadataPacketBytes(packetId, payload);
         } else if (currentMetadataPacketToHandle) {
-          final byte[] concatenatedMetadataPacket =
-              ArrayUtils.addAll(currentMetadataPacketBytes, payloadBytes);
-          currentMetadataPacketBytesByStream.put(packetId, concatenatedMetadataPacket);
+          currentMetadataPacket.append(payload);
         }
       }
     }
@@ -253,8 +273,10 @@ private boolean isMetadataStream(final PMTStream stream) {
     return isPrivateDataStream(stream) || isMetadataPesStream(stream);
   }
 
-  private void startNewMetadataPacketBytes(final int packetId, final byte[] newMetadataBytes) {
-    currentMetadataPacketBytesByStream.put(packetId, newMetadataBytes);
+  private void startNewMetadataPacketBytes(final int packetId, final ByteBuffer newMetadataBytes) {
+    currentMetadataPacketBytesByStream
+        .computeIfAbsent(packetId, id -> new MetadataPacketBuffer())
+        .start(newMetadataBytes);
   }
 
   /*
@@ -265,7 +287,40 @@ private void startNewMetadataPacketBytes(final int packetId, final byte[] newMet
    * This means that the last metadata packet for each stream won't be handled during the pass
    * over the transport stream and they will need to be handled separately.
    */
-  private void handleLastPacketOfEachStream(final BiConsumer<Integer, byte[]> callback) {
-    currentMetadataPacketBytesByStream.forEach(callback);
+  private void handleLastPacketOfEachStream(final BiConsumer<Integer, ByteBuffer> callback) {
+    currentMetadataPacketBytesByStream.forEach(
+        (packetId, metadataPacket) -> callback.accept(packetId, metadataPacket.asReadOnlyBuffer()));
+  }
+
+  /**
+   * Accumulates the transport stream packet payloads that make up one metadata packet. The backing
+   * array is reused for every metadata packet of the stream and grows geometrically, so assembling
+   * a metadata packet that spans many transport stream packets does not re-copy the bytes already
+   * collected.
+   */
+  private static class MetadataPacketBuffer {
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private byte[] bytes = new byte[INITIAL_CAPACITY];
+
+    private int size;
+
+    void start(final ByteBuffer payload) {
+      size = 0;
+      append(payload);
+    }
+
+    void append(final ByteBuffer payload) {
+      final int length = payload.remaining();
+      if (size + length > bytes.length) {
+        bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + length));
+      }
+      payload.get(bytes, size, length);
+      size += length;
+    }
+
+    ByteBuffer asReadOnlyBuffer() {
+      return ByteBuffer.wrap(bytes, 0, size).slice().asReadOnlyBuffer();
+    }
   }
 }
@@ -23,6 +23,7 @@
 
 import com.google.common.io.ByteSource;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
@@ -72,6 +73,24 @@ public void testExtractAll() throws Exception {
     verifyExtractedBytes(metadataStreams.get(497));
   }
 
+  @Test
+  public void testExtractBuffers() throws Exception {
+    final MpegTransportStreamMetadataExtractor extractor = getExtractor();
+
+    final List<byte[]> metadataPackets = new ArrayList<>();
+    extractor.getMetadataBuffers(
+        (packetId, buffer) -> {
+          // The packet ID of the metadata stream in this file is 497.
+          assertThat(packetId, is(497));
+          assertThat(buffer.isReadOnly(), is(true));
+          final byte[] bytes = new byte[buffer.remaining()];
+          buffer.get(bytes);
+          metadataPackets.add(bytes);
+        });
+
+    verifyExtractedBytes(metadataPackets);
+  }
+
   private void verifyExtractedBytes(final List<byte[]> metadataPackets) {
     assertThat(metadataPackets.size(), is(12));
 
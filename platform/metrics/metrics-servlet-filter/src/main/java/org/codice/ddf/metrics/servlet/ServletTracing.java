@@ -0,0 +1,148 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.metrics.servlet;
+
+import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.context.propagation.TextMapGetter;
+import java.io.IOException;
+import java.util.Collections;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.codice.ddf.platform.filter.http.HttpFilter;
+import org.codice.ddf.platform.filter.http.HttpFilterChain;
+
+/**
+ * Starts a server span for each request, continuing the trace of the caller when the request
+ * carries trace context headers, so that the spans created while handling the request join the
+ * trace that sent it.
+ *
+ * <p>Spans are created through {@link GlobalOpenTelemetry}, so they are no-ops unless an
+ * OpenTelemetry SDK or agent has been installed.
+ */
+public class ServletTracing implements HttpFilter {
+
+  private static final String INSTRUMENTATION_NAME = "ddf.platform.http";
+
+  private static final AttributeKey<String> HTTP_METHOD = AttributeKey.stringKey("http.method");
+
+  private static final AttributeKey<String> HTTP_TARGET = AttributeKey.stringKey("http.target");
+
+  private static final AttributeKey<Long> HTTP_STATUS_CODE =
+      AttributeKey.longKey("http.status_code");
+
+  private static final TextMapGetter<HttpServletRequest> HEADER_GETTER = new HeaderGetter();
+
+  @Override
+  public void doFilter(
+      HttpServletRequest request, HttpServletResponse response, HttpFilterChain filterChain)
+      throws IOException, ServletException {
+    OpenTelemetry openTelemetry = GlobalOpenTelemetry.get();
+    Context parent =
+        openTelemetry
+            .getPropagators()
+            .getTextMapPropagator()
+            .extract(Context.root(), request, HEADER_GETTER);
+    Span span =
+        openTelemetry
+            .getTracer(INSTRUMENTATION_NAME)
+            .spanBuilder("HTTP " + request.getMethod())
+            .setParent(parent)
+            .setSpanKind(SpanKind.SERVER)
+            .setAttribute(HTTP_METHOD, request.getMethod())
+            .setAttribute(HTTP_TARGET, request.getRequestURI())
+            .startSpan();
+
+    boolean hadException = false;
+    try (Scope ignored = span.makeCurrent()) {
+      filterChain.doFilter(request, response);
+    } catch (IOException | ServletException | RuntimeException e) {
+      hadException = true;
+      span.recordException(e);
+      throw e;
+    } finally {
+      if (!hadException && request.isAsyncStarted()) {
+        request.getAsyncContext().addListener(new AsyncResponseListener(span));
+      } else {
+        end(span, response, hadException);
+      }
+    }
+  }
+
+  private static void end(Span span, HttpServletResponse response, boolean hadException) {
+    int status = response.getStatus();
+    span.setAttribute(HTTP_STATUS_CODE, (long) status);
+    if (hadException || status >= 500) {
+      span.setStatus(StatusCode.ERROR);
+    }
+    span.end();
+  }
+
+  private static final class HeaderGetter implements TextMapGetter<HttpServletRequest> {
+
+    @Override
+    public Iterable<String> keys(HttpServletRequest request) {
+      return Collections.list(request.getHeaderNames());
+    }
+
+    @Override
+    public String get(HttpServletRequest request, String key) {
+      return request == null ? null : request.getHeader(key);
+    }
+  }
+
+  private static final class AsyncResponseListener implements AsyncListener {
+
+    private final Span span;
+
+    private boolean hadException = false;
+
+    private AsyncResponseListener(Span span) {
+      this.span = span;
+    }
+
+    @Override
+    public void onComplete(AsyncEvent event) {
+      end(span, (HttpServletResponse) event.getSuppliedResponse(), hadException);
+    }
+
+    @Override
+    public void onTimeout(AsyncEvent event) {
+      span.setAttribute("http.timeout", true);
+      hadException = true;
+    }
+
+    @Override
+    public void onError(AsyncEvent event) {
+      if (event.getThrowable() != null) {
+        span.recordException(event.getThrowable());
+      }
+      hadException = true;
+    }
+
+    @Override
+    public void onStartAsync(AsyncEvent event) {
+      // the span is ended when the response completes
+    }
+  }
+}
@@ -0,0 +1,143 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.metrics.servlet;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.sdk.testing.junit4.OpenTelemetryRule;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.codice.ddf.platform.filter.http.HttpFilterChain;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+public class ServletTracingTest {
+
+  private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+
+  private static final String PARENT_SPAN_ID = "00f067aa0ba902b7";
+
+  @Rule public final OpenTelemetryRule openTelemetryRule = OpenTelemetryRule.create();
+
+  @Mock private HttpServletRequest mockRequest;
+
+  @Mock private HttpServletResponse mockResponse;
+
+  @Mock private HttpFilterChain mockFilterChain;
+
+  private final ServletTracing underTest = new ServletTracing();
+
+  @Before
+  public void before() {
+    MockitoAnnotations.initMocks(this);
+
+    when(mockRequest.getMethod()).thenReturn("GET");
+    when(mockRequest.getRequestURI()).thenReturn("/services/catalog/query");
+    when(mockRequest.getHeaderNames()).thenReturn(Collections.emptyEnumeration());
+    when(mockResponse.getStatus()).thenReturn(200);
+  }
+
+  @Test
+  public void testRequestContinuesTraceOfCaller() throws Exception {
+    when(mockRequest.getHeader(anyString())).thenReturn(null);
+    when(mockRequest.getHeader("traceparent"))
+        .thenReturn("00-" + TRACE_ID + "-" + PARENT_SPAN_ID + "-01");
+    AtomicReference<Span> currentSpan = new AtomicReference<>();
+    doAnswer(
+            invocation -> {
+              currentSpan.set(Span.current());
+              return null;
+            })
+        .when(mockFilterChain)
+        .doFilter(mockRequest, mockResponse);
+
+    underTest.doFilter(mockRequest, mockResponse, mockFilterChain);
+
+    assertThat(openTelemetryRule.getSpans(), hasSize(1));
+    SpanData span = openTelemetryRule.getSpans().get(0);
+    assertThat(span.getName(), is("HTTP GET"));
+    assertThat(span.getKind(), is(SpanKind.SERVER));
+    assertThat(span.getTraceId(), is(TRACE_ID));
+    assertThat(span.getParentSpanId(), is(PARENT_SPAN_ID));
+    assertThat(span.getAttributes().get(AttributeKey.longKey("http.status_code")), is(200L));
+    assertThat(currentSpan.get().getSpanContext().getSpanId(), is(span.getSpanId()));
+  }
+
+  @Test
+  public void testFailedRequestMarksSpanAsError() throws Exception {
+    doThrow(new ServletException("failed"))
+        .when(mockFilterChain)
+        .doFilter(mockRequest, mockResponse);
+
+    try {
+      underTest.doFilter(mockRequest, mockResponse, mockFilterChain);
+    } catch (ServletException e) {
+      // expected
+    }
+
+    SpanData span = openTelemetryRule.getSpans().get(0);
+    assertThat(span.getStatus().getStatusCode(), is(StatusCode.ERROR));
+    assertThat(span.getEvents(), hasSize(1));
+  }
+
+  @Test
+  public void testAsyncRequestEndsSpanWhenComplete() throws Exception {
+    when(mockRequest.isAsyncStarted()).thenReturn(true);
+    AsyncContext asyncContext = mock(AsyncContext.class);
+    when(mockRequest.getAsyncContext()).thenReturn(asyncContext);
+    AsyncEvent event = mock(AsyncEvent.class);
+    when(event.getSuppliedResponse()).thenReturn(mockResponse);
+    when(event.getThrowable()).thenReturn(new IllegalStateException());
+
+    underTest.doFilter(mockRequest, mockResponse, mockFilterChain);
+
+    ArgumentCaptor<AsyncListener> arg = ArgumentCaptor.forClass(AsyncListener.class);
+    verify(asyncContext).addListener(arg.capture());
+    AsyncListener listener = arg.getValue();
+    assertThat(openTelemetryRule.getSpans(), hasSize(0));
+
+    listener.onStartAsync(event);
+    listener.onTimeout(event);
+    listener.onError(event);
+    listener.onComplete(event);
+
+    assertThat(openTelemetryRule.getSpans(), hasSize(1));
+    SpanData span = openTelemetryRule.getSpans().get(0);
+    assertThat(span.getStatus().getStatusCode(), is(StatusCode.ERROR));
+    assertThat(span.getAttributes().get(AttributeKey.booleanKey("http.timeout")), is(true));
+  }
+}
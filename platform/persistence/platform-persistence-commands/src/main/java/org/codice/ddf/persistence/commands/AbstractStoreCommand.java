@@ -87,17 +87,12 @@ protected String addUserConstraintToCql(String user, String cql) {
   protected long getResults(Function<List<Map<String, Object>>, Integer> storeFunction)
       throws PersistenceException {
 
-    List<Map<String, Object>> pagedResults;
-    int startIndex = 0;
     int pageSize = 1000;
-    long resultCount = 0L;
+    long[] resultCount = {0L};
 
-    do {
-      pagedResults = persistentStore.get(type, cql, startIndex, pageSize);
-      resultCount += storeFunction.apply(pagedResults);
-      startIndex += pagedResults.size();
-    } while (pagedResults.size() > 0);
+    persistentStore.forEach(
+        type, cql, pageSize, pagedResults -> resultCount[0] += storeFunction.apply(pagedResults));
 
-    return resultCount;
+    return resultCount[0];
   }
 }
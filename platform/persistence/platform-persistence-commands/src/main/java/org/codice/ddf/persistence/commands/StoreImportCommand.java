@@ -39,6 +39,7 @@
 import org.apache.karaf.shell.api.action.Argument;
 import org.apache.karaf.shell.api.action.Command;
 import org.apache.karaf.shell.api.action.Completion;
+import org.apache.karaf.shell.api.action.Option;
 import org.apache.karaf.shell.api.action.lifecycle.Service;
 import org.apache.karaf.shell.support.completers.FileCompleter;
 import org.codice.ddf.persistence.PersistenceException;
@@ -61,6 +62,15 @@ public class StoreImportCommand extends AbstractStoreCommand {
   @Completion(FileCompleter.class)
   String filePath;
 
+  @Option(
+      name = "Commit within",
+      aliases = {"-w", "--commit-within"},
+      required = false,
+      description =
+          "Maximum number of milliseconds before imported entries are committed to the persistent store. Longer times commit large imports in fewer, larger commits.",
+      multiValued = false)
+  int commitWithinMs = 10000;
+
   int batchSize = 1000;
 
   private final Gson gson =
@@ -81,8 +91,6 @@ public void storeCommand() throws PersistenceException {
       console.println("Unable to read directory");
     }
 
-    List<Map<String, Object>> importResults = new ArrayList<>();
-
     console.println("Found " + totalFiles + " files to import\n");
 
     try (Stream<Path> ingestStream = Files.walk(inputFile.toPath(), FileVisitOption.FOLLOW_LINKS)) {
@@ -90,12 +98,13 @@ public void storeCommand() throws PersistenceException {
           ingestStream.filter(Files::isRegularFile).collect(Collectors.toList());
 
       for (Collection<Path> batch : Lists.partition(regularFiles, batchSize)) {
+        List<Map<String, Object>> importResults = new ArrayList<>();
         batch.stream()
             .map(Path::toFile)
             .map(this::processFile)
             .filter(Objects::nonNull)
             .forEach(importResults::add);
-        persistentStore.add(type, importResults);
+        persistentStore.add(type, importResults, commitWithinMs);
         totalImport += importResults.size();
       }
 
@@ -26,6 +26,7 @@
 import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -61,7 +62,8 @@ public class StoreCommandTest extends ConsoleOutputCommon {
 
   @Rule public TemporaryFolder testFolder = new TemporaryFolder();
 
-  PersistentStore persistentStore = mock(PersistentStore.class);
+  // paging through the store is done by the interface's default methods
+  PersistentStore persistentStore = mock(PersistentStore.class, CALLS_REAL_METHODS);
   Session mockSession = mock(Session.class);
 
   /** Check for listing command. */
@@ -181,7 +183,7 @@ public void testImportCommand() throws PersistenceException {
     command.filePath = "src/test/resources/GoodSet";
     command.execute();
 
-    verify(persistentStore, times(1)).add(anyString(), argument.capture());
+    verify(persistentStore, times(1)).add(anyString(), argument.capture(), eq(10000));
     List<Map<String, Object>> items = argument.getValue();
     assertThat(items.size(), equalTo(5));
     for (Map<String, Object> item : items) {
@@ -14,8 +14,10 @@
 package org.codice.ddf.persistence;
 
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 public interface PersistentStore {
 
@@ -65,6 +67,59 @@ public String toString() {
    */
   void add(String type, Collection<Map<String, Object>> items) throws PersistenceException;
 
+  /**
+   * Adds a collection of items of specified type, committing them within the given time.
+   *
+   * @param type A non-empty string identifying the type of items being added.
+   * @param items A list of map properties making up the items. Property keys must have a suffix
+   *     that identifies the type of value for the entry. The PersistentItem class should be used
+   *     for creating these maps.
+   * @param commitWithinMs The maximum number of milliseconds before the items are committed and
+   *     visible to queries. Bulk loads can use a longer time so that items are committed in fewer,
+   *     larger commits. A negative value leaves the commit to the store's own commit policy.
+   * @throws PersistenceException If the type is empty or there was an issue persisting the item.
+   */
+  default void add(String type, Collection<Map<String, Object>> items, int commitWithinMs)
+      throws PersistenceException {
+    add(type, items);
+  }
+
+  /**
+   * Updates some of the properties of existing items of specified type, leaving their other
+   * properties as they are. An item that does not exist yet is added with only the given
+   * properties.
+   *
+   * @param type A non-empty string identifying the type of items being updated.
+   * @param items A list of map properties to set on the items. Each map must contain the {@link
+   *     PersistentItem#ID} of the item it updates. A property with a null value is removed from the
+   *     item.
+   * @throws PersistenceException If the type is empty, an item has no ID or there was an issue
+   *     persisting the items.
+   */
+  default void update(String type, Collection<Map<String, Object>> items)
+      throws PersistenceException {
+    for (Map<String, Object> item : items) {
+      Object id = item.get(PersistentItem.ID);
+      if (id == null) {
+        throw new PersistenceException("The items to update must have an ID.");
+      }
+
+      List<Map<String, Object>> existing =
+          get(type, String.format("id = '%s'", id.toString().replace("'", "''")));
+      Map<String, Object> updated =
+          existing.isEmpty() ? new HashMap<>() : new HashMap<>(existing.get(0));
+      item.forEach(
+          (key, value) -> {
+            if (value == null) {
+              updated.remove(key);
+            } else {
+              updated.put(key, value);
+            }
+          });
+      add(type, updated);
+    }
+  }
+
   /**
    * Get all of the items of the specified type.
    *
@@ -98,6 +153,35 @@ public String toString() {
   List<Map<String, Object>> get(String type, String ecql, int startIndex, int pageSize)
       throws PersistenceException;
 
+  /**
+   * Gets all items matching the ECQL query criteria, one page at a time. Unlike paging through the
+   * items with a start index, fetching a page does not get slower the further into the items it is,
+   * so this should be used to go through large numbers of items.
+   *
+   * @param type A non-empty string identifying the type of item being retrieved.
+   * @param ecql Query criteria. Not specifying criteria retrieves all items.
+   * @param pageSize Max number of items to get at a time.
+   * @param pageConsumer Called with each page of items, in order.
+   * @return Count of the items retrieved
+   * @throws PersistenceException
+   * @throws IllegalArgumentException if pageSize is greater than the max allowed.
+   */
+  default long forEach(
+      String type, String ecql, int pageSize, Consumer<List<Map<String, Object>>> pageConsumer)
+      throws PersistenceException {
+    List<Map<String, Object>> page;
+    int startIndex = 0;
+    do {
+      page = get(type, ecql, startIndex, pageSize);
+      if (!page.isEmpty()) {
+        pageConsumer.accept(page);
+      }
+      startIndex += page.size();
+    } while (!page.isEmpty());
+
+    return startIndex;
+  }
+
   /**
    * Delete items matching the ECQL query criteria.
    *
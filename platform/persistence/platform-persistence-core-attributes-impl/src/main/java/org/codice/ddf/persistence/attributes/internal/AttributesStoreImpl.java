@@ -15,8 +15,11 @@
 
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import org.apache.commons.lang.StringUtils;
 import org.codice.ddf.persistence.PersistenceException;
 import org.codice.ddf.persistence.PersistentItem;
@@ -26,56 +29,92 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Keeps track of the data usage and data limit of users in the {@link PersistentStore}.
+ *
+ * <p>The usage and limit of a user are read from the persistent store the first time they are
+ * needed and then served from memory. Data usage updates are added to a per user counter and
+ * written to the persistent store in the background every {@link #FLUSH_INTERVAL_SECONDS} seconds
+ * and when the store is destroyed, so concurrent downloads only contend on the counter of their
+ * user instead of a store round trip. Setting a user's usage or limit is still written to the
+ * persistent store right away.
+ *
+ * <p>Other nodes sharing the persistent store, and administrators, can change a user's usage and
+ * limit there. The stored usage and limit are read again before the pending usage is added to them,
+ * and a user's usage that has been served from memory for longer than the refresh interval is read
+ * again the next time it is needed, so those changes are picked up. The read and the write of a
+ * flush are not atomic though, so usage that another node flushes for the same user in between can
+ * still be overwritten.
+ */
 public class AttributesStoreImpl implements AttributesStore {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(AttributesStoreImpl.class);
 
+  static final long FLUSH_INTERVAL_SECONDS = 10;
+
+  static final long REFRESH_INTERVAL_SECONDS = 60;
+
   private PersistentStore persistentStore;
 
-  private ReadWriteLock readWriteLock = new ReentrantReadWriteLock();
+  private final long refreshIntervalNanos;
+
+  private final Map<String, UserUsage> userUsages = new ConcurrentHashMap<>();
+
+  private ScheduledExecutorService flushExecutor;
 
   private static final String EMPTY_USERNAME_ERROR = "Empty username specified";
 
   private static final long NO_DATA_LIMIT = -1L;
 
   public AttributesStoreImpl(PersistentStore persistentStore) {
+    this(persistentStore, TimeUnit.SECONDS.toNanos(REFRESH_INTERVAL_SECONDS));
+  }
+
+  AttributesStoreImpl(PersistentStore persistentStore, long refreshIntervalNanos) {
     this.persistentStore = persistentStore;
+    this.refreshIntervalNanos = refreshIntervalNanos;
+  }
+
+  public void init() {
+    flushExecutor =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "dataUsageFlushThread");
+              thread.setDaemon(true);
+              return thread;
+            });
+    flushExecutor.scheduleWithFixedDelay(
+        this::flushDataUsages, FLUSH_INTERVAL_SECONDS, FLUSH_INTERVAL_SECONDS, TimeUnit.SECONDS);
+  }
+
+  public void destroy() {
+    if (flushExecutor != null) {
+      flushExecutor.shutdown();
+      try {
+        flushExecutor.awaitTermination(FLUSH_INTERVAL_SECONDS, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    flushDataUsages();
   }
 
   @Override
   public long getCurrentDataUsageByUser(final String username) throws PersistenceException {
-    long currentDataUsage = 0L;
-
     if (StringUtils.isEmpty(username)) {
       throw new PersistenceException(EMPTY_USERNAME_ERROR);
     }
 
-    try {
-      readWriteLock.readLock().lock();
-      currentDataUsage = getCurrentDataUsageByUserNoLock(username);
-    } finally {
-      readWriteLock.readLock().unlock();
-    }
-
-    return currentDataUsage;
+    return getUserUsage(username).getDataUsage();
   }
 
   @Override
   public long getDataLimitByUser(final String username) throws PersistenceException {
-    long dataLimit = NO_DATA_LIMIT;
-
     if (StringUtils.isEmpty(username)) {
       throw new PersistenceException(EMPTY_USERNAME_ERROR);
     }
 
-    try {
-      readWriteLock.readLock().lock();
-      dataLimit = getDataLimitByUserNoLock(username);
-    } finally {
-      readWriteLock.readLock().unlock();
-    }
-
-    return dataLimit;
+    return getUserUsage(username).dataLimit;
   }
 
   @Override
@@ -86,18 +125,8 @@ public void updateUserDataUsage(final String username, final long newDataUsage)
     }
 
     if (newDataUsage > 0) {
-      try {
-        readWriteLock.writeLock().lock();
-        long dataUsage = getCurrentDataUsageByUserNoLock(username);
-        dataUsage += newDataUsage;
-
-        LOGGER.debug("Updating user {} data usage to {}", username, dataUsage);
-        persistentStore.add(
-            PersistenceType.USER_ATTRIBUTE_TYPE.toString(),
-            toPersistentItem(username, dataUsage, getDataLimitByUser(username)));
-      } finally {
-        readWriteLock.writeLock().unlock();
-      }
+      LOGGER.debug("Adding {} to user {} data usage", newDataUsage, username);
+      getUserUsage(username).pendingDataUsage.add(newDataUsage);
     }
   }
 
@@ -109,15 +138,19 @@ public void setDataUsage(final String username, final long dataUsage)
       throw new PersistenceException(EMPTY_USERNAME_ERROR);
     }
     if (dataUsage >= 0) {
-      try {
-        readWriteLock.writeLock().lock();
+      UserUsage userUsage = getUserUsage(username);
+      synchronized (userUsage) {
+        // usage added while the new usage is being stored is counted on top of it
+        long replacedDataUsage = userUsage.pendingDataUsage.sum();
 
         LOGGER.debug("Updating user {} data usage to {}", username, dataUsage);
         persistentStore.add(
             PersistenceType.USER_ATTRIBUTE_TYPE.toString(),
             toPersistentItem(username, dataUsage, NO_DATA_LIMIT));
-      } finally {
-        readWriteLock.writeLock().unlock();
+
+        userUsage.storedDataUsage = dataUsage;
+        userUsage.dataLimit = NO_DATA_LIMIT;
+        userUsage.pendingDataUsage.add(-replacedDataUsage);
       }
     }
   }
@@ -130,29 +163,19 @@ public void setDataLimit(final String username, final long dataLimit)
       throw new PersistenceException(EMPTY_USERNAME_ERROR);
     }
     if (dataLimit >= NO_DATA_LIMIT) {
-      try {
-        readWriteLock.writeLock().lock();
-
+      UserUsage userUsage = getUserUsage(username);
+      synchronized (userUsage) {
         LOGGER.debug("Updating user {} data limit to {}", username, dataLimit);
-        persistentStore.add(
-            PersistenceType.USER_ATTRIBUTE_TYPE.toString(),
-            toPersistentItem(username, getCurrentDataUsageByUser(username), dataLimit));
-      } finally {
-        readWriteLock.writeLock().unlock();
+        refresh(username, userUsage);
+        store(username, userUsage, dataLimit);
       }
     }
   }
 
   @Override
   public List<Map<String, Object>> getAllUsers() throws PersistenceException {
-    List<Map<String, Object>> userMap;
-    try {
-      readWriteLock.readLock().lock();
-      userMap = persistentStore.get(PersistenceType.USER_ATTRIBUTE_TYPE.toString());
-    } finally {
-      readWriteLock.readLock().unlock();
-    }
-    return userMap;
+    flushDataUsages();
+    return persistentStore.get(PersistenceType.USER_ATTRIBUTE_TYPE.toString());
   }
 
   @Override
@@ -161,17 +184,101 @@ public void resetUserDataUsages() throws PersistenceException {
     for (Map<String, Object> user : users) {
       String username = (String) user.get(AttributesStore.USER_KEY + "_txt");
       long dataLimit = (long) user.get(AttributesStore.DATA_USAGE_LIMIT_KEY + "_lng");
-      try {
-        readWriteLock.writeLock().lock();
+      UserUsage userUsage =
+          username == null
+              ? new UserUsage(0L, dataLimit)
+              : userUsages.computeIfAbsent(username, name -> new UserUsage(0L, dataLimit));
+      synchronized (userUsage) {
+        long replacedDataUsage = userUsage.pendingDataUsage.sum();
 
         LOGGER.debug("Resetting Data usage for user : {}", username);
         persistentStore.add(
             PersistenceType.USER_ATTRIBUTE_TYPE.toString(),
             toPersistentItem(username, 0L, dataLimit));
-      } finally {
-        readWriteLock.writeLock().unlock();
+
+        userUsage.storedDataUsage = 0L;
+        userUsage.dataLimit = dataLimit;
+        userUsage.pendingDataUsage.add(-replacedDataUsage);
+      }
+    }
+  }
+
+  /**
+   * Adds the data usage that has been added since the last flush to the usage in the persistent
+   * store.
+   */
+  void flushDataUsages() {
+    for (Map.Entry<String, UserUsage> entry : userUsages.entrySet()) {
+      UserUsage userUsage = entry.getValue();
+      if (userUsage.pendingDataUsage.sum() == 0) {
+        continue;
+      }
+
+      synchronized (userUsage) {
+        try {
+          refresh(entry.getKey(), userUsage);
+          store(entry.getKey(), userUsage, userUsage.dataLimit);
+        } catch (PersistenceException | RuntimeException e) {
+          // the usage stays pending and is written with the next flush
+          LOGGER.warn("Unable to store data usage of user {}.", entry.getKey(), e);
+        }
+      }
+    }
+  }
+
+  /**
+   * Stores the current data usage of a user, including its pending usage, along with the given data
+   * limit. Has to be called while synchronized on the user's usage.
+   */
+  private void store(String username, UserUsage userUsage, long dataLimit)
+      throws PersistenceException {
+    long addedDataUsage = userUsage.pendingDataUsage.sum();
+    long dataUsage = userUsage.storedDataUsage + addedDataUsage;
+
+    LOGGER.debug("Updating user {} data usage to {}", username, dataUsage);
+    persistentStore.add(
+        PersistenceType.USER_ATTRIBUTE_TYPE.toString(),
+        toPersistentItem(username, dataUsage, dataLimit));
+
+    // the stored usage is raised before the pending usage is lowered so that the usage is never
+    // seen lower than it is
+    userUsage.storedDataUsage = dataUsage;
+    userUsage.dataLimit = dataLimit;
+    userUsage.pendingDataUsage.add(-addedDataUsage);
+  }
+
+  private UserUsage getUserUsage(final String username) throws PersistenceException {
+    UserUsage userUsage = userUsages.get(username);
+    if (userUsage == null) {
+      UserUsage loadedUsage = loadUserUsage(username);
+      userUsage = userUsages.putIfAbsent(username, loadedUsage);
+      if (userUsage == null) {
+        userUsage = loadedUsage;
+      }
+    } else if (userUsage.isExpired(refreshIntervalNanos)) {
+      synchronized (userUsage) {
+        if (userUsage.isExpired(refreshIntervalNanos)) {
+          try {
+            refresh(username, userUsage);
+          } catch (PersistenceException | RuntimeException e) {
+            // the usage in memory is served until it can be read again
+            LOGGER.warn("Unable to read data usage of user {}.", username, e);
+          }
+        }
       }
     }
+    return userUsage;
+  }
+
+  /**
+   * Reads the stored data usage and limit of a user again, keeping its pending usage. Has to be
+   * called while synchronized on the user's usage.
+   */
+  private void refresh(String username, UserUsage userUsage) throws PersistenceException {
+    UserUsage storedUsage = loadUserUsage(username);
+    userUsage.storedDataUsage = storedUsage.storedDataUsage;
+    userUsage.dataLimit = storedUsage.dataLimit;
+    userUsage.loadedNanos = storedUsage.loadedNanos;
   }
 
   private PersistentItem toPersistentItem(
@@ -189,8 +296,9 @@ private PersistentItem toPersistentItem(
     return item;
   }
 
-  private long getCurrentDataUsageByUserNoLock(final String username) throws PersistenceException {
+  private UserUsage loadUserUsage(final String username) throws PersistenceException {
     long currentDataUsage = 0L;
+    long dataLimit = NO_DATA_LIMIT;
     List<Map<String, Object>> attributesList;
     attributesList =
         persistentStore.get(
@@ -199,27 +307,40 @@ private long getCurrentDataUsageByUserNoLock(final String username) throws Persi
 
     if (attributesList != null && attributesList.size() == 1) {
       Map<String, Object> attributes = PersistentItem.stripSuffixes(attributesList.get(0));
-      currentDataUsage = (long) attributes.get(DATA_USAGE_KEY);
+      currentDataUsage = (long) attributes.getOrDefault(DATA_USAGE_KEY, 0L);
+      dataLimit = (long) attributes.getOrDefault(DATA_USAGE_LIMIT_KEY, NO_DATA_LIMIT);
 
-      LOGGER.debug("User {} data usage {} ", username, currentDataUsage);
+      LOGGER.debug("User {} data usage {} data limit {}", username, currentDataUsage, dataLimit);
     }
-    return currentDataUsage;
+    return new UserUsage(currentDataUsage, dataLimit);
   }
 
-  private long getDataLimitByUserNoLock(final String username) throws PersistenceException {
-    long dataLimit = NO_DATA_LIMIT;
-    List<Map<String, Object>> attributesList;
-    attributesList =
-        persistentStore.get(
-            PersistenceType.USER_ATTRIBUTE_TYPE.toString(),
-            String.format("%s = '%s'", USER_KEY, username));
+  /**
+   * The data usage and limit of a user. Usage is added to {@link #pendingDataUsage} without any
+   * locking, while everything that writes to the persistent store synchronizes on the instance.
+   */
+  private static class UserUsage {
 
-    if (attributesList != null && attributesList.size() == 1) {
-      Map<String, Object> attributes = PersistentItem.stripSuffixes(attributesList.get(0));
-      dataLimit = (long) attributes.get(DATA_USAGE_LIMIT_KEY);
+    private final LongAdder pendingDataUsage = new LongAdder();
+
+    private volatile long storedDataUsage;
+
+    private volatile long dataLimit;
+
+    /** The {@link System#nanoTime()} at which the stored usage and limit were read. */
+    private volatile long loadedNanos = System.nanoTime();
+
+    private UserUsage(long storedDataUsage, long dataLimit) {
+      this.storedDataUsage = storedDataUsage;
+      this.dataLimit = dataLimit;
+    }
+
+    private boolean isExpired(long refreshIntervalNanos) {
+      return System.nanoTime() - loadedNanos > refreshIntervalNanos;
+    }
 
-      LOGGER.debug("User {} data limit {} ", username, dataLimit);
+    private long getDataUsage() {
+      return storedDataUsage + pendingDataUsage.sum();
     }
-    return dataLimit;
   }
 }
@@ -15,11 +15,13 @@
 
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.anyString;
-import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -93,8 +95,10 @@ public void testUpdateDataUsage() throws PersistenceException {
     when(persistentStore.get(anyString(), anyString())).thenReturn(attributesList);
 
     attributesStore.updateUserDataUsage(USER, LONG_5);
+    attributesStore.flushDataUsages();
 
-    verify(persistentStore, atLeast(2)).get(keyArg1.capture(), cqlArg.capture());
+    // read when the usage is first needed and again before the flush adds to it
+    verify(persistentStore, times(2)).get(keyArg1.capture(), cqlArg.capture());
     verify(persistentStore).add(keyArg2.capture(), itemArg.capture());
 
     assertThat(keyArg1.getValue(), is(PersistenceType.USER_ATTRIBUTE_TYPE.toString()));
@@ -105,6 +109,113 @@ public void testUpdateDataUsage() throws PersistenceException {
     assertThat(cqlArg.getValue(), is(CQL));
   }
 
+  @Test
+  public void testUpdateDataUsageIsWrittenBehind() throws PersistenceException {
+    ArgumentCaptor<PersistentItem> itemArg = ArgumentCaptor.forClass(PersistentItem.class);
+    when(persistentStore.get(anyString(), anyString())).thenReturn(usage(LONG_1, LONG_2));
+
+    attributesStore.updateUserDataUsage(USER, LONG_1);
+    attributesStore.updateUserDataUsage(USER, LONG_2);
+
+    verify(persistentStore, never()).add(anyString(), any(PersistentItem.class));
+    assertThat(attributesStore.getCurrentDataUsageByUser(USER), is(400L));
+    assertThat(attributesStore.getDataLimitByUser(USER), is(LONG_2));
+    verify(persistentStore, times(1)).get(anyString(), anyString());
+
+    attributesStore.destroy();
+
+    verify(persistentStore).add(anyString(), itemArg.capture());
+    assertThat(itemArg.getValue().getLongProperty(AttributesStore.DATA_USAGE_KEY), is(400L));
+    assertThat(
+        itemArg.getValue().getLongProperty(AttributesStore.DATA_USAGE_LIMIT_KEY), is(LONG_2));
+  }
+
+  @Test
+  public void testFlushWithoutNewDataUsage() throws PersistenceException {
+    when(persistentStore.get(anyString(), anyString())).thenReturn(usage(LONG_1, LONG_2));
+
+    attributesStore.updateUserDataUsage(USER, LONG_1);
+    attributesStore.flushDataUsages();
+    attributesStore.flushDataUsages();
+
+    verify(persistentStore, times(1)).add(anyString(), any(PersistentItem.class));
+    assertThat(attributesStore.getCurrentDataUsageByUser(USER), is(LONG_2));
+  }
+
+  @Test
+  public void testFailedFlushIsRetried() throws PersistenceException {
+    ArgumentCaptor<PersistentItem> itemArg = ArgumentCaptor.forClass(PersistentItem.class);
+    when(persistentStore.get(anyString(), anyString())).thenReturn(usage(LONG_1, LONG_2));
+    doThrow(new PersistenceException())
+        .doNothing()
+        .when(persistentStore)
+        .add(anyString(), any(PersistentItem.class));
+
+    attributesStore.updateUserDataUsage(USER, LONG_1);
+    attributesStore.flushDataUsages();
+    attributesStore.flushDataUsages();
+
+    verify(persistentStore, times(2)).add(anyString(), itemArg.capture());
+    assertThat(itemArg.getValue().getLongProperty(AttributesStore.DATA_USAGE_KEY), is(LONG_2));
+    assertThat(attributesStore.getCurrentDataUsageByUser(USER), is(LONG_2));
+  }
+
+  @Test
+  public void testFlushAddsToDataUsageStoredSinceRead() throws PersistenceException {
+    ArgumentCaptor<PersistentItem> itemArg = ArgumentCaptor.forClass(PersistentItem.class);
+    when(persistentStore.get(anyString(), anyString()))
+        .thenReturn(usage(LONG_1, LONG_2))
+        .thenReturn(usage(LONG_2, LONG_5));
+
+    attributesStore.updateUserDataUsage(USER, LONG_1);
+    attributesStore.flushDataUsages();
+
+    verify(persistentStore).add(anyString(), itemArg.capture());
+    assertThat(itemArg.getValue().getLongProperty(AttributesStore.DATA_USAGE_KEY), is(300L));
+    assertThat(
+        itemArg.getValue().getLongProperty(AttributesStore.DATA_USAGE_LIMIT_KEY), is(LONG_5));
+    assertThat(attributesStore.getCurrentDataUsageByUser(USER), is(300L));
+    assertThat(attributesStore.getDataLimitByUser(USER), is(LONG_5));
+  }
+
+  @Test
+  public void testExpiredDataUsageIsReadAgain() throws PersistenceException {
+    attributesStore = new AttributesStoreImpl(persistentStore, -1L);
+    when(persistentStore.get(anyString(), anyString()))
+        .thenReturn(usage(LONG_1, LONG_5))
+        .thenReturn(usage(LONG_2, LONG_5));
+
+    attributesStore.updateUserDataUsage(USER, LONG_1);
+
+    assertThat(attributesStore.getCurrentDataUsageByUser(USER), is(300L));
+    verify(persistentStore, times(2)).get(anyString(), anyString());
+    verify(persistentStore, never()).add(anyString(), any(PersistentItem.class));
+  }
+
+  @Test
+  public void testExpiredDataUsageIsServedWhenItCannotBeRead() throws PersistenceException {
+    attributesStore = new AttributesStoreImpl(persistentStore, -1L);
+    when(persistentStore.get(anyString(), anyString()))
+        .thenReturn(usage(LONG_1, LONG_5))
+        .thenThrow(new PersistenceException());
+
+    attributesStore.updateUserDataUsage(USER, LONG_1);
+
+    assertThat(attributesStore.getCurrentDataUsageByUser(USER), is(LONG_2));
+  }
+
+  @Test
+  public void testSetDataUsageReplacesPendingDataUsage() throws PersistenceException {
+    when(persistentStore.get(anyString(), anyString())).thenReturn(usage(LONG_1, LONG_2));
+
+    attributesStore.updateUserDataUsage(USER, LONG_5);
+    attributesStore.setDataUsage(USER, LONG_1);
+    attributesStore.flushDataUsages();
+
+    verify(persistentStore, times(1)).add(anyString(), any(PersistentItem.class));
+    assertThat(attributesStore.getCurrentDataUsageByUser(USER), is(LONG_1));
+  }
+
   @Test
   public void testSetDataUsage() throws PersistenceException {
 
@@ -169,6 +280,15 @@ public void testPersistenceStoreThrowsExceptionOnGet() throws PersistenceExcepti
     attributesStore.updateUserDataUsage(USER, LONG_5);
   }
 
+  private List<Map<String, Object>> usage(long dataUsage, long dataLimit) {
+    Map<String, Object> attributes = new HashMap<>();
+    attributes.put(DATA_USAGE_LONG, dataUsage);
+    attributes.put(DATA_LIMIT_LONG, dataLimit);
+    List<Map<String, Object>> usage = new ArrayList<>();
+    usage.add(attributes);
+    return usage;
+  }
+
   @Test
   public void testGetAllUsers() throws PersistenceException {
     List<Map<String, Object>> mapList = attributesStore.getAllUsers();
@@ -26,9 +26,11 @@
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.MapUtils;
+import org.apache.commons.collections4.map.LRUMap;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.math.NumberUtils;
 import org.apache.solr.client.solrj.SolrClient;
@@ -41,6 +43,7 @@
 import org.apache.solr.common.SolrDocumentList;
 import org.apache.solr.common.SolrException;
 import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.params.CursorMarkParams;
 import org.codice.ddf.persistence.PersistenceException;
 import org.codice.ddf.persistence.PersistentItem;
 import org.codice.ddf.persistence.PersistentStore;
@@ -60,12 +63,20 @@ public class PersistentStoreImpl implements PersistentStore {
 
   private final Map<String, SolrClient> solrClients = new ConcurrentHashMap<>();
 
+  /** Solr queries translated from CQL, by type and CQL. They must be copied before being used. */
+  private final Map<String, SolrQuery> solrQueries =
+      Collections.synchronizedMap(new LRUMap<>(SOLR_QUERY_CACHE_SIZE));
+
   public static final int DEFAULT_START_INDEX = 0;
 
   public static final int DEFAULT_PAGE_SIZE = 10;
 
   public static final int MAX_PAGE_SIZE = 1000;
 
+  private static final int SOLR_QUERY_CACHE_SIZE = 256;
+
+  private static final String SET_MODIFIER = "set";
+
   private static final String SOLR_COMMIT_NRT_COMMITWITHINMS = "solr.commit.nrt.commitWithinMs";
 
   private final int commitNrtCommitWithinMs =
@@ -77,6 +88,12 @@ public PersistentStoreImpl(SolrClientFactory clientFactory) {
 
   @Override
   public void add(String type, Collection<Map<String, Object>> items) throws PersistenceException {
+    add(type, items, commitNrtCommitWithinMs);
+  }
+
+  @Override
+  public void add(String type, Collection<Map<String, Object>> items, int commitWithinMs)
+      throws PersistenceException {
     LOGGER.debug("type = {}", type);
     if (StringUtils.isEmpty(type)) {
       throw new PersistenceException(
@@ -110,8 +127,56 @@ public void add(String type, Collection<Map<String, Object>> items) throws Persi
       return;
     }
 
+    addDocuments(solrClient, type, inputDocuments, commitWithinMs);
+  }
+
+  /**
+   * {@inheritDoc} Uses Solr atomic updates, so only the given properties of the items are sent and
+   * rewritten.
+   */
+  @Override
+  public void update(String type, Collection<Map<String, Object>> items)
+      throws PersistenceException {
+    LOGGER.debug("type = {}", type);
+    if (StringUtils.isEmpty(type)) {
+      throw new PersistenceException(
+          "The type of object(s) to be updated must be non-null and not blank, e.g., notification, metacard, etc.");
+    }
+    if (CollectionUtils.isEmpty(items)) {
+      return;
+    }
+
+    SolrClient solrClient = getSolrClient(type);
+    List<SolrInputDocument> inputDocuments = new ArrayList<>();
+    for (Map<String, Object> properties : items) {
+      Object id = properties.get(PersistentItem.ID);
+      if (id == null) {
+        throw new PersistenceException("The items to update must have an ID.");
+      }
+
+      SolrInputDocument solrInputDocument = new SolrInputDocument();
+      solrInputDocument.addField(PersistentItem.ID, id);
+      for (Map.Entry<String, Object> entry : properties.entrySet()) {
+        if (!PersistentItem.ID.equals(entry.getKey())) {
+          // a null value removes the field
+          solrInputDocument.addField(
+              entry.getKey(), Collections.singletonMap(SET_MODIFIER, entry.getValue()));
+        }
+      }
+      inputDocuments.add(solrInputDocument);
+    }
+
+    addDocuments(solrClient, type, inputDocuments, commitNrtCommitWithinMs);
+  }
+
+  private void addDocuments(
+      SolrClient solrClient,
+      String type,
+      List<SolrInputDocument> inputDocuments,
+      int commitWithinMs)
+      throws PersistenceException {
     try {
-      UpdateResponse response = solrClient.add(inputDocuments, commitNrtCommitWithinMs);
+      UpdateResponse response = solrClient.add(inputDocuments, commitWithinMs);
       LOGGER.debug("UpdateResponse from add of SolrInputDocument:  {}", response);
     } catch (SolrServerException | SolrException | IOException e) {
       LOGGER.info("Exception while adding Solr index for persistent type {}", type, e);
@@ -167,29 +232,13 @@ public List<Map<String, Object>> get(String type, String cql, int startIndex, in
       throw new IllegalArgumentException("The start index must be nonnegative.");
     }
 
-    if (pageSize <= 0 || pageSize > MAX_PAGE_SIZE) {
-      throw new IllegalArgumentException(
-          String.format(
-              "The page size must be greater than 0 and less than or equal to %d.", MAX_PAGE_SIZE));
-    }
+    validatePageSize(pageSize);
 
     // Set Solr Core name to type and create/connect to Solr Core
     SolrClient solrClient = getSolrClient(type);
-    SolrQueryFilterVisitor visitor = new SolrQueryFilterVisitor(solrClient, type);
 
     try {
-      SolrQuery solrQuery;
-      // If not cql specified, then return all items
-      if (StringUtils.isBlank(cql)) {
-        solrQuery = new SolrQuery("*:*");
-      } else {
-        Filter filter = ECQL.toFilter(cql);
-        solrQuery = (SolrQuery) filter.accept(visitor, null);
-      }
-      if (solrQuery == null) {
-        throw new PersistenceException("Unsupported query " + cql);
-      }
-
+      SolrQuery solrQuery = toSolrQuery(solrClient, type, cql);
       solrQuery.setRows(pageSize);
       solrQuery.setStart(startIndex);
       solrQuery.addSort(PersistentItem.ID, SolrQuery.ORDER.asc);
@@ -210,6 +259,94 @@ public List<Map<String, Object>> get(String type, String cql, int startIndex, in
     }
   }
 
+  /**
+   * {@inheritDoc} Pages through the items with a Solr cursor, so each page costs the same no matter
+   * how far into the items it is.
+   */
+  @Override
+  public long forEach(
+      String type, String cql, int pageSize, Consumer<List<Map<String, Object>>> pageConsumer)
+      throws PersistenceException {
+    if (StringUtils.isBlank(type)) {
+      throw new PersistenceException(
+          "The type of object(s) to retrieve must be non-null and not blank, e.g., notification, metacard, etc.");
+    }
+
+    validatePageSize(pageSize);
+
+    SolrClient solrClient = getSolrClient(type);
+
+    try {
+      SolrQuery solrQuery = toSolrQuery(solrClient, type, cql);
+      solrQuery.setRows(pageSize);
+      // cursors require a sort on the unique key
+      solrQuery.addSort(PersistentItem.ID, SolrQuery.ORDER.asc);
+
+      long count = 0;
+      String cursorMark = CursorMarkParams.CURSOR_MARK_START;
+      while (true) {
+        solrQuery.set(CursorMarkParams.CURSOR_MARK_PARAM, cursorMark);
+        QueryResponse solrResponse = solrClient.query(solrQuery, METHOD.POST);
+
+        List<Map<String, Object>> page = documentListToResultList(solrResponse.getResults());
+        if (!page.isEmpty()) {
+          pageConsumer.accept(page);
+          count += page.size();
+        }
+
+        String nextCursorMark = solrResponse.getNextCursorMark();
+        if (nextCursorMark == null || nextCursorMark.equals(cursorMark)) {
+          LOGGER.debug("Retrieved {} items of type {}", count, type);
+          return count;
+        }
+        cursorMark = nextCursorMark;
+      }
+    } catch (CQLException e) {
+      throw new PersistenceException(
+          "CQLException while getting Solr data with cql statement " + cql, e);
+    } catch (SolrServerException | SolrException | IOException e) {
+      throw new PersistenceException(
+          "Exception while getting Solr data with cql statement " + cql, e);
+    }
+  }
+
+  private void validatePageSize(int pageSize) {
+    if (pageSize <= 0 || pageSize > MAX_PAGE_SIZE) {
+      throw new IllegalArgumentException(
+          String.format(
+              "The page size must be greater than 0 and less than or equal to %d.", MAX_PAGE_SIZE));
+    }
+  }
+
+  /**
+   * Translates CQL to a Solr query. Translations are cached, since the same CQL statements are
+   * typically used over and over again, so the returned query is a copy that can be modified.
+   * Translations that refer to properties not yet in the Solr core are not cached, since they will
+   * translate differently once those properties have been added.
+   */
+  private SolrQuery toSolrQuery(SolrClient solrClient, String type, String cql)
+      throws CQLException, PersistenceException {
+    // If not cql specified, then return all items
+    if (StringUtils.isBlank(cql)) {
+      return new SolrQuery("*:*");
+    }
+
+    String cacheKey = type + '\n' + cql;
+    SolrQuery solrQuery = solrQueries.get(cacheKey);
+    if (solrQuery == null) {
+      Filter filter = ECQL.toFilter(cql);
+      SolrQueryFilterVisitor visitor = new SolrQueryFilterVisitor(solrClient, type);
+      solrQuery = (SolrQuery) filter.accept(visitor, null);
+      if (solrQuery == null) {
+        throw new PersistenceException("Unsupported query " + cql);
+      }
+      if (!visitor.usedFallback()) {
+        solrQueries.put(cacheKey, solrQuery);
+      }
+    }
+    return solrQuery.getCopy();
+  }
+
   private List<Map<String, Object>> documentListToResultList(SolrDocumentList docs) {
     final List<Map<String, Object>> results = new ArrayList<>();
     for (SolrDocument doc : docs) {
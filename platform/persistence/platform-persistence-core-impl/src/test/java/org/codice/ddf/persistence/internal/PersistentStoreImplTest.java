@@ -24,7 +24,10 @@
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import org.apache.solr.client.solrj.SolrClient;
@@ -133,6 +136,69 @@ public void testGetWithStartIndexAndPageSize()
     assertThat(items.get(0).get("id_txt"), equalTo("idvalue1"));
   }
 
+  @Test
+  public void testAddWithCommitWithin() throws Exception {
+    PersistentItem props = new PersistentItem();
+    props.addProperty("property", "value");
+    persistentStore.add("testcore", Collections.singletonList(props), 60000);
+    verify(solrClient).add(any(List.class), eq(60000));
+  }
+
+  @Test
+  public void testUpdate() throws Exception {
+    ArgumentCaptor<List> captor = ArgumentCaptor.forClass(List.class);
+    Map<String, Object> props = new HashMap<>();
+    props.put(PersistentItem.ID, "idvalue1");
+    props.put("property_txt", "value");
+    props.put("removed_txt", null);
+
+    persistentStore.update("testcore", Collections.singletonList(props));
+
+    verify(solrClient).add(captor.capture(), any(Integer.class));
+    SolrInputDocument doc = (SolrInputDocument) captor.getValue().get(0);
+    assertThat(doc.getFieldValue(PersistentItem.ID), is("idvalue1"));
+    assertThat(doc.getFieldValue("property_txt"), is(Collections.singletonMap("set", "value")));
+    assertThat(doc.getFieldValue("removed_txt"), is(Collections.singletonMap("set", null)));
+    assertThat(doc.getFieldNames().size(), is(3));
+  }
+
+  @Test(expected = PersistenceException.class)
+  public void testUpdateWithoutId() throws Exception {
+    persistentStore.update(
+        "testcore", Collections.singletonList(Collections.singletonMap("property_txt", "value")));
+  }
+
+  @Test
+  public void testForEachPagesWithCursor() throws Exception {
+    QueryResponse firstPage = mock(QueryResponse.class);
+    when(firstPage.getResults()).thenReturn(getSolrDocuments(2));
+    when(firstPage.getNextCursorMark()).thenReturn("cursor1");
+    QueryResponse lastPage = mock(QueryResponse.class);
+    when(lastPage.getResults()).thenReturn(new SolrDocumentList());
+    when(lastPage.getNextCursorMark()).thenReturn("cursor1");
+    List<String> cursorMarks = new ArrayList<>();
+    when(solrClient.query(any(), eq(METHOD.POST)))
+        .thenAnswer(
+            invocation -> {
+              String cursorMark = ((SolrParams) invocation.getArgument(0)).get("cursorMark");
+              cursorMarks.add(cursorMark);
+              return "*".equals(cursorMark) ? firstPage : lastPage;
+            });
+    List<List<Map<String, Object>>> pages = new ArrayList<>();
+
+    long count = persistentStore.forEach("testcore", "", 2, pages::add);
+
+    assertThat(count, is(2L));
+    assertThat(pages.size(), is(1));
+    assertThat(pages.get(0).get(1).get("id_txt"), equalTo("idvalue2"));
+    assertThat(cursorMarks, is(Arrays.asList("*", "cursor1")));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testForEachWithInvalidPageSize() throws Exception {
+    persistentStore.forEach("testcore", "", 5000, page -> {});
+  }
+
   @Test(expected = IllegalArgumentException.class)
   public void testGetWithInvalidStartIndex() throws Exception {
     persistentStore.get("testcore", "", -1, 1);
@@ -18,6 +18,8 @@
 import com.google.common.annotations.VisibleForTesting;
 import ddf.security.SecurityConstants;
 import ddf.security.audit.SecurityLogger;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -31,8 +33,11 @@
 import java.security.cert.CertificateEncodingException;
 import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Date;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -41,6 +46,10 @@
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import javax.ws.rs.ProcessingException;
@@ -74,7 +83,9 @@
 import org.codice.ddf.cxf.client.ClientBuilder;
 import org.codice.ddf.cxf.client.ClientBuilderFactory;
 import org.codice.ddf.cxf.client.SecureCxfClientFactory;
+import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
 import org.codice.ddf.security.OcspService;
+import org.codice.ddf.security.ocsp.checker.RevocationStatusCache.RevocationStatus;
 import org.codice.ddf.system.alerts.NoticePriority;
 import org.codice.ddf.system.alerts.SystemNotice;
 import org.osgi.service.event.Event;
@@ -86,6 +97,10 @@ public class OcspChecker implements OcspService {
   private static final Logger LOGGER = LoggerFactory.getLogger(OcspChecker.class);
   private static final String NOT_VERIFIED_MSG = " The certificate status could not be verified.";
   private static final String CONTINUING_MSG = " Continuing OCSP check.";
+  private static final long DEFAULT_CACHE_SIZE = 10000;
+  private static final Duration DEFAULT_CACHE_TIMEOUT = Duration.ofMinutes(5);
+  private static final int REFRESH_THREADS = 4;
+  private static final int REFRESH_QUEUE_SIZE = 1000;
 
   private final ClientBuilderFactory factory;
   private final EventAdmin eventAdmin;
@@ -95,9 +110,37 @@ public class OcspChecker implements OcspService {
 
   private SecurityLogger securityLogger;
 
+  private final ExecutorService refreshExecutor =
+      new ThreadPoolExecutor(
+          1,
+          REFRESH_THREADS,
+          60L,
+          TimeUnit.SECONDS,
+          new LinkedBlockingQueue<>(REFRESH_QUEUE_SIZE),
+          StandardThreadFactoryBuilder.newThreadFactory("ocspStatusRefreshThread"));
+
+  private long cacheSize = DEFAULT_CACHE_SIZE; // metatype value
+  private Duration cacheDefaultTimeout = DEFAULT_CACHE_TIMEOUT; // metatype value
+
+  private volatile RevocationStatusCache revocationStatusCache =
+      new RevocationStatusCache(cacheSize, refreshExecutor);
+
+  private final Gauge cacheSizeGauge;
+
   public OcspChecker(ClientBuilderFactory factory, EventAdmin eventAdmin) {
     this.factory = factory;
     this.eventAdmin = eventAdmin;
+    cacheSizeGauge =
+        Gauge.builder(
+                "ddf.security.ocsp.cache.size",
+                this,
+                checker -> checker.revocationStatusCache.size())
+            .register(Metrics.globalRegistry);
+  }
+
+  public void destroy() {
+    refreshExecutor.shutdownNow();
+    Metrics.globalRegistry.remove(cacheSizeGauge);
   }
 
   /**
@@ -118,10 +161,10 @@ public boolean passesOcspCheck(X509Certificate[] certs) {
     LOGGER.debug("OCSP check for {} certificate(s)", certs == null ? "0" : certs.length);
     for (X509Certificate cert : certs) {
       try {
-        Certificate certificate = convertToBouncyCastleCert(cert);
-        OCSPReq ocspRequest = generateOcspRequest(certificate);
-        Map<URI, CertificateStatus> ocspStatuses = sendOcspRequests(cert, ocspRequest);
-        URI revokedStatusUrl = getFirstRevokedStatusUrl(ocspStatuses);
+        URI revokedStatusUrl =
+            revocationStatusCache
+                .get(getCacheKey(cert), () -> checkRevocationStatus(cert))
+                .getRevokedStatusUrl();
         if (revokedStatusUrl != null) {
           securityLogger.audit(
               "Certificate {} has been revoked by the OCSP server at URL {}.",
@@ -143,6 +186,36 @@ public boolean passesOcspCheck(X509Certificate[] certs) {
     return true;
   }
 
+  /**
+   * Looks up the revocation status of the given {@param cert} from the OCSP servers.
+   *
+   * @param cert - the {@link X509Certificate} to check.
+   * @return the revocation status, which expires when the first of the responses used to determine
+   *     it is due to be updated. The status is not cached if no OCSP server could determine it.
+   * @throws OcspCheckerException if the OCSP request could not be created.
+   */
+  private RevocationStatus checkRevocationStatus(X509Certificate cert) throws OcspCheckerException {
+    Certificate certificate = convertToBouncyCastleCert(cert);
+    OCSPReq ocspRequest = generateOcspRequest(certificate);
+    Map<URI, OcspStatus> ocspStatuses = getOcspStatuses(cert, ocspRequest);
+    URI revokedStatusUrl = getFirstRevokedStatusUrl(toCertificateStatuses(ocspStatuses));
+
+    Instant now = Instant.now();
+    Instant expiry =
+        ocspStatuses.entrySet().stream()
+            .filter(entry -> revokedStatusUrl == null || revokedStatusUrl.equals(entry.getKey()))
+            .map(Entry::getValue)
+            .filter(OcspStatus::isDetermined)
+            .map(ocspStatus -> ocspStatus.getExpiry(now, cacheDefaultTimeout))
+            .min(Instant::compareTo)
+            .orElse(null);
+    return new RevocationStatus(revokedStatusUrl, expiry);
+  }
+
+  private static String getCacheKey(X509Certificate cert) {
+    return cert.getIssuerX500Principal().getName() + ":" + cert.getSerialNumber();
+  }
+
   /**
    * Converts a {@link java.security.cert.X509Certificate} to a {@link Certificate}.
    *
@@ -287,6 +360,18 @@ private X509CertificateHolder getCertFromTruststoreWithX500Name(
    */
   @VisibleForTesting
   Map<URI, CertificateStatus> sendOcspRequests(X509Certificate cert, OCSPReq ocspRequest) {
+    return toCertificateStatuses(getOcspStatuses(cert, ocspRequest));
+  }
+
+  private static Map<URI, CertificateStatus> toCertificateStatuses(
+      Map<URI, OcspStatus> ocspStatuses) {
+    // a good status is represented as null, which Collectors.toMap does not allow
+    Map<URI, CertificateStatus> certificateStatuses = new HashMap<>();
+    ocspStatuses.forEach((url, ocspStatus) -> certificateStatuses.put(url, ocspStatus.status));
+    return certificateStatuses;
+  }
+
+  private Map<URI, OcspStatus> getOcspStatuses(X509Certificate cert, OCSPReq ocspRequest) {
     Set<URI> urlsToCheck = new HashSet<>();
     if (ocspServerUrls != null) {
       urlsToCheck.addAll(ocspServerUrls);
@@ -299,7 +384,7 @@ Map<URI, CertificateStatus> sendOcspRequests(X509Certificate cert, OCSPReq ocspR
       logRequest(ocspRequest);
     }
 
-    Map<URI, CertificateStatus> ocspStatuses = new HashMap<>();
+    Map<URI, OcspStatus> ocspStatuses = new HashMap<>();
 
     for (URI ocspServerUrl : urlsToCheck) {
       try {
@@ -331,7 +416,7 @@ Map<URI, CertificateStatus> sendOcspRequests(X509Certificate cert, OCSPReq ocspR
       }
       ocspStatuses.put(
           ocspServerUrl,
-          new UnknownStatus()); // if ocspServerUrl is null or if there was an exception
+          OcspStatus.unknown()); // if ocspServerUrl is null or if there was an exception
     }
 
     return ocspStatuses;
@@ -403,21 +488,21 @@ private OCSPResp createOcspResponse(Response response) throws OcspCheckerExcepti
    * Gets the {@link CertificateStatus} from the given {@param ocspResponse}.
    *
    * @param ocspResponse - the {@link OCSPResp} to get the {@link CertificateStatus} from.
-   * @return the {@link CertificateStatus} from the given {@param ocspResponse}. Returns an {@link
-   *     UnknownStatus} if the status could not be found.
+   * @return the {@link CertificateStatus} from the given {@param ocspResponse}, along with the
+   *     response's validity window. The status is an {@link UnknownStatus} if it could not be
+   *     found.
    */
-  private CertificateStatus getStatusFromOcspResponse(
-      OCSPResp ocspResponse, X509Certificate certificate) {
+  private OcspStatus getStatusFromOcspResponse(OCSPResp ocspResponse, X509Certificate certificate) {
     try {
       BasicOCSPResp basicResponse = (BasicOCSPResp) ocspResponse.getResponseObject();
 
       if (basicResponse == null) {
-        return new UnknownStatus();
+        return OcspStatus.unknown();
       }
 
       SingleResp[] singleResps = basicResponse.getResponses();
       if (singleResps == null) {
-        return new UnknownStatus();
+        return OcspStatus.unknown();
       }
       SingleResp response =
           Arrays.stream(singleResps)
@@ -432,15 +517,17 @@ private CertificateStatus getStatusFromOcspResponse(
               .orElse(null);
       if (response == null) {
         LOGGER.debug("Certificate status from OCSP response is unknown.");
-        return new UnknownStatus();
+        return OcspStatus.unknown();
       }
       if (response.getCertStatus() == null) {
         LOGGER.debug("Certificate status from OCSP response is good.");
-        return CertificateStatus.GOOD;
+        return new OcspStatus(
+            CertificateStatus.GOOD, response.getThisUpdate(), response.getNextUpdate());
       }
-      return response.getCertStatus();
+      return new OcspStatus(
+          response.getCertStatus(), response.getThisUpdate(), response.getNextUpdate());
     } catch (OCSPException e) {
-      return new UnknownStatus();
+      return OcspStatus.unknown();
     }
   }
 
@@ -671,6 +758,23 @@ public void setOcspEnabled(boolean ocspEnabled) {
     this.ocspEnabled = ocspEnabled;
   }
 
+  /**
+   * Sets the most certificates to hold revocation statuses for. Setting it to 0 disables caching.
+   */
+  public void setOcspCacheSize(long cacheSize) {
+    this.cacheSize = Math.max(0, cacheSize);
+    this.revocationStatusCache = new RevocationStatusCache(this.cacheSize, refreshExecutor);
+  }
+
+  /**
+   * Sets how long to cache a revocation status, in seconds, when the OCSP response does not say
+   * when it will next be updated.
+   */
+  public void setOcspCacheDefaultTimeout(long cacheDefaultTimeout) {
+    this.cacheDefaultTimeout = Duration.ofSeconds(Math.max(0, cacheDefaultTimeout));
+    revocationStatusCache.invalidateAll();
+  }
+
   public void setOcspServerUrls(List<String> ocspServerUrls) {
     this.ocspServerUrls =
         ocspServerUrls.stream()
@@ -685,6 +789,8 @@ public void setOcspServerUrls(List<String> ocspServerUrls) {
                 })
             .filter(Objects::nonNull)
             .collect(Collectors.toList());
+    // statuses reported by servers that are no longer configured should not be used
+    revocationStatusCache.invalidateAll();
   }
 
   /**
@@ -709,6 +815,43 @@ public OcspCheckerException(String msg, Exception cause) {
     }
   }
 
+  /** A {@link CertificateStatus} reported by an OCSP server, with the validity of the report. */
+  private static class OcspStatus {
+
+    private final CertificateStatus status;
+
+    private final Date thisUpdate;
+
+    private final Date nextUpdate;
+
+    private OcspStatus(CertificateStatus status, Date thisUpdate, Date nextUpdate) {
+      this.status = status;
+      this.thisUpdate = thisUpdate;
+      this.nextUpdate = nextUpdate;
+    }
+
+    private static OcspStatus unknown() {
+      return new OcspStatus(new UnknownStatus(), null, null);
+    }
+
+    /** @return true if the OCSP server reported the certificate as either good or revoked */
+    private boolean isDetermined() {
+      return !(status instanceof UnknownStatus);
+    }
+
+    /**
+     * @return when the status should be looked up again. Statuses without a {@code nextUpdate} are
+     *     kept for {@code defaultTimeout}, and statuses produced in the future, which indicates
+     *     that the clocks disagree, are not kept at all.
+     */
+    private Instant getExpiry(Instant now, Duration defaultTimeout) {
+      if (thisUpdate != null && thisUpdate.toInstant().isAfter(now)) {
+        return now;
+      }
+      return nextUpdate == null ? now.plus(defaultTimeout) : nextUpdate.toInstant();
+    }
+  }
+
   private static <T> T getValueOrDefault(T value, T defaultValue) {
     return value == null ? defaultValue : value;
   }
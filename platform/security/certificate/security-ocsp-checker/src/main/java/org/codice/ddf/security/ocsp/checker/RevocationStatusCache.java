@@ -0,0 +1,241 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.security.ocsp.checker;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import java.net.URI;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nullable;
+import org.codice.ddf.security.ocsp.checker.OcspChecker.OcspCheckerException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Holds the revocation statuses the OCSP servers reported for certificates until the servers'
+ * responses are due to be updated.
+ *
+ * <p>Concurrent lookups of the same certificate share a single round of OCSP requests. Statuses
+ * that are looked up more than once are refreshed in the background once most of their validity
+ * window has passed, so that frequently presented certificates are not held up by the OCSP servers
+ * when their statuses expire.
+ */
+class RevocationStatusCache {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(RevocationStatusCache.class);
+
+  private static final String METRIC_NAME = "ddf.security.ocsp.cache";
+
+  /** The number of lookups a status needs before it is refreshed ahead of its expiry. */
+  private static final int REFRESH_HITS = 2;
+
+  private final Cache<String, CachedStatus> cache;
+
+  private final ConcurrentMap<String, CompletableFuture<RevocationStatus>> lookupsInProgress =
+      new ConcurrentHashMap<>();
+
+  private final Executor refreshExecutor;
+
+  private final Clock clock;
+
+  private final Counter hits = Metrics.counter(METRIC_NAME, "result", "hit");
+
+  private final Counter misses = Metrics.counter(METRIC_NAME, "result", "miss");
+
+  private final Counter coalesced = Metrics.counter(METRIC_NAME, "result", "coalesced");
+
+  private final Counter refreshes = Metrics.counter(METRIC_NAME, "result", "refresh");
+
+  /**
+   * @param maximumSize the most certificates to hold statuses for. A size of 0 disables caching,
+   *     though concurrent lookups are still shared.
+   * @param refreshExecutor runs the background refreshes
+   */
+  RevocationStatusCache(long maximumSize, Executor refreshExecutor) {
+    this(maximumSize, refreshExecutor, Clock.systemUTC());
+  }
+
+  RevocationStatusCache(long maximumSize, Executor refreshExecutor, Clock clock) {
+    this.cache = CacheBuilder.newBuilder().maximumSize(maximumSize).build();
+    this.refreshExecutor = refreshExecutor;
+    this.clock = clock;
+  }
+
+  /**
+   * Gets the revocation status of a certificate, looking it up if no unexpired status is held.
+   *
+   * @param key identifies the certificate
+   * @param loader looks up the status from the OCSP servers
+   * @return the revocation status of the certificate
+   * @throws OcspCheckerException if the status could not be looked up
+   */
+  RevocationStatus get(String key, StatusLoader loader) throws OcspCheckerException {
+    Instant now = clock.instant();
+    CachedStatus cached = cache.getIfPresent(key);
+    if (cached != null) {
+      if (cached.isValid(now)) {
+        hits.increment();
+        if (cached.shouldRefresh(now)) {
+          refresh(key, cached, loader);
+        }
+        return cached.status;
+      }
+      cache.asMap().remove(key, cached);
+    }
+
+    CompletableFuture<RevocationStatus> lookup = new CompletableFuture<>();
+    CompletableFuture<RevocationStatus> lookupInProgress =
+        lookupsInProgress.putIfAbsent(key, lookup);
+    if (lookupInProgress != null) {
+      coalesced.increment();
+      return await(lookupInProgress);
+    }
+
+    misses.increment();
+    try {
+      RevocationStatus status = load(key, loader);
+      lookup.complete(status);
+      return status;
+    } catch (OcspCheckerException | RuntimeException e) {
+      lookup.completeExceptionally(e);
+      throw e;
+    } finally {
+      lookupsInProgress.remove(key, lookup);
+    }
+  }
+
+  void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  long size() {
+    return cache.size();
+  }
+
+  private RevocationStatus load(String key, StatusLoader loader) throws OcspCheckerException {
+    Instant loadedAt = clock.instant();
+    RevocationStatus status = loader.load();
+    if (status.getExpiry() != null && status.getExpiry().isAfter(loadedAt)) {
+      cache.put(key, new CachedStatus(status, loadedAt));
+    }
+    return status;
+  }
+
+  private void refresh(String key, CachedStatus cached, StatusLoader loader) {
+    try {
+      refreshExecutor.execute(
+          () -> {
+            try {
+              refreshes.increment();
+              load(key, loader);
+            } catch (OcspCheckerException | RuntimeException e) {
+              LOGGER.debug("Unable to refresh the OCSP status of certificate {}.", key, e);
+            } finally {
+              cached.refreshing.set(false);
+            }
+          });
+    } catch (RejectedExecutionException e) {
+      cached.refreshing.set(false);
+      LOGGER.debug("Unable to schedule a refresh of the OCSP status of certificate {}.", key, e);
+    }
+  }
+
+  private static RevocationStatus await(CompletableFuture<RevocationStatus> lookup)
+      throws OcspCheckerException {
+    try {
+      return lookup.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof OcspCheckerException) {
+        throw (OcspCheckerException) e.getCause();
+      }
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  /** Looks up the revocation status of a certificate from the OCSP servers. */
+  @FunctionalInterface
+  interface StatusLoader {
+    RevocationStatus load() throws OcspCheckerException;
+  }
+
+  /** The revocation status of a certificate, as reported by the OCSP servers. */
+  static class RevocationStatus {
+
+    private final URI revokedStatusUrl;
+
+    private final Instant expiry;
+
+    /**
+     * @param revokedStatusUrl the URL of the OCSP server that reported the certificate revoked, or
+     *     null if it was not reported revoked
+     * @param expiry when the status should be looked up again, or null if it should not be cached
+     */
+    RevocationStatus(@Nullable URI revokedStatusUrl, @Nullable Instant expiry) {
+      this.revokedStatusUrl = revokedStatusUrl;
+      this.expiry = expiry;
+    }
+
+    @Nullable
+    URI getRevokedStatusUrl() {
+      return revokedStatusUrl;
+    }
+
+    @Nullable
+    Instant getExpiry() {
+      return expiry;
+    }
+  }
+
+  private static class CachedStatus {
+
+    private final RevocationStatus status;
+
+    private final Instant refreshAt;
+
+    private final AtomicInteger hits = new AtomicInteger();
+
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    private CachedStatus(RevocationStatus status, Instant loadedAt) {
+      this.status = status;
+      // refresh once four fifths of the validity window have passed
+      long lifetimeMillis = status.getExpiry().toEpochMilli() - loadedAt.toEpochMilli();
+      this.refreshAt = loadedAt.plusMillis(lifetimeMillis * 4 / 5);
+    }
+
+    private boolean isValid(Instant now) {
+      return now.isBefore(status.getExpiry());
+    }
+
+    private boolean shouldRefresh(Instant now) {
+      return hits.incrementAndGet() >= REFRESH_HITS
+          && !now.isBefore(refreshAt)
+          && refreshing.compareAndSet(false, true);
+    }
+  }
+}
@@ -27,6 +27,7 @@
 import ddf.security.SecurityConstants;
 import ddf.security.audit.SecurityLogger;
 import ddf.security.service.SecurityManager;
+import io.micrometer.core.instrument.Metrics;
 import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -640,6 +641,17 @@ public void testOcspCheckDisabled() throws Exception {
     assertThat(ocspChecker.passesOcspCheck(certs), is(true));
   }
 
+  @Test
+  public void testDestroyRemovesCacheSizeGauge() {
+    OcspChecker ocspChecker = new OcspChecker(factory, eventAdmin);
+    assertThat(
+        Metrics.globalRegistry.find("ddf.security.ocsp.cache.size").gauge(), is(notNullValue()));
+
+    ocspChecker.destroy();
+
+    assertNull(Metrics.globalRegistry.find("ddf.security.ocsp.cache.size").gauge());
+  }
+
   private static X509Certificate getX509Certificate(String filename) throws Exception {
     try (InputStream certInputStream =
         OcspCheckerTest.class.getClassLoader().getResourceAsStream(filename)) {
@@ -0,0 +1,161 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.security.ocsp.checker;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.net.URI;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.codice.ddf.security.ocsp.checker.RevocationStatusCache.RevocationStatus;
+import org.junit.After;
+import org.junit.Test;
+
+public class RevocationStatusCacheTest {
+
+  private static final String KEY = "CN=issuer:1234";
+
+  private final MutableClock clock = new MutableClock();
+
+  private final List<Runnable> refreshes = new ArrayList<>();
+
+  private final ExecutorService executorService = Executors.newFixedThreadPool(4);
+
+  private final AtomicInteger loads = new AtomicInteger();
+
+  @After
+  public void tearDown() {
+    executorService.shutdownNow();
+  }
+
+  @Test
+  public void testStatusIsCachedUntilItExpires() throws Exception {
+    RevocationStatusCache cache = new RevocationStatusCache(10, refreshes::add, clock);
+    RevocationStatus status = status(Duration.ofMinutes(10));
+
+    assertThat(cache.get(KEY, () -> load(status)), is(sameInstance(status)));
+    clock.advance(Duration.ofMinutes(9));
+    assertThat(cache.get(KEY, () -> load(status(Duration.ofMinutes(10)))), is(status));
+    assertThat(loads.get(), is(1));
+
+    clock.advance(Duration.ofMinutes(1));
+    cache.get(KEY, () -> load(status(Duration.ofMinutes(10))));
+    assertThat(loads.get(), is(2));
+  }
+
+  @Test
+  public void testStatusWithoutExpiryIsNotCached() throws Exception {
+    RevocationStatusCache cache = new RevocationStatusCache(10, refreshes::add, clock);
+
+    cache.get(KEY, () -> load(new RevocationStatus(null, null)));
+    cache.get(KEY, () -> load(new RevocationStatus(null, null)));
+
+    assertThat(loads.get(), is(2));
+    assertThat(cache.size(), is(0L));
+  }
+
+  @Test
+  public void testFrequentlyUsedStatusIsRefreshedBeforeItExpires() throws Exception {
+    RevocationStatusCache cache = new RevocationStatusCache(10, refreshes::add, clock);
+    RevocationStatus refreshed = status(Duration.ofMinutes(20));
+
+    cache.get(KEY, () -> load(status(Duration.ofMinutes(10))));
+    clock.advance(Duration.ofMinutes(8));
+    cache.get(KEY, () -> load(refreshed));
+    cache.get(KEY, () -> load(refreshed));
+    assertThat(refreshes.size(), is(1));
+
+    refreshes.get(0).run();
+    clock.advance(Duration.ofMinutes(5));
+
+    assertThat(cache.get(KEY, () -> load(status(Duration.ofMinutes(1)))), is(refreshed));
+    assertThat(loads.get(), is(2));
+  }
+
+  @Test
+  public void testConcurrentLookupsShareOneLoad() throws Exception {
+    RevocationStatusCache cache = new RevocationStatusCache(10, refreshes::add, clock);
+    RevocationStatus status = new RevocationStatus(new URI("https://revokedurl:8993"), null);
+    CountDownLatch loading = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+
+    Future<RevocationStatus> first =
+        executorService.submit(
+            () ->
+                cache.get(
+                    KEY,
+                    () -> {
+                      loading.countDown();
+                      Uninterruptibles.awaitUninterruptibly(release);
+                      return load(status);
+                    }));
+    loading.await(10, TimeUnit.SECONDS);
+    Future<RevocationStatus> second =
+        executorService.submit(() -> cache.get(KEY, () -> load(status)));
+    // give the second lookup time to join the first before it completes
+    Thread.sleep(200);
+    release.countDown();
+
+    assertThat(first.get(10, TimeUnit.SECONDS), is(status));
+    assertThat(second.get(10, TimeUnit.SECONDS), is(status));
+    assertThat(loads.get(), is(1));
+  }
+
+  private RevocationStatus status(Duration validity) {
+    return new RevocationStatus(null, clock.instant().plus(validity));
+  }
+
+  private RevocationStatus load(RevocationStatus status) {
+    loads.incrementAndGet();
+    return status;
+  }
+
+  private static class MutableClock extends Clock {
+
+    private Instant instant = Instant.parse("2020-01-01T00:00:00Z");
+
+    private void advance(Duration duration) {
+      instant = instant.plus(duration);
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return instant;
+    }
+  }
+}
@@ -0,0 +1,95 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.security.sts.claimsHandler;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import ddf.security.claims.Claim;
+import ddf.security.claims.ClaimsCollection;
+import ddf.security.claims.impl.ClaimImpl;
+import ddf.security.claims.impl.ClaimsCollectionImpl;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import java.security.Principal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds the claims a claims handler retrieved for each principal for a limited time, so that
+ * repeated logins and token refreshes by the same user do not each search the directory.
+ *
+ * <p>Callers are handed copies of the cached claims, since claims collections are mutable.
+ */
+public class ClaimsCache {
+
+  private final Cache<String, ClaimsCollection> cache;
+
+  private final Counter hits;
+
+  private final Counter misses;
+
+  /**
+   * @param handlerName the name of the claims handler using the cache, used to tag its metrics
+   * @param maximumSize the most principals to hold claims for
+   * @param timeToLiveSeconds how long claims are held after they are retrieved
+   */
+  public ClaimsCache(String handlerName, long maximumSize, long timeToLiveSeconds) {
+    this.cache =
+        CacheBuilder.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(timeToLiveSeconds, TimeUnit.SECONDS)
+            .build();
+    this.hits =
+        Metrics.counter("ddf.security.claims.cache", "handler", handlerName, "result", "hit");
+    this.misses =
+        Metrics.counter("ddf.security.claims.cache", "handler", handlerName, "result", "miss");
+  }
+
+  /** @return a copy of the claims cached for {@code principal}, or null if there are none */
+  public ClaimsCollection get(Principal principal) {
+    ClaimsCollection claims = cache.getIfPresent(principal.getName());
+    if (claims == null) {
+      misses.increment();
+      return null;
+    }
+    hits.increment();
+    return copy(claims);
+  }
+
+  public void put(Principal principal, ClaimsCollection claims) {
+    cache.put(principal.getName(), copy(claims));
+  }
+
+  /** Discards the claims cached for the principal with the given name. */
+  public void invalidate(String principalName) {
+    cache.invalidate(principalName);
+  }
+
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  public long size() {
+    return cache.size();
+  }
+
+  private static ClaimsCollection copy(ClaimsCollection claims) {
+    ClaimsCollection copy = new ClaimsCollectionImpl();
+    for (Claim claim : claims) {
+      Claim claimCopy = new ClaimImpl(claim.getName());
+      claim.getValues().forEach(claimCopy::addValue);
+      copy.add(claimCopy);
+    }
+    return copy;
+  }
+}
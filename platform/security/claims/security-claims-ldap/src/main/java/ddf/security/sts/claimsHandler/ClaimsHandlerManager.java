@@ -19,6 +19,7 @@
 import ddf.security.encryption.EncryptionService;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.net.InetAddress;
 import java.security.GeneralSecurityException;
 import java.security.KeyStore;
@@ -31,6 +32,10 @@
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 import javax.net.ssl.KeyManagerFactory;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.TrustManagerFactory;
@@ -42,6 +47,7 @@
 import org.forgerock.opendj.ldap.LDAPUrl;
 import org.forgerock.opendj.ldap.LdapException;
 import org.forgerock.util.Options;
+import org.forgerock.util.time.Duration;
 import org.osgi.framework.Bundle;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.FrameworkUtil;
@@ -49,8 +55,14 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-/** Creates and registers LDAP and Role claims handlers. */
-public class ClaimsHandlerManager {
+/**
+ * Creates and registers LDAP and Role claims handlers.
+ *
+ * <p>The handlers share nothing but their configuration. Each gets its own pool of connections to
+ * every LDAP server and its own cache of the claims it has retrieved, which can be cleared through
+ * the {@link ClaimsHandlerManagerMBean}.
+ */
+public class ClaimsHandlerManager implements ClaimsHandlerManagerMBean {
 
   public static final String URL = "url";
 
@@ -88,6 +100,20 @@ public class ClaimsHandlerManager {
 
   public static final String PROPERTY_FILE_LOCATION = "propertyFileLocation";
 
+  public static final String CONNECTION_POOL_SIZE = "connectionPoolSize";
+
+  public static final String CLAIMS_CACHE_TIMEOUT = "claimsCacheTimeout";
+
+  public static final String CLAIMS_CACHE_SIZE = "claimsCacheSize";
+
+  private static final int DEFAULT_CONNECTION_POOL_SIZE = 10;
+
+  private static final long DEFAULT_CLAIMS_CACHE_TIMEOUT = 60L;
+
+  private static final long DEFAULT_CLAIMS_CACHE_SIZE = 10000L;
+
+  private static final long POOLED_CONNECTION_IDLE_TIMEOUT_SECONDS = 300L;
+
   private static final Logger LOGGER = LoggerFactory.getLogger(ClaimsHandlerManager.class);
 
   private EncryptionService encryptService;
@@ -96,6 +122,12 @@ public class ClaimsHandlerManager {
 
   private ServiceRegistration<ClaimsHandler> ldapHandlerRegistration = null;
 
+  private volatile ClaimsCache roleClaimsCache;
+
+  private volatile ClaimsCache ldapClaimsCache;
+
+  private ObjectName objectName;
+
   private Map<String, Object> ldapProperties = new HashMap<>();
 
   private SecurityLogger securityLogger;
@@ -166,14 +198,20 @@ public void update(Map<String, Object> props) {
     if (overrideCertDn == null) {
       overrideCertDn = false;
     }
+    int connectionPoolSize =
+        (int) getLong(props, CONNECTION_POOL_SIZE, DEFAULT_CONNECTION_POOL_SIZE);
+    long claimsCacheTimeout = getLong(props, CLAIMS_CACHE_TIMEOUT, DEFAULT_CLAIMS_CACHE_TIMEOUT);
+    long claimsCacheSize = getLong(props, CLAIMS_CACHE_SIZE, DEFAULT_CLAIMS_CACHE_SIZE);
     try {
       if (encryptService != null) {
         password = encryptService.decryptValue(password);
       }
       ConnectionFactory connection1 =
-          createConnectionFactory(urls, startTls, loadBalancingAlgorithm);
+          createConnectionFactory(urls, startTls, loadBalancingAlgorithm, connectionPoolSize);
       ConnectionFactory connection2 =
-          createConnectionFactory(urls, startTls, loadBalancingAlgorithm);
+          createConnectionFactory(urls, startTls, loadBalancingAlgorithm, connectionPoolSize);
+      roleClaimsCache = createClaimsCache("role", claimsCacheSize, claimsCacheTimeout);
+      ldapClaimsCache = createClaimsCache("ldap", claimsCacheSize, claimsCacheTimeout);
       registerRoleClaimsHandler(
           connection1,
           propertyFileLocation,
@@ -221,15 +259,91 @@ private List<String> getUrls(Map<String, Object> props, String key) {
     return urls;
   }
 
-  public void destroy() {}
+  private long getLong(Map<String, Object> props, String key, long defaultValue) {
+    Object value = props.get(key);
+    if (value instanceof Number) {
+      return ((Number) value).longValue();
+    } else if (value instanceof String && StringUtils.isNotBlank((String) value)) {
+      try {
+        return Long.parseLong(((String) value).trim());
+      } catch (NumberFormatException e) {
+        LOGGER.debug("Invalid value [{}] for {}. Using {} instead.", value, key, defaultValue);
+      }
+    }
+    return defaultValue;
+  }
+
+  private ClaimsCache createClaimsCache(String handlerName, long size, long timeoutSeconds) {
+    if (size <= 0 || timeoutSeconds <= 0) {
+      return null;
+    }
+    return new ClaimsCache(handlerName, size, timeoutSeconds);
+  }
+
+  @Override
+  public void invalidateClaims(String principalName) {
+    LOGGER.debug("Invalidating cached claims for {}.", principalName);
+    for (ClaimsCache claimsCache : Arrays.asList(roleClaimsCache, ldapClaimsCache)) {
+      if (claimsCache != null) {
+        claimsCache.invalidate(principalName);
+      }
+    }
+  }
+
+  @Override
+  public void invalidateAllClaims() {
+    LOGGER.debug("Invalidating all cached claims.");
+    for (ClaimsCache claimsCache : Arrays.asList(roleClaimsCache, ldapClaimsCache)) {
+      if (claimsCache != null) {
+        claimsCache.invalidateAll();
+      }
+    }
+  }
+
+  @Override
+  public long getCachedPrincipalCount() {
+    ClaimsCache claimsCache = ldapClaimsCache;
+    return claimsCache == null ? 0 : claimsCache.size();
+  }
+
+  public void destroy() {
+    BundleContext context = getContext();
+    if (context != null) {
+      unregisterClaimsHandler(context, roleHandlerRegistration);
+      unregisterClaimsHandler(context, ldapHandlerRegistration);
+      roleHandlerRegistration = null;
+      ldapHandlerRegistration = null;
+    }
+
+    if (objectName != null) {
+      try {
+        ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+      } catch (JMException e) {
+        LOGGER.debug("Unable to unregister claims handler manager MBean {}.", objectName, e);
+      }
+    }
+  }
 
   protected ConnectionFactory createConnectionFactory(
-      List<String> urls, Boolean startTls, String loadBalancingAlgorithm) throws LdapException {
+      List<String> urls, Boolean startTls, String loadBalancingAlgorithm, int connectionPoolSize)
+      throws LdapException {
     List<ConnectionFactory> connectionFactories = new ArrayList<>();
 
     for (String singleUrl : urls) {
-      connectionFactories.add(
-          createLdapConnectionFactory(new PropertyResolver(singleUrl).toString(), startTls));
+      ConnectionFactory connectionFactory =
+          createLdapConnectionFactory(new PropertyResolver(singleUrl).toString(), startTls);
+      if (connectionPoolSize > 0) {
+        // connections are bound again by each claims retrieval, so pooling only saves the
+        // connection setup, but that includes the TLS handshake
+        connectionFactory =
+            Connections.newCachedConnectionPool(
+                connectionFactory,
+                0,
+                connectionPoolSize,
+                POOLED_CONNECTION_IDLE_TIMEOUT_SECONDS,
+                TimeUnit.SECONDS);
+      }
+      connectionFactories.add(connectionFactory);
     }
 
     Options options = Options.defaultOptions();
@@ -254,6 +368,12 @@ protected LDAPConnectionFactory createLdapConnectionFactory(String url, Boolean
       LOGGER.info("Error encountered while configuring SSL. Secure connection will fail.", e);
     }
 
+    // heartbeats let pooled connections that have been dropped be discarded before they are used
+    lo.set(LDAPConnectionFactory.HEARTBEAT_ENABLED, true);
+    lo.set(LDAPConnectionFactory.HEARTBEAT_TIMEOUT, new Duration(30L, TimeUnit.SECONDS));
+    lo.set(LDAPConnectionFactory.HEARTBEAT_INTERVAL, new Duration(60L, TimeUnit.SECONDS));
+    lo.set(LDAPConnectionFactory.CONNECT_TIMEOUT, new Duration(30L, TimeUnit.SECONDS));
+
     lo.set(LDAPConnectionFactory.SSL_USE_STARTTLS, useTls);
     lo.set(
         LDAPConnectionFactory.SSL_ENABLED_CIPHER_SUITES,
@@ -328,6 +448,7 @@ private void registerRoleClaimsHandler(
     roleHandler.setBindMethod(bindMethod);
     roleHandler.setKerberosRealm(realm);
     roleHandler.setKdcAddress(kdcAddress);
+    roleHandler.setClaimsCache(roleClaimsCache);
     LOGGER.debug("Registering new role claims handler.");
     roleHandlerRegistration = registerClaimsHandler(roleHandler, roleHandlerRegistration);
   }
@@ -365,6 +486,7 @@ private void registerLdapClaimsHandler(
     ldapHandler.setBindMethod(bindMethod);
     ldapHandler.setKerberosRealm(realm);
     ldapHandler.setKdcAddress(kdcAddress);
+    ldapHandler.setClaimsCache(ldapClaimsCache);
     LOGGER.debug("Registering new ldap claims handler.");
     ldapHandlerRegistration = registerClaimsHandler(ldapHandler, ldapHandlerRegistration);
   }
@@ -380,21 +502,27 @@ private ServiceRegistration<ClaimsHandler> registerClaimsHandler(
       ClaimsHandler handler, ServiceRegistration<ClaimsHandler> registration) {
     BundleContext context = getContext();
     if (null != context) {
-      if (registration != null) {
-        ClaimsHandler oldClaimsHandler = context.getService(registration.getReference());
-        if (oldClaimsHandler instanceof RoleClaimsHandler) {
-          ((RoleClaimsHandler) oldClaimsHandler).disconnect();
-        } else if (oldClaimsHandler instanceof LdapClaimsHandler) {
-          ((LdapClaimsHandler) oldClaimsHandler).disconnect();
-        }
-        registration.unregister();
-      }
+      unregisterClaimsHandler(context, registration);
 
       return context.registerService(ClaimsHandler.class, handler, null);
     }
     return null;
   }
 
+  /** Unregisters a ClaimsHandler and closes its connections to LDAP. */
+  private void unregisterClaimsHandler(
+      BundleContext context, ServiceRegistration<ClaimsHandler> registration) {
+    if (registration != null) {
+      ClaimsHandler oldClaimsHandler = context.getService(registration.getReference());
+      if (oldClaimsHandler instanceof RoleClaimsHandler) {
+        ((RoleClaimsHandler) oldClaimsHandler).disconnect();
+      } else if (oldClaimsHandler instanceof LdapClaimsHandler) {
+        ((LdapClaimsHandler) oldClaimsHandler).disconnect();
+      }
+      registration.unregister();
+    }
+  }
+
   protected BundleContext getContext() {
     Bundle cxfBundle = FrameworkUtil.getBundle(ClaimsHandlerManager.class);
     if (cxfBundle != null) {
@@ -493,9 +621,42 @@ public void setOverrideCertDn(boolean overrideCertDn) {
     ldapProperties.put(OVERRIDE_CERT_DN, overrideCertDn);
   }
 
+  public void setConnectionPoolSize(int connectionPoolSize) {
+    LOGGER.trace("Setting connectionPoolSize: {}", connectionPoolSize);
+    ldapProperties.put(CONNECTION_POOL_SIZE, connectionPoolSize);
+  }
+
+  public void setClaimsCacheTimeout(long claimsCacheTimeout) {
+    LOGGER.trace("Setting claimsCacheTimeout: {}", claimsCacheTimeout);
+    ldapProperties.put(CLAIMS_CACHE_TIMEOUT, claimsCacheTimeout);
+  }
+
+  public void setClaimsCacheSize(long claimsCacheSize) {
+    LOGGER.trace("Setting claimsCacheSize: {}", claimsCacheSize);
+    ldapProperties.put(CLAIMS_CACHE_SIZE, claimsCacheSize);
+  }
+
   public void configure() {
     LOGGER.trace("configure method called - calling update");
     update(ldapProperties);
+    registerMBean();
+  }
+
+  private void registerMBean() {
+    try {
+      // several managers can be configured, so each is named for the object itself
+      objectName =
+          new ObjectName(
+              ClaimsHandlerManager.class.getName()
+                  + ":service=claimsHandlerManager,instance="
+                  + Integer.toHexString(System.identityHashCode(this)));
+      MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+      mBeanServer.registerMBean(this, objectName);
+      LOGGER.debug("Registered claims handler manager MBean under object name: {}", objectName);
+    } catch (JMException e) {
+      LOGGER.info("Unable to register claims handler manager MBean.", e);
+      objectName = null;
+    }
   }
 
   public static KeyManagerFactory createKeyManagerFactory(String keyStoreLoc, String keyStorePass)
@@ -0,0 +1,32 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.security.sts.claimsHandler;
+
+/** Manages the claims cached by the LDAP and Role claims handlers. */
+public interface ClaimsHandlerManagerMBean {
+
+  /**
+   * Discards the claims cached for a user, so that changes made to the user in LDAP are picked up
+   * the next time the user's claims are retrieved.
+   *
+   * @param principalName name of the user's principal
+   */
+  void invalidateClaims(String principalName);
+
+  /** Discards the claims cached for every user. */
+  void invalidateAllClaims();
+
+  /** @return the number of users whose LDAP attribute claims are cached */
+  long getCachedPrincipalCount();
+}
@@ -72,6 +72,8 @@ public class LdapClaimsHandler implements ClaimsHandler {
 
   private boolean x500FilterEnabled = true;
 
+  private ClaimsCache claimsCache;
+
   public LdapClaimsHandler(AttributeMapLoader attributeMapLoader) {
     super();
     this.attributeMapLoader = attributeMapLoader;
@@ -85,6 +87,15 @@ public void setLdapConnectionFactory(ConnectionFactory connection) {
     this.connectionFactory = connection;
   }
 
+  public ClaimsCache getClaimsCache() {
+    return claimsCache;
+  }
+
+  /** @param claimsCache cache of the claims retrieved for each principal, or null to not cache */
+  public void setClaimsCache(ClaimsCache claimsCache) {
+    this.claimsCache = claimsCache;
+  }
+
   public String getPropertyFileLocation() {
     return propertyFileLocation;
   }
@@ -150,7 +161,15 @@ public ClaimsCollection retrieveClaims(ClaimsParameters parameters) {
       return new ClaimsCollectionImpl();
     }
 
+    if (claimsCache != null) {
+      ClaimsCollection cachedClaims = claimsCache.get(principal);
+      if (cachedClaims != null) {
+        return cachedClaims;
+      }
+    }
+
     ClaimsCollection claimsColl = new ClaimsCollectionImpl();
+    boolean retrieved = false;
     Connection connection = null;
     try {
       AndFilter filter = new AndFilter();
@@ -218,6 +237,7 @@ public ClaimsCollection retrieveClaims(ClaimsParameters parameters) {
               entryReader.readReference();
             }
           }
+          retrieved = true;
         } else {
           LOGGER.info("LDAP Connection failed.");
         }
@@ -235,6 +255,11 @@ public ClaimsCollection retrieveClaims(ClaimsParameters parameters) {
         connection.close();
       }
     }
+
+    // only complete results are cached, so a directory outage does not leave users without claims
+    if (retrieved && claimsCache != null) {
+      claimsCache.put(principal, claimsColl);
+    }
     return claimsColl;
   }
 
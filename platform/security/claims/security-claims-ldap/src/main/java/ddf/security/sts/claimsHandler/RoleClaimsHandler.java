@@ -80,6 +80,8 @@ public class RoleClaimsHandler implements ClaimsHandler {
 
   private String kdcAddress;
 
+  private ClaimsCache claimsCache;
+
   public RoleClaimsHandler(AttributeMapLoader attributeMapLoader) {
     this.attributeMapLoader = attributeMapLoader;
   }
@@ -137,6 +139,15 @@ public void setLdapConnectionFactory(ConnectionFactory connection) {
     this.connectionFactory = connection;
   }
 
+  public ClaimsCache getClaimsCache() {
+    return claimsCache;
+  }
+
+  /** @param claimsCache cache of the claims retrieved for each principal, or null to not cache */
+  public void setClaimsCache(ClaimsCache claimsCache) {
+    this.claimsCache = claimsCache;
+  }
+
   public String getMembershipUserAttribute() {
     return membershipUserAttribute;
   }
@@ -201,9 +212,10 @@ public void setClaimsLdapAttributeMapping(Map<String, String> ldapClaimMapping)
   public ClaimsCollection retrieveClaims(ClaimsParameters parameters) {
     String[] attributes = {groupNameAttribute, memberNameAttribute};
     ClaimsCollection claimsColl = new ClaimsCollectionImpl();
+    boolean retrieved = false;
+    Principal principal = parameters.getPrincipal();
     Connection connection = null;
     try {
-      Principal principal = parameters.getPrincipal();
 
       String user = attributeMapLoader.getUser(principal);
       if (user == null) {
@@ -212,6 +224,13 @@ public ClaimsCollection retrieveClaims(ClaimsParameters parameters) {
         return new ClaimsCollectionImpl();
       }
 
+      if (claimsCache != null) {
+        ClaimsCollection cachedClaims = claimsCache.get(principal);
+        if (cachedClaims != null) {
+          return cachedClaims;
+        }
+      }
+
       connection = connectionFactory.getConnection();
       if (connection != null) {
 
@@ -298,6 +317,7 @@ public ClaimsCollection retrieveClaims(ClaimsParameters parameters) {
               entryReader.readReference();
             }
           }
+          retrieved = true;
         } else {
           LOGGER.info("LDAP Connection failed.");
         }
@@ -315,6 +335,11 @@ public ClaimsCollection retrieveClaims(ClaimsParameters parameters) {
         connection.close();
       }
     }
+
+    // only complete results are cached, so a directory outage does not leave users without roles
+    if (retrieved && claimsCache != null) {
+      claimsCache.put(principal, claimsColl);
+    }
     return claimsColl;
   }
 
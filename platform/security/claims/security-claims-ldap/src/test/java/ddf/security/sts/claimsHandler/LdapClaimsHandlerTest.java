@@ -24,6 +24,7 @@
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -81,6 +82,8 @@ public class LdapClaimsHandlerTest {
 
   ClaimsParameters claimsParameters;
 
+  ConnectionFactory mockConnectionFactory;
+
   @Before
   public void setup() throws Exception {
     claimsParameters = mock(ClaimsParameters.class);
@@ -111,7 +114,7 @@ public void setup() throws Exception {
     when(mockEntryReader.isEntry()).thenReturn(false, true);
     when(mockEntryReader.readEntry()).thenReturn(mockEntry);
     when(mockEntry.getAttribute(anyString())).thenReturn(attribute);
-    ConnectionFactory mockConnectionFactory = mock(ConnectionFactory.class);
+    mockConnectionFactory = mock(ConnectionFactory.class);
     when(mockConnectionFactory.getConnection()).thenReturn(mockConnection);
     claimsHandler.setLdapConnectionFactory(mockConnectionFactory);
     claimsHandler.setPropertyFileLocation("thisstringisnotempty");
@@ -152,4 +155,33 @@ public void testRetrieveClaimsValues() throws URISyntaxException, LdapException
             eq("(&(objectclass=person)(uid=cn=Tony Stark,ou=avengers,dc=marvel,dc=com))"),
             eq(ATTRIBUTE_NAME));
   }
+
+  @Test
+  public void testClaimsAreCached() throws LdapException {
+    when(mockBindResult.isSuccess()).thenReturn(true);
+    ClaimsCache claimsCache = new ClaimsCache("test", 10, 60);
+    claimsHandler.setClaimsCache(claimsCache);
+
+    claimsHandler.retrieveClaims(claimsParameters);
+    ClaimsCollection cachedClaims = claimsHandler.retrieveClaims(claimsParameters);
+
+    assertThat(cachedClaims, hasSize(1));
+    assertThat(cachedClaims.get(0).getValues(), contains(DUMMY_VALUE));
+    verify(mockConnectionFactory, times(1)).getConnection();
+
+    claimsCache.invalidate(USER_DN);
+    claimsHandler.retrieveClaims(claimsParameters);
+    verify(mockConnectionFactory, times(2)).getConnection();
+  }
+
+  @Test
+  public void testUnsuccessfulRetrievalIsNotCached() throws LdapException {
+    when(mockBindResult.isSuccess()).thenReturn(false);
+    claimsHandler.setClaimsCache(new ClaimsCache("test", 10, 60));
+
+    claimsHandler.retrieveClaims(claimsParameters);
+    claimsHandler.retrieveClaims(claimsParameters);
+
+    verify(mockConnectionFactory, times(2)).getConnection();
+  }
 }
@@ -13,9 +13,11 @@
  */
 package ddf.security.audit.impl;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.common.net.HttpHeaders;
 import ddf.security.SecurityConstants;
 import ddf.security.SubjectOperations;
+import ddf.security.audit.AuditEvent;
 import ddf.security.audit.AuditPropertiesPlugin;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
@@ -25,27 +27,54 @@
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 import javax.servlet.http.HttpServletRequest;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang.StringEscapeUtils;
 import org.apache.commons.lang.StringUtils;
-import org.apache.cxf.message.Message;
+import org.apache.commons.lang3.tuple.Pair;
 import org.apache.cxf.message.MessageUtils;
 import org.apache.cxf.phase.PhaseInterceptorChain;
 import org.apache.cxf.transport.http.AbstractHTTPDestination;
 import org.apache.karaf.jaas.boot.principal.UserPrincipal;
+import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.message.Message;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.apache.logging.log4j.message.SimpleMessage;
+import org.apache.logging.log4j.message.TimestampMessage;
+import org.apache.logging.log4j.util.LambdaUtil;
 import org.apache.logging.log4j.util.Supplier;
 import org.apache.shiro.subject.Subject;
 import org.apache.shiro.util.ThreadContext;
+import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
 import org.codice.ddf.security.util.ThreadContextProperties;
 
-/** Class that contains utility methods for logging common security messages. */
+/**
+ * Class that contains utility methods for logging common security messages.
+ *
+ * <p>Once {@link #start()} has been called, audit messages are written by a background thread. The
+ * calling thread only captures what depends on it, such as the subject, the client address and the
+ * trace id, and puts the event in a bounded queue. Message parameters that could change afterwards
+ * are turned into text on the calling thread; resolving the user, rendering {@link AuditEvent}s,
+ * formatting the message and writing it through log4j happen on the writer thread, with the name of
+ * the calling thread in the {@link #AUDIT_THREAD} context entry. Each message is written with the
+ * time it was logged at. If the queue is full, the calling thread writes the queued events and then
+ * its own, so that no audit message is ever dropped and messages are written in the order they were
+ * logged. The capacity of the queue is set by the {@code
+ * org.codice.ddf.platform.auditQueueCapacity} system property. Until {@link #start()} is called and
+ * after {@link #stop()}, messages are written on the calling thread.
+ */
 public final class SecurityLoggerImpl implements ddf.security.audit.SecurityLogger {
 
-  private static final Logger LOGGER = LogManager.getLogger(SecurityConstants.SECURITY_LOGGER);
+  private static final Logger WRITER_LOGGER = LogManager.getLogger(SecurityLoggerImpl.class);
 
   private static final String NO_USER = "UNKNOWN";
 
@@ -53,111 +82,192 @@ public final class SecurityLoggerImpl implements ddf.security.audit.SecurityLogg
       Boolean.parseBoolean(
           System.getProperty("org.codice.ddf.platform.requireAuditEncoding", "false"));
 
+  private static final int AUDIT_QUEUE_CAPACITY =
+      Integer.getInteger("org.codice.ddf.platform.auditQueueCapacity", 8192);
+
   private static final String SUBJECT = "Subject: ";
 
   private static final String EXTRA_ATTRIBUTES_PROP = "security.logger.extra_attributes";
 
   public static final String TRACE_ID = "trace-id";
 
+  /** The log4j context entry holding the name of the thread an audit message was logged on. */
+  public static final String AUDIT_THREAD = "audit.thread";
+
+  /** Parameter types that are not changed once created, and so are safe to format later. */
+  private static final Set<Class<?>> IMMUTABLE_PARAM_TYPES =
+      ImmutableSet.of(
+          String.class,
+          Boolean.class,
+          Character.class,
+          Byte.class,
+          Short.class,
+          Integer.class,
+          Long.class,
+          Float.class,
+          Double.class,
+          UUID.class);
+
   private static final String LOOPBACK_ADDRESS = "127.0.0.1";
 
+  private static final long WRITER_POLL_MILLIS = 500;
+
   private final SubjectOperations subjectOperations;
 
+  private final Logger auditLogger;
+
+  private final BlockingQueue<QueuedEvent> auditQueue;
+
+  /**
+   * Held while audit messages are written, so that they are written in the order they were queued.
+   */
+  private final Lock writeLock = new ReentrantLock(true);
+
   private List<AuditPropertiesPlugin> auditPropertiesPlugins = new LinkedList<>();
 
+  private volatile boolean running = false;
+
+  private Thread writer;
+
   public SecurityLoggerImpl(SubjectOperations subjectOperations) {
+    this(
+        subjectOperations,
+        LogManager.getLogger(SecurityConstants.SECURITY_LOGGER),
+        AUDIT_QUEUE_CAPACITY);
+  }
+
+  SecurityLoggerImpl(SubjectOperations subjectOperations, Logger auditLogger, int queueCapacity) {
     this.subjectOperations = subjectOperations;
+    this.auditLogger = auditLogger;
+    this.auditQueue = new ArrayBlockingQueue<>(Math.max(queueCapacity, 1));
   }
 
   public void setAuditPropertiesPlugins(List<AuditPropertiesPlugin> auditPropertiesPlugins) {
     this.auditPropertiesPlugins = auditPropertiesPlugins;
   }
 
-  private String getUser(Subject subject) {
-    try {
-      if (subject == null) {
-        subject = ThreadContext.getSubject();
-      }
-      if (subject == null) {
-        javax.security.auth.Subject javaSubject =
-            javax.security.auth.Subject.getSubject(AccessController.getContext());
-        if (javaSubject != null) {
-          Set<UserPrincipal> userPrincipal = javaSubject.getPrincipals(UserPrincipal.class);
-          if (userPrincipal != null && !userPrincipal.isEmpty()) {
-            return userPrincipal.toArray(new UserPrincipal[1])[0].getName();
-          }
-        }
-      } else {
-        return subjectOperations.getName(subject, NO_USER);
-      }
-    } catch (Exception e) {
-      // ignore and return NO_USER
+  /** Starts writing audit messages on a background thread. */
+  public synchronized void start() {
+    if (!running) {
+      running = true;
+      writer =
+          StandardThreadFactoryBuilder.newThreadFactory("securityAuditWriter")
+              .newThread(this::writeQueuedEvents);
+      writer.start();
     }
-    return NO_USER;
   }
 
-  private void appendAdditionalAttributes(Message message, StringBuilder messageBuilder) {
-    appendAdditionalAttributes(null, message, messageBuilder);
+  /** Stops the background thread after the queued audit messages have been written. */
+  public synchronized void stop() {
+    if (running) {
+      running = false;
+      try {
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      writer = null;
+      writeQueuedEventsAnd(null);
+    }
   }
 
-  private void appendAdditionalAttributes(
-      Subject subject, Message message, StringBuilder messageBuilder) {
-
-    String traceId = ThreadContextProperties.getTraceId();
-    if (StringUtils.isNotEmpty(traceId)) {
-      messageBuilder.append(TRACE_ID).append(" ").append(traceId).append(", ");
+  private void log(QueuedEvent event) {
+    if (running && auditQueue.offer(event)) {
+      if (!running) {
+        // stopped while the event was being queued
+        writeQueuedEventsAnd(null);
+      }
     } else {
-      messageBuilder.append(TRACE_ID).append(" ").append("none").append(", ");
+      writeQueuedEventsAnd(event);
     }
+  }
 
-    String additionAuditProperties =
-        auditPropertiesPlugins.stream()
-            .map(AuditPropertiesPlugin::generate)
-            .filter(Objects::nonNull)
-            .map(pair -> pair.getKey() + " " + pair.getValue())
-            .collect(Collectors.joining(", "));
-
-    if (StringUtils.isNotEmpty(additionAuditProperties)) {
-      messageBuilder.append(additionAuditProperties).append(", ");
+  private void writeQueuedEvents() {
+    while (running) {
+      writeLock.lock();
+      try {
+        QueuedEvent event = auditQueue.poll(WRITER_POLL_MILLIS, TimeUnit.MILLISECONDS);
+        if (event != null) {
+          write(event);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (RuntimeException e) {
+        WRITER_LOGGER.warn("Unable to write security audit message.", e);
+      } finally {
+        writeLock.unlock();
+      }
     }
+  }
 
-    String user = getUser(subject);
-    messageBuilder.append(SUBJECT).append(user).append(", ");
-    appendConditionalAttributes(subject, messageBuilder);
+  /**
+   * Writes the queued events on the calling thread, followed by the given event.
+   *
+   * @param event the event to write after the queued events, or null to only write those
+   */
+  private void writeQueuedEventsAnd(QueuedEvent event) {
+    writeLock.lock();
+    try {
+      QueuedEvent queued;
+      while ((queued = auditQueue.poll()) != null) {
+        write(queued);
+      }
+      if (event != null) {
+        write(event);
+      }
+    } finally {
+      writeLock.unlock();
+    }
+  }
 
-    if (message == null) {
-      addIpAndPort(
-          ThreadContextProperties.getRemoteAddress(),
-          ThreadContextProperties.getRemotePort(),
-          messageBuilder);
-    } else {
-      HttpServletRequest servletRequest =
-          (HttpServletRequest) message.get(AbstractHTTPDestination.HTTP_REQUEST);
-      // pull out the ip and port of the incoming connection so we know
-      // who is trying to get access
-      if (servletRequest != null) {
-        String clientIP;
-        String clientPort;
-        String xForwardedFor = servletRequest.getHeader(HttpHeaders.X_FORWARDED_FOR);
-        if (StringUtils.isNotEmpty(xForwardedFor)) {
-          // A proxy has set the client information in the x-forwarded-* headers.
-          clientIP = xForwardedFor;
-          clientPort = servletRequest.getHeader(HttpHeaders.X_FORWARDED_PORT);
+  /**
+   * Writes an event with the name of the thread it came from in the {@link #AUDIT_THREAD} context
+   * entry, which the security log pattern shows in place of the name of the writing thread.
+   */
+  private void write(QueuedEvent event) {
+    if (auditLogger.isEnabled(event.level)) {
+      String writingThread = org.apache.logging.log4j.ThreadContext.get(AUDIT_THREAD);
+      org.apache.logging.log4j.ThreadContext.put(AUDIT_THREAD, event.threadName);
+      try {
+        auditLogger.log(event.level, event.toMessage(), event.throwable);
+      } finally {
+        if (writingThread == null) {
+          org.apache.logging.log4j.ThreadContext.remove(AUDIT_THREAD);
         } else {
-          // otherwise the remote_addr/remote_port headers should contain the actual client info
-          clientIP = servletRequest.getRemoteAddr();
-          clientPort = Integer.toString(servletRequest.getRemotePort());
+          org.apache.logging.log4j.ThreadContext.put(AUDIT_THREAD, writingThread);
         }
-        addIpAndPort(clientIP, clientPort, messageBuilder);
-      } else if (MessageUtils.isOutbound(message)) {
-        messageBuilder
-            .append(" Outbound endpoint: ")
-            .append(message.get(Message.ENDPOINT_ADDRESS))
-            .append(", ");
       }
     }
   }
 
+  private String getUser(Subject subject, String javaSubjectUser) {
+    try {
+      if (subject != null) {
+        return subjectOperations.getName(subject, NO_USER);
+      }
+    } catch (Exception e) {
+      // ignore and return NO_USER
+    }
+    return javaSubjectUser != null ? javaSubjectUser : NO_USER;
+  }
+
+  private static String getJavaSubjectUser() {
+    try {
+      javax.security.auth.Subject javaSubject =
+          javax.security.auth.Subject.getSubject(AccessController.getContext());
+      if (javaSubject != null) {
+        Set<UserPrincipal> userPrincipal = javaSubject.getPrincipals(UserPrincipal.class);
+        if (userPrincipal != null && !userPrincipal.isEmpty()) {
+          return userPrincipal.toArray(new UserPrincipal[1])[0].getName();
+        }
+      }
+    } catch (Exception e) {
+      // ignore and return null
+    }
+    return null;
+  }
+
   private void addIpAndPort(String remoteAddress, String remotePort, StringBuilder messageBuilder) {
     if (remoteAddress != null) {
       try {
@@ -194,10 +304,6 @@ private void appendConditionalAttributes(Subject subject, StringBuilder messageB
       return;
     }
 
-    if (subject == null) {
-      subject = ThreadContext.getSubject();
-    }
-
     List<String> attributeList = Arrays.asList(attributes.split(","));
     for (String attribute : attributeList) {
       List<String> attributeValueList = subjectOperations.getAttribute(subject, attribute);
@@ -235,9 +341,7 @@ private String cleanAndEncode(String message) {
    */
   @Override
   public void audit(String message, Subject subject) {
-    StringBuilder messageBuilder = new StringBuilder();
-    appendAdditionalAttributes(subject, PhaseInterceptorChain.getCurrentMessage(), messageBuilder);
-    LOGGER.info(messageBuilder.append(cleanAndEncode(message)).toString());
+    log(new QueuedEvent(Level.INFO, message, subject, null, null, null));
   }
 
   /**
@@ -247,9 +351,7 @@ public void audit(String message, Subject subject) {
    */
   @Override
   public void audit(String message) {
-    StringBuilder messageBuilder = new StringBuilder();
-    appendAdditionalAttributes(PhaseInterceptorChain.getCurrentMessage(), messageBuilder);
-    LOGGER.info(messageBuilder.append(cleanAndEncode(message)).toString());
+    log(new QueuedEvent(Level.INFO, message, null, null, null, null));
   }
 
   /**
@@ -261,9 +363,7 @@ public void audit(String message) {
    */
   @Override
   public void audit(String message, Subject subject, Object... params) {
-    StringBuilder messageBuilder = new StringBuilder();
-    appendAdditionalAttributes(subject, PhaseInterceptorChain.getCurrentMessage(), messageBuilder);
-    LOGGER.info(messageBuilder.append(cleanAndEncode(message)).toString(), params);
+    log(new QueuedEvent(Level.INFO, message, subject, params, null, null));
   }
 
   /**
@@ -274,9 +374,7 @@ public void audit(String message, Subject subject, Object... params) {
    */
   @Override
   public void audit(String message, Object... params) {
-    StringBuilder messageBuilder = new StringBuilder();
-    appendAdditionalAttributes(PhaseInterceptorChain.getCurrentMessage(), messageBuilder);
-    LOGGER.info(messageBuilder.append(cleanAndEncode(message)).toString(), params);
+    log(new QueuedEvent(Level.INFO, message, null, params, null, null));
   }
 
   /**
@@ -290,9 +388,7 @@ public void audit(String message, Object... params) {
    */
   @Override
   public void audit(String message, Subject subject, Supplier... paramSuppliers) {
-    StringBuilder messageBuilder = new StringBuilder();
-    appendAdditionalAttributes(subject, PhaseInterceptorChain.getCurrentMessage(), messageBuilder);
-    LOGGER.info(messageBuilder.append(cleanAndEncode(message)).toString(), paramSuppliers);
+    log(new QueuedEvent(Level.INFO, message, subject, null, paramSuppliers, null));
   }
 
   /**
@@ -305,9 +401,7 @@ public void audit(String message, Subject subject, Supplier... paramSuppliers) {
    */
   @Override
   public void audit(String message, Supplier... paramSuppliers) {
-    StringBuilder messageBuilder = new StringBuilder();
-    appendAdditionalAttributes(PhaseInterceptorChain.getCurrentMessage(), messageBuilder);
-    LOGGER.info(messageBuilder.append(cleanAndEncode(message)).toString(), paramSuppliers);
+    log(new QueuedEvent(Level.INFO, message, null, null, paramSuppliers, null));
   }
 
   /**
@@ -320,9 +414,7 @@ public void audit(String message, Supplier... paramSuppliers) {
    */
   @Override
   public void audit(String message, Subject subject, Throwable t) {
-    StringBuilder messageBuilder = new StringBuilder();
-    appendAdditionalAttributes(subject, PhaseInterceptorChain.getCurrentMessage(), messageBuilder);
-    LOGGER.info(messageBuilder.append(cleanAndEncode(message)).toString(), t);
+    log(new QueuedEvent(Level.INFO, message, subject, null, null, t));
   }
 
   /**
@@ -334,9 +426,7 @@ public void audit(String message, Subject subject, Throwable t) {
    */
   @Override
   public void audit(String message, Throwable t) {
-    StringBuilder messageBuilder = new StringBuilder();
-    appendAdditionalAttributes(PhaseInterceptorChain.getCurrentMessage(), messageBuilder);
-    LOGGER.info(messageBuilder.append(cleanAndEncode(message)).toString(), t);
+    log(new QueuedEvent(Level.INFO, message, null, null, null, t));
   }
 
   /**
@@ -347,9 +437,7 @@ public void audit(String message, Throwable t) {
    */
   @Override
   public void auditWarn(String message, Subject subject) {
-    StringBuilder messageBuilder = new StringBuilder();
-    appendAdditionalAttributes(subject, PhaseInterceptorChain.getCurrentMessage(), messageBuilder);
-    LOGGER.warn(messageBuilder.append(cleanAndEncode(message)).toString());
+    log(new QueuedEvent(Level.WARN, message, subject, null, null, null));
   }
 
   /**
@@ -359,9 +447,7 @@ public void auditWarn(String message, Subject subject) {
    */
   @Override
   public void auditWarn(String message) {
-    StringBuilder messageBuilder = new StringBuilder();
-    appendAdditionalAttributes(PhaseInterceptorChain.getCurrentMessage(), messageBuilder);
-    LOGGER.warn(messageBuilder.append(cleanAndEncode(message)).toString());
+    log(new QueuedEvent(Level.WARN, message, null, null, null, null));
   }
 
   /**
@@ -373,9 +459,7 @@ public void auditWarn(String message) {
    */
   @Override
   public void auditWarn(String message, Subject subject, Object... params) {
-    StringBuilder messageBuilder = new StringBuilder();
-    appendAdditionalAttributes(subject, PhaseInterceptorChain.getCurrentMessage(), messageBuilder);
-    LOGGER.warn(messageBuilder.append(cleanAndEncode(message)).toString(), params);
+    log(new QueuedEvent(Level.WARN, message, subject, params, null, null));
   }
 
   /**
@@ -386,9 +470,7 @@ public void auditWarn(String message, Subject subject, Object... params) {
    */
   @Override
   public void auditWarn(String message, Object... params) {
-    StringBuilder messageBuilder = new StringBuilder();
-    appendAdditionalAttributes(PhaseInterceptorChain.getCurrentMessage(), messageBuilder);
-    LOGGER.warn(messageBuilder.append(cleanAndEncode(message)).toString(), params);
+    log(new QueuedEvent(Level.WARN, message, null, params, null, null));
   }
 
   /**
@@ -402,9 +484,7 @@ public void auditWarn(String message, Object... params) {
    */
   @Override
   public void auditWarn(String message, Subject subject, Supplier... paramSuppliers) {
-    StringBuilder messageBuilder = new StringBuilder();
-    appendAdditionalAttributes(subject, PhaseInterceptorChain.getCurrentMessage(), messageBuilder);
-    LOGGER.warn(messageBuilder.append(cleanAndEncode(message)).toString(), paramSuppliers);
+    log(new QueuedEvent(Level.WARN, message, subject, null, paramSuppliers, null));
   }
 
   /**
@@ -417,9 +497,7 @@ public void auditWarn(String message, Subject subject, Supplier... paramSupplier
    */
   @Override
   public void auditWarn(String message, Supplier... paramSuppliers) {
-    StringBuilder messageBuilder = new StringBuilder();
-    appendAdditionalAttributes(PhaseInterceptorChain.getCurrentMessage(), messageBuilder);
-    LOGGER.warn(messageBuilder.append(cleanAndEncode(message)).toString(), paramSuppliers);
+    log(new QueuedEvent(Level.WARN, message, null, null, paramSuppliers, null));
   }
 
   /**
@@ -432,9 +510,7 @@ public void auditWarn(String message, Supplier... paramSuppliers) {
    */
   @Override
   public void auditWarn(String message, Subject subject, Throwable t) {
-    StringBuilder messageBuilder = new StringBuilder();
-    appendAdditionalAttributes(subject, PhaseInterceptorChain.getCurrentMessage(), messageBuilder);
-    LOGGER.warn(messageBuilder.append(cleanAndEncode(message)).toString(), t);
+    log(new QueuedEvent(Level.WARN, message, subject, null, null, t));
   }
 
   /**
@@ -446,8 +522,239 @@ public void auditWarn(String message, Subject subject, Throwable t) {
    */
   @Override
   public void auditWarn(String message, Throwable t) {
-    StringBuilder messageBuilder = new StringBuilder();
-    appendAdditionalAttributes(PhaseInterceptorChain.getCurrentMessage(), messageBuilder);
-    LOGGER.warn(messageBuilder.append(cleanAndEncode(message)).toString(), t);
+    log(new QueuedEvent(Level.WARN, message, null, null, null, t));
+  }
+
+  /**
+   * Logs an audit event at the {@link org.apache.logging.log4j.Level#INFO INFO} level. The event is
+   * rendered when it is written.
+   *
+   * @param event the event to log
+   */
+  @Override
+  public void audit(AuditEvent event) {
+    log(new QueuedEvent(Level.INFO, event));
+  }
+
+  /**
+   * Logs an audit event at the {@link org.apache.logging.log4j.Level#WARN WARN} level. The event is
+   * rendered when it is written.
+   *
+   * @param event the event to log
+   */
+  @Override
+  public void auditWarn(AuditEvent event) {
+    log(new QueuedEvent(Level.WARN, event));
+  }
+
+  /**
+   * Copies message parameters so that later changes to them are not written. Parameters that can be
+   * changed are formatted on the calling thread; immutable ones are formatted when written.
+   */
+  private static Object[] snapshot(Object[] params) {
+    if (params == null) {
+      return null;
+    }
+    Object[] snapshot = new Object[params.length];
+    for (int i = 0; i < params.length; i++) {
+      Object param = params[i];
+      snapshot[i] =
+          param == null
+                  || param instanceof Enum
+                  || (i == params.length - 1 && param instanceof Throwable)
+                  || IMMUTABLE_PARAM_TYPES.contains(param.getClass())
+              ? param
+              : String.valueOf(param);
+    }
+    return snapshot;
+  }
+
+  /** An audit message, with what it needs from the thread it was logged on. */
+  private final class QueuedEvent {
+
+    private final Level level;
+
+    private final String message;
+
+    private final AuditEvent event;
+
+    private final Object[] params;
+
+    private final Throwable throwable;
+
+    private final Subject subject;
+
+    private final String javaSubjectUser;
+
+    private final String traceId;
+
+    private final List<Pair<String, String>> auditProperties;
+
+    private final boolean hasClientAddress;
+
+    private final String clientIp;
+
+    private final String clientPort;
+
+    private final Object outboundEndpoint;
+
+    private final String threadName;
+
+    private final long timeMillis;
+
+    private QueuedEvent(Level level, AuditEvent event) {
+      this(level, null, event, null, null, null, null);
+    }
+
+    private QueuedEvent(
+        Level level,
+        String message,
+        Subject subject,
+        Object[] params,
+        Supplier[] paramSuppliers,
+        Throwable throwable) {
+      this(level, message, null, subject, params, paramSuppliers, throwable);
+    }
+
+    private QueuedEvent(
+        Level level,
+        String message,
+        AuditEvent event,
+        Subject subject,
+        Object[] params,
+        Supplier[] paramSuppliers,
+        Throwable throwable) {
+      this.timeMillis = System.currentTimeMillis();
+      this.level = level;
+      this.message = message;
+      this.event = event;
+      // suppliers are called here, as they may read state that changes once this call returns
+      this.params =
+          paramSuppliers != null
+              ? auditLogger.isEnabled(level) ? snapshot(LambdaUtil.getAll(paramSuppliers)) : null
+              : snapshot(params);
+      this.throwable = throwable;
+      this.subject = subject != null ? subject : ThreadContext.getSubject();
+      this.javaSubjectUser = this.subject == null ? getJavaSubjectUser() : null;
+      this.traceId = ThreadContextProperties.getTraceId();
+      this.auditProperties =
+          auditPropertiesPlugins.stream()
+              .map(AuditPropertiesPlugin::generate)
+              .filter(Objects::nonNull)
+              .collect(Collectors.toList());
+      this.threadName = Thread.currentThread().getName();
+
+      org.apache.cxf.message.Message cxfMessage = PhaseInterceptorChain.getCurrentMessage();
+      if (cxfMessage == null) {
+        hasClientAddress = true;
+        clientIp = ThreadContextProperties.getRemoteAddress();
+        clientPort = ThreadContextProperties.getRemotePort();
+        outboundEndpoint = null;
+        return;
+      }
+
+      HttpServletRequest servletRequest =
+          (HttpServletRequest) cxfMessage.get(AbstractHTTPDestination.HTTP_REQUEST);
+      // pull out the ip and port of the incoming connection so we know
+      // who is trying to get access
+      if (servletRequest != null) {
+        hasClientAddress = true;
+        String xForwardedFor = servletRequest.getHeader(HttpHeaders.X_FORWARDED_FOR);
+        if (StringUtils.isNotEmpty(xForwardedFor)) {
+          // A proxy has set the client information in the x-forwarded-* headers.
+          clientIp = xForwardedFor;
+          clientPort = servletRequest.getHeader(HttpHeaders.X_FORWARDED_PORT);
+        } else {
+          // otherwise the remote_addr/remote_port headers should contain the actual client info
+          clientIp = servletRequest.getRemoteAddr();
+          clientPort = Integer.toString(servletRequest.getRemotePort());
+        }
+        outboundEndpoint = null;
+      } else {
+        hasClientAddress = false;
+        clientIp = null;
+        clientPort = null;
+        outboundEndpoint =
+            MessageUtils.isOutbound(cxfMessage)
+                ? cxfMessage.get(org.apache.cxf.message.Message.ENDPOINT_ADDRESS)
+                : null;
+      }
+    }
+
+    private Message toMessage() {
+      String rendered = render();
+      return new AuditMessage(
+          params != null ? new ParameterizedMessage(rendered, params) : new SimpleMessage(rendered),
+          timeMillis);
+    }
+
+    private String render() {
+      StringBuilder messageBuilder = new StringBuilder();
+      messageBuilder
+          .append(TRACE_ID)
+          .append(" ")
+          .append(StringUtils.isNotEmpty(traceId) ? traceId : "none")
+          .append(", ");
+
+      String additionAuditProperties =
+          auditProperties.stream()
+              .map(pair -> pair.getKey() + " " + pair.getValue())
+              .collect(Collectors.joining(", "));
+      if (StringUtils.isNotEmpty(additionAuditProperties)) {
+        messageBuilder.append(additionAuditProperties).append(", ");
+      }
+
+      messageBuilder.append(SUBJECT).append(getUser(subject, javaSubjectUser)).append(", ");
+      appendConditionalAttributes(subject, messageBuilder);
+
+      if (hasClientAddress) {
+        addIpAndPort(clientIp, clientPort, messageBuilder);
+      } else if (outboundEndpoint != null) {
+        messageBuilder.append(" Outbound endpoint: ").append(outboundEndpoint).append(", ");
+      }
+      return messageBuilder
+          .append(cleanAndEncode(event != null ? event.render() : message))
+          .toString();
+    }
+  }
+
+  /** A message that is logged with the time of the audit event rather than when it is written. */
+  private static final class AuditMessage implements Message, TimestampMessage {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Message message;
+
+    private final long timeMillis;
+
+    private AuditMessage(Message message, long timeMillis) {
+      this.message = message;
+      this.timeMillis = timeMillis;
+    }
+
+    @Override
+    public String getFormattedMessage() {
+      return message.getFormattedMessage();
+    }
+
+    @Override
+    public String getFormat() {
+      return message.getFormat();
+    }
+
+    @Override
+    public Object[] getParameters() {
+      return message.getParameters();
+    }
+
+    @Override
+    public Throwable getThrowable() {
+      return message.getThrowable();
+    }
+
+    @Override
+    public long getTimestamp() {
+      return timeMillis;
+    }
   }
 }
@@ -0,0 +1,239 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.security.audit.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.nullable;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import ddf.security.SubjectOperations;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.message.Message;
+import org.apache.logging.log4j.message.TimestampMessage;
+import org.apache.logging.log4j.util.Supplier;
+import org.apache.shiro.subject.Subject;
+import org.apache.shiro.util.ThreadContext;
+import org.codice.ddf.security.util.ThreadContextProperties;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SecurityLoggerImplTest {
+
+  private final SubjectOperations subjectOperations = mock(SubjectOperations.class);
+
+  private final Logger auditLogger = mock(Logger.class);
+
+  private final List<Message> messages = new ArrayList<>();
+
+  private final List<Thread> writerThreads = new ArrayList<>();
+
+  private final List<String> auditThreads = new ArrayList<>();
+
+  /** Writes on threads other than the test thread wait for this before they are made. */
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  private final CountDownLatch writing = new CountDownLatch(1);
+
+  private final Thread testThread = Thread.currentThread();
+
+  private SecurityLoggerImpl securityLogger;
+
+  @Before
+  public void setUp() {
+    when(auditLogger.isEnabled(any(Level.class))).thenReturn(true);
+    doAnswer(
+            invocation -> {
+              writing.countDown();
+              if (Thread.currentThread() != testThread) {
+                release.await();
+              }
+              synchronized (messages) {
+                messages.add(invocation.getArgument(1));
+                writerThreads.add(Thread.currentThread());
+                auditThreads.add(
+                    org.apache.logging.log4j.ThreadContext.get(SecurityLoggerImpl.AUDIT_THREAD));
+              }
+              return null;
+            })
+        .when(auditLogger)
+        .log(any(Level.class), any(Message.class), nullable(Throwable.class));
+    securityLogger = new SecurityLoggerImpl(subjectOperations, auditLogger, 1);
+  }
+
+  @After
+  public void tearDown() {
+    release.countDown();
+    securityLogger.stop();
+    ThreadContext.remove();
+  }
+
+  @Test
+  public void testMessagesAreWrittenOnCallingThreadUntilStarted() {
+    securityLogger.audit("first");
+
+    assertThat(writtenMessages(), contains(containsString("first")));
+    assertThat(writerThreads, contains(testThread));
+  }
+
+  @Test
+  public void testMessagesAreQueuedOnceStarted() throws InterruptedException {
+    securityLogger.start();
+    securityLogger.audit("first");
+    assertThat(writing.await(10, TimeUnit.SECONDS), is(true));
+    release.countDown();
+    securityLogger.stop();
+
+    assertThat(writtenMessages(), contains(containsString("first")));
+    assertThat(writerThreads.get(0), is(not(testThread)));
+  }
+
+  @Test
+  public void testMessagesKeepTheirOrderWhenQueueIsFull() throws InterruptedException {
+    securityLogger.start();
+    securityLogger.audit("first");
+    assertThat(writing.await(10, TimeUnit.SECONDS), is(true));
+    // the writer thread is writing the first message, so the second fills the queue
+    securityLogger.audit("second");
+    Thread overflow = new Thread(() -> securityLogger.audit("third"));
+    overflow.start();
+    while (overflow.getState() != Thread.State.WAITING) {
+      // wait for the third message to wait on the writer thread
+      Thread.sleep(10);
+    }
+
+    release.countDown();
+    overflow.join(TimeUnit.SECONDS.toMillis(10));
+    securityLogger.stop();
+
+    assertThat(
+        writtenMessages(),
+        contains(containsString("first"), containsString("second"), containsString("third")));
+  }
+
+  @Test
+  public void testStopWritesQueuedMessages() throws InterruptedException {
+    securityLogger.start();
+    securityLogger.audit("first");
+    assertThat(writing.await(10, TimeUnit.SECONDS), is(true));
+    securityLogger.audit("second");
+
+    release.countDown();
+    securityLogger.stop();
+
+    assertThat(writtenMessages(), contains(containsString("first"), containsString("second")));
+  }
+
+  @Test
+  public void testMessagesAreWrittenWithTheContextTheyWereLoggedIn() throws InterruptedException {
+    Subject subject = mock(Subject.class);
+    when(subjectOperations.getName(subject, "UNKNOWN")).thenReturn("alice");
+    ThreadContext.bind(subject);
+    String traceId = ThreadContextProperties.addTraceId();
+    ThreadContextProperties.addClientInfo("10.1.2.3", null, "8993", null);
+
+    securityLogger.start();
+    long before = System.currentTimeMillis();
+    securityLogger.audit("first");
+    long after = System.currentTimeMillis();
+    ThreadContext.remove();
+    assertThat(writing.await(10, TimeUnit.SECONDS), is(true));
+    Thread.sleep(50);
+    release.countDown();
+    securityLogger.stop();
+
+    String written = writtenMessages().get(0);
+    assertThat(written, containsString("trace-id " + traceId));
+    assertThat(written, containsString("Subject: alice"));
+    assertThat(written, containsString("Client IP: 10.1.2.3, Port: 8993"));
+    long timestamp = ((TimestampMessage) messages.get(0)).getTimestamp();
+    assertThat(before, is(lessThanOrEqualTo(timestamp)));
+    assertThat(timestamp, is(lessThanOrEqualTo(after)));
+  }
+
+  @Test
+  public void testMessagesAreWrittenWithTheNameOfTheThreadTheyWereLoggedOn()
+      throws InterruptedException {
+    securityLogger.start();
+    securityLogger.audit("first");
+    assertThat(writing.await(10, TimeUnit.SECONDS), is(true));
+    release.countDown();
+    securityLogger.stop();
+
+    assertThat(writerThreads.get(0), is(not(testThread)));
+    assertThat(writerThreads.get(0).getName(), is(not(testThread.getName())));
+    assertThat(auditThreads, contains(testThread.getName()));
+    assertThat(
+        org.apache.logging.log4j.ThreadContext.get(SecurityLoggerImpl.AUDIT_THREAD),
+        is(nullValue()));
+  }
+
+  @Test
+  public void testParametersAreCapturedWhenLogged() throws InterruptedException {
+    List<String> ids = new ArrayList<>(Collections.singletonList("1"));
+    securityLogger = new SecurityLoggerImpl(subjectOperations, auditLogger, 4);
+    securityLogger.start();
+    securityLogger.audit("first");
+    assertThat(writing.await(10, TimeUnit.SECONDS), is(true));
+    securityLogger.audit("second {} {}", ids, 2);
+    securityLogger.audit("third {}", (Supplier) ids::toString);
+    ids.add("2");
+
+    release.countDown();
+    securityLogger.stop();
+
+    assertThat(
+        writtenMessages(),
+        contains(
+            containsString("first"), containsString("second [1] 2"), containsString("third [1]")));
+  }
+
+  @Test
+  public void testAuditEventsAreRenderedWhenWritten() throws InterruptedException {
+    StringBuilder text = new StringBuilder("first");
+    securityLogger.start();
+    securityLogger.audit("waiting");
+    assertThat(writing.await(10, TimeUnit.SECONDS), is(true));
+    securityLogger.auditWarn(text::toString);
+    text.append("\nforged");
+
+    release.countDown();
+    securityLogger.stop();
+
+    assertThat(
+        writtenMessages(), contains(containsString("waiting"), containsString("first_forged")));
+  }
+
+  private List<String> writtenMessages() {
+    synchronized (messages) {
+      return messages.stream().map(Message::getFormattedMessage).collect(Collectors.toList());
+    }
+  }
+}
@@ -0,0 +1,28 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.security.audit;
+
+/**
+ * A security audit event that is captured when it is logged and only rendered as text when it is
+ * written, which may be later and on another thread.
+ *
+ * <p>An event must capture everything it renders when it is created, and only hold values that are
+ * not changed afterwards, such as strings, boxed primitives and copies of arrays or collections.
+ */
+@FunctionalInterface
+public interface AuditEvent {
+
+  /** @return the text of the event, as it is written to the security log */
+  String render();
+}
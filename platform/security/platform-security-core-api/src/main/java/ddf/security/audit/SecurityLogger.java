@@ -49,4 +49,22 @@ public interface SecurityLogger {
   void auditWarn(String message, Subject subject, Throwable t);
 
   void auditWarn(String message, Throwable t);
+
+  /**
+   * Logs an audit event at the INFO level. The event may be rendered and written on another thread.
+   *
+   * @param event the event to log
+   */
+  default void audit(AuditEvent event) {
+    audit(event.render());
+  }
+
+  /**
+   * Logs an audit event at the WARN level. The event may be rendered and written on another thread.
+   *
+   * @param event the event to log
+   */
+  default void auditWarn(AuditEvent event) {
+    auditWarn(event.render());
+  }
 }
@@ -0,0 +1,210 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.security.policy.context.impl;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+import org.codice.ddf.security.policy.context.ContextPolicy;
+
+/**
+ * An immutable trie of context paths, split into their {@code /} separated segments, that finds the
+ * policy of a request path without allocating.
+ *
+ * <p>A path resolves to the policy or white listed context of its longest matching parent context,
+ * where the parents of a path are the ones {@link PolicyManager#rollbackPath(String)} walks through
+ * one at a time: the path without its last segment, or without its trailing slashes. A match that
+ * is more than {@code traversalDepth + 1} of those steps away from the path resolves to the root
+ * policy, as do paths that match nothing and paths that do not start with {@code /}.
+ */
+class ContextPolicyTrie {
+
+  private static final char SEPARATOR = '/';
+
+  private final Node root;
+
+  private final ContextPolicy rootPolicy;
+
+  /**
+   * @param policies the policies by context path. The {@code /} policy is the root policy.
+   * @param whiteListContexts the context paths that have no policy. A context path with a policy is
+   *     not white listed.
+   */
+  ContextPolicyTrie(Map<String, ContextPolicy> policies, Collection<String> whiteListContexts) {
+    this.rootPolicy = policies.get(String.valueOf(SEPARATOR));
+
+    Builder builder = new Builder();
+    for (String whiteListContext : whiteListContexts) {
+      if (isContextPath(whiteListContext)) {
+        builder.add(whiteListContext).whiteListed = true;
+      }
+    }
+    policies.forEach(
+        (path, policy) -> {
+          if (isContextPath(path)) {
+            builder.add(path).policy = policy;
+          }
+        });
+    this.root = builder.build();
+  }
+
+  /**
+   * @param path the request path
+   * @param traversalDepth the most parents, less one, to walk through to find a match
+   * @return the policy of {@code path}, or null if it is white listed
+   */
+  ContextPolicy getContextPolicy(String path, int traversalDepth) {
+    if (!isContextPath(path)) {
+      return rootPolicy;
+    }
+
+    int length = path.length();
+    Node node = root;
+    Node match = null;
+    int matchEnd = 0;
+    int start = 1;
+    while (node != null) {
+      int end = segmentEnd(path, start);
+      node = node.child(path, start, end);
+      if (node == null) {
+        break;
+      }
+
+      // a path ending in an empty segment is only reached when it is the whole path or when the
+      // next segment is removed from it
+      boolean reached = end == length || end > start || segmentEnd(path, end + 1) > end + 1;
+      if (reached && node.hasValue()) {
+        match = node;
+        matchEnd = end;
+      }
+      if (end == length) {
+        break;
+      }
+      start = end + 1;
+    }
+
+    if (match == null || countSteps(path, matchEnd) > traversalDepth + 1) {
+      return rootPolicy;
+    }
+    return match.policy;
+  }
+
+  /** Counts the parents {@code path} walks through to get to the path ending at {@code end}. */
+  private static int countSteps(String path, int end) {
+    int length = path.length();
+    int steps = 0;
+    boolean emptySegment = path.charAt(end - 1) == SEPARATOR;
+    while (end < length) {
+      int nextEnd = segmentEnd(path, end + 1);
+      boolean nextEmptySegment = nextEnd == end + 1;
+      if (!emptySegment || !nextEmptySegment) {
+        steps++;
+      }
+      emptySegment = nextEmptySegment;
+      end = nextEnd;
+    }
+    return steps;
+  }
+
+  private static int segmentEnd(String path, int start) {
+    int end = path.indexOf(SEPARATOR, start);
+    return end < 0 ? path.length() : end;
+  }
+
+  private static boolean isContextPath(String path) {
+    return path != null && path.length() > 1 && path.charAt(0) == SEPARATOR;
+  }
+
+  private static class Node {
+
+    private final String[] segments;
+
+    private final Node[] children;
+
+    private final ContextPolicy policy;
+
+    private final boolean whiteListed;
+
+    private Node(String[] segments, Node[] children, ContextPolicy policy, boolean whiteListed) {
+      this.segments = segments;
+      this.children = children;
+      this.policy = policy;
+      this.whiteListed = whiteListed;
+    }
+
+    private boolean hasValue() {
+      return policy != null || whiteListed;
+    }
+
+    /**
+     * Binary searches the segments, which are in {@link String#compareTo(String)} order, for {@code
+     * path[start, end)}.
+     */
+    private Node child(String path, int start, int end) {
+      int low = 0;
+      int high = segments.length - 1;
+      while (low <= high) {
+        int middle = (low + high) >>> 1;
+        int comparison = compare(segments[middle], path, start, end);
+        if (comparison < 0) {
+          low = middle + 1;
+        } else if (comparison > 0) {
+          high = middle - 1;
+        } else {
+          return children[middle];
+        }
+      }
+      return null;
+    }
+
+    private static int compare(String segment, String path, int start, int end) {
+      int length = Math.min(segment.length(), end - start);
+      for (int i = 0; i < length; i++) {
+        int difference = segment.charAt(i) - path.charAt(start + i);
+        if (difference != 0) {
+          return difference;
+        }
+      }
+      return segment.length() - (end - start);
+    }
+  }
+
+  private static class Builder {
+
+    private final Map<String, Builder> children = new TreeMap<>();
+
+    private ContextPolicy policy;
+
+    private boolean whiteListed;
+
+    private Builder add(String path) {
+      Builder builder = this;
+      int start = 1;
+      while (true) {
+        int end = segmentEnd(path, start);
+        builder = builder.children.computeIfAbsent(path.substring(start, end), s -> new Builder());
+        if (end == path.length()) {
+          return builder;
+        }
+        start = end + 1;
+      }
+    }
+
+    private Node build() {
+      String[] segments = children.keySet().toArray(new String[0]);
+      Node[] nodes = children.values().stream().map(Builder::build).toArray(Node[]::new);
+      return new Node(segments, nodes, policy, whiteListed && policy == null);
+    }
+  }
+}
@@ -71,9 +71,11 @@ public class PolicyManager implements ContextPolicyManager {
 
   private static final int MAX_TRAVERSAL_DEPTH = 500;
 
-  private Map<String, ContextPolicy> policyStore = new HashMap<>();
+  private volatile Map<String, ContextPolicy> policyStore = new HashMap<>();
 
-  private List<String> whiteListContexts = new ArrayList<>();
+  private volatile List<String> whiteListContexts = new ArrayList<>();
+
+  private volatile ContextPolicyTrie policyTrie;
 
   private ContextPolicy defaultPolicy =
       new Policy(ROOT_CONTEXT, new ArrayList<>(), new ArrayList<>());
@@ -98,35 +100,18 @@ public class PolicyManager implements ContextPolicyManager {
 
   public PolicyManager() {
     policyStore.put(ROOT_CONTEXT, defaultPolicy);
+    policyTrie = new ContextPolicyTrie(policyStore, whiteListContexts);
   }
 
+  /**
+   * Resolves the policy of the given path to the policy of its longest matching parent context. The
+   * policies are held in a {@link ContextPolicyTrie} that is rebuilt whenever the policies or white
+   * listed contexts change, so resolving a path neither copies the policy store nor allocates
+   * substrings of the path.
+   */
   @Override
   public ContextPolicy getContextPolicy(String path) {
-    return getContextPolicy(path, getPolicyStore(), getWhiteListContexts(), 0);
-  }
-
-  private ContextPolicy getContextPolicy(
-      String path,
-      Map<String, ContextPolicy> policyStore,
-      List<String> whiteListContexts,
-      int depth) {
-    ContextPolicy entry;
-    entry = policyStore.get(path);
-
-    if (entry != null) {
-      return entry;
-    } else if (whiteListContexts.contains(path)) {
-      return null;
-    } else {
-      String pathFragment = rollbackPath(path);
-      if (StringUtils.isNotEmpty(pathFragment) && depth <= traversalDepth) {
-        return getContextPolicy(pathFragment, policyStore, whiteListContexts, ++depth);
-      } else {
-        // this is just here for safety
-        // if we get down to the point where we can never get an entry, return the default
-        return policyStore.get(ROOT_CONTEXT);
-      }
-    }
+    return policyTrie.getContextPolicy(path, traversalDepth);
   }
 
   @Override
@@ -294,10 +279,27 @@ private void setPolicyStore(
       List<String> contextAuthTypes = getContextAuthTypes(path, allContextsToAuths);
       List<ContextAttributeMapping> contextReqAttrs = getContextReqAttrs(path, allContextsToAttrs);
 
-      newPolicyStore.put(path, new Policy(path, contextAuthTypes, contextReqAttrs));
+      newPolicyStore.put(
+          path,
+          new Policy(
+              path,
+              Collections.unmodifiableList(new ArrayList<>(contextAuthTypes)),
+              Collections.unmodifiableList(new ArrayList<>(contextReqAttrs))));
     }
 
+    updatePolicies(newPolicyStore, whiteListContexts);
+  }
+
+  /**
+   * Replaces the policy store and white listed contexts, rebuilding the trie the policies are
+   * resolved with. Policies are shared by the requests they are resolved for, so they are not
+   * modified once they are in the store.
+   */
+  private synchronized void updatePolicies(
+      Map<String, ContextPolicy> newPolicyStore, List<String> newWhiteListContexts) {
+    policyTrie = new ContextPolicyTrie(newPolicyStore, newWhiteListContexts);
     policyStore = newPolicyStore;
+    whiteListContexts = newWhiteListContexts;
   }
 
   /**
@@ -329,7 +331,7 @@ public List<String> getWhiteListContexts() {
   public void setWhiteListContexts(List<String> contexts) {
     LOGGER.debug("setWhiteListContexts(List<String>) called with {}", contexts);
     if (contexts != null && !contexts.isEmpty()) {
-      this.whiteListContexts = PropertyResolver.resolveProperties(contexts);
+      updatePolicies(policyStore, PropertyResolver.resolveProperties(contexts));
     }
   }
 
@@ -306,6 +306,69 @@ public void testFindContextPaths() {
     assertThat(manager.isWhiteListed("/foo/bar"), is(false));
   }
 
+  @Test
+  public void testPoliciesResolveLikeRollingBackPaths() {
+    manager.setContextPolicy("/a/", new Policy("/a/", new ArrayList<>(), null));
+    manager.setContextPolicy("/a//b", new Policy("/a//b", new ArrayList<>(), null));
+    manager.setWhiteListContexts(Arrays.asList("/foo", "/search/standard/open", "/a/b"));
+    Map<String, ContextPolicy> policyStore = manager.getPolicyStore();
+    List<String> whiteListContexts = manager.getWhiteListContexts();
+
+    List<String> paths =
+        Arrays.asList(
+            "",
+            "/",
+            "//",
+            "/a",
+            "/a/",
+            "/a//",
+            "/a//b",
+            "/a//b/",
+            "/a///b",
+            "/a/b",
+            "/a/b/c",
+            "/a//c",
+            "/foo/",
+            "/foo//bar",
+            "/search/standard/open/x",
+            "/search/standard/openx",
+            "/search//standard",
+            "/1/2/3/4/5/6/7/8/9/10/11/12",
+            "/1/2/3/4/5/6/7/8/9/10/11/12/13",
+            "/1/2/3/4/5/6/7/8/9/10/11/12/13/",
+            "/1/2/3/4/5/6/7/8/9/10/11/12//",
+            "/1/2/3//4/5/6/7/8/9/10/11/12",
+            "/1/2/3/4/5/6/7/8/9/10/11/12/13/14/15/16/17/18/19/20/21/22/23/24/25/26");
+
+    for (String path : paths) {
+      ContextPolicy expected = rollBack(path, policyStore, whiteListContexts, 0);
+      ContextPolicy actual = manager.getContextPolicy(path);
+      assertThat(
+          path,
+          actual == null ? null : actual.getContextPath(),
+          is(expected == null ? null : expected.getContextPath()));
+    }
+  }
+
+  /** Resolves a policy by rolling back the path one parent at a time. */
+  private ContextPolicy rollBack(
+      String path,
+      Map<String, ContextPolicy> policyStore,
+      List<String> whiteListContexts,
+      int depth) {
+    if (policyStore.containsKey(path)) {
+      return policyStore.get(path);
+    }
+    if (whiteListContexts.contains(path)) {
+      return null;
+    }
+    String pathFragment = manager.rollbackPath(path);
+    if (!pathFragment.isEmpty() && depth <= 10) {
+      return rollBack(pathFragment, policyStore, whiteListContexts, depth + 1);
+    }
+    return policyStore.get("/");
+  }
+
   @Test
   public void testConfiguration() {
     Map<String, Object> properties = new HashMap<>();
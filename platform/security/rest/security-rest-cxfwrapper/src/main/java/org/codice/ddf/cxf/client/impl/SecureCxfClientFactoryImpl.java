@@ -77,6 +77,7 @@
 import org.codice.ddf.configuration.SystemBaseUrl;
 import org.codice.ddf.cxf.client.SecureCxfClientFactory;
 import org.codice.ddf.cxf.client.interceptor.SubjectRetrievalInterceptor;
+import org.codice.ddf.cxf.client.interceptor.TracingOutInterceptor;
 import org.codice.ddf.cxf.oauth.OAuthOutInterceptor;
 import org.codice.ddf.cxf.oauth.OAuthSecurity;
 import org.codice.ddf.cxf.paos.PaosInInterceptor;
@@ -286,6 +287,7 @@ public void initialize() {
     jaxrsClientFactoryBean.setClassLoader(interfaceClass.getClassLoader());
     jaxrsClientFactoryBean.getInInterceptors().add(new LoggingInInterceptor());
     jaxrsClientFactoryBean.getOutInterceptors().add(new LoggingOutInterceptor());
+    jaxrsClientFactoryBean.getOutInterceptors().add(new TracingOutInterceptor());
 
     if (StringUtils.startsWithIgnoreCase(endpointUrl, HTTPS)) {
       if (useOauth) {
@@ -0,0 +1,62 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.cxf.client.interceptor;
+
+import io.opentelemetry.api.GlobalOpenTelemetry;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.propagation.TextMapSetter;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.apache.cxf.interceptor.Fault;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.phase.AbstractPhaseInterceptor;
+import org.apache.cxf.phase.Phase;
+
+/**
+ * TracingOutInterceptor provides a implementation of {@link AbstractPhaseInterceptor} that adds the
+ * trace context of the current span to the headers of outgoing requests, so that the server the
+ * request is sent to can continue the trace.
+ *
+ * <p>Nothing is added unless an OpenTelemetry SDK or agent has been installed.
+ */
+public class TracingOutInterceptor extends AbstractPhaseInterceptor<Message> {
+
+  private static final TextMapSetter<Map<String, List<String>>> HEADER_SETTER =
+      (headers, key, value) -> headers.put(key, Collections.singletonList(value));
+
+  public TracingOutInterceptor() {
+    super(Phase.PRE_PROTOCOL);
+  }
+
+  @Override
+  public void handleMessage(Message message) throws Fault {
+    Map<String, List<String>> headers = getProtocolHeaders(message);
+    GlobalOpenTelemetry.getPropagators()
+        .getTextMapPropagator()
+        .inject(Context.current(), headers, HEADER_SETTER);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<String, List<String>> getProtocolHeaders(Message message) {
+    Map<String, List<String>> headers =
+        (Map<String, List<String>>) message.get(Message.PROTOCOL_HEADERS);
+    if (headers == null) {
+      headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+      message.put(Message.PROTOCOL_HEADERS, headers);
+    }
+    return headers;
+  }
+}
@@ -0,0 +1,60 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.cxf.client.interceptor;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.sdk.testing.junit4.OpenTelemetryRule;
+import java.util.List;
+import java.util.Map;
+import org.apache.cxf.message.Message;
+import org.apache.cxf.message.MessageImpl;
+import org.junit.Rule;
+import org.junit.Test;
+
+public class TracingOutInterceptorTest {
+
+  @Rule public final OpenTelemetryRule openTelemetryRule = OpenTelemetryRule.create();
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testTraceContextIsAddedToHeaders() {
+    Message message = new MessageImpl();
+    Span span =
+        openTelemetryRule.getOpenTelemetry().getTracer("test").spanBuilder("test").startSpan();
+
+    try (Scope ignored = span.makeCurrent()) {
+      new TracingOutInterceptor().handleMessage(message);
+    } finally {
+      span.end();
+    }
+
+    Map<String, List<String>> headers =
+        (Map<String, List<String>>) message.get(Message.PROTOCOL_HEADERS);
+    assertThat(headers, is(notNullValue()));
+    assertThat(
+        headers.get("TraceParent"),
+        contains(
+            "00-"
+                + span.getSpanContext().getTraceId()
+                + "-"
+                + span.getSpanContext().getSpanId()
+                + "-01"));
+  }
+}
@@ -19,6 +19,7 @@
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.Striped;
 import ddf.security.encryption.crypter.Crypter;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
@@ -31,8 +32,13 @@
 import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.time.Instant;
+import java.util.Base64;
 import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.stream.Stream;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.io.IOUtils;
 import org.codice.ddf.security.token.storage.api.TokenInformation;
@@ -41,12 +47,28 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Stores tokens in encrypted files, one file per ID.
+ *
+ * <p>Decrypted tokens are kept in memory so that they are not read and decrypted from their file
+ * every time they are used. Every change is written through to the file before the cached tokens
+ * are replaced, and the reads and writes of an ID are serialized so that concurrent updates cannot
+ * leave stale tokens in memory. Cached tokens are dropped once all of them have expired, or at the
+ * latest after {@link #MAX_CACHE_SECONDS}, and are read from their file again the next time they
+ * are needed.
+ */
 public class FileSystemTokenStorage implements TokenStorage {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(FileSystemTokenStorage.class);
   private static final String KARAF_HOME = "karaf.home";
+  private static final String EXP = "exp";
+  private static final int LOCK_STRIPES = 64;
+
+  static final long MAX_CACHE_SECONDS = TimeUnit.MINUTES.toSeconds(30);
 
   private final Map<String, Map<String, Object>> stateMap;
+  private final Map<String, CachedTokens> cache = new ConcurrentHashMap<>();
+  private final Striped<Lock> locks = Striped.lock(LOCK_STRIPES);
   private Crypter crypter;
   private Path baseDirectory;
 
@@ -93,25 +115,28 @@ public Map<String, Map<String, Object>> getStateMap() {
   public int create(
       String id, String sourceId, String accessToken, String refreshToken, String discoveryUrl) {
     LOGGER.trace("Create: Updating a Token Storage entry.");
-    String fileName;
+    String hash = hashId(id);
     String json;
 
-    TokenInformation tokenInformation = read(id);
+    Lock lock = locks.get(hash);
+    lock.lock();
+    try {
+      TokenInformation tokenInformation = load(hash);
+
+      if (tokenInformation == null) {
+        // create new entry
+        json = TokenInformationUtil.getJson(sourceId, accessToken, refreshToken, discoveryUrl);
+      } else {
+        // update existing
+        json =
+            TokenInformationUtil.getJson(
+                tokenInformation.getTokenJson(), sourceId, accessToken, refreshToken, discoveryUrl);
+      }
 
-    if (tokenInformation == null) {
-      // create new entry
-      fileName = hashId(id);
-      json = TokenInformationUtil.getJson(sourceId, accessToken, refreshToken, discoveryUrl);
-    } else {
-      // update existing
-      fileName = tokenInformation.getId();
-      json =
-          TokenInformationUtil.getJson(
-              tokenInformation.getTokenJson(), sourceId, accessToken, refreshToken, discoveryUrl);
+      return store(hash, json);
+    } finally {
+      lock.unlock();
     }
-
-    Path contentItemPath = Paths.get(baseDirectory.toAbsolutePath().toString(), fileName);
-    return writeToFile(contentItemPath, json);
   }
 
   /**
@@ -125,13 +150,18 @@ public TokenInformation read(String id) {
     LOGGER.trace("Read: Retrieving a Token Storage entry.");
 
     String hash = hashId(id);
-    Path contentItemPath = Paths.get(baseDirectory.toAbsolutePath().toString(), hash);
+    CachedTokens cachedTokens = cache.get(hash);
+    if (cachedTokens != null && !cachedTokens.isExpired()) {
+      return cachedTokens.tokenInformation;
+    }
 
-    String json = readFromFile(contentItemPath);
-    if (json == null) {
-      return null;
+    Lock lock = locks.get(hash);
+    lock.lock();
+    try {
+      return load(hash);
+    } finally {
+      lock.unlock();
     }
-    return TokenInformationUtil.fromJson(hash, json);
   }
 
   /**
@@ -173,22 +203,19 @@ public boolean isAvailable(String id, String sourceId) {
   @Override
   public int delete(String id) {
     LOGGER.trace("Delete: Deleting Token Storage.");
+    String hash = hashId(id);
 
-    TokenInformation tokenInformation = read(id);
-    if (tokenInformation == null) {
-      return SC_OK;
-    }
-
-    Path contentItemPath =
-        Paths.get(baseDirectory.toAbsolutePath().toString(), tokenInformation.getId());
-
-    // delete file
+    Lock lock = locks.get(hash);
+    lock.lock();
     try {
-      Files.delete(contentItemPath);
-      return SC_OK;
-    } catch (IOException e) {
-      LOGGER.debug("Error deleting token file.", e);
-      return SC_INTERNAL_SERVER_ERROR;
+      TokenInformation tokenInformation = load(hash);
+      if (tokenInformation == null) {
+        return SC_OK;
+      }
+
+      return deleteFile(hash);
+    } finally {
+      lock.unlock();
     }
   }
 
@@ -202,32 +229,86 @@ public int delete(String id) {
   @Override
   public int delete(String id, String sourceId) {
     LOGGER.trace("Delete: Deleting a Token Storage entry.");
+    String hash = hashId(id);
 
-    TokenInformation tokenInformation = read(id);
-    if (tokenInformation == null) {
-      return SC_OK;
+    Lock lock = locks.get(hash);
+    lock.lock();
+    try {
+      TokenInformation tokenInformation = load(hash);
+      if (tokenInformation == null) {
+        return SC_OK;
+      }
+
+      TokenEntry tokenEntry = tokenInformation.getTokenEntries().get(sourceId);
+      if (tokenEntry == null) {
+        return SC_OK;
+      }
+
+      if (tokenInformation.getTokenEntries().size() == 1) {
+        return deleteFile(hash);
+      }
+
+      String json = TokenInformationUtil.removeTokens(tokenInformation.getTokenJson(), sourceId);
+      return store(hash, json);
+    } finally {
+      lock.unlock();
     }
+  }
 
-    TokenEntry tokenEntry = tokenInformation.getTokenEntries().get(sourceId);
-    if (tokenEntry == null) {
-      return SC_OK;
+  /**
+   * Returns the tokens of the given ID hash from the cache, or reads them from their file and
+   * caches them if they are not cached or have expired. Has to be called with the lock of the hash
+   * held.
+   */
+  private TokenInformation load(String hash) {
+    CachedTokens cachedTokens = cache.get(hash);
+    if (cachedTokens != null && !cachedTokens.isExpired()) {
+      return cachedTokens.tokenInformation;
     }
 
-    Path contentItemPath =
-        Paths.get(baseDirectory.toAbsolutePath().toString(), tokenInformation.getId());
-    if (tokenInformation.getTokenEntries().size() == 1) {
-      // delete file
-      try {
-        Files.delete(contentItemPath);
-        return SC_OK;
-      } catch (IOException e) {
-        LOGGER.debug("Error deleting token file.", e);
-        return SC_INTERNAL_SERVER_ERROR;
-      }
+    String json = readFromFile(getPath(hash));
+    if (json == null) {
+      cache.remove(hash);
+      return null;
     }
 
-    String json = TokenInformationUtil.removeTokens(tokenInformation.getTokenJson(), sourceId);
-    return writeToFile(contentItemPath, json);
+    TokenInformation tokenInformation = TokenInformationUtil.fromJson(hash, json);
+    cache.put(hash, new CachedTokens(tokenInformation));
+    return tokenInformation;
+  }
+
+  /**
+   * Writes the tokens of the given ID hash to their file and then replaces the cached tokens. Has
+   * to be called with the lock of the hash held.
+   */
+  private int store(String hash, String json) {
+    int status = writeToFile(getPath(hash), json);
+    if (status == SC_OK) {
+      cache.put(hash, new CachedTokens(TokenInformationUtil.fromJson(hash, json)));
+    } else {
+      // the content of the file is unknown, so it is read again the next time it is needed
+      cache.remove(hash);
+    }
+    return status;
+  }
+
+  /**
+   * Deletes the file of the given ID hash along with its cached tokens. Has to be called with the
+   * lock of the hash held.
+   */
+  private int deleteFile(String hash) {
+    cache.remove(hash);
+    try {
+      Files.delete(getPath(hash));
+      return SC_OK;
+    } catch (IOException e) {
+      LOGGER.debug("Error deleting token file.", e);
+      return SC_INTERNAL_SERVER_ERROR;
+    }
+  }
+
+  private Path getPath(String hash) {
+    return Paths.get(baseDirectory.toAbsolutePath().toString(), hash);
   }
 
   private int writeToFile(Path contentItemPath, String tokenJson) {
@@ -283,5 +364,52 @@ public void setBaseDirectory(String baseDirectory) throws IOException {
     }
 
     this.baseDirectory = directoryPath;
+    cache.clear();
+  }
+
+  /** Decrypted tokens along with the time at which they are dropped from the cache. */
+  private static class CachedTokens {
+
+    private final TokenInformation tokenInformation;
+
+    private final long expiresAt;
+
+    private CachedTokens(TokenInformation tokenInformation) {
+      this.tokenInformation = tokenInformation;
+
+      long latestExpiration =
+          tokenInformation.getTokenEntries().values().stream()
+              .flatMap(entry -> Stream.of(entry.getAccessToken(), entry.getRefreshToken()))
+              .filter(Objects::nonNull)
+              .mapToLong(CachedTokens::getExpiration)
+              .max()
+              .orElse(Long.MAX_VALUE);
+      this.expiresAt =
+          Math.min(latestExpiration, Instant.now().getEpochSecond() + MAX_CACHE_SECONDS);
+    }
+
+    private boolean isExpired() {
+      return Instant.now().getEpochSecond() >= expiresAt;
+    }
+
+    /**
+     * @return the expiration time of the given JWT in seconds since the epoch, or {@link
+     *     Long#MAX_VALUE} if it does not have one
+     */
+    private static long getExpiration(String token) {
+      try {
+        String[] parts = token.split("\\.");
+        if (parts.length < 2) {
+          return Long.MAX_VALUE;
+        }
+
+        String claims = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8);
+        Object exp = TokenInformationUtil.GSON.fromJson(claims, Map.class).get(EXP);
+        return exp instanceof Number ? ((Number) exp).longValue() : Long.MAX_VALUE;
+      } catch (RuntimeException e) {
+        LOGGER.trace("Unable to read the expiration of a token.", e);
+        return Long.MAX_VALUE;
+      }
+    }
   }
 }
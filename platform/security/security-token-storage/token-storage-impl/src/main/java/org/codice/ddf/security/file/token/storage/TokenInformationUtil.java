@@ -62,7 +62,12 @@ static TokenInformation fromJson(String idHash, String json) {
               (String) tokens.get(DISCOVERY_URL)));
     }
 
-    return new TokenInformationImpl(idHash, tokenEntryMap, discoveryUrls, json);
+    // token information is cached and shared between callers, so it cannot be modifiable
+    return new TokenInformationImpl(
+        idHash,
+        Collections.unmodifiableMap(tokenEntryMap),
+        Collections.unmodifiableSet(discoveryUrls),
+        json);
   }
 
   /**
@@ -23,19 +23,26 @@
 import static org.codice.ddf.security.token.storage.api.TokenStorage.SECRET;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.google.common.collect.ImmutableMap;
 import ddf.security.encryption.crypter.Crypter;
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.Base64;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -315,6 +322,97 @@ public void testDeleteOneSource() throws Exception {
     assertFalse(Files.exists(Paths.get(path)));
   }
 
+  @Test
+  public void testReadIsCached() throws Exception {
+    writeTokenFile(tokenJson(ACCESS_TOKEN_VAL, REFRESH_TOKEN_VAL));
+
+    assertEquals(ACCESS_TOKEN_VAL, tokenStorage.read(USERNAME, SOURCE_ID).getAccessToken());
+    assertTrue(tokenStorage.isAvailable(USERNAME, SOURCE_ID));
+    assertEquals(ACCESS_TOKEN_VAL, tokenStorage.read(USERNAME, SOURCE_ID).getAccessToken());
+
+    verify(crypter, times(1)).decrypt(any(InputStream.class));
+  }
+
+  @Test
+  public void testCreateWritesThroughCache() throws Exception {
+    when(crypter.encrypt(any(InputStream.class)))
+        .thenReturn(new ByteArrayInputStream(ENCRYPTED.getBytes()));
+
+    tokenStorage.create(
+        USERNAME, SOURCE_ID, ACCESS_TOKEN_VAL, REFRESH_TOKEN_VAL, DISCOVERY_URL_VAL);
+    TokenInformation.TokenEntry tokenEntry = tokenStorage.read(USERNAME, SOURCE_ID);
+
+    assertEquals(ACCESS_TOKEN_VAL, tokenEntry.getAccessToken());
+    assertEquals(REFRESH_TOKEN_VAL, tokenEntry.getRefreshToken());
+    String path = folder.getRoot().getAbsolutePath() + "/" + USERNAME_HASH;
+    assertTrue(Files.readAllLines(Paths.get(path)).contains(ENCRYPTED));
+  }
+
+  @Test
+  public void testDeleteRemovesCachedTokens() throws Exception {
+    writeTokenFile(tokenJson(ACCESS_TOKEN_VAL, REFRESH_TOKEN_VAL));
+
+    assertTrue(tokenStorage.isAvailable(USERNAME, SOURCE_ID));
+    assertEquals(SC_OK, tokenStorage.delete(USERNAME));
+
+    assertNull(tokenStorage.read(USERNAME));
+    assertFalse(tokenStorage.isAvailable(USERNAME, SOURCE_ID));
+  }
+
+  @Test
+  public void testExpiredTokensAreReadAgain() throws Exception {
+    String expired = jwt(Instant.now().minus(1, ChronoUnit.MINUTES));
+    writeTokenFile(tokenJson(expired, expired));
+
+    tokenStorage.read(USERNAME, SOURCE_ID);
+    tokenStorage.read(USERNAME, SOURCE_ID);
+
+    verify(crypter, times(2)).decrypt(any(InputStream.class));
+  }
+
+  @Test
+  public void testUnexpiredTokensAreCached() throws Exception {
+    String expired = jwt(Instant.now().minus(1, ChronoUnit.MINUTES));
+    String valid = jwt(Instant.now().plus(5, ChronoUnit.MINUTES));
+    writeTokenFile(tokenJson(expired, valid));
+
+    tokenStorage.read(USERNAME, SOURCE_ID);
+    tokenStorage.read(USERNAME, SOURCE_ID);
+
+    verify(crypter, times(1)).decrypt(any(InputStream.class));
+    verify(crypter, never()).encrypt(any(InputStream.class));
+  }
+
+  private void writeTokenFile(String json) throws Exception {
+    Path path = Paths.get(folder.getRoot().getAbsolutePath(), USERNAME_HASH);
+    Files.write(path, ENCRYPTED.getBytes());
+    when(crypter.decrypt(any(InputStream.class)))
+        .thenAnswer(i -> new ByteArrayInputStream(json.getBytes()));
+  }
+
+  private String tokenJson(String accessToken, String refreshToken) {
+    return GSON.toJson(
+        ImmutableMap.of(
+            SOURCE_ID,
+            ImmutableMap.of(
+                ACCESS_TOKEN,
+                accessToken,
+                REFRESH_TOKEN,
+                refreshToken,
+                DISCOVERY_URL,
+                DISCOVERY_URL_VAL)));
+  }
+
+  private String jwt(Instant expiresAt) {
+    Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+    String header = "{\"alg\":\"none\"}";
+    String claims = "{\"exp\":" + expiresAt.getEpochSecond() + "}";
+    return encoder.encodeToString(header.getBytes(StandardCharsets.UTF_8))
+        + "."
+        + encoder.encodeToString(claims.getBytes(StandardCharsets.UTF_8))
+        + ".";
+  }
+
   @Test
   public void testGetStateMap() {
     String state = UUID.randomUUID().toString();
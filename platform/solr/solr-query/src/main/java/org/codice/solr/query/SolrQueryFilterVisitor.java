@@ -90,6 +90,8 @@ public class SolrQueryFilterVisitor extends DefaultFilterVisitor {
 
   private String solrCoreName;
 
+  private boolean usedFallback = false;
+
   public SolrQueryFilterVisitor(SolrClient client, String solrCoreName) {
     this(solrCoreName, new SchemaFieldResolver(client));
   }
@@ -286,11 +288,23 @@ String getMappedPropertyName(String propertyName) {
       // Fallback - treat all fields as String
       mappedPropertyName = getMappedPropertyName(propertyName, AttributeFormat.STRING, true);
       LOGGER.debug("Used fallback to get mappedPropertyName of {}", mappedPropertyName);
+      if (!FIELD_MAP.containsKey(propertyName)) {
+        usedFallback = true;
+      }
     }
 
     return mappedPropertyName;
   }
 
+  /**
+   * @return true if a property that is not yet in the Solr core was mapped to a string field, in
+   *     which case visiting the same filter once the property has been added to the core may give a
+   *     different query
+   */
+  public boolean usedFallback() {
+    return usedFallback;
+  }
+
   private String getMappedPropertyName(
       String propertyName, AttributeFormat format, boolean isSearchedAsExactString) {
     String specialField = FIELD_MAP.get(propertyName);
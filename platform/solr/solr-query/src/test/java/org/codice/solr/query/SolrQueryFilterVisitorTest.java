@@ -170,4 +170,21 @@ public void testGetMappedPropertyNameNullNotCached() {
 
     verify(mockResolver, times(2)).getSchemaField("testField2", true);
   }
+
+  @Test
+  public void testUsedFallback() {
+    SchemaFieldResolver mockResolver = mock(SchemaFieldResolver.class);
+    SchemaField schema = new SchemaField("testField3_int", "tint");
+    schema.setSuffix("_int");
+    when(mockResolver.getSchemaField("testField3", true)).thenReturn(schema);
+    when(mockResolver.getFieldSuffix(AttributeFormat.STRING)).thenReturn("_txt");
+    solrVisitor = new SolrQueryFilterVisitor("alerts", mockResolver);
+
+    solrVisitor.getMappedPropertyName("testField3");
+    solrVisitor.getMappedPropertyName("anyText");
+    assertThat(solrVisitor.usedFallback(), is(false));
+
+    solrVisitor.getMappedPropertyName("testField4");
+    assertThat(solrVisitor.usedFallback(), is(true));
+  }
 }